@@ -1,38 +1,140 @@
 package com.aws.cqrs.api;
 
 import com.aws.cqrs.application.AccountService;
+import com.aws.cqrs.application.RetryPolicy;
 import com.aws.cqrs.domain.Account;
+import com.aws.cqrs.domain.SubLedger;
+import com.aws.cqrs.infrastructure.persistence.AggregateCache;
+import com.aws.cqrs.infrastructure.persistence.DynamoDbCommitEventStore;
 import com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore;
+import com.aws.cqrs.infrastructure.persistence.DynamoDbSnapshotStore;
+import com.aws.cqrs.infrastructure.persistence.EmbeddedMetricsLimitListener;
 import com.aws.cqrs.infrastructure.persistence.EventRepository;
 import com.aws.cqrs.infrastructure.persistence.EventStore;
+import com.aws.cqrs.infrastructure.persistence.HedgingPolicy;
+import com.aws.cqrs.infrastructure.persistence.LimitedDynamoDbAsyncClient;
 import com.aws.cqrs.infrastructure.persistence.Repository;
+import com.aws.cqrs.infrastructure.persistence.SnapshotStore;
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventSerializers;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
 import com.google.gson.Gson;
 import dagger.Module;
 import dagger.Provides;
+import java.time.Duration;
+import java.util.concurrent.Executors;
 import javax.inject.Singleton;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 
 @Module
 public class ApiModule {
+  private static final int DEFAULT_SNAPSHOT_FREQUENCY = 100;
+  private static final int DEFAULT_AGGREGATE_CACHE_SIZE = 1000;
+
+  /** The event store layout that stores each commit as a single item */
+  private static final String COMMIT_LAYOUT = "commit";
 
   @Singleton
   @Provides
   public Gson provideGson() {
-    return new Gson();
+    return EventSerializers.createGson();
+  }
+
+  @Singleton
+  @Provides
+  public EventSerializer provideEventSerializer(Gson gson) {
+    return EventSerializers.create(System.getenv("eventSerializer"), gson);
   }
 
   @Singleton
   @Provides
   public DynamoDbAsyncClient provideDynamoDbAsyncClient() {
-    return DynamoDbAsyncClient.create();
+    return new LimitedDynamoDbAsyncClient(
+        DynamoDbAsyncClient.create(), new EmbeddedMetricsLimitListener(System.out));
   }
 
   @Singleton
   @Provides
-  public AccountService provideAccountService(DynamoDbAsyncClient dynamoDbAsyncClient, Gson gson) {
+  public AccountService provideAccountService(
+      DynamoDbAsyncClient dynamoDbAsyncClient, Gson gson, EventSerializer eventSerializer) {
     String eventStoreTable = System.getenv("eventStoreTable");
-    EventStore eventStore = new DynamoDbEventStore(eventStoreTable, dynamoDbAsyncClient, gson);
-    Repository<Account> accountRepository = new EventRepository<>(Account.class, eventStore);
-    return new AccountService(accountRepository);
+    long groupCommitWindowMillis = getGroupCommitWindowMillis();
+    HedgingPolicy hedgingPolicy = getHedgingPolicy();
+    EventStore eventStore;
+
+    if (COMMIT_LAYOUT.equalsIgnoreCase(System.getenv("eventStoreLayout"))) {
+      // The commit layout neither groups commits nor hedges its reads.
+      if (groupCommitWindowMillis > 0 || hedgingPolicy != null) {
+        throw new IllegalArgumentException(
+            "groupCommitWindowMillis and hedgePercentile aren't supported by the commit layout.");
+      }
+
+      eventStore =
+          new DynamoDbCommitEventStore(eventStoreTable, dynamoDbAsyncClient, eventSerializer);
+    } else {
+      eventStore =
+          new DynamoDbEventStore(
+              eventStoreTable,
+              dynamoDbAsyncClient,
+              eventSerializer,
+              EventTypeRegistry.getDefault(),
+              Duration.ofMillis(groupCommitWindowMillis),
+              hedgingPolicy);
+    }
+
+    String snapshotTable = System.getenv("snapshotTable");
+    SnapshotStore snapshotStore =
+        snapshotTable == null || snapshotTable.isBlank()
+            ? null
+            : new DynamoDbSnapshotStore(snapshotTable, dynamoDbAsyncClient, gson);
+    Repository<Account> accountRepository =
+        new EventRepository<>(
+            Account.class,
+            eventStore,
+            snapshotStore,
+            getSnapshotFrequency(),
+            new AggregateCache(getAggregateCacheSize()));
+
+    int commandMailboxThreads = getCommandMailboxThreads();
+    return new AccountService(
+        accountRepository,
+        RetryPolicy.DEFAULT,
+        commandMailboxThreads > 0 ? Executors.newFixedThreadPool(commandMailboxThreads) : null,
+        new EventRepository<>(SubLedger.class, eventStore));
+  }
+
+  private static HedgingPolicy getHedgingPolicy() {
+    String hedgePercentile = System.getenv("hedgePercentile");
+    return hedgePercentile == null || hedgePercentile.isBlank()
+        ? null
+        : new HedgingPolicy(Double.parseDouble(hedgePercentile), HedgingPolicy.DEFAULT_BUDGET);
+  }
+
+  private static long getGroupCommitWindowMillis() {
+    String groupCommitWindowMillis = System.getenv("groupCommitWindowMillis");
+    return groupCommitWindowMillis == null || groupCommitWindowMillis.isBlank()
+        ? 0
+        : Long.parseLong(groupCommitWindowMillis);
+  }
+
+  private static int getAggregateCacheSize() {
+    String aggregateCacheSize = System.getenv("aggregateCacheSize");
+    return aggregateCacheSize == null || aggregateCacheSize.isBlank()
+        ? DEFAULT_AGGREGATE_CACHE_SIZE
+        : Integer.parseInt(aggregateCacheSize);
+  }
+
+  private static int getCommandMailboxThreads() {
+    String commandMailboxThreads = System.getenv("commandMailboxThreads");
+    return commandMailboxThreads == null || commandMailboxThreads.isBlank()
+        ? 0
+        : Integer.parseInt(commandMailboxThreads);
+  }
+
+  private static int getSnapshotFrequency() {
+    String snapshotFrequency = System.getenv("snapshotFrequency");
+    return snapshotFrequency == null || snapshotFrequency.isBlank()
+        ? DEFAULT_SNAPSHOT_FREQUENCY
+        : Integer.parseInt(snapshotFrequency);
   }
 }
@@ -5,6 +5,7 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.aws.cqrs.api.command.CreateAccountCommand;
 import com.aws.cqrs.application.AccountService;
+import com.aws.cqrs.infrastructure.exceptions.ThrottledException;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import java.util.concurrent.CompletionException;
@@ -39,6 +40,9 @@ public class CreateAccountHandler extends RequestHandlerBase {
         return buildSuccessfulResponse();
       } catch (CompletionException x) {
         Throwable cause = x.getCause();
+        if (cause instanceof ThrottledException) {
+          return buildThrottledResponse(cause.getMessage());
+        }
         return buildServerError(cause.getMessage());
       }
 
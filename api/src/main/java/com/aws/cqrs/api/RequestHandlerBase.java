@@ -32,6 +32,16 @@ public abstract class RequestHandlerBase
     return response;
   }
 
+  protected APIGatewayProxyResponseEvent buildThrottledResponse(String message) {
+    APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+    Map<String, String> headers = new HashMap<>();
+    headers.put("Content-Type", "application/json");
+    response.setHeaders(headers);
+    response.setBody(gson.toJson(new ErrorResponse(message)));
+    response.setStatusCode(429);
+    return response;
+  }
+
   protected APIGatewayProxyResponseEvent buildServerError(String message) {
     APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
     Map<String, String> headers = new HashMap<>();
@@ -0,0 +1,528 @@
+package com.aws.cqrs.codegen;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates an {@code EventCodec} for each type annotated with {@link GenerateCodec}. The codec
+ * writes each property through its getter and reads it back through the constructor, using the
+ * field names as the JSON names so that the output matches what Gson produces reflectively. The
+ * binary form writes the properties in constructor order without names.
+ */
+@SupportedAnnotationTypes("com.aws.cqrs.codegen.GenerateCodec")
+public class EventCodecProcessor extends AbstractProcessor {
+
+  private static final String CODEC_TYPE = "com.aws.cqrs.infrastructure.serialization.EventCodec";
+
+  private static final String JSON_VALUES_TYPE =
+      "com.aws.cqrs.infrastructure.serialization.JsonValues";
+
+  private static final String BINARY_WRITER_TYPE =
+      "com.aws.cqrs.infrastructure.serialization.BinaryWriter";
+
+  private static final String BINARY_READER_TYPE =
+      "com.aws.cqrs.infrastructure.serialization.BinaryReader";
+
+  private static final String CODEC_SUFFIX = "_EventCodec";
+
+  /** The JsonValues read and write methods for each supported property type */
+  private static final Map<String, String> VALUE_METHODS =
+      Map.ofEntries(
+          Map.entry("java.lang.String", "String"),
+          Map.entry("java.util.UUID", "Uuid"),
+          Map.entry("java.math.BigDecimal", "BigDecimal"),
+          Map.entry("java.time.OffsetDateTime", "OffsetDateTime"),
+          Map.entry("java.lang.Integer", "Integer"),
+          Map.entry("java.lang.Long", "Long"),
+          Map.entry("java.lang.Boolean", "Boolean"),
+          Map.entry("java.lang.Double", "Double"),
+          Map.entry("int", "Int"),
+          Map.entry("long", "PrimitiveLong"),
+          Map.entry("boolean", "PrimitiveBoolean"),
+          Map.entry("double", "PrimitiveDouble"));
+
+  /** The BinaryWriter and BinaryReader methods for each supported property type */
+  private static final Map<String, String> BINARY_METHODS =
+      Map.ofEntries(
+          Map.entry("java.lang.String", "String"),
+          Map.entry("java.util.UUID", "Uuid"),
+          Map.entry("java.math.BigDecimal", "BigDecimal"),
+          Map.entry("java.time.OffsetDateTime", "OffsetDateTime"),
+          Map.entry("java.lang.Integer", "Int"),
+          Map.entry("java.lang.Long", "Long"),
+          Map.entry("java.lang.Boolean", "Boolean"),
+          Map.entry("java.lang.Double", "Double"),
+          Map.entry("int", "Int"),
+          Map.entry("long", "Long"),
+          Map.entry("boolean", "Boolean"),
+          Map.entry("double", "Double"));
+
+  /** The characters allowed in kinds and aliases, which covers class names */
+  private static final Pattern KIND_PATTERN = Pattern.compile("[A-Za-z0-9_.$-]+");
+
+  /** The null properties are written as a bit mask in a long */
+  private static final int MAX_PROPERTIES = Long.SIZE;
+
+  /** The codecs generated across all rounds, registered as services once processing is over */
+  private final Set<String> codecs = new TreeSet<>();
+
+  /** The events of each kind and alias, so that a kind can't be claimed by two events */
+  private final Map<String, String> kinds = new HashMap<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(GenerateCodec.class)) {
+      if (element.getKind() != ElementKind.CLASS
+          || element.getModifiers().contains(Modifier.ABSTRACT)) {
+        error(element, "@GenerateCodec can only be used on concrete classes");
+        continue;
+      }
+
+      TypeElement type = (TypeElement) element;
+      TypeMirror eventType =
+          processingEnv
+              .getTypeUtils()
+              .erasure(getTypeElement(ProcessorSupport.EVENT_TYPE).asType());
+
+      if (!processingEnv.getTypeUtils().isAssignable(type.asType(), eventType)) {
+        error(
+            type,
+            "@GenerateCodec can only be used on implementations of " + ProcessorSupport.EVENT_TYPE);
+        continue;
+      }
+
+      GenerateCodec annotation = type.getAnnotation(GenerateCodec.class);
+      List<Property> properties = findProperties(type);
+
+      if (properties != null && checkKinds(type, annotation)) {
+        writeCodec(type, properties, annotation);
+      }
+    }
+
+    if (roundEnv.processingOver() && !codecs.isEmpty()) {
+      ProcessorSupport.writeServiceFile(processingEnv, CODEC_TYPE, codecs);
+    }
+
+    return true;
+  }
+
+  /**
+   * Find the properties of an event. The public constructor with the most parameters is used,
+   * provided each of its parameters is named after a field and has a public getter of the same
+   * type.
+   *
+   * @param type The event type.
+   * @return The properties in constructor order or null if the event can't have a codec.
+   */
+  private List<Property> findProperties(TypeElement type) {
+    Set<String> fields = new HashSet<>();
+    Map<String, ExecutableElement> getters = new HashMap<>();
+
+    for (TypeElement current = type;
+        current != null;
+        current = ProcessorSupport.getSuperclass(current)) {
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        if (!field.getModifiers().contains(Modifier.STATIC)) {
+          fields.add(field.getSimpleName().toString());
+        }
+      }
+    }
+
+    for (ExecutableElement method :
+        ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      if (method.getModifiers().contains(Modifier.PUBLIC)
+          && !method.getModifiers().contains(Modifier.STATIC)
+          && method.getParameters().isEmpty()) {
+        String name = propertyName(method.getSimpleName().toString());
+
+        if (name != null) {
+          getters.put(name, method);
+        }
+      }
+    }
+
+    List<Property> best = null;
+
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (!constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        continue;
+      }
+
+      List<Property> properties = new ArrayList<>();
+
+      for (VariableElement parameter : constructor.getParameters()) {
+        String name = parameter.getSimpleName().toString();
+        ExecutableElement getter = getters.get(name);
+
+        if (!fields.contains(name)
+            || getter == null
+            || !processingEnv
+                .getTypeUtils()
+                .isSameType(getter.getReturnType(), parameter.asType())) {
+          properties = null;
+          break;
+        }
+
+        properties.add(new Property(name, parameter.asType(), getter.getSimpleName().toString()));
+      }
+
+      if (properties != null && (best == null || properties.size() > best.size())) {
+        best = properties;
+      }
+    }
+
+    if (best == null || best.isEmpty()) {
+      error(
+          type,
+          "@GenerateCodec requires a public constructor whose parameters are named after fields"
+              + " that have public getters");
+      return null;
+    }
+
+    if (best.size() > MAX_PROPERTIES) {
+      error(type, "@GenerateCodec supports at most " + MAX_PROPERTIES + " properties");
+      return null;
+    }
+
+    for (Property property : best) {
+      if (!VALUE_METHODS.containsKey(property.type.toString())) {
+        error(type, "@GenerateCodec does not support the type of property " + property.name);
+        return null;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Write the codec source for an event.
+   *
+   * @param type The event type.
+   * @param properties The event properties.
+   * @param annotation The annotation of the event.
+   */
+  private void writeCodec(TypeElement type, List<Property> properties, GenerateCodec annotation) {
+    String packageName =
+        processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    String eventName = type.getQualifiedName().toString();
+    String codecName = ProcessorSupport.generatedName(type, CODEC_SUFFIX);
+    String qualifiedCodecName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+
+    try {
+      JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedCodecName, type);
+
+      try (PrintWriter out = new PrintWriter(file.openWriter())) {
+        if (!packageName.isEmpty()) {
+          out.println("package " + packageName + ";");
+          out.println();
+        }
+
+        out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+        out.println(
+            "public final class "
+                + codecName
+                + " implements "
+                + CODEC_TYPE
+                + "<"
+                + eventName
+                + "> {");
+        out.println();
+        out.println("  @Override");
+        out.println("  public Class<" + eventName + "> getEventType() {");
+        out.println("    return " + eventName + ".class;");
+        out.println("  }");
+        out.println();
+
+        if (!annotation.kind().isEmpty()) {
+          out.println("  @Override");
+          out.println("  public String getKind() {");
+          out.println("    return \"" + annotation.kind() + "\";");
+          out.println("  }");
+          out.println();
+        }
+
+        if (annotation.aliases().length > 0) {
+          List<String> aliases = new ArrayList<>();
+          for (String alias : annotation.aliases()) {
+            aliases.add("\"" + alias + "\"");
+          }
+
+          out.println("  @Override");
+          out.println("  public java.util.List<String> getAliases() {");
+          out.println("    return java.util.List.of(" + String.join(", ", aliases) + ");");
+          out.println("  }");
+          out.println();
+        }
+
+        out.println("  @Override");
+        out.println(
+            "  public void write(com.google.gson.stream.JsonWriter writer, "
+                + eventName
+                + " event)");
+        out.println("      throws java.io.IOException {");
+        out.println("    writer.beginObject();");
+
+        for (Property property : properties) {
+          out.println(
+              "    "
+                  + JSON_VALUES_TYPE
+                  + ".write"
+                  + VALUE_METHODS.get(property.type.toString())
+                  + "(writer, \""
+                  + property.name
+                  + "\", event."
+                  + property.getter
+                  + "());");
+        }
+
+        out.println("    writer.endObject();");
+        out.println("  }");
+        out.println();
+        out.println("  @Override");
+        out.println("  public " + eventName + " read(com.google.gson.stream.JsonReader reader)");
+        out.println("      throws java.io.IOException {");
+
+        for (Property property : properties) {
+          out.println(
+              "    "
+                  + property.type
+                  + " $"
+                  + property.name
+                  + " = "
+                  + defaultValue(property.type)
+                  + ";");
+        }
+
+        out.println("    reader.beginObject();");
+        out.println("    while (reader.hasNext()) {");
+        out.println("      switch (reader.nextName()) {");
+
+        for (Property property : properties) {
+          out.println("        case \"" + property.name + "\":");
+          out.println(
+              "          $"
+                  + property.name
+                  + " = "
+                  + JSON_VALUES_TYPE
+                  + ".read"
+                  + VALUE_METHODS.get(property.type.toString())
+                  + "(reader);");
+          out.println("          break;");
+        }
+
+        out.println("        default:");
+        out.println("          reader.skipValue();");
+        out.println("      }");
+        out.println("    }");
+        out.println("    reader.endObject();");
+
+        List<String> arguments = new ArrayList<>();
+        for (Property property : properties) {
+          arguments.add("$" + property.name);
+        }
+
+        out.println("    return new " + eventName + "(" + String.join(", ", arguments) + ");");
+        out.println("  }");
+        out.println();
+        writeBinaryMethods(out, eventName, properties, arguments);
+        out.println("}");
+      }
+
+      codecs.add(qualifiedCodecName);
+    } catch (IOException e) {
+      error(type, "Unable to write " + qualifiedCodecName + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Write the binary read and write methods of a codec.
+   *
+   * @param out The codec source.
+   * @param eventName The name of the event type.
+   * @param properties The event properties.
+   * @param arguments The constructor arguments.
+   */
+  private void writeBinaryMethods(
+      PrintWriter out, String eventName, List<Property> properties, List<String> arguments) {
+    out.println("  @Override");
+    out.println(
+        "  public void write(" + BINARY_WRITER_TYPE + " writer, " + eventName + " event) {");
+
+    for (Property property : properties) {
+      out.println(
+          "    " + property.type + " $" + property.name + " = event." + property.getter + "();");
+    }
+
+    out.println("    long nulls = 0L;");
+
+    for (int i = 0; i < properties.size(); i++) {
+      Property property = properties.get(i);
+
+      if (!property.type.getKind().isPrimitive()) {
+        out.println("    if ($" + property.name + " == null) {");
+        out.println("      nulls |= 1L << " + i + ";");
+        out.println("    }");
+      }
+    }
+
+    out.println("    writer.writeVarLong(nulls);");
+
+    for (Property property : properties) {
+      String write =
+          "writer.write"
+              + BINARY_METHODS.get(property.type.toString())
+              + "($"
+              + property.name
+              + ");";
+
+      if (property.type.getKind().isPrimitive()) {
+        out.println("    " + write);
+      } else {
+        out.println("    if ($" + property.name + " != null) {");
+        out.println("      " + write);
+        out.println("    }");
+      }
+    }
+
+    out.println("  }");
+    out.println();
+    out.println("  @Override");
+    out.println("  public " + eventName + " read(" + BINARY_READER_TYPE + " reader) {");
+    out.println("    long nulls = reader.readVarLong();");
+
+    for (int i = 0; i < properties.size(); i++) {
+      Property property = properties.get(i);
+      String read = "reader.read" + BINARY_METHODS.get(property.type.toString()) + "()";
+
+      out.println(
+          "    "
+              + property.type
+              + " $"
+              + property.name
+              + " = (nulls & 1L << "
+              + i
+              + ") == 0 ? "
+              + read
+              + " : "
+              + defaultValue(property.type)
+              + ";");
+    }
+
+    out.println("    return new " + eventName + "(" + String.join(", ", arguments) + ");");
+    out.println("  }");
+  }
+
+  /**
+   * Check that the kind and aliases of an event are valid and not used by any other event.
+   *
+   * @param type The event type.
+   * @param annotation The annotation of the event.
+   * @return True if they can be used.
+   */
+  private boolean checkKinds(TypeElement type, GenerateCodec annotation) {
+    String eventName = type.getQualifiedName().toString();
+    List<String> values = new ArrayList<>(List.of(annotation.aliases()));
+
+    if (!annotation.kind().isEmpty()) {
+      values.add(annotation.kind());
+    }
+
+    for (String value : values) {
+      if (!KIND_PATTERN.matcher(value).matches()) {
+        error(type, "\"" + value + "\" is not a valid kind, it must match " + KIND_PATTERN);
+        return false;
+      }
+
+      String existing = kinds.putIfAbsent(value, eventName);
+
+      if (existing != null && !existing.equals(eventName)) {
+        error(type, "The kind \"" + value + "\" is already used by " + existing);
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private TypeElement getTypeElement(String name) {
+    return processingEnv.getElementUtils().getTypeElement(name);
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  /**
+   * Get the property name of a getter.
+   *
+   * @param methodName The method name.
+   * @return The property name or null if the method isn't a getter.
+   */
+  private static String propertyName(String methodName) {
+    String name;
+
+    if (methodName.startsWith("get") && methodName.length() > 3) {
+      name = methodName.substring(3);
+    } else if (methodName.startsWith("is") && methodName.length() > 2) {
+      name = methodName.substring(2);
+    } else {
+      return null;
+    }
+
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private static String defaultValue(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return "false";
+      case INT:
+      case LONG:
+      case DOUBLE:
+        return "0";
+      default:
+        return "null";
+    }
+  }
+
+  /** A property of an event that is passed to its constructor */
+  private static class Property {
+
+    private final String name;
+    private final TypeMirror type;
+    private final String getter;
+
+    private Property(String name, TypeMirror type, String getter) {
+      this.name = name;
+      this.type = type;
+      this.getter = getter;
+    }
+  }
+}
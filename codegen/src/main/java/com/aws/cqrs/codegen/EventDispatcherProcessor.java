@@ -0,0 +1,219 @@
+package com.aws.cqrs.codegen;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates an {@code EventDispatcher} for each aggregate annotated with {@link
+ * GenerateDispatcher}. The dispatcher compares the class of the event against each type the
+ * aggregate has an apply method for and calls that method directly.
+ */
+@SupportedAnnotationTypes("com.aws.cqrs.codegen.GenerateDispatcher")
+public class EventDispatcherProcessor extends AbstractProcessor {
+
+  private static final String AGGREGATE_TYPE = "com.aws.cqrs.domain.AggregateRootBase";
+
+  private static final String DISPATCHER_TYPE = "com.aws.cqrs.domain.EventDispatcher";
+
+  private static final String DISPATCHER_SUFFIX = "_EventDispatcher";
+
+  private static final String APPLY_METHOD_NAME = "apply";
+
+  /** The dispatchers generated across all rounds, registered as services once processing is over */
+  private final Set<String> dispatchers = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Types types = processingEnv.getTypeUtils();
+
+    for (Element element : roundEnv.getElementsAnnotatedWith(GenerateDispatcher.class)) {
+      if (element.getKind() != ElementKind.CLASS
+          || element.getModifiers().contains(Modifier.ABSTRACT)) {
+        error(element, "@GenerateDispatcher can only be used on concrete classes");
+        continue;
+      }
+
+      TypeElement type = (TypeElement) element;
+      TypeMirror aggregateType = getType(AGGREGATE_TYPE);
+
+      if (!types.isAssignable(type.asType(), aggregateType)) {
+        error(type, "@GenerateDispatcher can only be used on subclasses of " + AGGREGATE_TYPE);
+        continue;
+      }
+
+      Map<String, ExecutableElement> methods = findApplyMethods(type);
+
+      if (methods != null) {
+        writeDispatcher(type, methods);
+      }
+    }
+
+    if (roundEnv.processingOver() && !dispatchers.isEmpty()) {
+      ProcessorSupport.writeServiceFile(processingEnv, DISPATCHER_TYPE, dispatchers);
+    }
+
+    return true;
+  }
+
+  /**
+   * Find the apply methods declared by an aggregate and its super classes. When more than one class
+   * declares an apply method for the same event the one closest to the aggregate is used, which
+   * matches how the apply methods are resolved at runtime.
+   *
+   * @param type The aggregate type.
+   * @return The apply methods keyed by the name of the event they apply or null if one of them
+   *     can't be called by the generated dispatcher.
+   */
+  private Map<String, ExecutableElement> findApplyMethods(TypeElement type) {
+    Types types = processingEnv.getTypeUtils();
+    TypeMirror eventType = getType(ProcessorSupport.EVENT_TYPE);
+    String packageName = getPackageName(type);
+    Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+
+    for (TypeElement current = type;
+        current != null;
+        current = ProcessorSupport.getSuperclass(current)) {
+      for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+        if (!method.getSimpleName().contentEquals(APPLY_METHOD_NAME)
+            || method.getParameters().size() != 1
+            || method.getModifiers().contains(Modifier.STATIC)) {
+          continue;
+        }
+
+        TypeMirror parameterType = types.erasure(method.getParameters().get(0).asType());
+
+        if (!types.isAssignable(parameterType, eventType)) {
+          continue;
+        }
+
+        String eventName = parameterType.toString();
+
+        if (methods.containsKey(eventName)) {
+          continue;
+        }
+
+        Set<Modifier> modifiers = method.getModifiers();
+        boolean accessible =
+            modifiers.contains(Modifier.PUBLIC)
+                || (!modifiers.contains(Modifier.PRIVATE)
+                    && Objects.equals(packageName, getPackageName(current)));
+
+        if (!accessible) {
+          error(
+              method,
+              "apply methods of an aggregate annotated with @GenerateDispatcher must be visible to"
+                  + " the aggregate's package");
+          return null;
+        }
+
+        methods.put(eventName, method);
+      }
+    }
+
+    return methods;
+  }
+
+  /**
+   * Write the dispatcher source for an aggregate.
+   *
+   * @param type The aggregate type.
+   * @param methods The apply methods keyed by the name of the event they apply.
+   */
+  private void writeDispatcher(TypeElement type, Map<String, ExecutableElement> methods) {
+    String packageName = getPackageName(type);
+    String aggregateName = type.getQualifiedName().toString();
+    String dispatcherName = ProcessorSupport.generatedName(type, DISPATCHER_SUFFIX);
+    String qualifiedDispatcherName =
+        packageName.isEmpty() ? dispatcherName : packageName + "." + dispatcherName;
+
+    try {
+      JavaFileObject file =
+          processingEnv.getFiler().createSourceFile(qualifiedDispatcherName, type);
+
+      try (PrintWriter out = new PrintWriter(file.openWriter())) {
+        if (!packageName.isEmpty()) {
+          out.println("package " + packageName + ";");
+          out.println();
+        }
+
+        out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+        out.println(
+            "public final class "
+                + dispatcherName
+                + " implements "
+                + DISPATCHER_TYPE
+                + "<"
+                + aggregateName
+                + "> {");
+        out.println();
+        out.println("  @Override");
+        out.println("  public Class<" + aggregateName + "> getAggregateType() {");
+        out.println("    return " + aggregateName + ".class;");
+        out.println("  }");
+        out.println();
+        out.println("  @Override");
+        out.println(
+            "  public boolean dispatch("
+                + aggregateName
+                + " aggregate, "
+                + ProcessorSupport.EVENT_TYPE
+                + " event)");
+        out.println("      throws Exception {");
+        out.println("    Class<?> eventType = event.getClass();");
+
+        for (String eventName : methods.keySet()) {
+          out.println("    if (eventType == " + eventName + ".class) {");
+          out.println("      aggregate." + APPLY_METHOD_NAME + "((" + eventName + ") event);");
+          out.println("      return true;");
+          out.println("    }");
+        }
+
+        out.println("    return false;");
+        out.println("  }");
+        out.println("}");
+      }
+
+      dispatchers.add(qualifiedDispatcherName);
+    } catch (IOException e) {
+      error(type, "Unable to write " + qualifiedDispatcherName + ": " + e.getMessage());
+    }
+  }
+
+  private String getPackageName(TypeElement type) {
+    return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+  }
+
+  private TypeMirror getType(String name) {
+    return processingEnv
+        .getTypeUtils()
+        .erasure(processingEnv.getElementUtils().getTypeElement(name).asType());
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
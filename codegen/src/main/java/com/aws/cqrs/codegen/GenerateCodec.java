@@ -0,0 +1,28 @@
+package com.aws.cqrs.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generate a codec that reads and writes an event as JSON without reflection. The event must have a
+ * public constructor whose parameters are named after its fields and each of those fields must have
+ * a public getter.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateCodec {
+
+  /**
+   * @return The short, stable code that is stored to identify the type of the event. The class name
+   *     is stored when it is empty.
+   */
+  String kind() default "";
+
+  /**
+   * @return Other kinds that identify the event, such as the class name it had before it was moved.
+   *     The current class name is always accepted.
+   */
+  String[] aliases() default {};
+}
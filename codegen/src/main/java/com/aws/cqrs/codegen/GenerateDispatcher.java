@@ -0,0 +1,14 @@
+package com.aws.cqrs.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generate a dispatcher that invokes the apply methods of an aggregate without reflection. The
+ * apply methods must not be private so that the generated dispatcher can call them.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateDispatcher {}
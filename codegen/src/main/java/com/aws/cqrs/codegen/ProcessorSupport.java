@@ -0,0 +1,80 @@
+package com.aws.cqrs.codegen;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/** Helpers shared by the processors. */
+final class ProcessorSupport {
+
+  static final String EVENT_TYPE = "com.aws.cqrs.infrastructure.messaging.Event";
+
+  private ProcessorSupport() {}
+
+  /**
+   * Get the name of a generated class. Nested classes are flattened into the name.
+   *
+   * @param type The annotated type.
+   * @param suffix The suffix of the generated class.
+   * @return The simple name of the generated class.
+   */
+  static String generatedName(TypeElement type, String suffix) {
+    StringBuilder name = new StringBuilder(type.getSimpleName());
+
+    for (Element enclosing = type.getEnclosingElement();
+        enclosing instanceof TypeElement;
+        enclosing = enclosing.getEnclosingElement()) {
+      name.insert(0, enclosing.getSimpleName() + "_");
+    }
+
+    return name.append(suffix).toString();
+  }
+
+  /**
+   * Get the super class of a type.
+   *
+   * @param type The type.
+   * @return The super class or null when there isn't one.
+   */
+  static TypeElement getSuperclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+
+    return superclass.getKind() == TypeKind.DECLARED
+        ? (TypeElement) ((DeclaredType) superclass).asElement()
+        : null;
+  }
+
+  /**
+   * Write a service file so that the generated classes can be found with a ServiceLoader.
+   *
+   * @param processingEnv The processing environment.
+   * @param serviceType The service interface.
+   * @param implementations The generated implementations.
+   */
+  static void writeServiceFile(
+      ProcessingEnvironment processingEnv, String serviceType, Set<String> implementations) {
+    try (PrintWriter out =
+        new PrintWriter(
+            processingEnv
+                .getFiler()
+                .createResource(
+                    StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + serviceType)
+                .openWriter())) {
+      implementations.forEach(out::println);
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.ERROR,
+              "Unable to write the service file for " + serviceType + ": " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.aws.cqrs.codegen;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles sources in memory with the processors of this module so that tests can look at what the
+ * processors generated. The core types the processors refer to aren't available to this module, so
+ * tests pass small stand-ins for them along with their fixtures.
+ */
+class Compilation {
+
+  private final Path output;
+  private final boolean success;
+  private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+  private Compilation(
+      Path output, boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+    this.output = output;
+    this.success = success;
+    this.diagnostics = diagnostics;
+  }
+
+  /**
+   * Run a processor over sources without compiling what it generates, for tests that only look at
+   * the generated sources.
+   *
+   * @param processor The processor to run.
+   * @param sources The source code keyed by the qualified name of the class it declares.
+   * @return The result of the compilation.
+   */
+  static Compilation process(Processor processor, Map<String, String> sources) throws IOException {
+    return compile(processor, sources, List.of("-proc:only"));
+  }
+
+  /**
+   * Compile sources and the sources a processor generates from them, so that the generated classes
+   * can be loaded.
+   *
+   * @param processor The processor to run.
+   * @param sources The source code keyed by the qualified name of the class it declares.
+   * @return The result of the compilation.
+   */
+  static Compilation compile(Processor processor, Map<String, String> sources) throws IOException {
+    return compile(processor, sources, List.of());
+  }
+
+  private static Compilation compile(
+      Processor processor, Map<String, String> sources, List<String> options) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    Path output = Files.createTempDirectory("codegen");
+
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, null, null)) {
+      fileManager.setLocation(StandardLocation.CLASS_OUTPUT, List.of(output.toFile()));
+      fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, List.of(output.toFile()));
+      fileManager.setLocation(
+          StandardLocation.CLASS_PATH,
+          List.of(
+              getLocation(GenerateDispatcher.class).toFile(),
+              getLocation(JsonWriter.class).toFile()));
+
+      List<JavaFileObject> units = new ArrayList<>();
+      sources.forEach((name, source) -> units.add(new Source(name, source)));
+
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(null, fileManager, diagnostics, options, null, units);
+      task.setProcessors(List.of(processor));
+      boolean success = task.call();
+
+      return new Compilation(output, success, diagnostics.getDiagnostics());
+    }
+  }
+
+  /**
+   * @return True if the compilation reported no errors.
+   */
+  boolean isSuccess() {
+    return success;
+  }
+
+  /**
+   * @return The messages of the errors that were reported.
+   */
+  List<String> getErrors() {
+    return diagnostics.stream()
+        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+        .map(diagnostic -> diagnostic.getMessage(null))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Check whether a file was generated.
+   *
+   * @param path The path of the file relative to the output directory.
+   * @return True if the file exists.
+   */
+  boolean exists(String path) {
+    return Files.exists(output.resolve(path));
+  }
+
+  /**
+   * Read a file that was generated.
+   *
+   * @param path The path of the file relative to the output directory.
+   * @return The contents of the file or null if it wasn't generated.
+   */
+  String read(String path) throws IOException {
+    Path file = output.resolve(path);
+    return Files.exists(file) ? Files.readString(file) : null;
+  }
+
+  /**
+   * @return A class loader over the compiled classes.
+   */
+  ClassLoader getClassLoader() {
+    try {
+      return new URLClassLoader(
+          new URL[] {output.toUri().toURL()}, Compilation.class.getClassLoader());
+    } catch (MalformedURLException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Path getLocation(Class<?> type) {
+    try {
+      return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** A source file held in memory */
+  private static class Source extends SimpleJavaFileObject {
+    private final String source;
+
+    Source(String name, String source) {
+      super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+      this.source = source;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+  }
+}
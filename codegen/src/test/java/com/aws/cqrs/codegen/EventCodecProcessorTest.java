@@ -0,0 +1,127 @@
+package com.aws.cqrs.codegen;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class EventCodecProcessorTest {
+
+  /** Stand-ins for the core types the generated codecs refer to */
+  private static final Map<String, String> CORE =
+      Map.of(
+          "com.aws.cqrs.infrastructure.messaging.Event",
+          "package com.aws.cqrs.infrastructure.messaging; public interface Event {}",
+          "com.aws.cqrs.infrastructure.serialization.EventCodec",
+          "package com.aws.cqrs.infrastructure.serialization; public interface EventCodec<T> {}",
+          "com.aws.cqrs.infrastructure.serialization.JsonValues",
+          "package com.aws.cqrs.infrastructure.serialization; public class JsonValues {}",
+          "com.aws.cqrs.infrastructure.serialization.BinaryWriter",
+          "package com.aws.cqrs.infrastructure.serialization; public class BinaryWriter {}",
+          "com.aws.cqrs.infrastructure.serialization.BinaryReader",
+          "package com.aws.cqrs.infrastructure.serialization; public class BinaryReader {}");
+
+  private static final String POINT =
+      "package fixture;"
+          + " @com.aws.cqrs.codegen.GenerateCodec(kind = \"pt.v1\", aliases = \"fixture.OldPoint\")"
+          + " public class Point implements com.aws.cqrs.infrastructure.messaging.Event {"
+          + "   private final int x;"
+          + "   private final String label;"
+          + "   public Point(int x, String label) { this.x = x; this.label = label; }"
+          + "   public int getX() { return x; }"
+          + "   public String getLabel() { return label; }"
+          + " }";
+
+  @Test
+  void when_event_annotated_expect_codec_registered() throws Exception {
+    // Act
+    Compilation compilation = process(Map.of("fixture.Point", POINT));
+
+    // Assert
+    assertTrue(compilation.isSuccess(), compilation.getErrors().toString());
+    assertEquals(
+        "fixture.Point_EventCodec",
+        compilation
+            .read("META-INF/services/com.aws.cqrs.infrastructure.serialization.EventCodec")
+            .trim());
+  }
+
+  @Test
+  void when_event_annotated_expect_properties_in_constructor_order() throws Exception {
+    // Act
+    Compilation compilation = process(Map.of("fixture.Point", POINT));
+
+    // Assert
+    String codec = compilation.read("fixture/Point_EventCodec.java");
+    assertTrue(codec.contains("return \"pt.v1\";"));
+    assertTrue(codec.contains("java.util.List.of(\"fixture.OldPoint\")"));
+    assertTrue(codec.contains("JsonValues.writeInt(writer, \"x\", event.getX());"));
+    assertTrue(codec.contains("JsonValues.writeString(writer, \"label\", event.getLabel());"));
+    assertTrue(codec.contains("return new fixture.Point($x, $label);"));
+  }
+
+  @Test
+  void when_parameter_not_a_field_expect_error() throws Exception {
+    // Arrange
+    String source =
+        "package fixture;"
+            + " @com.aws.cqrs.codegen.GenerateCodec"
+            + " public class Renamed implements com.aws.cqrs.infrastructure.messaging.Event {"
+            + "   private final int x;"
+            + "   public Renamed(int value) { this.x = value; }"
+            + "   public int getX() { return x; }"
+            + " }";
+
+    // Act
+    Compilation compilation = process(Map.of("fixture.Renamed", source));
+
+    // Assert
+    assertFalse(compilation.isSuccess());
+    assertTrue(compilation.getErrors().get(0).startsWith("@GenerateCodec requires a public"));
+  }
+
+  @Test
+  void when_kind_used_twice_expect_error() throws Exception {
+    // Arrange
+    String source =
+        "package fixture;"
+            + " @com.aws.cqrs.codegen.GenerateCodec(kind = \"pt.v1\")"
+            + " public class Copy implements com.aws.cqrs.infrastructure.messaging.Event {"
+            + "   private final int x;"
+            + "   public Copy(int x) { this.x = x; }"
+            + "   public int getX() { return x; }"
+            + " }";
+
+    // Act
+    Compilation compilation = process(Map.of("fixture.Point", POINT, "fixture.Copy", source));
+
+    // Assert
+    assertFalse(compilation.isSuccess());
+    assertTrue(compilation.getErrors().get(0).startsWith("The kind \"pt.v1\" is already used by"));
+  }
+
+  @Test
+  void when_kind_invalid_expect_error() throws Exception {
+    // Arrange
+    String source = POINT.replace("\"pt.v1\"", "\"pt v1\"");
+
+    // Act
+    Compilation compilation = process(Map.of("fixture.Point", source));
+
+    // Assert
+    assertFalse(compilation.isSuccess());
+    assertTrue(compilation.getErrors().get(0).startsWith("\"pt v1\" is not a valid kind"));
+  }
+
+  /**
+   * Run the processor without compiling the codecs it generates, which need the serialization types
+   * of the core module.
+   */
+  private static Compilation process(Map<String, String> sources) throws Exception {
+    Map<String, String> all = new HashMap<>(CORE);
+    all.putAll(sources);
+
+    return Compilation.process(new EventCodecProcessor(), all);
+  }
+}
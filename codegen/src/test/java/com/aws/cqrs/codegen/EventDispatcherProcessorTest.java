@@ -0,0 +1,142 @@
+package com.aws.cqrs.codegen;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import org.junit.jupiter.api.Test;
+
+class EventDispatcherProcessorTest {
+
+  /** Stand-ins for the core types the generated dispatchers are compiled against */
+  private static final Map<String, String> CORE =
+      Map.of(
+          "com.aws.cqrs.infrastructure.messaging.Event",
+          "package com.aws.cqrs.infrastructure.messaging; public interface Event {}",
+          "com.aws.cqrs.domain.AggregateRootBase",
+          "package com.aws.cqrs.domain; public abstract class AggregateRootBase {}",
+          "com.aws.cqrs.domain.EventDispatcher",
+          "package com.aws.cqrs.domain;"
+              + " public interface EventDispatcher<T extends AggregateRootBase> {"
+              + "   Class<T> getAggregateType();"
+              + "   boolean dispatch(T aggregate, com.aws.cqrs.infrastructure.messaging.Event event)"
+              + "       throws Exception;"
+              + " }");
+
+  private static final String EVENTS =
+      "package fixture;"
+          + " public class Events {"
+          + "   public static class Added implements com.aws.cqrs.infrastructure.messaging.Event {}"
+          + "   public static class Reset implements com.aws.cqrs.infrastructure.messaging.Event {}"
+          + "   public static class Ignored implements com.aws.cqrs.infrastructure.messaging.Event {}"
+          + " }";
+
+  private static final String BASE =
+      "package fixture;"
+          + " public class Base extends com.aws.cqrs.domain.AggregateRootBase {"
+          + "   public String applied = \"\";"
+          + "   void apply(Events.Added event) { applied += \"base-added;\"; }"
+          + "   void apply(Events.Reset event) { applied += \"base-reset;\"; }"
+          + " }";
+
+  private static final String COUNTER =
+      "package fixture;"
+          + " @com.aws.cqrs.codegen.GenerateDispatcher"
+          + " public class Counter extends Base {"
+          + "   @Override void apply(Events.Added event) { applied += \"counter-added;\"; }"
+          + " }";
+
+  @Test
+  void when_aggregate_annotated_expect_dispatcher_registered() throws Exception {
+    // Act
+    Compilation compilation = compile(Map.of("fixture.Counter", COUNTER));
+
+    // Assert
+    assertTrue(compilation.isSuccess(), compilation.getErrors().toString());
+    assertTrue(compilation.exists("fixture/Counter_EventDispatcher.class"));
+    assertEquals(
+        "fixture.Counter_EventDispatcher",
+        compilation.read("META-INF/services/com.aws.cqrs.domain.EventDispatcher").trim());
+  }
+
+  @Test
+  void when_dispatch_expect_closest_apply_method_called() throws Exception {
+    // Arrange
+    Compilation compilation = compile(Map.of("fixture.Counter", COUNTER));
+    ClassLoader loader = compilation.getClassLoader();
+    Class<?> dispatcherType = loader.loadClass("com.aws.cqrs.domain.EventDispatcher");
+    Object dispatcher = ServiceLoader.load(dispatcherType, loader).findFirst().orElseThrow();
+    Method dispatch =
+        dispatcherType.getMethod("dispatch", aggregateType(loader), eventType(loader));
+    Object counter = loader.loadClass("fixture.Counter").getConstructor().newInstance();
+
+    // Act
+    boolean added = (boolean) dispatch.invoke(dispatcher, counter, newEvent(loader, "Added"));
+    boolean reset = (boolean) dispatch.invoke(dispatcher, counter, newEvent(loader, "Reset"));
+    boolean ignored = (boolean) dispatch.invoke(dispatcher, counter, newEvent(loader, "Ignored"));
+
+    // Assert
+    assertTrue(added);
+    assertTrue(reset);
+    assertFalse(ignored);
+    assertEquals("counter-added;base-reset;", counter.getClass().getField("applied").get(counter));
+    assertEquals(
+        counter.getClass(), dispatcherType.getMethod("getAggregateType").invoke(dispatcher));
+  }
+
+  @Test
+  void when_not_an_aggregate_expect_error() throws Exception {
+    // Arrange
+    String source =
+        "package fixture; @com.aws.cqrs.codegen.GenerateDispatcher public class NotAnAggregate {}";
+
+    // Act
+    Compilation compilation = compile(Map.of("fixture.NotAnAggregate", source));
+
+    // Assert
+    assertFalse(compilation.isSuccess());
+    assertTrue(
+        compilation.getErrors().get(0).startsWith("@GenerateDispatcher can only be used on"));
+  }
+
+  @Test
+  void when_apply_method_private_expect_error() throws Exception {
+    // Arrange
+    String source =
+        "package fixture;"
+            + " @com.aws.cqrs.codegen.GenerateDispatcher"
+            + " public class Hidden extends com.aws.cqrs.domain.AggregateRootBase {"
+            + "   private void apply(Events.Added event) {}"
+            + " }";
+
+    // Act
+    Compilation compilation = compile(Map.of("fixture.Hidden", source));
+
+    // Assert
+    assertFalse(compilation.isSuccess());
+    assertTrue(compilation.getErrors().get(0).startsWith("apply methods of an aggregate"));
+  }
+
+  private static Compilation compile(Map<String, String> sources) throws Exception {
+    Map<String, String> all = new HashMap<>(CORE);
+    all.put("fixture.Events", EVENTS);
+    all.put("fixture.Base", BASE);
+    all.putAll(sources);
+
+    return Compilation.compile(new EventDispatcherProcessor(), all);
+  }
+
+  private static Class<?> aggregateType(ClassLoader loader) throws ClassNotFoundException {
+    return loader.loadClass("com.aws.cqrs.domain.AggregateRootBase");
+  }
+
+  private static Class<?> eventType(ClassLoader loader) throws ClassNotFoundException {
+    return loader.loadClass("com.aws.cqrs.infrastructure.messaging.Event");
+  }
+
+  private static Object newEvent(ClassLoader loader, String name) throws Exception {
+    return loader.loadClass("fixture.Events$" + name).getConstructor().newInstance();
+  }
+}
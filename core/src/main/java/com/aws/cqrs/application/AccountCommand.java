@@ -0,0 +1,80 @@
+package com.aws.cqrs.application;
+
+import com.aws.cqrs.domain.Account;
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** A command that changes the state of a single account. */
+public final class AccountCommand {
+
+  /** The kinds of command */
+  enum Type {
+    DEPOSIT,
+    WITHDRAWAL
+  }
+
+  private final UUID accountId;
+  private final Type type;
+  private final BigDecimal amount;
+
+  private AccountCommand(UUID accountId, Type type, BigDecimal amount) {
+    this.accountId = accountId;
+    this.type = type;
+    this.amount = amount;
+  }
+
+  /**
+   * Create a command that makes a deposit.
+   *
+   * @param accountId The account id.
+   * @param amount The amount to deposit.
+   * @return The command.
+   */
+  public static AccountCommand deposit(UUID accountId, BigDecimal amount) {
+    return new AccountCommand(accountId, Type.DEPOSIT, amount);
+  }
+
+  /**
+   * Create a command that makes a withdrawal.
+   *
+   * @param accountId The account id.
+   * @param amount The amount to withdraw.
+   * @return The command.
+   */
+  public static AccountCommand withdraw(UUID accountId, BigDecimal amount) {
+    return new AccountCommand(accountId, Type.WITHDRAWAL, amount);
+  }
+
+  /**
+   * Get the account id.
+   *
+   * @return The account id.
+   */
+  public UUID getAccountId() {
+    return accountId;
+  }
+
+  Type getType() {
+    return type;
+  }
+
+  BigDecimal getAmount() {
+    return amount;
+  }
+
+  /**
+   * Run the command against the account.
+   *
+   * @param account The account.
+   * @throws IllegalArgumentException
+   * @throws HydrationException
+   */
+  void execute(Account account) throws IllegalArgumentException, HydrationException {
+    if (type == Type.DEPOSIT) {
+      account.deposit(amount);
+    } else {
+      account.withdraw(amount);
+    }
+  }
+}
@@ -1,25 +1,91 @@
 package com.aws.cqrs.application;
 
+import com.aws.cqrs.application.CommandBatch.PendingCommand;
 import com.aws.cqrs.domain.Account;
+import com.aws.cqrs.domain.SubLedger;
 import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
 import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import com.aws.cqrs.infrastructure.persistence.BoundedLoads;
 import com.aws.cqrs.infrastructure.persistence.Repository;
+import com.aws.cqrs.infrastructure.persistence.UnitOfWork;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /** The purpose of this service is to handle account based transactions. */
 public class AccountService {
+  /** The number of accounts a batch of commands processes at the same time by default */
+  public static final int DEFAULT_BATCH_CONCURRENCY = 16;
+
   private final Repository<Account> repository;
 
+  private final RetryPolicy retryPolicy;
+
+  private final CommandMailbox mailbox;
+
+  private final SubLedgerRouter router;
+
   /**
    * Default constructor.
    *
    * @param repository The account repository.
    */
   public AccountService(Repository<Account> repository) {
+    this(repository, RetryPolicy.DEFAULT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param repository The account repository.
+   * @param retryPolicy The policy used to retry a transaction that conflicted with another one.
+   */
+  public AccountService(Repository<Account> repository, RetryPolicy retryPolicy) {
+    this(repository, retryPolicy, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param repository The account repository.
+   * @param retryPolicy The policy used to retry a transaction that conflicted with another one.
+   * @param mailboxExecutor The executor that runs a mailbox per account, so that concurrent
+   *     commands for the same account are committed together instead of conflicting, or null to run
+   *     every command on its own.
+   */
+  public AccountService(
+      Repository<Account> repository, RetryPolicy retryPolicy, Executor mailboxExecutor) {
+    this(repository, retryPolicy, mailboxExecutor, null);
+  }
+
+  /**
+   * Constructor used when accounts can be sharded. The commands for a sharded account are spread
+   * over its sub-ledgers instead of all being appended to the account stream.
+   *
+   * @param repository The account repository.
+   * @param retryPolicy The policy used to retry a transaction that conflicted with another one.
+   * @param mailboxExecutor The executor that runs a mailbox per account or null to run every
+   *     command on its own.
+   * @param subLedgerRepository The sub-ledger repository or null when accounts can't be sharded.
+   */
+  public AccountService(
+      Repository<Account> repository,
+      RetryPolicy retryPolicy,
+      Executor mailboxExecutor,
+      Repository<SubLedger> subLedgerRepository) {
     this.repository = repository;
+    this.retryPolicy = retryPolicy;
+    this.router = subLedgerRepository == null ? null : new SubLedgerRouter(subLedgerRepository);
+    this.mailbox =
+        mailboxExecutor == null
+            ? null
+            : new CommandMailbox(repository, retryPolicy, router, mailboxExecutor);
   }
 
   /**
@@ -46,13 +112,7 @@ public class AccountService {
    */
   public CompletableFuture<Void> deposit(UUID accountId, BigDecimal amount)
       throws HydrationException, AggregateNotFoundException, TransactionFailedException {
-    return repository
-        .getById(accountId)
-        .thenCompose(
-            account -> {
-              account.deposit(amount);
-              return repository.save(account);
-            });
+    return execute(AccountCommand.deposit(accountId, amount));
   }
 
   /**
@@ -66,12 +126,191 @@ public class AccountService {
    */
   public CompletableFuture<Void> withdraw(UUID accountId, BigDecimal amount)
       throws HydrationException, AggregateNotFoundException, TransactionFailedException {
+    return execute(AccountCommand.withdraw(accountId, amount));
+  }
+
+  /**
+   * Transfer money between two accounts. The withdrawal and the deposit are committed together, so
+   * the transfer either happens completely or not at all. When another transaction commits to
+   * either account first both accounts are loaded again and the transfer is retried.
+   *
+   * <p>Sharded accounts can't take part in a transfer, because their sub-ledgers can't be committed
+   * together with another account. Such a transfer fails with an {@link IllegalStateException}.
+   *
+   * @param fromAccountId The id of the account to withdraw from.
+   * @param toAccountId The id of the account to deposit into.
+   * @param amount The amount to transfer.
+   * @throws IllegalArgumentException
+   * @throws IllegalStateException When either account is sharded.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   * @throws TransactionFailedException
+   */
+  public CompletableFuture<Void> transfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount)
+      throws IllegalArgumentException,
+          IllegalStateException,
+          HydrationException,
+          AggregateNotFoundException,
+          TransactionFailedException {
+    if (fromAccountId.equals(toAccountId)) {
+      throw new IllegalArgumentException("Money can't be transferred to the same account.");
+    }
+
+    return retryPolicy.execute(
+        () ->
+            repository
+                .getById(fromAccountId)
+                .thenCombine(
+                    repository.getById(toAccountId),
+                    (from, to) -> {
+                      if (from.getShards() > 0 || to.getShards() > 0) {
+                        throw new IllegalStateException(
+                            "Money can't be transferred to or from a sharded account.");
+                      }
+
+                      from.withdraw(amount);
+                      to.deposit(amount);
+
+                      UnitOfWork unitOfWork = repository.newUnitOfWork();
+                      unitOfWork.register(from);
+                      unitOfWork.register(to);
+                      return unitOfWork;
+                    })
+                .thenCompose(UnitOfWork::commit));
+  }
+
+  /**
+   * Run a batch of commands, such as the payments of a batch file, with the default concurrency.
+   *
+   * @param commands The commands.
+   * @return The result of each command in the order of the commands.
+   */
+  public List<CompletableFuture<Void>> execute(List<AccountCommand> commands) {
+    return execute(commands, DEFAULT_BATCH_CONCURRENCY);
+  }
+
+  /**
+   * Run a batch of commands. The commands are grouped by account and each account is loaded once,
+   * its commands are run in the order they appear and all of their changes are saved in one commit.
+   * Accounts are processed in parallel with no more than the given number in flight. A command that
+   * is rejected by its account only fails its own result.
+   *
+   * @param commands The commands.
+   * @param concurrency The maximum number of accounts in flight.
+   * @return The result of each command in the order of the commands.
+   */
+  public List<CompletableFuture<Void>> execute(List<AccountCommand> commands, int concurrency) {
+    Map<UUID, List<PendingCommand>> accounts = new LinkedHashMap<>();
+    List<CompletableFuture<Void>> results = new ArrayList<>(commands.size());
+
+    for (AccountCommand command : commands) {
+      PendingCommand pending = new PendingCommand(command);
+      accounts.computeIfAbsent(command.getAccountId(), id -> new ArrayList<>()).add(pending);
+      results.add(pending.getResult());
+    }
+
+    BoundedLoads.forEach(
+        accounts.entrySet().iterator(),
+        concurrency,
+        account ->
+            new CommandBatch(account.getKey(), account.getValue())
+                .commit(repository, retryPolicy, router));
+
+    return results;
+  }
+
+  /**
+   * Run a command against its account. Without a mailbox the account is loaded, the command is run
+   * and the result is saved, and when another transaction commits to the account first the account
+   * is loaded again and the command is retried. The command for a sharded account is run against
+   * one of its sub-ledgers instead.
+   *
+   * @param command The command to run.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   * @throws TransactionFailedException
+   */
+  public CompletableFuture<Void> execute(AccountCommand command)
+      throws HydrationException, AggregateNotFoundException, TransactionFailedException {
+    if (mailbox != null) {
+      return mailbox.submit(command);
+    }
+
+    return retryPolicy.execute(
+        () ->
+            repository
+                .getById(command.getAccountId())
+                .thenCompose(
+                    account -> {
+                      if (isSharded(account)) {
+                        return router.execute(account, command);
+                      }
+
+                      command.execute(account);
+                      return repository.save(account);
+                    }));
+  }
+
+  /**
+   * Move an account into sharded mode. The balance is split over the given number of sub-ledgers
+   * and later commands for the account are spread over them. The account and its sub-ledgers are
+   * committed together, so a command that was running against the account when it was sharded
+   * conflicts, is retried and then runs against a sub-ledger. The account stays available
+   * throughout.
+   *
+   * @param accountId The account id.
+   * @param shards The number of sub-ledgers.
+   * @throws IllegalArgumentException
+   * @throws IllegalStateException When the account is already sharded.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   * @throws TransactionFailedException
+   */
+  public CompletableFuture<Void> shard(UUID accountId, int shards)
+      throws IllegalArgumentException,
+          IllegalStateException,
+          HydrationException,
+          AggregateNotFoundException,
+          TransactionFailedException {
+    if (router == null) {
+      throw new IllegalStateException("Sharding isn't enabled.");
+    }
+
+    return retryPolicy.execute(
+        () ->
+            repository
+                .getById(accountId)
+                .thenCompose(
+                    account -> {
+                      List<SubLedger> subLedgers = account.shard(shards);
+
+                      UnitOfWork unitOfWork = repository.newUnitOfWork();
+                      unitOfWork.register(account);
+                      subLedgers.forEach(unitOfWork::register);
+                      return unitOfWork.commit();
+                    }));
+  }
+
+  /**
+   * Get the balance of an account. The balance of a sharded account is merged from its sub-ledgers.
+   *
+   * @param accountId The account id.
+   * @return The balance.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  public CompletableFuture<BigDecimal> getBalance(UUID accountId)
+      throws HydrationException, AggregateNotFoundException {
     return repository
         .getById(accountId)
         .thenCompose(
-            account -> {
-              account.withdraw(amount);
-              return repository.save(account);
-            });
+            account ->
+                isSharded(account)
+                    ? router.getBalance(account)
+                    : CompletableFuture.completedFuture(account.getBalance()));
+  }
+
+  private boolean isSharded(Account account) {
+    return router != null && account.getShards() > 0;
   }
 }
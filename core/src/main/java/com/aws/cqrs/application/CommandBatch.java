@@ -0,0 +1,144 @@
+package com.aws.cqrs.application;
+
+import com.aws.cqrs.domain.Account;
+import com.aws.cqrs.infrastructure.persistence.Repository;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The commands for a single account that are run against one loaded account and saved in one
+ * commit.
+ */
+class CommandBatch {
+  private final UUID accountId;
+  private final List<PendingCommand> commands;
+
+  /**
+   * Constructor
+   *
+   * @param accountId The account id.
+   * @param commands The commands in the order they are run.
+   */
+  CommandBatch(UUID accountId, List<PendingCommand> commands) {
+    this.accountId = accountId;
+    this.commands = commands;
+  }
+
+  /**
+   * Run the commands against the account and save all their changes together. A command that is
+   * rejected by the account only fails its own future, and a batch whose commands were all rejected
+   * isn't saved at all. When another writer commits to the account first the account is loaded
+   * again and the whole batch is retried. The commands for a sharded account are spread over its
+   * sub-ledgers instead, one after the other, and each of them is retried on its own.
+   *
+   * @param repository The account repository.
+   * @param retryPolicy The policy used to retry a batch that conflicted with another writer.
+   * @param router The router for the commands of sharded accounts or null when accounts can't be
+   *     sharded.
+   * @return A future that completes once every command of the batch has completed. It never fails.
+   */
+  CompletableFuture<Void> commit(
+      Repository<Account> repository, RetryPolicy retryPolicy, SubLedgerRouter router) {
+    return retryPolicy
+        .execute(
+            () ->
+                repository
+                    .getById(accountId)
+                    .thenCompose(
+                        account -> {
+                          if (router != null && account.getShards() > 0) {
+                            return route(account, router, retryPolicy);
+                          }
+
+                          Throwable[] rejections = new Throwable[commands.size()];
+
+                          for (int i = 0; i < commands.size(); i++) {
+                            try {
+                              commands.get(i).command.execute(account);
+                            } catch (RuntimeException e) {
+                              rejections[i] = e;
+                            }
+                          }
+
+                          // When every command was rejected there is nothing to save.
+                          if (account.getUncommittedChanges().isEmpty()) {
+                            return CompletableFuture.completedFuture(rejections);
+                          }
+
+                          return repository.save(account).thenApply(x -> rejections);
+                        }))
+        .handle(
+            (rejections, exception) -> {
+              for (int i = 0; i < commands.size(); i++) {
+                CompletableFuture<Void> result = commands.get(i).result;
+
+                if (exception != null) {
+                  result.completeExceptionally(exception);
+                } else if (rejections[i] != null) {
+                  result.completeExceptionally(rejections[i]);
+                } else {
+                  result.complete(null);
+                }
+              }
+              return null;
+            });
+  }
+
+  /**
+   * Run the commands against the sub-ledgers of a sharded account one after the other.
+   *
+   * @param account The account.
+   * @param router The router for the commands of sharded accounts.
+   * @param retryPolicy The policy used to retry a command that conflicted with another one.
+   * @return A future with the rejection of each command, or null for the commands that succeeded.
+   */
+  private CompletableFuture<Throwable[]> route(
+      Account account, SubLedgerRouter router, RetryPolicy retryPolicy) {
+    Throwable[] rejections = new Throwable[commands.size()];
+    CompletableFuture<Void> previous = CompletableFuture.completedFuture(null);
+
+    for (int i = 0; i < commands.size(); i++) {
+      int index = i;
+      AccountCommand command = commands.get(i).command;
+
+      previous =
+          previous.thenCompose(
+              x ->
+                  retryPolicy
+                      .execute(() -> router.execute(account, command))
+                      .handle(
+                          (y, exception) -> {
+                            if (exception != null) {
+                              rejections[index] =
+                                  exception instanceof CompletionException
+                                      ? exception.getCause()
+                                      : exception;
+                            }
+                            return null;
+                          }));
+    }
+
+    return previous.thenApply(x -> rejections);
+  }
+
+  /** A command waiting to be run as part of a batch */
+  static class PendingCommand {
+    private final AccountCommand command;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    PendingCommand(AccountCommand command) {
+      this.command = command;
+    }
+
+    /**
+     * Get the result of the command.
+     *
+     * @return A future that completes once the batch the command is part of has been saved.
+     */
+    CompletableFuture<Void> getResult() {
+      return result;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.aws.cqrs.application;
+
+import com.aws.cqrs.application.CommandBatch.PendingCommand;
+import com.aws.cqrs.domain.Account;
+import com.aws.cqrs.infrastructure.persistence.Repository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Queues the commands for each account so that only one batch of commands per account is in flight
+ * at a time. The commands that arrive while a batch is being committed are run together against a
+ * single loaded account and saved in one commit, so commands for a busy account are batched rather
+ * than conflicting with each other.
+ *
+ * <p>An account has a mailbox while it has commands waiting or in flight. The mailbox is drained on
+ * the executor and removed once it is empty.
+ */
+class CommandMailbox {
+  private final Repository<Account> repository;
+  private final RetryPolicy retryPolicy;
+  private final SubLedgerRouter router;
+  private final Executor executor;
+
+  /** The commands waiting for each account that has a batch in flight */
+  private final ConcurrentHashMap<UUID, List<PendingCommand>> mailboxes = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor
+   *
+   * @param repository The account repository.
+   * @param retryPolicy The policy used to retry a batch that conflicted with another writer.
+   * @param router The router for the commands of sharded accounts or null when accounts can't be
+   *     sharded.
+   * @param executor The executor the mailboxes are drained on.
+   */
+  CommandMailbox(
+      Repository<Account> repository,
+      RetryPolicy retryPolicy,
+      SubLedgerRouter router,
+      Executor executor) {
+    this.repository = repository;
+    this.retryPolicy = retryPolicy;
+    this.router = router;
+    this.executor = executor;
+  }
+
+  /**
+   * Queue a command for its account.
+   *
+   * @param command The command.
+   * @return A future that completes once the batch the command was part of has been saved.
+   */
+  CompletableFuture<Void> submit(AccountCommand command) {
+    PendingCommand pending = new PendingCommand(command);
+    boolean[] created = new boolean[1];
+
+    mailboxes.compute(
+        command.getAccountId(),
+        (id, queue) -> {
+          if (queue == null) {
+            queue = new ArrayList<>();
+            created[0] = true;
+          }
+          queue.add(pending);
+          return queue;
+        });
+
+    if (created[0]) {
+      executor.execute(() -> drain(command.getAccountId()));
+    }
+
+    return pending.getResult();
+  }
+
+  /**
+   * Commit the commands waiting for an account and keep going until none are left.
+   *
+   * @param accountId The account id.
+   */
+  private void drain(UUID accountId) {
+    List<PendingCommand> batch = takeBatch(accountId);
+
+    if (batch == null) {
+      return;
+    }
+
+    new CommandBatch(accountId, batch)
+        .commit(repository, retryPolicy, router)
+        .whenComplete((x, exception) -> executor.execute(() -> drain(accountId)));
+  }
+
+  /**
+   * Take the commands waiting for an account. The mailbox is removed when none are waiting so that
+   * the next command starts a new drain.
+   *
+   * @param accountId The account id.
+   * @return The commands or null when none are waiting.
+   */
+  private List<PendingCommand> takeBatch(UUID accountId) {
+    List<List<PendingCommand>> taken = new ArrayList<>(1);
+
+    mailboxes.computeIfPresent(
+        accountId,
+        (id, queue) -> {
+          if (queue.isEmpty()) {
+            return null;
+          }
+          taken.add(queue);
+          return new ArrayList<>();
+        });
+
+    return taken.isEmpty() ? null : taken.get(0);
+  }
+}
@@ -0,0 +1,99 @@
+package com.aws.cqrs.application;
+
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries an operation that failed because another writer appended events to the same aggregate
+ * first. Each retry waits a random delay of up to an exponentially growing ceiling so that writers
+ * that collided don't collide again on the next attempt.
+ */
+public class RetryPolicy {
+
+  /** Retry up to four times waiting no more than 200 milliseconds between attempts. */
+  public static final RetryPolicy DEFAULT =
+      new RetryPolicy(5, Duration.ofMillis(10), Duration.ofMillis(200));
+
+  /** Never retry. */
+  public static final RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+  private final int maxAttempts;
+
+  private final long baseDelayMillis;
+
+  private final long maxDelayMillis;
+
+  /**
+   * Constructor
+   *
+   * @param maxAttempts The maximum number of attempts including the first one.
+   * @param baseDelay The delay ceiling before the first retry. It doubles with every retry.
+   * @param maxDelay The largest delay ceiling.
+   */
+  public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+    if (maxAttempts <= 0) {
+      throw new IllegalArgumentException("Maximum attempts must be greater than zero.");
+    }
+
+    if (baseDelay.isNegative() || maxDelay.compareTo(baseDelay) < 0) {
+      throw new IllegalArgumentException(
+          "Delays must not be negative and the maximum delay must not be less than the base delay.");
+    }
+
+    this.maxAttempts = maxAttempts;
+    this.baseDelayMillis = baseDelay.toMillis();
+    this.maxDelayMillis = maxDelay.toMillis();
+  }
+
+  /**
+   * Run an operation and retry it while it fails with a {@link ConcurrencyException}.
+   *
+   * @param operation Starts a new attempt of the operation.
+   * @return The result of the first attempt that didn't conflict.
+   */
+  public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> operation) {
+    return attempt(operation, 1);
+  }
+
+  /**
+   * Get the delay ceiling before a retry.
+   *
+   * @param attempt The attempt that failed, starting at 1.
+   * @return The delay ceiling in milliseconds.
+   */
+  long getMaxDelayMillis(int attempt) {
+    int shift = Math.min(attempt - 1, 30);
+    return Math.min(maxDelayMillis, baseDelayMillis << shift);
+  }
+
+  private <T> CompletableFuture<T> attempt(Supplier<CompletableFuture<T>> operation, int attempt) {
+    return operation
+        .get()
+        .handle(
+            (result, exception) -> {
+              if (exception == null) {
+                return CompletableFuture.completedFuture(result);
+              }
+
+              if (attempt >= maxAttempts || !isConflict(exception)) {
+                return CompletableFuture.<T>failedFuture(exception);
+              }
+
+              long delay = ThreadLocalRandom.current().nextLong(getMaxDelayMillis(attempt) + 1);
+              return CompletableFuture.supplyAsync(
+                      () -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                  .thenCompose(x -> attempt(operation, attempt + 1));
+            })
+        .thenCompose(future -> future);
+  }
+
+  private static boolean isConflict(Throwable exception) {
+    Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+    return cause instanceof ConcurrencyException;
+  }
+}
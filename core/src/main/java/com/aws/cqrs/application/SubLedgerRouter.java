@@ -0,0 +1,121 @@
+package com.aws.cqrs.application;
+
+import com.aws.cqrs.domain.Account;
+import com.aws.cqrs.domain.SubLedger;
+import com.aws.cqrs.infrastructure.persistence.Repository;
+import com.aws.cqrs.infrastructure.persistence.UnitOfWork;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs the commands of sharded accounts against their sub-ledgers. Every command picks a random
+ * sub-ledger, so concurrent commands for the same account mostly write to different streams.
+ * Deposits and withdrawals the sub-ledger covers only touch that sub-ledger, other withdrawals load
+ * every sub-ledger of the account and commit the ones that changed together. Commands aren't
+ * retried here, a command that conflicted with another one is retried by the caller and picks a
+ * sub-ledger again.
+ */
+class SubLedgerRouter {
+  private final Repository<SubLedger> repository;
+
+  /**
+   * Constructor
+   *
+   * @param repository The sub-ledger repository.
+   */
+  SubLedgerRouter(Repository<SubLedger> repository) {
+    this.repository = repository;
+  }
+
+  /**
+   * Run a command against the sub-ledgers of a sharded account.
+   *
+   * @param account The account.
+   * @param command The command.
+   * @return A future that completes once the command has been committed.
+   */
+  CompletableFuture<Void> execute(Account account, AccountCommand command) {
+    int shard = ThreadLocalRandom.current().nextInt(account.getShards());
+
+    return repository
+        .getById(SubLedger.subLedgerId(account.getId(), shard))
+        .thenCompose(
+            subLedger -> {
+              if (command.getType() == AccountCommand.Type.DEPOSIT) {
+                subLedger.deposit(command.getAmount());
+                return repository.save(subLedger);
+              }
+
+              if (subLedger.canWithdraw(command.getAmount())) {
+                subLedger.withdraw(command.getAmount());
+                return repository.save(subLedger);
+              }
+
+              return withdrawFromAll(account, subLedger, command.getAmount());
+            });
+  }
+
+  /**
+   * Merge the sub-ledgers of a sharded account into its balance.
+   *
+   * @param account The account.
+   * @return The balance.
+   */
+  CompletableFuture<BigDecimal> getBalance(Account account) {
+    return getSubLedgers(account, -1)
+        .thenApply(
+            subLedgers ->
+                subLedgers.stream()
+                    .map(SubLedger::getAvailable)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+  }
+
+  /**
+   * Make a withdrawal that the target sub-ledger doesn't cover on its own.
+   *
+   * @param account The account.
+   * @param target The sub-ledger to withdraw from.
+   * @param amount The amount to withdraw.
+   * @return A future that completes once the changed sub-ledgers have been committed.
+   */
+  private CompletableFuture<Void> withdrawFromAll(
+      Account account, SubLedger target, BigDecimal amount) {
+    return getSubLedgers(account, target.getShard())
+        .thenCompose(
+            subLedgers -> {
+              subLedgers.add(target);
+              SubLedger.withdraw(subLedgers, target, amount);
+
+              UnitOfWork unitOfWork = repository.newUnitOfWork();
+              subLedgers.forEach(unitOfWork::register);
+              return unitOfWork.commit();
+            });
+  }
+
+  /**
+   * Load the sub-ledgers of an account.
+   *
+   * @param account The account.
+   * @param skippedShard A shard that is already loaded or -1 to load them all.
+   * @return The sub-ledgers.
+   */
+  private CompletableFuture<List<SubLedger>> getSubLedgers(Account account, int skippedShard) {
+    List<UUID> ids = new ArrayList<>(account.getShards());
+
+    for (int shard = 0; shard < account.getShards(); shard++) {
+      if (shard != skippedShard) {
+        ids.add(SubLedger.subLedgerId(account.getId(), shard));
+      }
+    }
+
+    List<SubLedger> subLedgers = Collections.synchronizedList(new ArrayList<>(ids.size() + 1));
+    return repository
+        .getByIds(ids, ids.size(), subLedgers::add)
+        .thenApply(x -> new ArrayList<>(subLedgers));
+  }
+}
@@ -1,19 +1,32 @@
 package com.aws.cqrs.domain;
 
+import com.aws.cqrs.codegen.GenerateDispatcher;
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
 /** Class that represents an account. */
-public class Account extends AggregateRootBase {
+@GenerateDispatcher
+public class Account extends AggregateRootBase
+    implements Snapshottable<AccountSnapshot>, StateCarrying {
 
   /** The amount to charge the customer for an overdraft. */
-  private static final BigDecimal OVERDRAFT_CHARGE = new BigDecimal(10);
+  static final BigDecimal OVERDRAFT_CHARGE = new BigDecimal(10);
+
+  /** The maximum number of sub-ledgers of a sharded account */
+  public static final int MAX_SHARDS = 32;
 
   /** The account balance */
   private BigDecimal balance = BigDecimal.ZERO;
 
+  /** The number of sub-ledgers or zero when the account isn't sharded */
+  private int shards;
+
   public Account() {}
 
   /**
@@ -34,6 +47,7 @@ public class Account extends AggregateRootBase {
    * @throws HydrationException
    */
   public void deposit(BigDecimal amount) throws IllegalArgumentException, HydrationException {
+    requireNotSharded();
 
     if (amount.compareTo(BigDecimal.ZERO) <= 0) {
       throw new IllegalArgumentException("Amount must be greater than zero.");
@@ -51,6 +65,8 @@ public class Account extends AggregateRootBase {
    * @throws HydrationException
    */
   public void withdraw(BigDecimal amount) throws IllegalArgumentException, HydrationException {
+    requireNotSharded();
+
     if (amount.compareTo(BigDecimal.ZERO) <= 0) {
       throw new IllegalArgumentException("Amount must be greater than zero.");
     }
@@ -67,6 +83,71 @@ public class Account extends AggregateRootBase {
     }
   }
 
+  /**
+   * Spread the writes of the account over a number of sub-ledgers. The balance is split over the
+   * sub-ledgers as their headroom and from then on deposits and withdrawals are made through them.
+   * The account and the sub-ledgers have to be committed together. An overdrawn account can't be
+   * sharded until it is back in credit.
+   *
+   * @param shards The number of sub-ledgers.
+   * @return The sub-ledgers that were opened.
+   * @throws IllegalArgumentException
+   * @throws IllegalStateException When the account is already sharded or overdrawn.
+   * @throws HydrationException
+   */
+  public List<SubLedger> shard(int shards)
+      throws IllegalArgumentException, IllegalStateException, HydrationException {
+    requireNotSharded();
+
+    if (balance.signum() < 0) {
+      throw new IllegalStateException("An overdrawn account can't be sharded.");
+    }
+
+    if (shards < 2 || shards > MAX_SHARDS) {
+      throw new IllegalArgumentException(
+          "The number of sub-ledgers must be between 2 and " + MAX_SHARDS + ".");
+    }
+
+    applyChange(new AccountSharded(this.getId(), shards, balance));
+
+    // Any remainder of the split goes to the first sub-ledger.
+    BigDecimal headroom =
+        balance.divide(BigDecimal.valueOf(shards), balance.scale(), RoundingMode.DOWN);
+    List<SubLedger> subLedgers = new ArrayList<>(shards);
+    subLedgers.add(
+        SubLedger.open(
+            this.getId(), 0, balance.subtract(headroom.multiply(BigDecimal.valueOf(shards - 1)))));
+
+    for (int shard = 1; shard < shards; shard++) {
+      subLedgers.add(SubLedger.open(this.getId(), shard, headroom));
+    }
+
+    return subLedgers;
+  }
+
+  /**
+   * @return The number of sub-ledgers or zero when the account isn't sharded.
+   */
+  public int getShards() {
+    return shards;
+  }
+
+  /**
+   * Get the balance. The balance of a sharded account is the sum of what its sub-ledgers hold, this
+   * is only the balance at the time it was sharded.
+   *
+   * @return The balance.
+   */
+  public BigDecimal getBalance() {
+    return balance;
+  }
+
+  private void requireNotSharded() throws IllegalStateException {
+    if (shards > 0) {
+      throw new IllegalStateException("The account is sharded, use its sub-ledgers.");
+    }
+  }
+
   /**
    * Create a new account.
    *
@@ -86,6 +167,55 @@ public class Account extends AggregateRootBase {
     return new Account(accountId, firstName, lastName);
   }
 
+  @Override
+  public AccountSnapshot getSnapshot() {
+    return new AccountSnapshot(id, balance, shards);
+  }
+
+  @Override
+  public void loadFromSnapshot(AccountSnapshot snapshot, int version) throws HydrationException {
+    if (snapshot == null) {
+      throw new HydrationException(id);
+    }
+
+    id = snapshot.getAccountId();
+    balance = snapshot.getBalance();
+    shards = snapshot.getShards();
+    setExpectedVersion(version);
+  }
+
+  @Override
+  public boolean loadFromLatestEvent(Event creationEvent, Event latestEvent, int version)
+      throws HydrationException {
+    if (!(creationEvent instanceof AccountCreated accountCreated)) {
+      throw new HydrationException(id);
+    }
+
+    BigDecimal latestBalance;
+    int latestShards = 0;
+    if (latestEvent instanceof AccountSharded accountSharded) {
+      // Nothing is appended to a sharded account, its balance lives in its sub-ledgers.
+      latestBalance = accountSharded.getBalance();
+      latestShards = accountSharded.getShards();
+    } else if (latestEvent instanceof Deposited deposited) {
+      latestBalance = deposited.getNewBalance();
+    } else if (latestEvent instanceof Withdrew withdrew) {
+      latestBalance = withdrew.getNewBalance();
+    } else if (latestEvent instanceof Overdrawn overdrawn) {
+      latestBalance = overdrawn.getNewBalance();
+    } else if (version == 1 && latestEvent instanceof AccountCreated) {
+      latestBalance = BigDecimal.ZERO;
+    } else {
+      return false;
+    }
+
+    id = accountCreated.getAccountId();
+    balance = latestBalance;
+    shards = latestShards;
+    setExpectedVersion(version);
+    return true;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -106,8 +236,7 @@ public class Account extends AggregateRootBase {
    *
    * @param event The event to apply.
    */
-  @SuppressWarnings("unused")
-  private void apply(AccountCreated event) {
+  void apply(AccountCreated event) {
     id = event.getAccountId();
   }
 
@@ -116,8 +245,7 @@ public class Account extends AggregateRootBase {
    *
    * @param event The event to apply.
    */
-  @SuppressWarnings("unused")
-  private void apply(Deposited event) {
+  void apply(Deposited event) {
     balance = event.getNewBalance();
   }
 
@@ -126,8 +254,7 @@ public class Account extends AggregateRootBase {
    *
    * @param event The event to apply.
    */
-  @SuppressWarnings("unused")
-  private void apply(Withdrew event) {
+  void apply(Withdrew event) {
     balance = event.getNewBalance();
   }
 
@@ -136,8 +263,16 @@ public class Account extends AggregateRootBase {
    *
    * @param event The event to apply.
    */
-  @SuppressWarnings("unused")
-  private void apply(Overdrawn event) {
+  void apply(Overdrawn event) {
     balance = event.getNewBalance();
   }
+
+  /**
+   * Apply the state change for the {@link AccountSharded} event.
+   *
+   * @param event The event to apply.
+   */
+  void apply(AccountSharded event) {
+    shards = event.getShards();
+  }
 }
@@ -1,10 +1,12 @@
 package com.aws.cqrs.domain;
 
+import com.aws.cqrs.codegen.GenerateCodec;
 import com.aws.cqrs.infrastructure.messaging.Event;
 import java.io.Serializable;
 import java.util.UUID;
 
 /** Event that is published when an account is created. */
+@GenerateCodec(kind = "acct.v1")
 public class AccountCreated implements Event, Serializable {
 
   private UUID accountId;
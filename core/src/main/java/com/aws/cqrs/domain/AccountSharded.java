@@ -0,0 +1,53 @@
+package com.aws.cqrs.domain;
+
+import com.aws.cqrs.codegen.GenerateCodec;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** Event that is published when the writes of an account are spread over sub-ledgers. */
+@GenerateCodec(kind = "shd.v1")
+public class AccountSharded implements Event, Serializable {
+
+  private UUID accountId;
+  private int shards;
+  private BigDecimal balance;
+
+  /** Default Constructor for serialization. */
+  public AccountSharded() {}
+
+  /**
+   * Constructor
+   *
+   * @param accountId The account id.
+   * @param shards The number of sub-ledgers.
+   * @param balance The account balance that was split over the sub-ledgers.
+   */
+  public AccountSharded(UUID accountId, int shards, BigDecimal balance) {
+    this.accountId = accountId;
+    this.shards = shards;
+    this.balance = balance;
+  }
+
+  /**
+   * @return The account id.
+   */
+  public UUID getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return The number of sub-ledgers.
+   */
+  public int getShards() {
+    return shards;
+  }
+
+  /**
+   * @return The account balance that was split over the sub-ledgers.
+   */
+  public BigDecimal getBalance() {
+    return balance;
+  }
+}
@@ -0,0 +1,60 @@
+package com.aws.cqrs.domain;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** The state of an {@link Account} captured in a snapshot. */
+public class AccountSnapshot implements Serializable {
+
+  private UUID accountId;
+  private BigDecimal balance;
+  private int shards;
+
+  /** Default Constructor for serialization. */
+  public AccountSnapshot() {}
+
+  /**
+   * Constructor
+   *
+   * @param accountId The account id.
+   * @param balance The account balance.
+   */
+  public AccountSnapshot(UUID accountId, BigDecimal balance) {
+    this(accountId, balance, 0);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param accountId The account id.
+   * @param balance The account balance.
+   * @param shards The number of sub-ledgers or zero when the account isn't sharded.
+   */
+  public AccountSnapshot(UUID accountId, BigDecimal balance, int shards) {
+    this.accountId = accountId;
+    this.balance = balance;
+    this.shards = shards;
+  }
+
+  /**
+   * @return The account id.
+   */
+  public UUID getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return The account balance.
+   */
+  public BigDecimal getBalance() {
+    return balance;
+  }
+
+  /**
+   * @return The number of sub-ledgers or zero when the account isn't sharded.
+   */
+  public int getShards() {
+    return shards;
+  }
+}
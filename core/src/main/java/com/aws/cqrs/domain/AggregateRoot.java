@@ -23,7 +23,10 @@ public interface AggregateRoot {
    */
   List<Event> getUncommittedChanges();
 
-  /** Mark all changes a committed */
+  /**
+   * Mark all changes a committed. The expected version moves past the committed changes so that the
+   * aggregate can be saved again.
+   */
   void markChangesAsCommitted();
 
   /**
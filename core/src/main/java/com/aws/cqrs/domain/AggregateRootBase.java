@@ -2,16 +2,41 @@ package com.aws.cqrs.domain;
 
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
 import com.aws.cqrs.infrastructure.messaging.Event;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.UUID;
 
 /** Base class for aggregate root implementations */
 public abstract class AggregateRootBase implements AggregateRoot {
 
+  private static final String APPLY_METHOD_NAME = "apply";
+
+  private static final MethodType APPLY_METHOD_TYPE =
+      MethodType.methodType(void.class, AggregateRootBase.class, Event.class);
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /** The apply methods of each aggregate type, resolved once per type */
+  private static final ClassValue<Map<Class<?>, MethodHandle>> APPLY_METHODS =
+      new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, MethodHandle> computeValue(Class<?> type) {
+          return findApplyMethods(type);
+        }
+      };
+
+  /** The generated dispatchers keyed by the aggregate type they apply events to */
+  private static final Map<Class<?>, EventDispatcher<?>> DISPATCHERS = loadDispatchers();
+
   /** Aggregate id */
   protected UUID id = null;
 
@@ -26,8 +51,19 @@ public abstract class AggregateRootBase implements AggregateRoot {
     return expectedVersion;
   }
 
+  /**
+   * Set the expected version. This is used when the state is restored from somewhere other than the
+   * history, such as a snapshot.
+   *
+   * @param expectedVersion The expected version.
+   */
+  protected void setExpectedVersion(int expectedVersion) {
+    this.expectedVersion = expectedVersion;
+  }
+
   @Override
   public void markChangesAsCommitted() {
+    expectedVersion += changes.size();
     changes.clear();
   }
 
@@ -64,35 +100,115 @@ public abstract class AggregateRootBase implements AggregateRoot {
 
   /**
    * Apply the change by invoking the inherited members apply method that fits the signature of the
-   * event passed
+   * event passed. The generated dispatcher of the aggregate is used when there is one, otherwise
+   * the apply methods are looked up at runtime.
    *
    * @param event The event to apply the change.
    * @param isNew Pass true if applying a new change.
    * @throws HydrationException
    */
+  @SuppressWarnings("unchecked")
   private void applyChange(Event event, boolean isNew) throws HydrationException {
 
-    Method method = null;
+    EventDispatcher<AggregateRootBase> dispatcher =
+        (EventDispatcher<AggregateRootBase>) DISPATCHERS.get(this.getClass());
 
-    try {
-      method = this.getClass().getDeclaredMethod("apply", event.getClass());
-    } catch (NoSuchMethodException e) {
-      // do nothing. This just means that the method signature wasn't found and
-      // the aggregate doesn't need to apply any state changes since it wasn't
-      // implemented.
+    if (dispatcher != null) {
+      try {
+        dispatcher.dispatch(this, event);
+      } catch (Exception e) {
+        throw new HydrationException(e, this.getId());
+      }
+    } else {
+      invokeApplyMethod(event);
+    }
+
+    if (isNew) {
+      changes.add(event);
     }
+  }
+
+  /**
+   * Invoke the apply method for the event that was found at runtime.
+   *
+   * @param event The event to apply.
+   * @throws HydrationException
+   */
+  private void invokeApplyMethod(Event event) throws HydrationException {
+
+    MethodHandle method = APPLY_METHODS.get(this.getClass()).get(event.getClass());
 
+    // When there isn't a matching method the aggregate doesn't need to apply any state changes
+    // for this event.
     if (method != null) {
-      method.setAccessible(true);
       try {
-        method.invoke(this, event);
-      } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        method.invokeExact(this, event);
+      } catch (Throwable e) {
         throw new HydrationException(e, this.getId());
       }
     }
+  }
 
-    if (isNew) {
-      changes.add(event);
+  /**
+   * Load the dispatchers generated for aggregates annotated with {@code @GenerateDispatcher}.
+   *
+   * @return The dispatchers keyed by aggregate type.
+   */
+  @SuppressWarnings("rawtypes")
+  private static Map<Class<?>, EventDispatcher<?>> loadDispatchers() {
+    Map<Class<?>, EventDispatcher<?>> dispatchers = new HashMap<>();
+
+    for (EventDispatcher dispatcher :
+        ServiceLoader.load(EventDispatcher.class, AggregateRootBase.class.getClassLoader())) {
+      dispatchers.put(dispatcher.getAggregateType(), dispatcher);
     }
+
+    return Map.copyOf(dispatchers);
+  }
+
+  /**
+   * Find the apply methods declared by an aggregate type and its super classes. Each method is
+   * adapted to take the aggregate and event as their base types so that it can be invoked without
+   * any further lookups. When more than one class declares an apply method for the same event the
+   * one closest to the aggregate type is used.
+   *
+   * @param aggregateType The aggregate type.
+   * @return The apply methods keyed by the type of event they apply.
+   */
+  private static Map<Class<?>, MethodHandle> findApplyMethods(Class<?> aggregateType) {
+    Map<Class<?>, MethodHandle> methods = new HashMap<>();
+
+    for (Class<?> type = aggregateType; type != null; type = type.getSuperclass()) {
+      for (Method method : type.getDeclaredMethods()) {
+        if (!isApplyMethod(method) || methods.containsKey(method.getParameterTypes()[0])) {
+          continue;
+        }
+
+        try {
+          method.setAccessible(true);
+          methods.put(
+              method.getParameterTypes()[0], LOOKUP.unreflect(method).asType(APPLY_METHOD_TYPE));
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+
+    return Map.copyOf(methods);
+  }
+
+  /**
+   * Check whether a method is an apply method for an event.
+   *
+   * @param method The method.
+   * @return True if the method applies an event.
+   */
+  private static boolean isApplyMethod(Method method) {
+    return APPLY_METHOD_NAME.equals(method.getName())
+        && method.getParameterCount() == 1
+        && Event.class.isAssignableFrom(method.getParameterTypes()[0])
+        && !Modifier.isStatic(method.getModifiers())
+        && !method.isBridge()
+        && !method.isSynthetic();
   }
 }
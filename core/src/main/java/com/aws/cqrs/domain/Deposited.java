@@ -1,9 +1,12 @@
 package com.aws.cqrs.domain;
 
+import com.aws.cqrs.codegen.GenerateCodec;
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 /** Event that is published when an account has been deposited to. */
+@GenerateCodec(kind = "dep.v1")
 public class Deposited extends Transaction {
 
   /** Default Constructor for serialization. */
@@ -21,4 +24,22 @@ public class Deposited extends Transaction {
   public Deposited(UUID accountId, BigDecimal amount, BigDecimal balance) {
     super(accountId, amount, balance);
   }
+
+  /**
+   * Constructor
+   *
+   * @param accountId The account id.
+   * @param transactionId The transaction id.
+   * @param amount The amount deposited.
+   * @param date The transaction date.
+   * @param newBalance The account balance.
+   */
+  public Deposited(
+      UUID accountId,
+      UUID transactionId,
+      BigDecimal amount,
+      OffsetDateTime date,
+      BigDecimal newBalance) {
+    super(accountId, transactionId, amount, date, newBalance);
+  }
 }
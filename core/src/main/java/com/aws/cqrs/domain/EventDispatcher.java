@@ -0,0 +1,27 @@
+package com.aws.cqrs.domain;
+
+import com.aws.cqrs.infrastructure.messaging.Event;
+
+/**
+ * Applies events to an aggregate without reflection. Implementations are generated for aggregates
+ * annotated with {@code @GenerateDispatcher}.
+ *
+ * @param <T> The aggregate type.
+ */
+public interface EventDispatcher<T extends AggregateRootBase> {
+
+  /**
+   * @return The type of aggregate this dispatcher applies events to.
+   */
+  Class<T> getAggregateType();
+
+  /**
+   * Invoke the apply method of the aggregate for the event.
+   *
+   * @param aggregate The aggregate.
+   * @param event The event to apply.
+   * @return True if the aggregate has an apply method for the event.
+   * @throws Exception When the apply method fails.
+   */
+  boolean dispatch(T aggregate, Event event) throws Exception;
+}
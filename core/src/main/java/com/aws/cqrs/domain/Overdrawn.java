@@ -1,11 +1,13 @@
 package com.aws.cqrs.domain;
 
+import com.aws.cqrs.codegen.GenerateCodec;
 import com.aws.cqrs.infrastructure.messaging.Event;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.UUID;
 
 /** Event that is published when an account has been overdrawn. */
+@GenerateCodec(kind = "ovr.v1")
 public class Overdrawn implements Event, Serializable {
 
   private UUID accountId;
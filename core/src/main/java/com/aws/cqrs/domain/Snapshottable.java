@@ -0,0 +1,28 @@
+package com.aws.cqrs.domain;
+
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+
+/**
+ * Interface for an aggregate root whose state can be captured in a snapshot so that it can be
+ * hydrated without replaying its entire history.
+ *
+ * @param <S> The type of the snapshot state.
+ */
+public interface Snapshottable<S> extends AggregateRoot {
+
+  /**
+   * Capture the current state of the aggregate.
+   *
+   * @return The snapshot state.
+   */
+  S getSnapshot();
+
+  /**
+   * Restore the aggregate from a snapshot.
+   *
+   * @param snapshot The snapshot state.
+   * @param version The version of the aggregate when the snapshot was taken.
+   * @throws HydrationException
+   */
+  void loadFromSnapshot(S snapshot, int version) throws HydrationException;
+}
@@ -0,0 +1,24 @@
+package com.aws.cqrs.domain;
+
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+
+/**
+ * Interface for an aggregate root whose events carry its state, so that it can be hydrated from its
+ * creation event and its latest event without replaying the events in between.
+ */
+public interface StateCarrying extends AggregateRoot {
+
+  /**
+   * Restore the aggregate from its creation event and its latest event.
+   *
+   * @param creationEvent The first event of the aggregate.
+   * @param latestEvent The most recent event of the aggregate.
+   * @param version The version of the latest event.
+   * @return False if the latest event doesn't carry the state, in which case the history has to be
+   *     replayed instead.
+   * @throws HydrationException
+   */
+  boolean loadFromLatestEvent(Event creationEvent, Event latestEvent, int version)
+      throws HydrationException;
+}
@@ -0,0 +1,242 @@
+package com.aws.cqrs.domain;
+
+import com.aws.cqrs.codegen.GenerateDispatcher;
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One of the sub-ledgers of a sharded account. Each sub-ledger is a stream of its own, so the
+ * writes of a busy account are spread over several partitions.
+ *
+ * <p>A sub-ledger starts with part of the account balance as headroom. A withdrawal that its own
+ * headroom covers is made from the sub-ledger alone, which can never overdraw the account as long
+ * as no sub-ledger is below zero. Any other withdrawal needs every sub-ledger of the account, see
+ * {@link #withdraw(List, SubLedger, BigDecimal)}.
+ */
+@GenerateDispatcher
+public class SubLedger extends AggregateRootBase {
+
+  private UUID accountId;
+  private int shard;
+
+  /** The part of the account balance held by this sub-ledger */
+  private BigDecimal available = BigDecimal.ZERO;
+
+  /** Whether the account as a whole was overdrawn when the sub-ledger was last reconciled */
+  private boolean accountOverdrawn;
+
+  public SubLedger() {}
+
+  /**
+   * Constructor used when opening a new sub-ledger
+   *
+   * @param accountId The account id.
+   * @param shard The shard number.
+   * @param headroom The part of the account balance the sub-ledger starts with.
+   * @throws HydrationException
+   */
+  private SubLedger(UUID accountId, int shard, BigDecimal headroom) throws HydrationException {
+    applyChange(new SubLedgerOpened(subLedgerId(accountId, shard), accountId, shard, headroom));
+  }
+
+  /**
+   * Open a sub-ledger of an account.
+   *
+   * @param accountId The account id.
+   * @param shard The shard number.
+   * @param headroom The part of the account balance the sub-ledger starts with.
+   * @return A new instance of a SubLedger.
+   * @throws HydrationException
+   */
+  public static SubLedger open(UUID accountId, int shard, BigDecimal headroom)
+      throws HydrationException {
+    return new SubLedger(accountId, shard, headroom);
+  }
+
+  /**
+   * Get the id of a sub-ledger of an account. The id is derived from the account id and the shard
+   * number, so the sub-ledgers of an account can be found without looking them up.
+   *
+   * @param accountId The account id.
+   * @param shard The shard number.
+   * @return The sub-ledger id.
+   */
+  public static UUID subLedgerId(UUID accountId, int shard) {
+    return UUID.nameUUIDFromBytes((accountId + "#" + shard).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return The id of the account the sub-ledger belongs to.
+   */
+  public UUID getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return The shard number.
+   */
+  public int getShard() {
+    return shard;
+  }
+
+  /**
+   * @return The part of the account balance held by this sub-ledger.
+   */
+  public BigDecimal getAvailable() {
+    return available;
+  }
+
+  /**
+   * Check whether a withdrawal can be made from this sub-ledger alone.
+   *
+   * @param amount The amount to withdraw.
+   * @return True if the headroom of the sub-ledger covers the amount.
+   */
+  public boolean canWithdraw(BigDecimal amount) {
+    return !accountOverdrawn && available.compareTo(amount) >= 0;
+  }
+
+  /**
+   * Make a deposit into the sub-ledger.
+   *
+   * @param amount The amount to deposit.
+   * @throws IllegalArgumentException
+   * @throws HydrationException
+   */
+  public void deposit(BigDecimal amount) throws IllegalArgumentException, HydrationException {
+    requirePositive(amount);
+    post(SubLedgerPosted.DEPOSIT, UUID.randomUUID(), amount, accountOverdrawn);
+  }
+
+  /**
+   * Make a withdrawal that the headroom of the sub-ledger covers.
+   *
+   * @param amount The amount to withdraw.
+   * @throws IllegalArgumentException
+   * @throws IllegalStateException When the headroom doesn't cover the amount.
+   * @throws HydrationException
+   */
+  public void withdraw(BigDecimal amount)
+      throws IllegalArgumentException, IllegalStateException, HydrationException {
+    requirePositive(amount);
+
+    if (!canWithdraw(amount)) {
+      throw new IllegalStateException("The sub-ledger doesn't cover the withdrawal.");
+    }
+
+    post(SubLedgerPosted.WITHDRAWAL, UUID.randomUUID(), amount.negate(), false);
+  }
+
+  /**
+   * Make a withdrawal that needs the headroom of other sub-ledgers. When the account is in credit
+   * and covers the amount only the headroom that is missing is moved into the target. Otherwise all
+   * the headroom is moved into the target, the withdrawal is made from it and, when that overdraws
+   * the account, the overdraft is charged the same way as for an account that isn't sharded. In
+   * that case every sub-ledger records that the account is overdrawn so that later withdrawals are
+   * made the same way until the account is back in credit.
+   *
+   * @param subLedgers Every sub-ledger of the account.
+   * @param target The sub-ledger to withdraw from.
+   * @param amount The amount to withdraw.
+   * @throws IllegalArgumentException
+   * @throws HydrationException
+   */
+  public static void withdraw(List<SubLedger> subLedgers, SubLedger target, BigDecimal amount)
+      throws IllegalArgumentException, HydrationException {
+    requirePositive(amount);
+
+    BigDecimal total = BigDecimal.ZERO;
+    boolean overdrawn = false;
+
+    for (SubLedger subLedger : subLedgers) {
+      total = total.add(subLedger.available);
+      overdrawn |= subLedger.accountOverdrawn;
+    }
+
+    UUID transactionId = UUID.randomUUID();
+
+    if (!overdrawn && total.compareTo(amount) >= 0) {
+      BigDecimal missing = amount.subtract(target.available);
+
+      for (SubLedger subLedger : subLedgers) {
+        if (missing.signum() <= 0) {
+          break;
+        }
+        if (subLedger != target && subLedger.available.signum() > 0) {
+          BigDecimal moved = subLedger.available.min(missing);
+          subLedger.post(SubLedgerPosted.REBALANCE, transactionId, moved.negate(), false);
+          target.post(SubLedgerPosted.REBALANCE, transactionId, moved, false);
+          missing = missing.subtract(moved);
+        }
+      }
+
+      target.post(SubLedgerPosted.WITHDRAWAL, transactionId, amount.negate(), false);
+      return;
+    }
+
+    BigDecimal newTotal = total.subtract(amount);
+    boolean overdraws = newTotal.signum() < 0;
+    if (overdraws) {
+      newTotal = newTotal.subtract(Account.OVERDRAFT_CHARGE);
+    }
+
+    List<SubLedger> others = new ArrayList<>(subLedgers);
+    others.remove(target);
+    for (SubLedger subLedger : others) {
+      BigDecimal moved = subLedger.available;
+      subLedger.post(SubLedgerPosted.REBALANCE, transactionId, moved.negate(), overdraws);
+      target.post(SubLedgerPosted.REBALANCE, transactionId, moved, overdraws);
+    }
+
+    target.post(SubLedgerPosted.WITHDRAWAL, transactionId, amount.negate(), overdraws);
+    if (overdraws) {
+      target.post(
+          SubLedgerPosted.OVERDRAFT, transactionId, Account.OVERDRAFT_CHARGE.negate(), true);
+    }
+  }
+
+  private void post(String type, UUID transactionId, BigDecimal amount, boolean accountOverdrawn)
+      throws HydrationException {
+    applyChange(
+        new SubLedgerPosted(
+            getId(),
+            accountId,
+            transactionId,
+            type,
+            amount,
+            available.add(amount),
+            accountOverdrawn));
+  }
+
+  private static void requirePositive(BigDecimal amount) throws IllegalArgumentException {
+    if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+      throw new IllegalArgumentException("Amount must be greater than zero.");
+    }
+  }
+
+  /**
+   * Apply the state change for the {@link SubLedgerOpened} event.
+   *
+   * @param event The event to apply.
+   */
+  void apply(SubLedgerOpened event) {
+    id = event.getSubLedgerId();
+    accountId = event.getAccountId();
+    shard = event.getShard();
+    available = event.getHeadroom();
+  }
+
+  /**
+   * Apply the state change for the {@link SubLedgerPosted} event.
+   *
+   * @param event The event to apply.
+   */
+  void apply(SubLedgerPosted event) {
+    available = event.getNewAvailable();
+    accountOverdrawn = event.isAccountOverdrawn();
+  }
+}
@@ -0,0 +1,63 @@
+package com.aws.cqrs.domain;
+
+import com.aws.cqrs.codegen.GenerateCodec;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** Event that is published when a sub-ledger of a sharded account is opened. */
+@GenerateCodec(kind = "sub.v1")
+public class SubLedgerOpened implements Event, Serializable {
+
+  private UUID subLedgerId;
+  private UUID accountId;
+  private int shard;
+  private BigDecimal headroom;
+
+  /** Default Constructor for serialization. */
+  public SubLedgerOpened() {}
+
+  /**
+   * Constructor
+   *
+   * @param subLedgerId The sub-ledger id.
+   * @param accountId The id of the account the sub-ledger belongs to.
+   * @param shard The shard number of the sub-ledger.
+   * @param headroom The part of the account balance the sub-ledger starts with.
+   */
+  public SubLedgerOpened(UUID subLedgerId, UUID accountId, int shard, BigDecimal headroom) {
+    this.subLedgerId = subLedgerId;
+    this.accountId = accountId;
+    this.shard = shard;
+    this.headroom = headroom;
+  }
+
+  /**
+   * @return The sub-ledger id.
+   */
+  public UUID getSubLedgerId() {
+    return subLedgerId;
+  }
+
+  /**
+   * @return The id of the account the sub-ledger belongs to.
+   */
+  public UUID getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return The shard number of the sub-ledger.
+   */
+  public int getShard() {
+    return shard;
+  }
+
+  /**
+   * @return The part of the account balance the sub-ledger starts with.
+   */
+  public BigDecimal getHeadroom() {
+    return headroom;
+  }
+}
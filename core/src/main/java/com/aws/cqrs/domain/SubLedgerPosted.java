@@ -0,0 +1,112 @@
+package com.aws.cqrs.domain;
+
+import com.aws.cqrs.codegen.GenerateCodec;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** Event that is published when an amount is posted to a sub-ledger of a sharded account. */
+@GenerateCodec(kind = "pst.v1")
+public class SubLedgerPosted implements Event, Serializable {
+
+  /** A deposit into the account */
+  public static final String DEPOSIT = "deposit";
+
+  /** A withdrawal from the account */
+  public static final String WITHDRAWAL = "withdrawal";
+
+  /** The charge for overdrawing the account */
+  public static final String OVERDRAFT = "overdraft";
+
+  /** Headroom moved between sub-ledgers of the same account */
+  public static final String REBALANCE = "rebalance";
+
+  private UUID subLedgerId;
+  private UUID accountId;
+  private UUID transactionId;
+  private String type;
+  private BigDecimal amount;
+  private BigDecimal newAvailable;
+  private boolean accountOverdrawn;
+
+  /** Default Constructor for serialization. */
+  public SubLedgerPosted() {}
+
+  /**
+   * Constructor
+   *
+   * @param subLedgerId The sub-ledger id.
+   * @param accountId The id of the account the sub-ledger belongs to.
+   * @param transactionId The transaction id.
+   * @param type The type of posting.
+   * @param amount The amount posted, which is negative when it is taken from the sub-ledger.
+   * @param newAvailable The amount available in the sub-ledger after the posting.
+   * @param accountOverdrawn Whether the account as a whole was overdrawn after the posting.
+   */
+  public SubLedgerPosted(
+      UUID subLedgerId,
+      UUID accountId,
+      UUID transactionId,
+      String type,
+      BigDecimal amount,
+      BigDecimal newAvailable,
+      boolean accountOverdrawn) {
+    this.subLedgerId = subLedgerId;
+    this.accountId = accountId;
+    this.transactionId = transactionId;
+    this.type = type;
+    this.amount = amount;
+    this.newAvailable = newAvailable;
+    this.accountOverdrawn = accountOverdrawn;
+  }
+
+  /**
+   * @return The sub-ledger id.
+   */
+  public UUID getSubLedgerId() {
+    return subLedgerId;
+  }
+
+  /**
+   * @return The id of the account the sub-ledger belongs to.
+   */
+  public UUID getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return The transaction id.
+   */
+  public UUID getTransactionId() {
+    return transactionId;
+  }
+
+  /**
+   * @return The type of posting.
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * @return The amount posted, which is negative when it is taken from the sub-ledger.
+   */
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  /**
+   * @return The amount available in the sub-ledger after the posting.
+   */
+  public BigDecimal getNewAvailable() {
+    return newAvailable;
+  }
+
+  /**
+   * @return Whether the account as a whole was overdrawn after the posting.
+   */
+  public boolean isAccountOverdrawn() {
+    return accountOverdrawn;
+  }
+}
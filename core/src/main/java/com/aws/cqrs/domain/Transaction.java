@@ -33,6 +33,28 @@ public abstract class Transaction implements Event, Serializable {
     this.newBalance = newBalance;
   }
 
+  /**
+   * Constructor
+   *
+   * @param accountId The account id.
+   * @param transactionId The transaction id.
+   * @param amount The amount of the transaction.
+   * @param date The transaction date.
+   * @param newBalance The account new balance.
+   */
+  protected Transaction(
+      UUID accountId,
+      UUID transactionId,
+      BigDecimal amount,
+      OffsetDateTime date,
+      BigDecimal newBalance) {
+    this.accountId = accountId;
+    this.transactionId = transactionId;
+    this.amount = amount;
+    this.date = date;
+    this.newBalance = newBalance;
+  }
+
   /**
    * @return The account id.
    */
@@ -0,0 +1,51 @@
+package com.aws.cqrs.infrastructure.exceptions;
+
+import java.util.UUID;
+
+/**
+ * Exception that is thrown when events can't be appended because another writer has already
+ * appended an event at one of the same versions. The aggregate should be caught up with the events
+ * it missed before the change is retried.
+ */
+public class ConcurrencyException extends TransactionFailedException {
+
+  private static final String ERROR_FORMAT =
+      "Expected version %d but version %d has already been written";
+
+  private final long expectedVersion;
+
+  private final long conflictingVersion;
+
+  /**
+   * Constructor
+   *
+   * @param source The source of the exception.
+   * @param aggregateId The aggregate id.
+   * @param expectedVersion The version the aggregate was expected to be at.
+   * @param conflictingVersion The version that has already been written.
+   */
+  public ConcurrencyException(
+      Throwable source, UUID aggregateId, long expectedVersion, long conflictingVersion) {
+    super(source, String.format(ERROR_FORMAT, expectedVersion, conflictingVersion), aggregateId);
+    this.expectedVersion = expectedVersion;
+    this.conflictingVersion = conflictingVersion;
+  }
+
+  /**
+   * Get the version the aggregate was expected to be at.
+   *
+   * @return The expected version.
+   */
+  public long getExpectedVersion() {
+    return expectedVersion;
+  }
+
+  /**
+   * Get the first version that another writer has already written.
+   *
+   * @return The conflicting version.
+   */
+  public long getConflictingVersion() {
+    return conflictingVersion;
+  }
+}
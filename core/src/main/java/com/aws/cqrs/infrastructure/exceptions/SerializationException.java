@@ -0,0 +1,23 @@
+package com.aws.cqrs.infrastructure.exceptions;
+
+/** Exception that is thrown when an event can't be serialized or deserialized. */
+public class SerializationException extends RuntimeException {
+
+  /**
+   * Constructor
+   *
+   * @param message The error message.
+   */
+  public SerializationException(String message) {
+    super(message);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param cause The cause.
+   */
+  public SerializationException(Throwable cause) {
+    super(cause);
+  }
+}
@@ -0,0 +1,28 @@
+package com.aws.cqrs.infrastructure.exceptions;
+
+/**
+ * Exception that is thrown when a request is shed because its table is at its concurrency limit.
+ */
+public class ThrottledException extends RuntimeException {
+
+  private final String tableName;
+
+  /**
+   * Constructor
+   *
+   * @param tableName The table the request was for.
+   */
+  public ThrottledException(String tableName) {
+    super("Too many requests are waiting for table " + tableName + ".");
+    this.tableName = tableName;
+  }
+
+  /**
+   * Get the table the request was for
+   *
+   * @return The table name.
+   */
+  public String getTableName() {
+    return tableName;
+  }
+}
@@ -0,0 +1,188 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.ThrottledException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Limits the number of requests in flight to a table and adapts the limit to how the table copes
+ * (additive increase, multiplicative decrease). Every successful response that arrives while the
+ * limit is in use raises the limit a little, so it grows by about one per round trip. A throttled
+ * request halves the limit, and a response that is much slower than usual lowers it by a tenth, at
+ * most once per round trip so that a burst of slow responses counts as one signal.
+ *
+ * <p>Requests over the limit wait in a queue and are let through as others complete. When the queue
+ * is full new requests are shed rather than piling onto a table that is already struggling.
+ */
+class AdaptiveLimiter {
+  /** How much slower than usual a response has to be before the limit is lowered */
+  static final double LATENCY_TOLERANCE = 2.0;
+
+  /** The weight of each response in the usual latency */
+  private static final double LATENCY_SMOOTHING = 0.05;
+
+  private static final double LATENCY_BACKOFF = 0.9;
+  private static final double THROTTLE_BACKOFF = 0.5;
+
+  private final String tableName;
+  private final int minLimit;
+  private final int maxLimit;
+  private final int maxQueued;
+  private final LimitListener listener;
+
+  private final ArrayDeque<CompletableFuture<Void>> queue = new ArrayDeque<>();
+
+  private double limit;
+  private int inFlight;
+
+  /** The smoothed latency in nanoseconds or zero before the first response */
+  private double latency;
+
+  private long lastDecrease;
+
+  /**
+   * Constructor
+   *
+   * @param tableName The table the limiter is for.
+   * @param initialLimit The limit to start with.
+   * @param minLimit The lowest the limit can go.
+   * @param maxLimit The highest the limit can go.
+   * @param maxQueued The number of requests that can wait before new ones are shed.
+   * @param listener The listener that is told every time the limit changes.
+   */
+  AdaptiveLimiter(
+      String tableName,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      int maxQueued,
+      LimitListener listener) {
+    checkLimits(initialLimit, minLimit, maxLimit);
+
+    this.tableName = tableName;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.maxQueued = maxQueued;
+    this.listener = listener;
+    this.limit = initialLimit;
+  }
+
+  /**
+   * Wait for a slot. Every acquired slot has to be released.
+   *
+   * @return A future that completes once the request can be sent or fails with a {@link
+   *     ThrottledException} when the request is shed.
+   */
+  CompletableFuture<Void> acquire() {
+    synchronized (this) {
+      if (inFlight < (int) limit) {
+        inFlight++;
+        return CompletableFuture.completedFuture(null);
+      }
+
+      if (queue.size() >= maxQueued) {
+        return CompletableFuture.failedFuture(new ThrottledException(tableName));
+      }
+
+      CompletableFuture<Void> slot = new CompletableFuture<>();
+      queue.add(slot);
+      return slot;
+    }
+  }
+
+  /**
+   * Release a slot and adapt the limit to how the request went.
+   *
+   * @param latencyNanos How long the request took.
+   * @param throttled Whether the table throttled the request.
+   */
+  void release(long latencyNanos, boolean throttled) {
+    List<CompletableFuture<Void>> granted = new ArrayList<>();
+    int oldLimit;
+    int newLimit;
+
+    synchronized (this) {
+      oldLimit = (int) limit;
+      boolean saturated = inFlight >= limit / 2;
+      inFlight--;
+
+      long now = System.nanoTime();
+      boolean canDecrease = latency == 0 || now - lastDecrease >= latency;
+
+      if (throttled) {
+        if (canDecrease) {
+          decrease(THROTTLE_BACKOFF, now);
+        }
+      } else {
+        if (latency > 0 && latencyNanos > latency * LATENCY_TOLERANCE) {
+          if (canDecrease) {
+            decrease(LATENCY_BACKOFF, now);
+          }
+        } else if (saturated) {
+          limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+
+        latency =
+            latency == 0 ? latencyNanos : latency + LATENCY_SMOOTHING * (latencyNanos - latency);
+      }
+
+      while (inFlight < (int) limit && !queue.isEmpty()) {
+        inFlight++;
+        granted.add(queue.poll());
+      }
+
+      newLimit = (int) limit;
+    }
+
+    if (newLimit != oldLimit) {
+      listener.onLimitChanged(tableName, newLimit);
+    }
+
+    granted.forEach(slot -> slot.complete(null));
+  }
+
+  /**
+   * Get the current limit.
+   *
+   * @return The number of requests that can be in flight.
+   */
+  synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Get the number of requests in flight.
+   *
+   * @return The number of requests in flight.
+   */
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Check that a set of limits is usable.
+   *
+   * @param initialLimit The limit to start with.
+   * @param minLimit The lowest the limit can go.
+   * @param maxLimit The highest the limit can go.
+   * @throws IllegalArgumentException
+   */
+  static void checkLimits(int initialLimit, int minLimit, int maxLimit)
+      throws IllegalArgumentException {
+    if (minLimit <= 0 || maxLimit < minLimit) {
+      throw new IllegalArgumentException(
+          "The limits must be greater than zero and the maximum at least the minimum.");
+    }
+    if (initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+          "The initial limit must be between the minimum and maximum.");
+    }
+  }
+
+  private void decrease(double backoff, long now) {
+    limit = Math.max(minLimit, limit * backoff);
+    lastDecrease = now;
+  }
+}
@@ -0,0 +1,73 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded least recently used cache of hydrated aggregate state. Each entry is a snapshot of the
+ * aggregate along with the version it was taken at, so a cached aggregate only needs to catch up on
+ * the events that came after that version. The state held by a snapshot must not be shared with a
+ * live aggregate.
+ */
+public class AggregateCache {
+
+  private final Map<UUID, Snapshot> entries;
+
+  /**
+   * Constructor
+   *
+   * @param maximumSize The maximum number of aggregates to keep.
+   */
+  public AggregateCache(int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum size must be greater than zero.");
+    }
+
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<UUID, Snapshot> eldest) {
+            return size() > maximumSize;
+          }
+        };
+  }
+
+  /**
+   * Get the cached state of an aggregate.
+   *
+   * @param aggregateId The aggregate id.
+   * @return The cached snapshot or null if the aggregate is not cached.
+   */
+  public synchronized Snapshot get(UUID aggregateId) {
+    return entries.get(aggregateId);
+  }
+
+  /**
+   * Cache the state of an aggregate. An entry is never replaced with an older version.
+   *
+   * @param snapshot The snapshot of the aggregate.
+   */
+  public synchronized void put(Snapshot snapshot) {
+    Snapshot current = entries.get(snapshot.getAggregateId());
+    if (current == null || current.getVersion() <= snapshot.getVersion()) {
+      entries.put(snapshot.getAggregateId(), snapshot);
+    }
+  }
+
+  /**
+   * Remove an aggregate from the cache.
+   *
+   * @param aggregateId The aggregate id.
+   */
+  public synchronized void invalidate(UUID aggregateId) {
+    entries.remove(aggregateId);
+  }
+
+  /**
+   * @return The number of cached aggregates.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+}
@@ -0,0 +1,37 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.util.List;
+import java.util.UUID;
+
+/** The uncommitted events of an aggregate along with the version they are expected to follow. */
+public class AggregateChanges {
+  private final UUID aggregateId;
+  private final long expectedVersion;
+  private final List<Event> events;
+
+  /**
+   * Constructor
+   *
+   * @param aggregateId The aggregate id.
+   * @param expectedVersion The version the aggregate is expected to be at.
+   * @param events The events to append.
+   */
+  public AggregateChanges(UUID aggregateId, long expectedVersion, List<Event> events) {
+    this.aggregateId = aggregateId;
+    this.expectedVersion = expectedVersion;
+    this.events = events;
+  }
+
+  public UUID getAggregateId() {
+    return aggregateId;
+  }
+
+  public long getExpectedVersion() {
+    return expectedVersion;
+  }
+
+  public List<Event> getEvents() {
+    return events;
+  }
+}
@@ -0,0 +1,127 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open addressing map from aggregate id to the positions of its events in a segment log. The ids
+ * are kept as pairs of longs and probed linearly, so a lookup doesn't allocate or box. The index is
+ * not thread safe.
+ */
+class AggregateIndex {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private long[] mostSignificantBits = new long[INITIAL_CAPACITY];
+  private long[] leastSignificantBits = new long[INITIAL_CAPACITY];
+  private Positions[] positions = new Positions[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Get the positions of the events of an aggregate.
+   *
+   * @param aggregateId The aggregate id.
+   * @return The positions or null if the aggregate has no events.
+   */
+  Positions get(UUID aggregateId) {
+    int slot = find(aggregateId.getMostSignificantBits(), aggregateId.getLeastSignificantBits());
+    return positions[slot];
+  }
+
+  /**
+   * Get the positions of the events of an aggregate, adding an empty entry when there is none.
+   *
+   * @param aggregateId The aggregate id.
+   * @return The positions.
+   */
+  Positions getOrCreate(UUID aggregateId) {
+    long msb = aggregateId.getMostSignificantBits();
+    long lsb = aggregateId.getLeastSignificantBits();
+    int slot = find(msb, lsb);
+
+    if (positions[slot] == null) {
+      // Keep the table at most half full so that probe sequences stay short.
+      if ((size + 1) * 2 > positions.length) {
+        resize();
+        slot = find(msb, lsb);
+      }
+
+      mostSignificantBits[slot] = msb;
+      leastSignificantBits[slot] = lsb;
+      positions[slot] = new Positions();
+      size++;
+    }
+
+    return positions[slot];
+  }
+
+  private int find(long msb, long lsb) {
+    int mask = positions.length - 1;
+    int slot = hash(msb, lsb) & mask;
+
+    while (positions[slot] != null
+        && (mostSignificantBits[slot] != msb || leastSignificantBits[slot] != lsb)) {
+      slot = (slot + 1) & mask;
+    }
+
+    return slot;
+  }
+
+  private void resize() {
+    long[] oldMostSignificantBits = mostSignificantBits;
+    long[] oldLeastSignificantBits = leastSignificantBits;
+    Positions[] oldPositions = positions;
+
+    mostSignificantBits = new long[oldPositions.length * 2];
+    leastSignificantBits = new long[oldPositions.length * 2];
+    positions = new Positions[oldPositions.length * 2];
+
+    for (int i = 0; i < oldPositions.length; i++) {
+      if (oldPositions[i] != null) {
+        int slot = find(oldMostSignificantBits[i], oldLeastSignificantBits[i]);
+        mostSignificantBits[slot] = oldMostSignificantBits[i];
+        leastSignificantBits[slot] = oldLeastSignificantBits[i];
+        positions[slot] = oldPositions[i];
+      }
+    }
+  }
+
+  private static int hash(long msb, long lsb) {
+    long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+    h ^= h >>> 32;
+    return (int) (h ^ (h >>> 16));
+  }
+
+  /**
+   * The positions of the events of an aggregate in version order. Events are appended before they
+   * are flushed, so only the first durable count positions may be read.
+   */
+  static class Positions {
+    private long[] values = new long[4];
+    private int count;
+    private int durableCount;
+
+    int getCount() {
+      return count;
+    }
+
+    int getDurableCount() {
+      return durableCount;
+    }
+
+    long get(int index) {
+      return values[index];
+    }
+
+    void add(long position) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+      values[count++] = position;
+    }
+
+    void markDurable(int count) {
+      durableCount = Math.max(durableCount, count);
+    }
+  }
+}
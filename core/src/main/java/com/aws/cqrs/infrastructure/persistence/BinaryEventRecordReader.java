@@ -0,0 +1,81 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.BinaryEventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Reads event records from a binary file. Each record is the aggregate id as two longs, the version
+ * as a long, the kind of the event as modified UTF-8, and the length of the event followed by the
+ * event in the {@link BinaryEventSerializer} format.
+ */
+public class BinaryEventRecordReader implements EventRecordReader {
+  private final DataInputStream input;
+  private final BinaryEventSerializer serializer = new BinaryEventSerializer();
+  private final EventTypeRegistry eventTypes;
+
+  /**
+   * Constructor
+   *
+   * @param input The source of the records.
+   * @param eventTypes The registry of event kinds.
+   */
+  public BinaryEventRecordReader(DataInputStream input, EventTypeRegistry eventTypes) {
+    this.input = input;
+    this.eventTypes = eventTypes;
+  }
+
+  /**
+   * Write a record in the format this reader reads.
+   *
+   * @param output The destination of the record.
+   * @param record The record.
+   * @param eventTypes The registry of event kinds.
+   * @throws IOException
+   */
+  public static void write(
+      DataOutputStream output, EventRecord record, EventTypeRegistry eventTypes)
+      throws IOException {
+    byte[] payload = new BinaryEventSerializer().serialize(record.getEvent());
+    output.writeLong(record.getAggregateId().getMostSignificantBits());
+    output.writeLong(record.getAggregateId().getLeastSignificantBits());
+    output.writeLong(record.getVersion());
+    output.writeUTF(eventTypes.getKind(record.getEvent().getClass()));
+    output.writeInt(payload.length);
+    output.write(payload);
+  }
+
+  @Override
+  public EventRecord read() throws IOException {
+    long mostSignificantBits;
+    try {
+      mostSignificantBits = input.readLong();
+    } catch (EOFException e) {
+      return null;
+    }
+
+    UUID aggregateId = new UUID(mostSignificantBits, input.readLong());
+    long version = input.readLong();
+    String kind = input.readUTF();
+    byte[] payload = new byte[input.readInt()];
+    input.readFully(payload);
+
+    try {
+      Class<? extends Event> eventType = eventTypes.getType(kind);
+      return new EventRecord(aggregateId, version, serializer.deserialize(payload, eventType));
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+}
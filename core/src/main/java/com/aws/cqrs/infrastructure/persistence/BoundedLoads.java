@@ -0,0 +1,112 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs an asynchronous load for every key with a limit on the number of loads in flight. Each of a
+ * fixed number of workers takes the next key once its previous load completed, so a slow load only
+ * holds up its own worker. Once a load fails no new loads are started.
+ */
+public final class BoundedLoads {
+
+  private BoundedLoads() {}
+
+  /**
+   * Load every key.
+   *
+   * @param keys The keys to load.
+   * @param concurrency The maximum number of loads in flight.
+   * @param load Starts the load of a key.
+   * @param <K> The type of key.
+   * @return A future that completes once every load completed, or fails with the first failure.
+   */
+  public static <K> CompletableFuture<Void> forEach(
+      Iterator<K> keys, int concurrency, Function<K, CompletableFuture<Void>> load) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("Concurrency must be greater than zero.");
+    }
+
+    Keys<K> remaining = new Keys<>(keys, load);
+    List<CompletableFuture<Void>> workers = new ArrayList<>(concurrency);
+
+    for (int i = 0; i < concurrency; i++) {
+      workers.add(remaining.loadNext());
+    }
+
+    return CompletableFuture.allOf(workers.toArray(new CompletableFuture[0]));
+  }
+
+  /**
+   * Wrap a consumer so that it is never called concurrently, for results that complete on different
+   * threads.
+   *
+   * @param consumer The consumer.
+   * @param <T> The type of result.
+   * @return The wrapped consumer.
+   */
+  static <T> Consumer<T> serialize(Consumer<T> consumer) {
+    Object lock = new Object();
+    return result -> {
+      synchronized (lock) {
+        consumer.accept(result);
+      }
+    };
+  }
+
+  /** The keys that haven't been loaded yet */
+  private static class Keys<K> {
+    private final Iterator<K> keys;
+    private final Function<K, CompletableFuture<Void>> load;
+    private volatile boolean failed;
+
+    Keys(Iterator<K> keys, Function<K, CompletableFuture<Void>> load) {
+      this.keys = keys;
+      this.load = load;
+    }
+
+    /**
+     * Keep loading keys until a load doesn't complete straight away, then continue once it has.
+     * Loads that complete straight away are looped over rather than chained so that the stack
+     * doesn't grow with the number of keys.
+     *
+     * @return A future that completes once no keys are left.
+     */
+    CompletableFuture<Void> loadNext() {
+      while (true) {
+        K key;
+
+        synchronized (this) {
+          if (failed || !keys.hasNext()) {
+            return CompletableFuture.completedFuture(null);
+          }
+          key = keys.next();
+        }
+
+        CompletableFuture<Void> loaded;
+        try {
+          loaded = load.apply(key);
+        } catch (RuntimeException e) {
+          loaded = CompletableFuture.failedFuture(e);
+        }
+
+        if (loaded.isDone() && !loaded.isCompletedExceptionally()) {
+          continue;
+        }
+
+        return loaded
+            .whenComplete(
+                (x, exception) -> {
+                  if (exception != null) {
+                    failed = true;
+                  }
+                })
+            .thenCompose(x -> loadNext());
+      }
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * Loads large amounts of historical events straight into the event store table. Events are written
+ * with BatchWriteItem instead of through the repository, so they are not checked against the
+ * versions that are already stored and an import must only target aggregates that aren't being
+ * written to at the same time.
+ *
+ * <p>Records are read in windows. The records of a window are dealt out over batches of 25 so that
+ * each batch spreads over the aggregates of the whole window, and all the batches of a window are
+ * written in parallel. Unprocessed items are retried with exponential backoff, every batch waits
+ * for the write capacity it needs, and the number of imported records is checkpointed once a window
+ * has been written so that an import that crashed can be resumed.
+ */
+public class BulkEventImporter {
+
+  /** The maximum number of items in a BatchWriteItem request */
+  static final int MAX_BATCH_ITEMS = 25;
+
+  private static final int WRITE_UNIT_BYTES = 1024;
+
+  private final String tableName;
+  private final DynamoDbAsyncClient ddbClient;
+  private final EventSerializer serializer;
+  private final EventTypeRegistry eventTypes;
+  private final int concurrency;
+  private final RateLimiter rateLimiter;
+
+  /**
+   * Constructor
+   *
+   * @param tableName The event store table.
+   * @param ddbClient The DynamoDB client.
+   * @param serializer The serializer the event store uses.
+   * @param eventTypes The registry of event kinds.
+   * @param concurrency The number of batches to write in parallel.
+   * @param writeCapacityUnits The write capacity units per second the import may use.
+   */
+  public BulkEventImporter(
+      String tableName,
+      DynamoDbAsyncClient ddbClient,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes,
+      int concurrency,
+      int writeCapacityUnits) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("Concurrency must be greater than zero.");
+    }
+
+    this.tableName = tableName;
+    this.ddbClient = ddbClient;
+    this.serializer = serializer;
+    this.eventTypes = eventTypes;
+    this.concurrency = concurrency;
+    this.rateLimiter = new RateLimiter(writeCapacityUnits);
+  }
+
+  /**
+   * Import every record that hasn't been imported yet. When the checkpoint file exists the number
+   * of records it holds are skipped.
+   *
+   * @param reader The records to import.
+   * @param checkpoint The file that tracks the number of imported records.
+   * @return The number of records imported by this call.
+   * @throws IOException When the records or the checkpoint can't be read or written, or when a
+   *     window of records could not be written.
+   */
+  public long importEvents(EventRecordReader reader, Path checkpoint) throws IOException {
+    long imported = readCheckpoint(checkpoint);
+
+    if (reader.skip(imported) < imported) {
+      throw new IOException("The checkpoint is past the last record.");
+    }
+
+    int windowSize = concurrency * MAX_BATCH_ITEMS;
+    List<Map<String, AttributeValue>> window = new ArrayList<>(windowSize);
+    long count = 0;
+
+    while (true) {
+      window.clear();
+
+      EventRecord record;
+      while (window.size() < windowSize && (record = reader.read()) != null) {
+        window.add(
+            DynamoDbEventStore.toItem(
+                record.getAggregateId(),
+                record.getVersion(),
+                record.getEvent(),
+                serializer,
+                eventTypes));
+      }
+
+      if (window.isEmpty()) {
+        return count;
+      }
+
+      try {
+        writeWindow(window).join();
+      } catch (CompletionException e) {
+        throw new IOException(
+            "Unable to write the records after record " + imported + ".", e.getCause());
+      }
+
+      imported += window.size();
+      count += window.size();
+      writeCheckpoint(checkpoint, imported);
+    }
+  }
+
+  /**
+   * Write a window of items. Consecutive items usually belong to the same aggregate, so they are
+   * dealt out over the batches rather than split into consecutive runs.
+   *
+   * @param window The items.
+   * @return A future that completes once every batch is written.
+   */
+  private CompletableFuture<Void> writeWindow(List<Map<String, AttributeValue>> window) {
+    int batchCount = (window.size() + MAX_BATCH_ITEMS - 1) / MAX_BATCH_ITEMS;
+    List<List<WriteRequest>> batches = new ArrayList<>(batchCount);
+
+    for (int i = 0; i < batchCount; i++) {
+      batches.add(new ArrayList<>(MAX_BATCH_ITEMS));
+    }
+
+    for (int i = 0; i < window.size(); i++) {
+      batches
+          .get(i % batchCount)
+          .add(
+              WriteRequest.builder()
+                  .putRequest(PutRequest.builder().item(window.get(i)).build())
+                  .build());
+    }
+
+    return CompletableFuture.allOf(
+        batches.stream().map(this::writeBatch).toArray(CompletableFuture[]::new));
+  }
+
+  /**
+   * Write a batch and retry the items DynamoDB didn't process. Every attempt waits for the write
+   * capacity it needs.
+   *
+   * @param batch The write requests.
+   * @return A future that completes once every item is written.
+   */
+  private CompletableFuture<Void> writeBatch(List<WriteRequest> batch) {
+    return UnprocessedRetries.send(
+        batch,
+        requests ->
+            rateLimiter
+                .acquire(getWriteUnits(requests))
+                .thenCompose(
+                    x ->
+                        ddbClient.batchWriteItem(
+                            BatchWriteItemRequest.builder()
+                                .requestItems(Map.of(tableName, requests))
+                                .build()))
+                .thenApply(
+                    response ->
+                        response.hasUnprocessedItems()
+                            ? response.unprocessedItems().getOrDefault(tableName, List.of())
+                            : List.of()),
+        "items");
+  }
+
+  /**
+   * Work out the write capacity units a batch uses, which is one unit for every started kilobyte of
+   * each item.
+   *
+   * @param batch The write requests.
+   * @return The write capacity units.
+   */
+  static int getWriteUnits(List<WriteRequest> batch) {
+    int units = 0;
+    for (WriteRequest request : batch) {
+      int size = DynamoDbEventStore.itemSize(request.putRequest().item());
+      units += Math.max(1, (size + WRITE_UNIT_BYTES - 1) / WRITE_UNIT_BYTES);
+    }
+    return units;
+  }
+
+  private static long readCheckpoint(Path checkpoint) throws IOException {
+    if (!Files.exists(checkpoint)) {
+      return 0;
+    }
+
+    return Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+  }
+
+  /**
+   * Replace the checkpoint in a single step so that a crash never leaves a partial checkpoint.
+   *
+   * @param checkpoint The checkpoint file.
+   * @param imported The number of imported records.
+   * @throws IOException
+   */
+  private static void writeCheckpoint(Path checkpoint, long imported) throws IOException {
+    Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+    Files.writeString(temporary, Long.toString(imported), StandardCharsets.UTF_8);
+    Files.move(
+        temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,543 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.EVENT_ATTRIBUTE;
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.ID_ATTRIBUTE;
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.KIND_ATTRIBUTE;
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.VERSION_ATTRIBUTE;
+
+import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.aws.cqrs.infrastructure.serialization.PayloadDeserializer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+
+/**
+ * Event store that writes every commit, meaning all the events of a single save, as one item
+ * instead of one item per event. The item is keyed by the aggregate id and the version of the first
+ * event of the commit and the events are packed into a list attribute, so a save is a single
+ * conditional put however many events it has. Two writers that expect the same version write the
+ * same key, so a conflict is detected by the condition without a transaction.
+ *
+ * <p>Readers expand the commits back into versioned events. A read that starts part way through a
+ * commit looks the commit up with a reverse query alongside the forward query for the commits that
+ * follow it. A commit has to fit in a single item.
+ */
+public class DynamoDbCommitEventStore implements EventStore {
+  public static String EVENTS_ATTRIBUTE = "events";
+
+  /** The maximum size of an item */
+  static final int MAX_ITEM_BYTES = 400 * 1024;
+
+  private static final String APPEND_CONDITION = "attribute_not_exists(#version)";
+
+  private final String tableName;
+  private final DynamoDbAsyncClient ddbClient;
+  private final EventSerializer serializer;
+  private final PayloadDeserializer deserializer;
+  private final EventTypeRegistry eventTypes;
+
+  public DynamoDbCommitEventStore(
+      String tableName, DynamoDbAsyncClient ddbClient, EventSerializer serializer) {
+    this(tableName, ddbClient, serializer, EventTypeRegistry.getDefault());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param tableName The event store table.
+   * @param ddbClient The DynamoDB client.
+   * @param serializer The event serializer.
+   * @param eventTypes The registry of event kinds.
+   */
+  public DynamoDbCommitEventStore(
+      String tableName,
+      DynamoDbAsyncClient ddbClient,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes) {
+    this.tableName = tableName;
+    this.ddbClient = ddbClient;
+    this.serializer = serializer;
+    this.deserializer = new PayloadDeserializer(serializer);
+    this.eventTypes = eventTypes;
+  }
+
+  @Override
+  public CompletableFuture<Void> saveEvents(
+      UUID aggregateId, long expectedVersion, List<Event> events)
+      throws TransactionFailedException {
+    if (events.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Map<String, AttributeValue> item;
+    try {
+      item = toCommitItem(aggregateId, expectedVersion + 1, events);
+    } catch (SerializationException e) {
+      return CompletableFuture.failedFuture(new TransactionFailedException(e, aggregateId));
+    }
+
+    if (DynamoDbEventStore.itemSize(item) > MAX_ITEM_BYTES) {
+      return CompletableFuture.failedFuture(
+          new TransactionFailedException(
+              null, "The events don't fit in a single commit item.", aggregateId));
+    }
+
+    PutItemRequest putItemRequest =
+        PutItemRequest.builder()
+            .tableName(tableName)
+            .item(item)
+            .conditionExpression(APPEND_CONDITION)
+            .expressionAttributeNames(Collections.singletonMap("#version", VERSION_ATTRIBUTE))
+            .build();
+
+    return ddbClient
+        .putItem(putItemRequest)
+        .handle(
+            (response, exception) -> {
+              if (exception == null) {
+                return null;
+              }
+
+              Throwable cause =
+                  exception instanceof CompletionException && exception.getCause() != null
+                      ? exception.getCause()
+                      : exception;
+
+              if (cause instanceof ConditionalCheckFailedException) {
+                throw new ConcurrencyException(
+                    cause, aggregateId, expectedVersion, expectedVersion + 1);
+              }
+              throw new TransactionFailedException(cause, aggregateId);
+            });
+  }
+
+  /**
+   * Commit the changes of several aggregates in a single transaction of one conditional put per
+   * aggregate.
+   *
+   * @param changes The changes of each aggregate.
+   * @return A future that completes once the commits are written.
+   * @throws TransactionFailedException
+   */
+  @Override
+  public CompletableFuture<Void> saveEvents(List<AggregateChanges> changes)
+      throws TransactionFailedException {
+    List<AggregateChanges> owners = new ArrayList<>(changes.size());
+    List<TransactWriteItem> transactWriteItems = new ArrayList<>(changes.size());
+    int size = 0;
+
+    for (AggregateChanges aggregate : changes) {
+      if (aggregate.getEvents().isEmpty()) {
+        continue;
+      }
+
+      Map<String, AttributeValue> item;
+      try {
+        item =
+            toCommitItem(
+                aggregate.getAggregateId(),
+                aggregate.getExpectedVersion() + 1,
+                aggregate.getEvents());
+      } catch (SerializationException e) {
+        return CompletableFuture.failedFuture(
+            new TransactionFailedException(e, aggregate.getAggregateId()));
+      }
+
+      int itemSize = DynamoDbEventStore.itemSize(item);
+      if (itemSize > MAX_ITEM_BYTES) {
+        return CompletableFuture.failedFuture(
+            new TransactionFailedException(
+                null, "The events don't fit in a single commit item.", aggregate.getAggregateId()));
+      }
+
+      owners.add(aggregate);
+      transactWriteItems.add(
+          TransactWriteItem.builder()
+              .put(
+                  Put.builder()
+                      .tableName(tableName)
+                      .item(item)
+                      .conditionExpression(APPEND_CONDITION)
+                      .expressionAttributeNames(
+                          Collections.singletonMap("#version", VERSION_ATTRIBUTE))
+                      .build())
+              .build());
+      size += itemSize;
+    }
+
+    if (transactWriteItems.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    if (transactWriteItems.size() > DynamoDbEventStore.MAX_TRANSACTION_ITEMS
+        || size > DynamoDbEventStore.MAX_TRANSACTION_BYTES) {
+      return CompletableFuture.failedFuture(
+          new TransactionFailedException(
+              null,
+              "The changes don't fit in a single transaction.",
+              owners.get(0).getAggregateId()));
+    }
+
+    return ddbClient
+        .transactWriteItems(
+            TransactWriteItemsRequest.builder().transactItems(transactWriteItems).build())
+        .handle(
+            (response, exception) -> {
+              if (exception == null) {
+                return null;
+              }
+
+              Throwable cause = DynamoDbEventStore.unwrap(exception);
+              int conflict = DynamoDbEventStore.getConflictIndex(cause);
+
+              if (conflict >= 0 && conflict < owners.size()) {
+                AggregateChanges owner = owners.get(conflict);
+                throw new ConcurrencyException(
+                    cause,
+                    owner.getAggregateId(),
+                    owner.getExpectedVersion(),
+                    owner.getExpectedVersion() + 1);
+              }
+              throw new TransactionFailedException(cause, owners.get(0).getAggregateId());
+            });
+  }
+
+  @Override
+  public CompletableFuture<List<Event>> getEvents(
+      UUID aggregateId, long fromVersion, long toVersion, int limit)
+      throws HydrationException, AggregateNotFoundException {
+    List<Event> events = new ArrayList<>();
+    return readEvents(aggregateId, fromVersion, toVersion, limit, events::addAll)
+        .thenApply(x -> Collections.unmodifiableList(events));
+  }
+
+  @Override
+  public CompletableFuture<Void> streamEvents(
+      UUID aggregateId, long fromVersion, Consumer<List<Event>> pageConsumer)
+      throws HydrationException, AggregateNotFoundException {
+    return readEvents(aggregateId, fromVersion, Long.MAX_VALUE, Integer.MAX_VALUE, pageConsumer);
+  }
+
+  /**
+   * Read the latest commit with a single reverse query of one item and take its last event.
+   *
+   * @param aggregateId The aggregate id.
+   * @return The latest event.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  @Override
+  public CompletableFuture<EventRecord> getLatestEvent(UUID aggregateId)
+      throws HydrationException, AggregateNotFoundException {
+    QueryRequest queryRequest =
+        buildQueryRequest(aggregateId, "", Map.of()).toBuilder()
+            .scanIndexForward(false)
+            .limit(1)
+            .build();
+
+    return query(aggregateId, queryRequest)
+        .thenApply(
+            page -> {
+              if (!page.hasItems() || page.items().isEmpty()) {
+                throw new AggregateNotFoundException(aggregateId);
+              }
+
+              Map<String, AttributeValue> item = page.items().get(0);
+              List<AttributeValue> packed = item.get(EVENTS_ATTRIBUTE).l();
+              long version = getFirstVersion(item) + packed.size() - 1;
+              Event event = toEvent(aggregateId, packed.get(packed.size() - 1).m());
+              return new EventRecord(aggregateId, version, event);
+            });
+  }
+
+  /**
+   * Read a range of events one page of commits at a time. When the range starts part way through
+   * the history the commit holding the first version may start before it, so it is looked up with a
+   * reverse query while the commits that start after the first version are read forwards.
+   *
+   * @param aggregateId The aggregate id.
+   * @param fromVersion The first version to read.
+   * @param toVersion The last version to read.
+   * @param limit The maximum number of events to read.
+   * @param pageConsumer The consumer of the expanded events.
+   * @return A future that completes once the last page has been consumed.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  private CompletableFuture<Void> readEvents(
+      UUID aggregateId,
+      long fromVersion,
+      long toVersion,
+      int limit,
+      Consumer<List<Event>> pageConsumer)
+      throws HydrationException, AggregateNotFoundException {
+    if (toVersion < fromVersion || limit <= 0) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException(
+              "The version range must not be empty and the limit must be greater than zero."));
+    }
+
+    Range range = new Range(Math.max(fromVersion, 1), toVersion, limit);
+
+    // The commits that start after the first version, the one holding it is read by the head query.
+    long firstStart = range.from > 1 ? range.from + 1 : 1;
+    Map<String, AttributeValue> values = new HashMap<>();
+    values.put(":fromVersion", AttributeValue.builder().n(String.valueOf(firstStart)).build());
+    String condition = " AND #version >= :fromVersion";
+
+    if (toVersion < Long.MAX_VALUE) {
+      values.put(":toVersion", AttributeValue.builder().n(String.valueOf(toVersion)).build());
+      condition = " AND #version BETWEEN :fromVersion AND :toVersion";
+    }
+
+    QueryRequest forward = buildQueryRequest(aggregateId, condition, values);
+    CompletableFuture<QueryResponse> head =
+        range.from > 1 ? query(aggregateId, buildHeadQuery(aggregateId, range.from)) : null;
+    CompletableFuture<QueryResponse> firstPage =
+        firstStart > toVersion
+            ? CompletableFuture.completedFuture(QueryResponse.builder().build())
+            : queryPage(aggregateId, forward, range.remaining);
+
+    CompletableFuture<Boolean> headRead =
+        head == null
+            ? CompletableFuture.completedFuture(false)
+            : head.thenApply(page -> consume(aggregateId, page, range, pageConsumer));
+
+    return headRead.thenCompose(
+        foundHead ->
+            firstPage.thenCompose(
+                page -> {
+                  if ((!page.hasItems() || page.items().isEmpty()) && !foundHead) {
+                    // An empty tail just means the caller is already up to date.
+                    if (fromVersion > 1) {
+                      return CompletableFuture.completedFuture(null);
+                    }
+                    throw new AggregateNotFoundException(aggregateId);
+                  }
+                  return consumePages(aggregateId, forward, page, range, pageConsumer);
+                }));
+  }
+
+  /**
+   * Hand the events of a page to the consumer and then move on to the next page.
+   *
+   * @param aggregateId The aggregate id.
+   * @param queryRequest The query that produced the page.
+   * @param page The page that has been read.
+   * @param range The part of the range that is still to be read.
+   * @param pageConsumer The consumer of the expanded events.
+   * @return A future that completes once the last page has been consumed.
+   */
+  private CompletableFuture<Void> consumePages(
+      UUID aggregateId,
+      QueryRequest queryRequest,
+      QueryResponse page,
+      Range range,
+      Consumer<List<Event>> pageConsumer) {
+    consume(aggregateId, page, range, pageConsumer);
+
+    if (range.remaining <= 0 || !page.hasLastEvaluatedKey() || page.lastEvaluatedKey().isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return queryPage(
+            aggregateId,
+            queryRequest.toBuilder().exclusiveStartKey(page.lastEvaluatedKey()).build(),
+            range.remaining)
+        .thenCompose(next -> consumePages(aggregateId, queryRequest, next, range, pageConsumer));
+  }
+
+  /**
+   * Expand the commits of a page into the events that fall in the range.
+   *
+   * @param aggregateId The aggregate id.
+   * @param page The page of commits.
+   * @param range The part of the range that is still to be read.
+   * @param pageConsumer The consumer of the expanded events.
+   * @return True if any events were handed to the consumer.
+   */
+  private boolean consume(
+      UUID aggregateId, QueryResponse page, Range range, Consumer<List<Event>> pageConsumer) {
+    List<Event> events = new ArrayList<>();
+
+    for (Map<String, AttributeValue> item : page.items()) {
+      long version = getFirstVersion(item);
+
+      for (AttributeValue packed : item.get(EVENTS_ATTRIBUTE).l()) {
+        if (version >= range.from && version <= range.to && range.remaining > 0) {
+          events.add(toEvent(aggregateId, packed.m()));
+          range.remaining--;
+        }
+        version++;
+      }
+    }
+
+    if (events.isEmpty()) {
+      return false;
+    }
+
+    pageConsumer.accept(Collections.unmodifiableList(events));
+    return true;
+  }
+
+  /**
+   * Build the query for the commit that holds a version, which is the last commit that starts at or
+   * before it.
+   *
+   * @param aggregateId The aggregate id.
+   * @param version The version.
+   * @return The query request.
+   */
+  private QueryRequest buildHeadQuery(UUID aggregateId, long version) {
+    return buildQueryRequest(
+            aggregateId,
+            " AND #version <= :headVersion",
+            Map.of(":headVersion", AttributeValue.builder().n(String.valueOf(version)).build()))
+        .toBuilder()
+        .scanIndexForward(false)
+        .limit(1)
+        .build();
+  }
+
+  private QueryRequest buildQueryRequest(
+      UUID aggregateId, String versionCondition, Map<String, AttributeValue> versionValues) {
+    Map<String, String> attributeNames = new HashMap<>();
+    Map<String, AttributeValue> attributeValues = new HashMap<>(versionValues);
+    attributeNames.put("#id", ID_ATTRIBUTE);
+    attributeValues.put(":id", AttributeValue.builder().s(aggregateId.toString()).build());
+
+    if (!versionCondition.isEmpty()) {
+      attributeNames.put("#version", VERSION_ATTRIBUTE);
+    }
+
+    return QueryRequest.builder()
+        .consistentRead(true)
+        .tableName(tableName)
+        .keyConditionExpression("#id = :id" + versionCondition)
+        .expressionAttributeNames(attributeNames)
+        .expressionAttributeValues(attributeValues)
+        .build();
+  }
+
+  /**
+   * Get a page of commits. Every commit holds at least one event, so no more commits than the
+   * number of events still to be read are requested.
+   *
+   * @param aggregateId The aggregate id.
+   * @param queryRequest The query for the page.
+   * @param remaining The number of events still to be read.
+   * @return The page of commits.
+   * @throws HydrationException
+   */
+  private CompletableFuture<QueryResponse> queryPage(
+      UUID aggregateId, QueryRequest queryRequest, int remaining) throws HydrationException {
+    if (remaining < Integer.MAX_VALUE) {
+      queryRequest = queryRequest.toBuilder().limit(remaining).build();
+    }
+
+    return query(aggregateId, queryRequest);
+  }
+
+  private CompletableFuture<QueryResponse> query(UUID aggregateId, QueryRequest queryRequest)
+      throws HydrationException {
+    return ddbClient
+        .query(queryRequest)
+        .exceptionally(
+            x -> {
+              throw new HydrationException(x, aggregateId);
+            });
+  }
+
+  /**
+   * Build the item that stores a commit.
+   *
+   * @param aggregateId The aggregate id.
+   * @param firstVersion The version of the first event.
+   * @param events The events of the commit.
+   * @return The item.
+   * @throws SerializationException
+   */
+  private Map<String, AttributeValue> toCommitItem(
+      UUID aggregateId, long firstVersion, List<Event> events) throws SerializationException {
+    List<AttributeValue> packed = new ArrayList<>(events.size());
+
+    for (Event event : events) {
+      packed.add(
+          AttributeValue.builder()
+              .m(
+                  Map.of(
+                      KIND_ATTRIBUTE,
+                      AttributeValue.builder().s(eventTypes.getKind(event.getClass())).build(),
+                      EVENT_ATTRIBUTE,
+                      DynamoDbEventStore.serializeEvent(event, serializer)))
+              .build());
+    }
+
+    Map<String, AttributeValue> item = new HashMap<>();
+    item.put(ID_ATTRIBUTE, AttributeValue.builder().s(aggregateId.toString()).build());
+    item.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(firstVersion)).build());
+    item.put(EVENTS_ATTRIBUTE, AttributeValue.builder().l(packed).build());
+    return item;
+  }
+
+  /**
+   * Deserialize a packed event by the type of attribute its payload was stored as.
+   *
+   * @param aggregateId The aggregate id.
+   * @param packed The attributes of the packed event.
+   * @return The event.
+   * @throws HydrationException
+   */
+  private Event toEvent(UUID aggregateId, Map<String, AttributeValue> packed)
+      throws HydrationException {
+    AttributeValue payload = packed.get(EVENT_ATTRIBUTE);
+
+    try {
+      Class<? extends Event> eventType = eventTypes.getType(packed.get(KIND_ATTRIBUTE).s());
+      return payload.b() != null
+          ? deserializer.deserialize(payload.b().asByteArrayUnsafe(), eventType)
+          : deserializer.deserialize(payload.s(), eventType);
+    } catch (SerializationException | ClassNotFoundException | ClassCastException e) {
+      throw new HydrationException(e, aggregateId);
+    }
+  }
+
+  private static long getFirstVersion(Map<String, AttributeValue> item) {
+    return Long.parseLong(item.get(VERSION_ATTRIBUTE).n());
+  }
+
+  /** The part of a range of versions that is still to be read */
+  private static class Range {
+    private final long from;
+    private final long to;
+    private int remaining;
+
+    Range(long from, long to, int remaining) {
+      this.from = from;
+      this.to = to;
+      this.remaining = remaining;
+    }
+  }
+}
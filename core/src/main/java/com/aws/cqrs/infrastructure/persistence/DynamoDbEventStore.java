@@ -1,14 +1,24 @@
 package com.aws.cqrs.infrastructure.persistence;
 
 import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
 import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
 import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.aws.cqrs.infrastructure.serialization.GsonEventSerializer;
+import com.aws.cqrs.infrastructure.serialization.PayloadDeserializer;
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
@@ -17,101 +27,860 @@ public class DynamoDbEventStore implements EventStore {
   public static String VERSION_ATTRIBUTE = "version";
   public static String EVENT_ATTRIBUTE = "event";
   public static String KIND_ATTRIBUTE = "kind";
+  public static String COMMIT_ATTRIBUTE = "commit";
+  public static String COMMIT_FROM_ATTRIBUTE = "commitFrom";
+  public static String COMMIT_STARTED_ATTRIBUTE = "commitStarted";
+
+  /**
+   * How long a chunked commit can take before it is considered abandoned, which is far longer than
+   * a commit takes unless its writer has gone
+   */
+  static final Duration ABANDONED_COMMIT_TIMEOUT = Duration.ofMinutes(1);
+
+  /** The maximum number of items in a single transaction */
+  static final int MAX_TRANSACTION_ITEMS = 100;
+
+  /** The maximum size of a transaction, leaving headroom below the 4 MB DynamoDB limit */
+  static final int MAX_TRANSACTION_BYTES = 4_000_000;
+
+  /** An event can only be appended at a version that hasn't been written yet */
+  private static final String APPEND_CONDITION = "attribute_not_exists(#version)";
+
+  private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
 
   private final String tableName;
   private final DynamoDbAsyncClient ddbClient;
-  private final Gson gson;
+  private final EventSerializer serializer;
+  private final PayloadDeserializer deserializer;
+  private final EventTypeRegistry eventTypes;
+  private final GroupCommitter groupCommitter;
+  private final HedgingPolicy hedgingPolicy;
 
   public DynamoDbEventStore(String tableName, DynamoDbAsyncClient ddbClient, Gson gson) {
+    this(tableName, ddbClient, new GsonEventSerializer(gson));
+  }
+
+  public DynamoDbEventStore(
+      String tableName, DynamoDbAsyncClient ddbClient, EventSerializer serializer) {
+    this(tableName, ddbClient, serializer, EventTypeRegistry.getDefault());
+  }
+
+  public DynamoDbEventStore(
+      String tableName,
+      DynamoDbAsyncClient ddbClient,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes) {
+    this(tableName, ddbClient, serializer, eventTypes, Duration.ZERO);
+  }
+
+  /**
+   * Constructor used when saves are group committed. Saves of different aggregates that arrive
+   * within the window are written in a single transaction, which trades a little latency on each
+   * save for fewer round trips when many aggregates are saved at the same time.
+   *
+   * @param tableName The event store table.
+   * @param ddbClient The DynamoDB client.
+   * @param serializer The event serializer.
+   * @param eventTypes The registry of event kinds.
+   * @param groupCommitWindow How long to wait for other saves or zero to disable group commit.
+   */
+  public DynamoDbEventStore(
+      String tableName,
+      DynamoDbAsyncClient ddbClient,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes,
+      Duration groupCommitWindow) {
+    this(tableName, ddbClient, serializer, eventTypes, groupCommitWindow, null);
+  }
+
+  /**
+   * Constructor used when reads are hedged. A query that is slower than usual is sent a second time
+   * and whichever answers first is used, see {@link HedgingPolicy}.
+   *
+   * @param tableName The event store table.
+   * @param ddbClient The DynamoDB client.
+   * @param serializer The event serializer.
+   * @param eventTypes The registry of event kinds.
+   * @param groupCommitWindow How long to wait for other saves or zero to disable group commit.
+   * @param hedgingPolicy The policy used to hedge queries or null to disable hedging.
+   */
+  public DynamoDbEventStore(
+      String tableName,
+      DynamoDbAsyncClient ddbClient,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes,
+      Duration groupCommitWindow,
+      HedgingPolicy hedgingPolicy) {
+    if (groupCommitWindow.isNegative()) {
+      throw new IllegalArgumentException("The group commit window must not be negative.");
+    }
+
     this.tableName = tableName;
     this.ddbClient = ddbClient;
-    this.gson = gson;
+    this.serializer = serializer;
+    this.deserializer = new PayloadDeserializer(serializer);
+    this.eventTypes = eventTypes;
+    this.groupCommitter =
+        groupCommitWindow.isZero() ? null : new GroupCommitter(groupCommitWindow, this::transact);
+    this.hedgingPolicy = hedgingPolicy;
   }
 
   @Override
   public CompletableFuture<Void> saveEvents(
       UUID aggregateId, long expectedVersion, List<Event> events) {
+    if (events.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
 
-    List<TransactWriteItem> transactWriteItems = new ArrayList<>();
-    TransactWriteItemsRequest.Builder requestBuilder = TransactWriteItemsRequest.builder();
+    final long initialVersion = expectedVersion;
+    List<Map<String, AttributeValue>> items = new ArrayList<>(events.size());
+    int size = 0;
 
     for (Event event : events) {
       expectedVersion++;
 
-      Map<String, AttributeValue> propertyMap = new HashMap<>();
-      propertyMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(aggregateId.toString()).build());
-      propertyMap.put(
-          VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(expectedVersion)).build());
-      propertyMap.put(EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(event)).build());
-      propertyMap.put(
-          KIND_ATTRIBUTE, AttributeValue.builder().s(event.getClass().getName()).build());
+      Map<String, AttributeValue> propertyMap =
+          toItem(aggregateId, expectedVersion, event, serializer, eventTypes);
+
+      items.add(propertyMap);
+      size += itemSize(propertyMap);
+    }
+
+    if (items.size() > MAX_TRANSACTION_ITEMS || size > MAX_TRANSACTION_BYTES) {
+      return commitChunked(aggregateId, initialVersion, items);
+    }
 
-      // Create a new request
-      Put put = Put.builder().item(propertyMap).tableName(tableName).build();
+    List<TransactWriteItem> transactWriteItems = toTransactWriteItems(items);
 
-      transactWriteItems.add(TransactWriteItem.builder().put(put).build());
+    if (groupCommitter != null) {
+      final int transactionSize = size;
+      return groupCommitter.submit(
+          aggregateId,
+          transactWriteItems,
+          transactionSize,
+          () -> commit(aggregateId, initialVersion, transactWriteItems));
+    }
+
+    return commit(aggregateId, initialVersion, transactWriteItems);
+  }
+
+  /**
+   * Commit the events of several aggregates in a single transaction. Unlike the events of a single
+   * aggregate they can't be split over chunks, so they have to fit in one transaction.
+   *
+   * @param changes The changes of each aggregate.
+   * @return A future that completes once the events are committed.
+   */
+  @Override
+  public CompletableFuture<Void> saveEvents(List<AggregateChanges> changes) {
+    List<Map<String, AttributeValue>> items = new ArrayList<>();
+    List<AggregateChanges> owners = new ArrayList<>();
+    int size = 0;
+
+    for (AggregateChanges aggregate : changes) {
+      long version = aggregate.getExpectedVersion();
+
+      for (Event event : aggregate.getEvents()) {
+        version++;
+
+        Map<String, AttributeValue> propertyMap =
+            toItem(aggregate.getAggregateId(), version, event, serializer, eventTypes);
+
+        items.add(propertyMap);
+        owners.add(aggregate);
+        size += itemSize(propertyMap);
+      }
     }
 
+    if (items.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    if (items.size() > MAX_TRANSACTION_ITEMS || size > MAX_TRANSACTION_BYTES) {
+      return CompletableFuture.failedFuture(
+          new TransactionFailedException(
+              null,
+              "The changes don't fit in a single transaction.",
+              owners.get(0).getAggregateId()));
+    }
+
+    List<TransactWriteItem> transactWriteItems = toTransactWriteItems(items);
+
+    return transact(transactWriteItems)
+        .handle(
+            (x, exception) -> {
+              if (exception == null) {
+                return CompletableFuture.<Void>completedFuture(null);
+              }
+
+              // Blame the aggregate whose append failed its condition, if any did.
+              AggregateChanges owner = owners.get(Math.max(0, getConflictIndex(exception)));
+              return clearAbandonedCommit(
+                  saveFailed(
+                      exception,
+                      owner.getAggregateId(),
+                      owner.getExpectedVersion(),
+                      transactWriteItems));
+            })
+        .thenCompose(x -> x);
+  }
+
+  /**
+   * Commit the events of a single aggregate in their own transaction.
+   *
+   * @param aggregateId The aggregate id.
+   * @param expectedVersion The version the aggregate was expected to be at.
+   * @param transactWriteItems The events to append.
+   * @return A future that completes once the events are committed.
+   */
+  private CompletableFuture<Void> commit(
+      UUID aggregateId, long expectedVersion, List<TransactWriteItem> transactWriteItems) {
+    return transact(transactWriteItems)
+        .handle(
+            (x, exception) ->
+                exception == null
+                    ? CompletableFuture.<Void>completedFuture(null)
+                    : clearAbandonedCommit(
+                        saveFailed(exception, aggregateId, expectedVersion, transactWriteItems)))
+        .thenCompose(x -> x);
+  }
+
+  /**
+   * Commit more events than fit in a single transaction. Every event is tagged with a new commit id
+   * and all but the last event are written in concurrent chunks. The last event also records the
+   * first version of the commit and is only written once every chunk has been, which is what makes
+   * the commit visible to readers. When a chunk fails the chunks that were written are deleted
+   * again. When the last event fails with anything other than a conflict it may still have been
+   * written, so it is read back: the commit succeeded if it is there and is rolled back if it
+   * isn't. A commit whose writer dies half way is cleared by the next writer that runs into it, see
+   * {@link #clearAbandonedCommit}.
+   *
+   * @param aggregateId The aggregate id.
+   * @param expectedVersion The version the aggregate was expected to be at.
+   * @param items The events to append.
+   * @return A future that completes once the commit is visible.
+   */
+  private CompletableFuture<Void> commitChunked(
+      UUID aggregateId, long expectedVersion, List<Map<String, AttributeValue>> items) {
+    AttributeValue commitId = AttributeValue.builder().s(UUID.randomUUID().toString()).build();
+    AttributeValue commitStarted =
+        AttributeValue.builder().n(String.valueOf(System.currentTimeMillis())).build();
+    items.forEach(
+        item -> {
+          item.put(COMMIT_ATTRIBUTE, commitId);
+          item.put(COMMIT_STARTED_ATTRIBUTE, commitStarted);
+        });
+    items
+        .get(items.size() - 1)
+        .put(
+            COMMIT_FROM_ATTRIBUTE,
+            AttributeValue.builder().n(String.valueOf(expectedVersion + 1)).build());
+
+    List<List<Map<String, AttributeValue>>> chunks = chunk(items.subList(0, items.size() - 1));
+    List<CompletableFuture<Throwable>> writes = new ArrayList<>(chunks.size());
+
+    for (List<Map<String, AttributeValue>> chunk : chunks) {
+      List<TransactWriteItem> transactWriteItems = toTransactWriteItems(chunk);
+      writes.add(
+          transact(transactWriteItems)
+              .handle(
+                  (x, exception) ->
+                      exception == null
+                          ? null
+                          : saveFailed(
+                              exception, aggregateId, expectedVersion, transactWriteItems)));
+    }
+
+    List<TransactWriteItem> last =
+        toTransactWriteItems(items.subList(items.size() - 1, items.size()));
+
+    return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]))
+        .thenCompose(
+            x -> {
+              List<Map<String, AttributeValue>> written = new ArrayList<>();
+              Throwable failure = null;
+
+              for (int i = 0; i < chunks.size(); i++) {
+                Throwable exception = writes.get(i).join();
+                if (exception == null) {
+                  written.addAll(chunks.get(i));
+                } else if (failure == null) {
+                  failure = exception;
+                }
+              }
+
+              if (failure == null) {
+                return commit(aggregateId, expectedVersion, last)
+                    .handle(
+                        (y, exception) -> {
+                          Throwable cause = unwrap(exception);
+                          if (cause == null) {
+                            return CompletableFuture.<Void>completedFuture(null);
+                          }
+                          if (cause instanceof ConcurrencyException) {
+                            return rollback(commitId, written).thenRun(() -> rethrow(cause));
+                          }
+                          return resolveLastWrite(commitId, written, last, cause);
+                        })
+                    .thenCompose(y -> y);
+              }
+
+              final Throwable cause = failure;
+              return rollback(commitId, written).thenRun(() -> rethrow(cause));
+            });
+  }
+
+  /**
+   * Settle a chunked commit whose last event failed without a conflict, such as with a timeout or a
+   * server error, in which case the event may or may not have been written. The event is read back:
+   * when it was written the commit is complete, otherwise the chunks are rolled back. When it can't
+   * be read either the commit is left for {@link #clearAbandonedCommit} to clear.
+   *
+   * @param commitId The id of the commit.
+   * @param written The events of the chunks, which were all written.
+   * @param last The transaction item of the last event.
+   * @param cause The failure of the last event.
+   * @return A future that completes once the commit is visible or fails with the cause.
+   */
+  private CompletableFuture<Void> resolveLastWrite(
+      AttributeValue commitId,
+      List<Map<String, AttributeValue>> written,
+      List<TransactWriteItem> last,
+      Throwable cause) {
+    Map<String, AttributeValue> item = last.get(0).put().item();
+
     return ddbClient
-        .transactWriteItems(requestBuilder.transactItems(transactWriteItems).build())
-        .exceptionally(
-            exception -> {
-              throw new TransactionFailedException(exception, aggregateId);
+        .getItem(
+            GetItemRequest.builder()
+                .tableName(tableName)
+                .consistentRead(true)
+                .key(
+                    Map.of(
+                        ID_ATTRIBUTE,
+                        item.get(ID_ATTRIBUTE),
+                        VERSION_ATTRIBUTE,
+                        item.get(VERSION_ATTRIBUTE)))
+                .build())
+        .handle(
+            (response, exception) -> {
+              if (exception != null) {
+                return CompletableFuture.<Void>failedFuture(cause);
+              }
+              if (response.hasItem() && commitId.equals(response.item().get(COMMIT_ATTRIBUTE))) {
+                return CompletableFuture.<Void>completedFuture(null);
+              }
+              return rollback(commitId, written).thenRun(() -> rethrow(cause));
             })
-        .thenAccept(x -> {});
+        .thenCompose(x -> x);
+  }
+
+  /**
+   * Clear the chunked commit another writer abandoned, if that is what a save ran into. A commit
+   * that never completed is hidden from readers, so the version of the aggregate doesn't move past
+   * it and every later save would conflict with it forever. Once a commit is older than {@link
+   * #ABANDONED_COMMIT_TIMEOUT} its events are deleted so that the retry of the save can succeed.
+   * Events written before commits recorded when they started are treated as abandoned.
+   *
+   * @param failure The failure of the save.
+   * @return A future that fails with the failure of the save once any abandoned commit is cleared.
+   */
+  private CompletableFuture<Void> clearAbandonedCommit(TransactionFailedException failure) {
+    if (!(failure instanceof ConcurrencyException)) {
+      return CompletableFuture.failedFuture(failure);
+    }
+
+    ConcurrencyException conflict = (ConcurrencyException) failure;
+    QueryRequest queryRequest =
+        buildQueryRequest(
+            conflict.getAggregateId(), conflict.getConflictingVersion(), Long.MAX_VALUE);
+
+    // The clearing is best effort, whatever happens the save fails with its own failure.
+    return CompletableFuture.completedFuture(queryRequest)
+        .thenCompose(request -> findCommit(request, null, new ArrayList<>()))
+        .thenCompose(
+            items -> {
+              if (items.isEmpty() || !isAbandoned(items)) {
+                return CompletableFuture.<Void>completedFuture(null);
+              }
+              return rollback(items.get(0).get(COMMIT_ATTRIBUTE), items);
+            })
+        .handle(
+            (x, exception) -> {
+              throw failure;
+            });
+  }
+
+  /**
+   * Read the events of the chunked commit that starts at the first version of a query.
+   *
+   * @param queryRequest The query that starts at the first event of the commit.
+   * @param commitId The id of the commit or null before the first page has been read.
+   * @param items The events of the commit read so far.
+   * @return The events of the commit or nothing when the first event isn't part of one.
+   */
+  private CompletableFuture<List<Map<String, AttributeValue>>> findCommit(
+      QueryRequest queryRequest, AttributeValue commitId, List<Map<String, AttributeValue>> items) {
+    return ddbClient
+        .query(queryRequest)
+        .thenCompose(
+            page -> {
+              AttributeValue id = commitId;
+
+              for (Map<String, AttributeValue> item : page.items()) {
+                if (id == null) {
+                  id = item.get(COMMIT_ATTRIBUTE);
+                }
+                if (id == null || !id.equals(item.get(COMMIT_ATTRIBUTE))) {
+                  return CompletableFuture.completedFuture(items);
+                }
+                items.add(item);
+              }
+
+              if (id == null || !page.hasLastEvaluatedKey() || page.lastEvaluatedKey().isEmpty()) {
+                return CompletableFuture.completedFuture(items);
+              }
+
+              return findCommit(
+                  queryRequest.toBuilder().exclusiveStartKey(page.lastEvaluatedKey()).build(),
+                  id,
+                  items);
+            });
+  }
+
+  /**
+   * Check whether the events of a chunked commit belong to a commit that has been abandoned.
+   *
+   * @param items The events of the commit.
+   * @return True if the commit didn't complete and is older than the timeout.
+   */
+  private static boolean isAbandoned(List<Map<String, AttributeValue>> items) {
+    if (items.stream().anyMatch(item -> item.containsKey(COMMIT_FROM_ATTRIBUTE))) {
+      return false;
+    }
+
+    AttributeValue started = items.get(0).get(COMMIT_STARTED_ATTRIBUTE);
+
+    return started == null
+        || System.currentTimeMillis() - Long.parseLong(started.n())
+            > ABANDONED_COMMIT_TIMEOUT.toMillis();
+  }
+
+  /**
+   * Delete the events of a chunked commit that failed. Only events that still belong to the commit
+   * are deleted.
+   *
+   * @param commitId The id of the commit.
+   * @param items The events that were written.
+   * @return A future that completes once every delete has been attempted.
+   */
+  private CompletableFuture<Void> rollback(
+      AttributeValue commitId, List<Map<String, AttributeValue>> items) {
+    CompletableFuture<?>[] deletes =
+        items.stream()
+            .map(
+                item ->
+                    ddbClient
+                        .deleteItem(
+                            DeleteItemRequest.builder()
+                                .tableName(tableName)
+                                .key(
+                                    Map.of(
+                                        ID_ATTRIBUTE,
+                                        item.get(ID_ATTRIBUTE),
+                                        VERSION_ATTRIBUTE,
+                                        item.get(VERSION_ATTRIBUTE)))
+                                .conditionExpression("#commit = :commit")
+                                .expressionAttributeNames(Map.of("#commit", COMMIT_ATTRIBUTE))
+                                .expressionAttributeValues(Map.of(":commit", commitId))
+                                .build())
+                        .handle((x, exception) -> null))
+            .toArray(CompletableFuture[]::new);
+
+    return CompletableFuture.allOf(deletes);
+  }
+
+  /**
+   * Split items into chunks that each fit in a single transaction.
+   *
+   * @param items The items.
+   * @return The chunks.
+   */
+  private static List<List<Map<String, AttributeValue>>> chunk(
+      List<Map<String, AttributeValue>> items) {
+    List<List<Map<String, AttributeValue>>> chunks = new ArrayList<>();
+    List<Map<String, AttributeValue>> chunk = new ArrayList<>();
+    int chunkSize = 0;
+
+    for (Map<String, AttributeValue> item : items) {
+      int size = itemSize(item);
+      if (!chunk.isEmpty()
+          && (chunk.size() == MAX_TRANSACTION_ITEMS || chunkSize + size > MAX_TRANSACTION_BYTES)) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>();
+        chunkSize = 0;
+      }
+      chunk.add(item);
+      chunkSize += size;
+    }
+
+    if (!chunk.isEmpty()) {
+      chunks.add(chunk);
+    }
+
+    return chunks;
+  }
+
+  /**
+   * Estimate the size DynamoDB counts for an item, which is the length of its attribute names and
+   * values.
+   *
+   * @param item The item.
+   * @return The size in bytes.
+   */
+  static int itemSize(Map<String, AttributeValue> item) {
+    int size = 0;
+    for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+      size += attribute.getKey().length() + valueSize(attribute.getValue());
+    }
+    return size;
+  }
+
+  private static int valueSize(AttributeValue value) {
+    if (value.s() != null) {
+      return value.s().getBytes(StandardCharsets.UTF_8).length;
+    } else if (value.b() != null) {
+      return value.b().asByteArrayUnsafe().length;
+    } else if (value.n() != null) {
+      return value.n().length();
+    } else if (value.hasL()) {
+      int size = 0;
+      for (AttributeValue element : value.l()) {
+        size += 1 + valueSize(element);
+      }
+      return size;
+    } else if (value.hasM()) {
+      return itemSize(value.m());
+    }
+    return 0;
+  }
+
+  /**
+   * Turn items into conditional puts that only succeed when the version hasn't been written yet.
+   *
+   * @param items The items.
+   * @return The transaction items.
+   */
+  private List<TransactWriteItem> toTransactWriteItems(List<Map<String, AttributeValue>> items) {
+    List<TransactWriteItem> transactWriteItems = new ArrayList<>(items.size());
+
+    for (Map<String, AttributeValue> item : items) {
+      Put put =
+          Put.builder()
+              .item(item)
+              .tableName(tableName)
+              .conditionExpression(APPEND_CONDITION)
+              .expressionAttributeNames(Map.of("#version", VERSION_ATTRIBUTE))
+              .build();
+
+      transactWriteItems.add(TransactWriteItem.builder().put(put).build());
+    }
+
+    return transactWriteItems;
+  }
+
+  private CompletableFuture<TransactWriteItemsResponse> transact(
+      List<TransactWriteItem> transactWriteItems) {
+    return ddbClient.transactWriteItems(
+        TransactWriteItemsRequest.builder().transactItems(transactWriteItems).build());
+  }
+
+  static Throwable unwrap(Throwable exception) {
+    return exception instanceof CompletionException && exception.getCause() != null
+        ? exception.getCause()
+        : exception;
+  }
+
+  private static void rethrow(Throwable exception) {
+    throw exception instanceof RuntimeException
+        ? (RuntimeException) exception
+        : new CompletionException(exception);
+  }
+
+  /**
+   * Convert the failure of a save into the exception to throw. When one of the appends failed its
+   * condition another writer got to that version first, which is reported as a concurrency
+   * exception so that the caller can catch up and retry.
+   *
+   * @param exception The failure.
+   * @param aggregateId The aggregate id.
+   * @param expectedVersion The version the aggregate was expected to be at.
+   * @param transactWriteItems The items of the failed transaction.
+   * @return The exception to throw.
+   */
+  private static TransactionFailedException saveFailed(
+      Throwable exception,
+      UUID aggregateId,
+      long expectedVersion,
+      List<TransactWriteItem> transactWriteItems) {
+    int conflict = getConflictIndex(exception);
+
+    if (conflict >= 0 && conflict < transactWriteItems.size()) {
+      long conflictingVersion =
+          Long.parseLong(transactWriteItems.get(conflict).put().item().get(VERSION_ATTRIBUTE).n());
+      return new ConcurrencyException(
+          unwrap(exception), aggregateId, expectedVersion, conflictingVersion);
+    }
+
+    return new TransactionFailedException(exception, aggregateId);
+  }
+
+  /**
+   * Find the item of a cancelled transaction that failed its condition.
+   *
+   * @param exception The failure.
+   * @return The index of the item or -1 when no condition failed.
+   */
+  static int getConflictIndex(Throwable exception) {
+    Throwable cause = unwrap(exception);
+
+    if (cause instanceof TransactionCanceledException
+        && ((TransactionCanceledException) cause).hasCancellationReasons()) {
+      List<CancellationReason> reasons =
+          ((TransactionCanceledException) cause).cancellationReasons();
+
+      for (int i = 0; i < reasons.size(); i++) {
+        if (CONDITIONAL_CHECK_FAILED.equals(reasons.get(i).code())) {
+          return i;
+        }
+      }
+    }
+
+    return -1;
   }
 
   @Override
-  public CompletableFuture<List<Event>> getEvents(UUID aggregateId)
+  public CompletableFuture<List<Event>> getEvents(
+      UUID aggregateId, long fromVersion, long toVersion, int limit)
       throws HydrationException, AggregateNotFoundException {
-    // Get the events by the aggregate id.
-    return getAggregateEvents(aggregateId)
-        .thenApply(
-            events -> {
-              // Deserialize the json from each domain event.
-              return getDomainEvents(aggregateId, events);
-            });
+    List<Event> events = new ArrayList<>();
+    return readEvents(aggregateId, fromVersion, toVersion, limit, events::addAll)
+        .thenApply(x -> Collections.unmodifiableList(events));
+  }
+
+  @Override
+  public CompletableFuture<Void> streamEvents(
+      UUID aggregateId, long fromVersion, Consumer<List<Event>> pageConsumer)
+      throws HydrationException, AggregateNotFoundException {
+    return readEvents(aggregateId, fromVersion, Long.MAX_VALUE, Integer.MAX_VALUE, pageConsumer);
   }
 
   /**
-   * Get all the records for a specific aggregate id.
+   * Read the latest event with a single reverse query of one item. When the latest item belongs to
+   * a chunked commit that hasn't completed, the latest visible event is further back and the
+   * history is read instead.
    *
    * @param aggregateId The aggregate id.
-   * @return All the events for a specific aggregate id.
-   * @throws AggregateNotFoundException
+   * @return The latest event.
    * @throws HydrationException
+   * @throws AggregateNotFoundException
    */
-  private CompletableFuture<List<Map<String, AttributeValue>>> getAggregateEvents(UUID aggregateId)
-      throws AggregateNotFoundException, HydrationException {
-
+  @Override
+  public CompletableFuture<EventRecord> getLatestEvent(UUID aggregateId)
+      throws HydrationException, AggregateNotFoundException {
     QueryRequest queryRequest =
-        QueryRequest.builder()
-            .consistentRead(true)
-            .tableName(tableName)
-            .keyConditionExpression("#id = :id")
-            .expressionAttributeNames(Collections.singletonMap("#id", ID_ATTRIBUTE))
-            .expressionAttributeValues(
-                Collections.singletonMap(
-                    ":id", AttributeValue.builder().s(aggregateId.toString()).build()))
+        buildQueryRequest(aggregateId, 1, Long.MAX_VALUE).toBuilder()
+            .scanIndexForward(false)
             .build();
 
-    return ddbClient
-        .query(queryRequest)
-        .exceptionally(
-            x -> {
-              throw new HydrationException(x, aggregateId);
-            })
-        .thenApply(
-            response -> {
-              if (response.hasItems()) {
-                return response.items().stream().collect(Collectors.toUnmodifiableList());
+    return queryPage(aggregateId, queryRequest, 1)
+        .thenCompose(
+            page -> {
+              if (!page.hasItems() || page.items().isEmpty()) {
+                throw new AggregateNotFoundException(aggregateId);
+              }
+
+              Map<String, AttributeValue> item = page.items().get(0);
+
+              if (item.containsKey(COMMIT_ATTRIBUTE) && !item.containsKey(COMMIT_FROM_ATTRIBUTE)) {
+                return EventStore.super.getLatestEvent(aggregateId);
+              }
+
+              long version = Long.parseLong(item.get(VERSION_ATTRIBUTE).n());
+              Event event = getDomainEvents(aggregateId, List.of(item)).get(0);
+              return CompletableFuture.completedFuture(
+                  new EventRecord(aggregateId, version, event));
+            });
+  }
+
+  /**
+   * Read a range of events one page at a time.
+   *
+   * @param aggregateId The aggregate id.
+   * @param fromVersion The first version to read.
+   * @param toVersion The last version to read.
+   * @param limit The maximum number of events to read.
+   * @param pageConsumer The consumer of the deserialized events.
+   * @return A future that completes once the last page has been consumed.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  private CompletableFuture<Void> readEvents(
+      UUID aggregateId,
+      long fromVersion,
+      long toVersion,
+      int limit,
+      Consumer<List<Event>> pageConsumer)
+      throws HydrationException, AggregateNotFoundException {
+    if (toVersion < fromVersion || limit <= 0) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException(
+              "The version range must not be empty and the limit must be greater than zero."));
+    }
+
+    QueryRequest queryRequest = buildQueryRequest(aggregateId, fromVersion, toVersion);
+    PendingCommitFilter pendingCommits = new PendingCommitFilter();
+
+    return queryPage(aggregateId, queryRequest, limit)
+        .thenCompose(
+            page -> {
+              if (!page.hasItems() || page.items().isEmpty()) {
+                // An empty tail just means the caller is already up to date.
+                if (fromVersion > 1) {
+                  return CompletableFuture.completedFuture(null);
+                }
+                throw new AggregateNotFoundException(aggregateId);
               }
-              throw new AggregateNotFoundException(aggregateId);
+              return consumePages(
+                  aggregateId, queryRequest, page, limit, pendingCommits, pageConsumer);
             });
   }
 
   /**
-   * Loop through all the events and deserialize the json into their respective types.
+   * Hand the page to the consumer and then move on to the next one. The next page is requested
+   * before the current one is deserialized so that the round trip overlaps with the decoding and
+   * applying of the current page.
+   *
+   * @param aggregateId The aggregate id.
+   * @param queryRequest The query that produced the page.
+   * @param page The page that has been read.
+   * @param remaining The number of events that were still to be read when the page was requested.
+   * @param pendingCommits The filter that hides the events of incomplete chunked commits.
+   * @param pageConsumer The consumer of the deserialized events.
+   * @return A future that completes once the last page has been consumed.
+   */
+  private CompletableFuture<Void> consumePages(
+      UUID aggregateId,
+      QueryRequest queryRequest,
+      QueryResponse page,
+      int remaining,
+      PendingCommitFilter pendingCommits,
+      Consumer<List<Event>> pageConsumer) {
+    final int nextRemaining = remaining - page.items().size();
+
+    CompletableFuture<QueryResponse> nextPage = null;
+    if (nextRemaining > 0 && page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty()) {
+      nextPage =
+          queryPage(
+              aggregateId,
+              queryRequest.toBuilder().exclusiveStartKey(page.lastEvaluatedKey()).build(),
+              nextRemaining);
+    }
+
+    try {
+      pageConsumer.accept(getDomainEvents(aggregateId, pendingCommits.filter(page.items())));
+    } catch (RuntimeException e) {
+      if (nextPage != null) {
+        nextPage.cancel(false);
+      }
+      throw e;
+    }
+
+    if (nextPage == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return nextPage.thenCompose(
+        next ->
+            consumePages(
+                aggregateId, queryRequest, next, nextRemaining, pendingCommits, pageConsumer));
+  }
+
+  /**
+   * Build the query for a range of records of a specific aggregate id. The range becomes a key
+   * condition on the version so that only the requested records are read.
+   *
+   * @param aggregateId The aggregate id.
+   * @param fromVersion The first version to read.
+   * @param toVersion The last version to read.
+   * @return The query request.
+   */
+  private QueryRequest buildQueryRequest(UUID aggregateId, long fromVersion, long toVersion) {
+    Map<String, String> attributeNames = new HashMap<>();
+    Map<String, AttributeValue> attributeValues = new HashMap<>();
+    attributeNames.put("#id", ID_ATTRIBUTE);
+    attributeValues.put(":id", AttributeValue.builder().s(aggregateId.toString()).build());
+    String keyConditionExpression = "#id = :id";
+
+    boolean hasLowerBound = fromVersion > 1;
+    boolean hasUpperBound = toVersion < Long.MAX_VALUE;
+
+    if (hasLowerBound || hasUpperBound) {
+      attributeNames.put("#version", VERSION_ATTRIBUTE);
+    }
+    if (hasLowerBound) {
+      attributeValues.put(
+          ":fromVersion", AttributeValue.builder().n(String.valueOf(fromVersion)).build());
+    }
+    if (hasUpperBound) {
+      attributeValues.put(
+          ":toVersion", AttributeValue.builder().n(String.valueOf(toVersion)).build());
+    }
+
+    if (hasLowerBound && hasUpperBound) {
+      keyConditionExpression += " AND #version BETWEEN :fromVersion AND :toVersion";
+    } else if (hasLowerBound) {
+      keyConditionExpression += " AND #version >= :fromVersion";
+    } else if (hasUpperBound) {
+      keyConditionExpression += " AND #version <= :toVersion";
+    }
+
+    return QueryRequest.builder()
+        .consistentRead(true)
+        .tableName(tableName)
+        .keyConditionExpression(keyConditionExpression)
+        .expressionAttributeNames(attributeNames)
+        .expressionAttributeValues(attributeValues)
+        .build();
+  }
+
+  /**
+   * Get a single page of records for a specific aggregate id. The query is hedged when a hedging
+   * policy is set.
+   *
+   * @param aggregateId The aggregate id.
+   * @param queryRequest The query for the page.
+   * @param limit The maximum number of records to read.
+   * @return The page of records.
+   * @throws HydrationException
+   */
+  private CompletableFuture<QueryResponse> queryPage(
+      UUID aggregateId, QueryRequest queryRequest, int limit) throws HydrationException {
+    final QueryRequest request =
+        limit < Integer.MAX_VALUE ? queryRequest.toBuilder().limit(limit).build() : queryRequest;
+
+    CompletableFuture<QueryResponse> response =
+        hedgingPolicy == null
+            ? ddbClient.query(request)
+            : hedgingPolicy.execute(() -> ddbClient.query(request));
+
+    return response.exceptionally(
+        x -> {
+          throw new HydrationException(x, aggregateId);
+        });
+  }
+
+  /**
+   * Loop through all the events and deserialize the payloads into their respective types.
    *
    * @param aggregateId The aggregate's id.
    * @param eventModels The list of events.
@@ -125,9 +894,10 @@ public class DynamoDbEventStore implements EventStore {
         .map(
             attributeValueMap -> {
               try {
-                Class<?> aClass = Class.forName(attributeValueMap.get(KIND_ATTRIBUTE).s());
-                return (Event) gson.fromJson(attributeValueMap.get(EVENT_ATTRIBUTE).s(), aClass);
-              } catch (JsonSyntaxException | ClassNotFoundException e) {
+                Class<? extends Event> aClass =
+                    eventTypes.getType(attributeValueMap.get(KIND_ATTRIBUTE).s());
+                return deserializeEvent(attributeValueMap.get(EVENT_ATTRIBUTE), aClass);
+              } catch (SerializationException | ClassNotFoundException | ClassCastException e) {
                 /*
                  * Throw a hydration exception along with the aggregate id and the message
                  */
@@ -136,4 +906,63 @@ public class DynamoDbEventStore implements EventStore {
             })
         .collect(Collectors.toUnmodifiableList());
   }
+
+  /**
+   * Build the item that stores an event.
+   *
+   * @param aggregateId The aggregate id.
+   * @param version The version of the event.
+   * @param event The event.
+   * @param serializer The event serializer.
+   * @param eventTypes The registry of event kinds.
+   * @return The item.
+   */
+  static Map<String, AttributeValue> toItem(
+      UUID aggregateId,
+      long version,
+      Event event,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes) {
+    Map<String, AttributeValue> propertyMap = new HashMap<>();
+    propertyMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(aggregateId.toString()).build());
+    propertyMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(version)).build());
+    propertyMap.put(EVENT_ATTRIBUTE, serializeEvent(event, serializer));
+    propertyMap.put(
+        KIND_ATTRIBUTE, AttributeValue.builder().s(eventTypes.getKind(event.getClass())).build());
+    return propertyMap;
+  }
+
+  /**
+   * Serialize an event into the attribute that holds its payload. Binary payloads are stored as a
+   * binary attribute and everything else as a string.
+   *
+   * @param event The event.
+   * @param serializer The event serializer.
+   * @return The attribute value.
+   */
+  static AttributeValue serializeEvent(Event event, EventSerializer serializer) {
+    if (serializer.isBinary()) {
+      return AttributeValue.builder()
+          .b(SdkBytes.fromByteArrayUnsafe(serializer.serialize(event)))
+          .build();
+    }
+
+    return AttributeValue.builder().s(serializer.serializeToString(event)).build();
+  }
+
+  /**
+   * Deserialize the payload of an event by the type of attribute it was stored as, so that events
+   * written before the serializer was changed can still be read.
+   *
+   * @param payload The attribute value holding the payload.
+   * @param eventType The type of the event.
+   * @return The event.
+   */
+  private Event deserializeEvent(AttributeValue payload, Class<? extends Event> eventType) {
+    if (payload.b() != null) {
+      return deserializer.deserialize(payload.b().asByteArrayUnsafe(), eventType);
+    }
+
+    return deserializer.deserialize(payload.s(), eventType);
+  }
 }
@@ -0,0 +1,198 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+/**
+ * Snapshot store that keeps the latest snapshot of each aggregate in a DynamoDB table keyed by the
+ * aggregate id.
+ */
+public class DynamoDbSnapshotStore implements SnapshotStore {
+  public static String ID_ATTRIBUTE = "id";
+  public static String VERSION_ATTRIBUTE = "version";
+  public static String STATE_ATTRIBUTE = "state";
+  public static String KIND_ATTRIBUTE = "kind";
+
+  /** The maximum number of keys in a BatchGetItem request */
+  static final int MAX_BATCH_KEYS = 100;
+
+  private final String tableName;
+  private final DynamoDbAsyncClient ddbClient;
+  private final Gson gson;
+
+  public DynamoDbSnapshotStore(String tableName, DynamoDbAsyncClient ddbClient, Gson gson) {
+    this.tableName = tableName;
+    this.ddbClient = ddbClient;
+    this.gson = gson;
+  }
+
+  @Override
+  public CompletableFuture<Void> saveSnapshot(Snapshot snapshot) {
+    Map<String, AttributeValue> propertyMap = new HashMap<>();
+    propertyMap.put(
+        ID_ATTRIBUTE, AttributeValue.builder().s(snapshot.getAggregateId().toString()).build());
+    propertyMap.put(
+        VERSION_ATTRIBUTE,
+        AttributeValue.builder().n(String.valueOf(snapshot.getVersion())).build());
+    propertyMap.put(
+        STATE_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(snapshot.getState())).build());
+    propertyMap.put(
+        KIND_ATTRIBUTE,
+        AttributeValue.builder().s(snapshot.getState().getClass().getName()).build());
+
+    // Never replace a snapshot with an older one.
+    PutItemRequest putItemRequest =
+        PutItemRequest.builder()
+            .tableName(tableName)
+            .item(propertyMap)
+            .conditionExpression("attribute_not_exists(#version) OR #version < :version")
+            .expressionAttributeNames(Collections.singletonMap("#version", VERSION_ATTRIBUTE))
+            .expressionAttributeValues(
+                Collections.singletonMap(":version", propertyMap.get(VERSION_ATTRIBUTE)))
+            .build();
+
+    return ddbClient
+        .putItem(putItemRequest)
+        .handle(
+            (response, exception) -> {
+              if (exception == null || isConditionalCheckFailure(exception)) {
+                return null;
+              }
+              throw new CompletionException(exception);
+            });
+  }
+
+  @Override
+  public CompletableFuture<Optional<Snapshot>> getSnapshot(UUID aggregateId)
+      throws HydrationException {
+    GetItemRequest getItemRequest =
+        GetItemRequest.builder()
+            .tableName(tableName)
+            .key(
+                Collections.singletonMap(
+                    ID_ATTRIBUTE, AttributeValue.builder().s(aggregateId.toString()).build()))
+            .build();
+
+    return ddbClient
+        .getItem(getItemRequest)
+        .exceptionally(
+            x -> {
+              throw new HydrationException(x, aggregateId);
+            })
+        .thenApply(
+            response -> {
+              if (!response.hasItem() || response.item().isEmpty()) {
+                return Optional.empty();
+              }
+              return Optional.of(toSnapshot(aggregateId, response.item()));
+            });
+  }
+
+  /**
+   * Read the snapshots with BatchGetItem, splitting the ids over as many requests as needed.
+   *
+   * @param aggregateIds The aggregate ids.
+   * @return The latest snapshots by aggregate id, leaving out aggregates that have no snapshot.
+   * @throws HydrationException
+   */
+  @Override
+  public CompletableFuture<Map<UUID, Snapshot>> getSnapshots(Collection<UUID> aggregateIds)
+      throws HydrationException {
+    Map<UUID, Snapshot> snapshots = new HashMap<>();
+    List<CompletableFuture<Void>> batches = new ArrayList<>();
+    List<Map<String, AttributeValue>> keys = new ArrayList<>(MAX_BATCH_KEYS);
+
+    for (UUID aggregateId : new LinkedHashSet<>(aggregateIds)) {
+      keys.add(
+          Collections.singletonMap(
+              ID_ATTRIBUTE, AttributeValue.builder().s(aggregateId.toString()).build()));
+
+      if (keys.size() == MAX_BATCH_KEYS) {
+        batches.add(getBatch(keys, snapshots));
+        keys = new ArrayList<>(MAX_BATCH_KEYS);
+      }
+    }
+
+    if (!keys.isEmpty()) {
+      batches.add(getBatch(keys, snapshots));
+    }
+
+    return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+        .thenApply(x -> snapshots);
+  }
+
+  /**
+   * Read a batch of snapshots and retry the keys DynamoDB didn't process.
+   *
+   * @param keys The keys of the snapshots.
+   * @param snapshots Receives the snapshots that were read.
+   * @return A future that completes once every key has been read.
+   */
+  private CompletableFuture<Void> getBatch(
+      List<Map<String, AttributeValue>> keys, Map<UUID, Snapshot> snapshots) {
+    return UnprocessedRetries.send(
+        keys,
+        batch ->
+            ddbClient
+                .batchGetItem(
+                    BatchGetItemRequest.builder()
+                        .requestItems(
+                            Map.of(tableName, KeysAndAttributes.builder().keys(batch).build()))
+                        .build())
+                .thenApply(
+                    response -> {
+                      for (Map<String, AttributeValue> item :
+                          response.responses().getOrDefault(tableName, List.of())) {
+                        UUID aggregateId = UUID.fromString(item.get(ID_ATTRIBUTE).s());
+                        Snapshot snapshot = toSnapshot(aggregateId, item);
+                        synchronized (snapshots) {
+                          snapshots.put(aggregateId, snapshot);
+                        }
+                      }
+
+                      KeysAndAttributes unprocessed =
+                          response.hasUnprocessedKeys()
+                              ? response.unprocessedKeys().get(tableName)
+                              : null;
+                      return unprocessed == null ? List.of() : unprocessed.keys();
+                    }),
+        "keys");
+  }
+
+  /**
+   * Deserialize the snapshot item.
+   *
+   * @param aggregateId The aggregate id.
+   * @param item The snapshot item.
+   * @return The snapshot.
+   * @throws HydrationException
+   */
+  private Snapshot toSnapshot(UUID aggregateId, Map<String, AttributeValue> item)
+      throws HydrationException {
+    try {
+      Class<?> aClass = Class.forName(item.get(KIND_ATTRIBUTE).s());
+      Object state = gson.fromJson(item.get(STATE_ATTRIBUTE).s(), aClass);
+      int version = Integer.parseInt(item.get(VERSION_ATTRIBUTE).n());
+      return new Snapshot(aggregateId, version, state);
+    } catch (JsonSyntaxException | ClassNotFoundException e) {
+      throw new HydrationException(e, aggregateId);
+    }
+  }
+
+  /**
+   * Check whether the exception is the result of a newer snapshot already being stored.
+   *
+   * @param exception The exception.
+   * @return True if the put was rejected by the version condition.
+   */
+  private static boolean isConditionalCheckFailure(Throwable exception) {
+    Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+    return cause instanceof ConditionalCheckFailedException;
+  }
+}
@@ -0,0 +1,55 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.io.PrintStream;
+
+/**
+ * Reports the concurrency limit of each table as a CloudWatch metric by writing it in the embedded
+ * metric format. Lambda forwards the lines to CloudWatch Logs, which extracts the metric.
+ */
+public class EmbeddedMetricsLimitListener implements LimitListener {
+  /** The metric namespace */
+  public static final String NAMESPACE = "aws-cqrs";
+
+  /** The metric name */
+  public static final String METRIC_NAME = "DynamoDbConcurrencyLimit";
+
+  private final PrintStream out;
+
+  /**
+   * Constructor
+   *
+   * @param out The stream the metric lines are written to.
+   */
+  public EmbeddedMetricsLimitListener(PrintStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void onLimitChanged(String tableName, int limit) {
+    out.println(format(tableName, limit, System.currentTimeMillis()));
+  }
+
+  /**
+   * Format a limit as an embedded metric format line.
+   *
+   * @param tableName The table name.
+   * @param limit The limit.
+   * @param timestamp The time of the change in milliseconds since the epoch.
+   * @return The line.
+   */
+  static String format(String tableName, int limit, long timestamp) {
+    return "{\"_aws\":{\"Timestamp\":"
+        + timestamp
+        + ",\"CloudWatchMetrics\":[{\"Namespace\":\""
+        + NAMESPACE
+        + "\",\"Dimensions\":[[\"TableName\"]],\"Metrics\":[{\"Name\":\""
+        + METRIC_NAME
+        + "\",\"Unit\":\"Count\"}]}]},\"TableName\":\""
+        + tableName.replace("\\", "\\\\").replace("\"", "\\\"")
+        + "\",\""
+        + METRIC_NAME
+        + "\":"
+        + limit
+        + "}";
+  }
+}
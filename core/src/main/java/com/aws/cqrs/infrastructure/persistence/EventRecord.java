@@ -0,0 +1,36 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.util.UUID;
+
+/** An event along with the aggregate and version it belongs to. */
+public class EventRecord {
+  private final UUID aggregateId;
+  private final long version;
+  private final Event event;
+
+  /**
+   * Constructor
+   *
+   * @param aggregateId The aggregate id.
+   * @param version The version of the event.
+   * @param event The event.
+   */
+  public EventRecord(UUID aggregateId, long version, Event event) {
+    this.aggregateId = aggregateId;
+    this.version = version;
+    this.event = event;
+  }
+
+  public UUID getAggregateId() {
+    return aggregateId;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Event getEvent() {
+    return event;
+  }
+}
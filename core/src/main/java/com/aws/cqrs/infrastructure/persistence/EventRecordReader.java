@@ -0,0 +1,31 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Reads event records one at a time, for example from an export of a ledger. */
+public interface EventRecordReader extends Closeable {
+
+  /**
+   * Read the next record.
+   *
+   * @return The record or null when there are no more records.
+   * @throws IOException
+   */
+  EventRecord read() throws IOException;
+
+  /**
+   * Skip records, for example the ones that were already imported.
+   *
+   * @param count The number of records to skip.
+   * @return The number of records that were skipped.
+   * @throws IOException
+   */
+  default long skip(long count) throws IOException {
+    long skipped = 0;
+    while (skipped < count && read() != null) {
+      skipped++;
+    }
+    return skipped;
+  }
+}
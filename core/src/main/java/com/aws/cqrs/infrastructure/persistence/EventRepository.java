@@ -1,12 +1,23 @@
 package com.aws.cqrs.infrastructure.persistence;
 
 import com.aws.cqrs.domain.AggregateRoot;
+import com.aws.cqrs.domain.Snapshottable;
+import com.aws.cqrs.domain.StateCarrying;
 import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
 import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import com.aws.cqrs.infrastructure.messaging.Event;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Implementation of a simple event repository
@@ -21,6 +32,15 @@ public class EventRepository<T extends AggregateRoot> implements Repository<T> {
   /** The class type that the repository is working with. */
   private final Class<T> aClass;
 
+  /** Instance of the snapshot store or null when snapshots are disabled */
+  private final SnapshotStore snapshotStore;
+
+  /** The number of events between snapshots */
+  private final int snapshotFrequency;
+
+  /** Cache of hydrated aggregates or null when caching is disabled */
+  private final AggregateCache cache;
+
   /**
    * Default Constructor
    *
@@ -28,47 +48,463 @@ public class EventRepository<T extends AggregateRoot> implements Repository<T> {
    * @param eventStore The event store.
    */
   public EventRepository(Class<T> aClass, EventStore eventStore) {
+    this(aClass, eventStore, null, 0);
+  }
+
+  /**
+   * Constructor used when snapshots are enabled. A snapshot is taken every time an aggregate that
+   * implements {@link Snapshottable} crosses a multiple of the snapshot frequency and hydration
+   * only replays the events after the latest snapshot.
+   *
+   * @param aClass The type the repository is working with.
+   * @param eventStore The event store.
+   * @param snapshotStore The snapshot store.
+   * @param snapshotFrequency The number of events between snapshots.
+   */
+  public EventRepository(
+      Class<T> aClass, EventStore eventStore, SnapshotStore snapshotStore, int snapshotFrequency) {
+    this(aClass, eventStore, snapshotStore, snapshotFrequency, null);
+  }
+
+  /**
+   * Constructor used when hydrated aggregates are cached. The cache only applies to aggregates that
+   * implement {@link Snapshottable}. A cached aggregate is restored from the cache and then caught
+   * up with the events that were committed after the cached version. A save that fails evicts the
+   * aggregate from the cache unless it failed because another writer appended events first, in
+   * which case the cached state is still correct, only behind, and the retry catches it up.
+   *
+   * @param aClass The type the repository is working with.
+   * @param eventStore The event store.
+   * @param snapshotStore The snapshot store or null to disable snapshots.
+   * @param snapshotFrequency The number of events between snapshots.
+   * @param cache The aggregate cache or null to disable caching.
+   */
+  public EventRepository(
+      Class<T> aClass,
+      EventStore eventStore,
+      SnapshotStore snapshotStore,
+      int snapshotFrequency,
+      AggregateCache cache) {
+    if (snapshotStore != null && snapshotFrequency <= 0) {
+      throw new IllegalArgumentException("Snapshot frequency must be greater than zero.");
+    }
+
     this.aClass = aClass;
     this.eventStore = eventStore;
+    this.snapshotStore = snapshotStore;
+    this.snapshotFrequency = snapshotFrequency;
+    this.cache = cache;
   }
 
   @Override
   public CompletableFuture<Void> save(T aggregate) throws TransactionFailedException {
+    final List<Event> changes = aggregate.getUncommittedChanges();
+    final int expectedVersion = aggregate.getExpectedVersion();
+
     return eventStore
-        .saveEvents(
-            aggregate.getId(), aggregate.getExpectedVersion(), aggregate.getUncommittedChanges())
-        .thenAccept(
+        .saveEvents(aggregate.getId(), expectedVersion, changes)
+        .whenComplete(
+            (x, exception) -> {
+              if (exception != null) {
+                saveFailed(aggregate.getId(), exception);
+              }
+            })
+        .thenCompose(
             x -> {
+              final int version = expectedVersion + changes.size();
               aggregate.markChangesAsCommitted();
+              return saved(aggregate, expectedVersion, version);
             });
   }
 
+  /**
+   * Start a unit of work whose commit refreshes the cache and takes snapshots for the aggregates of
+   * this repository the same way a save does. Aggregates of other types in the same unit of work
+   * are caught up by their own repository when they are next loaded.
+   *
+   * @return The unit of work.
+   */
+  @Override
+  public UnitOfWork newUnitOfWork() {
+    return new UnitOfWork(
+        eventStore,
+        new UnitOfWork.CommitListener() {
+          @Override
+          public CompletableFuture<Void> committed(
+              AggregateRoot aggregate, int previousVersion, int version) {
+            return aClass.isInstance(aggregate)
+                ? saved(aClass.cast(aggregate), previousVersion, version)
+                : CompletableFuture.completedFuture(null);
+          }
+
+          @Override
+          public void failed(AggregateRoot aggregate, Throwable exception) {
+            saveFailed(aggregate.getId(), exception);
+          }
+        });
+  }
+
+  /**
+   * Cache the aggregate and take a snapshot when one is due once its changes are committed.
+   *
+   * @param aggregate The aggregate.
+   * @param previousVersion The version before the changes were committed.
+   * @param version The version after the changes were committed.
+   * @return A future that completes once the snapshot is stored.
+   */
+  private CompletableFuture<Void> saved(T aggregate, int previousVersion, int version) {
+    cacheAggregate(aggregate, version);
+    return saveSnapshot(aggregate, previousVersion, version);
+  }
+
+  /**
+   * Evict the aggregate from the cache after its changes failed to commit.
+   *
+   * @param id The aggregate id.
+   * @param exception The failure.
+   */
+  private void saveFailed(UUID id, Throwable exception) {
+    // The cached state may be behind whatever caused the save to fail. A conflict only means other
+    // events were appended after it, so the cached state is kept and the retry just reads those
+    // events.
+    if (cache != null && !isConflict(exception)) {
+      cache.invalidate(id);
+    }
+  }
+
   @Override
   public CompletableFuture<T> getById(UUID id)
       throws HydrationException, AggregateNotFoundException {
+    T aggregate;
+    try {
+      aggregate = newAggregate(id);
+    } catch (HydrationException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    if (aggregate instanceof StateCarrying) {
+      if (!(aggregate instanceof Snapshottable)) {
+        return getFromLatestEvent(id, aggregate);
+      }
+
+      /*
+       * restore the aggregate from the cache or the latest snapshot when there is one and otherwise
+       * from its creation event and its latest event
+       */
+      return getLatestSnapshot(id)
+          .thenCompose(
+              snapshot ->
+                  snapshot.isPresent()
+                      ? hydrate(id, aggregate, snapshot)
+                      : getFromLatestEvent(id, aggregate));
+    }
+
+    return replay(id, aggregate);
+  }
+
+  /**
+   * Replay the history of the aggregate.
+   *
+   * @param id The aggregate id.
+   * @param aggregate The new aggregate.
+   * @return The aggregate.
+   */
+  private CompletableFuture<T> replay(UUID id, T aggregate) {
+    if (!(aggregate instanceof Snapshottable) || (cache == null && snapshotStore == null)) {
+      /*
+       * fold each page of events into the aggregate as it is read from the event store
+       */
+      return eventStore.streamEvents(id, aggregate::loadFromHistory).thenApply(x -> aggregate);
+    }
+
     /*
-     * get the events from the event store
+     * restore the aggregate from the cache or the latest snapshot and only replay the events that
+     * came after it.
      */
+    return getLatestSnapshot(id).thenCompose(snapshot -> hydrate(id, aggregate, snapshot));
+  }
+
+  /**
+   * Restore the aggregate from its creation event and its latest event, which are read in parallel,
+   * so that hydrating it takes the same two reads however long its history is. When the latest
+   * event doesn't carry the state the history is replayed instead.
+   *
+   * @param id The aggregate id.
+   * @param aggregate The new aggregate.
+   * @return The aggregate.
+   */
+  private CompletableFuture<T> getFromLatestEvent(UUID id, T aggregate) {
+    CompletableFuture<List<Event>> creationEvent = eventStore.getEvents(id, 1, 1, 1);
+
     return eventStore
-        .getEvents(id)
-        .thenApply(
-            history -> {
-              /*
-               * Create a new instance of the aggregate
-               */
-              T aggregate;
-              try {
-                aggregate = aClass.getConstructor().newInstance();
-              } catch (InstantiationException
-                  | IllegalAccessException
-                  | InvocationTargetException
-                  | NoSuchMethodException e) {
-                throw new HydrationException(id);
+        .getLatestEvent(id)
+        .thenCombine(
+            creationEvent,
+            (latest, creation) ->
+                ((StateCarrying) aggregate)
+                    .loadFromLatestEvent(
+                        creation.get(0), latest.getEvent(), (int) latest.getVersion()))
+        .thenCompose(
+            loaded -> {
+              if (!loaded) {
+                return replay(id, newAggregate(id));
               }
 
-              aggregate.loadFromHistory(history);
+              cacheAggregate(aggregate, aggregate.getExpectedVersion());
+              return CompletableFuture.completedFuture(aggregate);
+            });
+  }
+
+  /**
+   * Get a number of aggregates. When snapshots are enabled the ids are handled in windows and the
+   * snapshots of a whole window are read in one go, while the aggregates of the previous window are
+   * still being hydrated. State carrying aggregates without a snapshot are restored from their
+   * latest event.
+   *
+   * @param ids The ids of the aggregates.
+   * @param concurrency The maximum number of aggregates to hydrate at the same time.
+   * @param consumer Receives each aggregate once it has been hydrated.
+   * @return A future that completes once every aggregate has been handed to the consumer.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  @Override
+  public CompletableFuture<Void> getByIds(
+      Collection<UUID> ids, int concurrency, Consumer<T> consumer)
+      throws HydrationException, AggregateNotFoundException {
+    if (snapshotStore == null || !Snapshottable.class.isAssignableFrom(aClass)) {
+      return Repository.super.getByIds(ids, concurrency, consumer);
+    }
+
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("Concurrency must be greater than zero.");
+    }
+
+    List<List<UUID>> windows = new ArrayList<>();
+    int windowSize = Math.max(DynamoDbSnapshotStore.MAX_BATCH_KEYS, concurrency * 4);
+    List<UUID> window = new ArrayList<>(windowSize);
+
+    for (UUID id : ids) {
+      window.add(id);
+      if (window.size() == windowSize) {
+        windows.add(window);
+        window = new ArrayList<>(windowSize);
+      }
+    }
+
+    if (!window.isEmpty()) {
+      windows.add(window);
+    }
 
+    if (windows.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return getWindows(
+        windows, 0, getSnapshots(windows.get(0)), concurrency, BoundedLoads.serialize(consumer));
+  }
+
+  /**
+   * Hydrate the aggregates of a window once its snapshots have been read, and start reading the
+   * snapshots of the next window in the meantime.
+   *
+   * @param windows The windows of ids.
+   * @param index The window to hydrate.
+   * @param snapshots The snapshots of the window.
+   * @param concurrency The maximum number of aggregates to hydrate at the same time.
+   * @param consumer Receives each aggregate once it has been hydrated.
+   * @return A future that completes once every remaining window has been hydrated.
+   */
+  private CompletableFuture<Void> getWindows(
+      List<List<UUID>> windows,
+      int index,
+      CompletableFuture<Map<UUID, Snapshot>> snapshots,
+      int concurrency,
+      Consumer<T> consumer) {
+    CompletableFuture<Map<UUID, Snapshot>> nextSnapshots =
+        index + 1 < windows.size() ? getSnapshots(windows.get(index + 1)) : null;
+
+    return snapshots
+        .thenCompose(
+            found ->
+                BoundedLoads.forEach(
+                    windows.get(index).iterator(),
+                    concurrency,
+                    id -> getById(id, found.get(id)).thenAccept(consumer)))
+        .thenCompose(
+            x ->
+                nextSnapshots == null
+                    ? CompletableFuture.completedFuture(null)
+                    : getWindows(windows, index + 1, nextSnapshots, concurrency, consumer));
+  }
+
+  /**
+   * Get the aggregate from the snapshot that was read for it, unless a newer state is cached. A
+   * state carrying aggregate that has neither is restored from its latest event.
+   *
+   * @param id The aggregate id.
+   * @param snapshot The snapshot or null if the aggregate has no snapshot.
+   * @return The aggregate.
+   */
+  private CompletableFuture<T> getById(UUID id, Snapshot snapshot) {
+    T aggregate;
+    try {
+      aggregate = newAggregate(id);
+    } catch (HydrationException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    Snapshot cached = cache == null ? null : cache.get(id);
+    Snapshot latest = cached != null ? cached : snapshot;
+
+    if (latest == null && aggregate instanceof StateCarrying) {
+      return getFromLatestEvent(id, aggregate);
+    }
+
+    return hydrate(id, aggregate, Optional.ofNullable(latest));
+  }
+
+  /**
+   * Read the snapshots of a number of aggregates, leaving out the ones that are cached. Like a
+   * single snapshot, failing to read them only means the full histories are replayed.
+   *
+   * @param ids The aggregate ids.
+   * @return The snapshots by aggregate id.
+   */
+  private CompletableFuture<Map<UUID, Snapshot>> getSnapshots(List<UUID> ids) {
+    List<UUID> uncached =
+        cache == null ? ids : ids.stream().filter(id -> cache.get(id) == null).toList();
+
+    if (uncached.isEmpty()) {
+      return CompletableFuture.completedFuture(Map.of());
+    }
+
+    return snapshotStore.getSnapshots(uncached).exceptionally(x -> Map.of());
+  }
+
+  /**
+   * Restore the aggregate from its latest known state and replay the events that came after it.
+   *
+   * @param id The aggregate id.
+   * @param aggregate The new aggregate.
+   * @param snapshot The latest known state or empty to replay the full history.
+   * @return The aggregate.
+   */
+  private CompletableFuture<T> hydrate(UUID id, T aggregate, Optional<Snapshot> snapshot) {
+    long fromVersion = 1;
+
+    if (snapshot.isPresent()) {
+      loadFromSnapshot(aggregate, snapshot.get());
+      fromVersion = snapshot.get().getVersion() + 1L;
+    }
+
+    return eventStore
+        .streamEvents(id, fromVersion, aggregate::loadFromHistory)
+        .thenApply(
+            x -> {
+              cacheAggregate(aggregate, aggregate.getExpectedVersion());
               return aggregate;
             });
   }
+
+  /**
+   * Create a new instance of the aggregate.
+   *
+   * @param id The aggregate id.
+   * @return The aggregate.
+   * @throws HydrationException When the aggregate has no public constructor without parameters.
+   */
+  private T newAggregate(UUID id) throws HydrationException {
+    try {
+      return aClass.getConstructor().newInstance();
+    } catch (InstantiationException
+        | IllegalAccessException
+        | InvocationTargetException
+        | NoSuchMethodException e) {
+      throw new HydrationException(id);
+    }
+  }
+
+  /**
+   * Get the most recent known state of the aggregate, looking in the cache first and then in the
+   * snapshot store. A snapshot is just an optimization, so if it cannot be read the full history is
+   * replayed instead.
+   *
+   * @param id The aggregate id.
+   * @return The most recent snapshot or empty if there is none.
+   */
+  private CompletableFuture<Optional<Snapshot>> getLatestSnapshot(UUID id) {
+    Snapshot cached = cache == null ? null : cache.get(id);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(Optional.of(cached));
+    }
+
+    if (snapshotStore == null) {
+      return CompletableFuture.completedFuture(Optional.empty());
+    }
+
+    return snapshotStore.getSnapshot(id).exceptionally(x -> Optional.empty());
+  }
+
+  /**
+   * Check whether a save failed because another writer appended events first.
+   *
+   * @param exception The failure.
+   * @return True if the failure is a conflict.
+   */
+  private static boolean isConflict(Throwable exception) {
+    return exception instanceof ConcurrencyException
+        || (exception instanceof CompletionException
+            && exception.getCause() instanceof ConcurrencyException);
+  }
+
+  /**
+   * Cache the state of the aggregate.
+   *
+   * @param aggregate The aggregate.
+   * @param version The version of the aggregate.
+   */
+  private void cacheAggregate(T aggregate, int version) {
+    if (cache != null && aggregate instanceof Snapshottable) {
+      cache.put(
+          new Snapshot(aggregate.getId(), version, ((Snapshottable<?>) aggregate).getSnapshot()));
+    }
+  }
+
+  /**
+   * Restore the aggregate from the snapshot.
+   *
+   * @param aggregate The aggregate.
+   * @param snapshot The snapshot.
+   * @throws HydrationException
+   */
+  @SuppressWarnings("unchecked")
+  private void loadFromSnapshot(T aggregate, Snapshot snapshot) throws HydrationException {
+    try {
+      ((Snapshottable<Object>) aggregate)
+          .loadFromSnapshot(snapshot.getState(), snapshot.getVersion());
+    } catch (ClassCastException e) {
+      throw new HydrationException(e, snapshot.getAggregateId());
+    }
+  }
+
+  /**
+   * Take a snapshot when the committed changes crossed a multiple of the snapshot frequency. A
+   * failure to store the snapshot does not fail the save since the events are already committed.
+   *
+   * @param aggregate The aggregate.
+   * @param previousVersion The version before the changes were committed.
+   * @param version The version after the changes were committed.
+   */
+  private CompletableFuture<Void> saveSnapshot(T aggregate, int previousVersion, int version) {
+    if (snapshotStore == null
+        || !(aggregate instanceof Snapshottable)
+        || previousVersion / snapshotFrequency == version / snapshotFrequency) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Snapshot snapshot =
+        new Snapshot(aggregate.getId(), version, ((Snapshottable<?>) aggregate).getSnapshot());
+    return snapshotStore.saveSnapshot(snapshot).exceptionally(x -> null);
+  }
 }
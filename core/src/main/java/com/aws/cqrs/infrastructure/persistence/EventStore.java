@@ -7,6 +7,7 @@ import com.aws.cqrs.infrastructure.messaging.Event;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /** Interface to support basic event store functionality */
 public interface EventStore {
@@ -22,6 +23,23 @@ public interface EventStore {
   CompletableFuture<Void> saveEvents(UUID aggregateId, long expectedVersion, List<Event> events)
       throws TransactionFailedException;
 
+  /**
+   * Persist the changes of several aggregates atomically, so that either every aggregate's events
+   * are appended or none are. Each aggregate's expected version is checked and a conflict on any of
+   * them fails the whole commit with a {@link
+   * com.aws.cqrs.infrastructure.exceptions.ConcurrencyException} for that aggregate. By default
+   * this is not supported.
+   *
+   * @param changes The changes of each aggregate.
+   * @throws TransactionFailedException
+   */
+  default CompletableFuture<Void> saveEvents(List<AggregateChanges> changes)
+      throws TransactionFailedException {
+    return CompletableFuture.failedFuture(
+        new UnsupportedOperationException(
+            "This event store can't commit several aggregates atomically."));
+  }
+
   /**
    * Retrieves the events
    *
@@ -30,6 +48,87 @@ public interface EventStore {
    * @throws HydrationException
    * @throws AggregateNotFoundException
    */
-  CompletableFuture<List<Event>> getEvents(UUID aggregateId)
+  default CompletableFuture<List<Event>> getEvents(UUID aggregateId)
+      throws HydrationException, AggregateNotFoundException {
+    return getEvents(aggregateId, 1);
+  }
+
+  /**
+   * Retrieves the events starting at a specific version. This is used to catch up on only the
+   * events that came after a known version.
+   *
+   * @param aggregateId The aggregate id.
+   * @param fromVersion The first version to read.
+   * @return The list of events.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  default CompletableFuture<List<Event>> getEvents(UUID aggregateId, long fromVersion)
+      throws HydrationException, AggregateNotFoundException {
+    return getEvents(aggregateId, fromVersion, Long.MAX_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Retrieves a range of events. When reading from the first version an empty result means the
+   * aggregate does not exist, otherwise an empty list is returned.
+   *
+   * @param aggregateId The aggregate id.
+   * @param fromVersion The first version to read.
+   * @param toVersion The last version to read.
+   * @param limit The maximum number of events to read.
+   * @return The list of events.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  CompletableFuture<List<Event>> getEvents(
+      UUID aggregateId, long fromVersion, long toVersion, int limit)
+      throws HydrationException, AggregateNotFoundException;
+
+  /**
+   * Retrieves the most recent event along with its version. Aggregates whose latest event carries
+   * their state can be hydrated from it without replaying the rest of their history. By default the
+   * whole history is read; stores that can read a stream backwards should override this.
+   *
+   * @param aggregateId The aggregate id.
+   * @return The latest event.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  default CompletableFuture<EventRecord> getLatestEvent(UUID aggregateId)
+      throws HydrationException, AggregateNotFoundException {
+    return getEvents(aggregateId)
+        .thenApply(
+            events -> new EventRecord(aggregateId, events.size(), events.get(events.size() - 1)));
+  }
+
+  /**
+   * Retrieves the events one page at a time. The consumer is invoked in order for each page as it
+   * arrives, so the caller never needs to hold the entire history in memory.
+   *
+   * @param aggregateId The aggregate id.
+   * @param pageConsumer The consumer for each page of events.
+   * @return A future that completes once every page has been consumed.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  default CompletableFuture<Void> streamEvents(UUID aggregateId, Consumer<List<Event>> pageConsumer)
+      throws HydrationException, AggregateNotFoundException {
+    return streamEvents(aggregateId, 1, pageConsumer);
+  }
+
+  /**
+   * Retrieves the events starting at a specific version one page at a time. This is used to read
+   * only the tail of a stream when the state up to a version is already known, for example from a
+   * snapshot. When reading a tail an empty result is not treated as a missing aggregate.
+   *
+   * @param aggregateId The aggregate id.
+   * @param fromVersion The first version to read.
+   * @param pageConsumer The consumer for each page of events.
+   * @return A future that completes once every page has been consumed.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  CompletableFuture<Void> streamEvents(
+      UUID aggregateId, long fromVersion, Consumer<List<Event>> pageConsumer)
       throws HydrationException, AggregateNotFoundException;
 }
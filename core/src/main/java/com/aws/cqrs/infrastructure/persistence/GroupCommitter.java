@@ -0,0 +1,210 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.MAX_TRANSACTION_BYTES;
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.MAX_TRANSACTION_ITEMS;
+
+import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+/**
+ * Coalesces the saves of different aggregates into a single transaction. The first save of a batch
+ * opens a window and every save that arrives before it closes is committed along with it, unless
+ * the batch would go over the transaction limits or already holds a save for the same aggregate, in
+ * which case the batch is committed straight away and a new one is started.
+ *
+ * <p>When the combined transaction is cancelled none of its saves were applied, so each save is
+ * committed on its own and only the ones that actually conflicted fail.
+ */
+class GroupCommitter {
+
+  private final Duration window;
+
+  private final Function<List<TransactWriteItem>, CompletableFuture<?>> transaction;
+
+  private Batch batch;
+
+  /**
+   * Constructor
+   *
+   * @param window How long a batch stays open for more saves.
+   * @param transaction Commits a list of items as one transaction.
+   */
+  GroupCommitter(
+      Duration window, Function<List<TransactWriteItem>, CompletableFuture<?>> transaction) {
+    this.window = window;
+    this.transaction = transaction;
+  }
+
+  /**
+   * Add a save to the current batch.
+   *
+   * @param aggregateId The aggregate id.
+   * @param items The items of the save.
+   * @param size The size of the items in bytes.
+   * @param commitAlone Commits the save on its own when it can't be grouped or has to be retried.
+   * @return A future that completes once the save has been committed.
+   */
+  CompletableFuture<Void> submit(
+      UUID aggregateId,
+      List<TransactWriteItem> items,
+      int size,
+      Supplier<CompletableFuture<Void>> commitAlone) {
+    PendingSave save = new PendingSave(aggregateId, items, size, commitAlone);
+    List<Batch> ready = new ArrayList<>(2);
+    Batch opened = null;
+
+    synchronized (this) {
+      if (batch != null && !batch.accepts(save)) {
+        ready.add(batch);
+        batch = null;
+      }
+
+      if (batch == null) {
+        batch = new Batch();
+        opened = batch;
+      }
+
+      batch.add(save);
+
+      if (batch.itemCount == MAX_TRANSACTION_ITEMS) {
+        ready.add(batch);
+        opened = null;
+        batch = null;
+      }
+    }
+
+    ready.forEach(this::commit);
+
+    if (opened != null) {
+      final Batch scheduled = opened;
+      CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS)
+          .execute(() -> close(scheduled));
+    }
+
+    return save.future;
+  }
+
+  /**
+   * Commit a batch once its window is over, unless it was already committed because it filled up.
+   *
+   * @param expired The batch whose window is over.
+   */
+  private void close(Batch expired) {
+    synchronized (this) {
+      if (batch != expired) {
+        return;
+      }
+      batch = null;
+    }
+
+    commit(expired);
+  }
+
+  /**
+   * Commit a batch. A batch of one save is committed on its own so that its failure is reported the
+   * same way as when group commit is disabled.
+   *
+   * @param ready The batch to commit.
+   */
+  private void commit(Batch ready) {
+    if (ready.saves.size() == 1) {
+      ready.saves.get(0).commitAlone();
+      return;
+    }
+
+    List<TransactWriteItem> items = new ArrayList<>(ready.itemCount);
+    for (PendingSave save : ready.saves) {
+      items.addAll(save.items);
+    }
+
+    transaction
+        .apply(items)
+        .whenComplete(
+            (x, exception) -> {
+              Throwable cause =
+                  exception instanceof CompletionException && exception.getCause() != null
+                      ? exception.getCause()
+                      : exception;
+
+              for (PendingSave save : ready.saves) {
+                if (cause == null) {
+                  save.future.complete(null);
+                } else if (cause instanceof TransactionCanceledException) {
+                  save.commitAlone();
+                } else {
+                  save.future.completeExceptionally(
+                      new TransactionFailedException(cause, save.aggregateId));
+                }
+              }
+            });
+  }
+
+  /** The saves that will be committed together */
+  private static class Batch {
+    private final List<PendingSave> saves = new ArrayList<>();
+    private final Set<UUID> aggregateIds = new HashSet<>();
+    private int itemCount;
+    private int size;
+
+    boolean accepts(PendingSave save) {
+      return itemCount + save.items.size() <= MAX_TRANSACTION_ITEMS
+          && size + save.size <= MAX_TRANSACTION_BYTES
+          && !aggregateIds.contains(save.aggregateId);
+    }
+
+    void add(PendingSave save) {
+      saves.add(save);
+      aggregateIds.add(save.aggregateId);
+      itemCount += save.items.size();
+      size += save.size;
+    }
+  }
+
+  /** A save waiting for its batch to be committed */
+  private static class PendingSave {
+    private final UUID aggregateId;
+    private final List<TransactWriteItem> items;
+    private final int size;
+    private final Supplier<CompletableFuture<Void>> commitAlone;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    PendingSave(
+        UUID aggregateId,
+        List<TransactWriteItem> items,
+        int size,
+        Supplier<CompletableFuture<Void>> commitAlone) {
+      this.aggregateId = aggregateId;
+      this.items = items;
+      this.size = size;
+      this.commitAlone = commitAlone;
+    }
+
+    void commitAlone() {
+      commitAlone
+          .get()
+          .whenComplete(
+              (x, exception) -> {
+                if (exception == null) {
+                  future.complete(null);
+                } else {
+                  future.completeExceptionally(
+                      exception instanceof CompletionException && exception.getCause() != null
+                          ? exception.getCause()
+                          : exception);
+                }
+              });
+    }
+  }
+}
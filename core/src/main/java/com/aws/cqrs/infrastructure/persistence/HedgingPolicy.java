@@ -0,0 +1,201 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second, identical request when the first one hasn't answered within a percentile of
+ * recent response times and uses whichever answers first. This cuts the tail latency that the
+ * occasional slow request adds, at the cost of a few extra requests. Only idempotent requests, such
+ * as reads, can be hedged.
+ *
+ * <p>Hedges are capped by a budget: every request earns a fraction of a hedge and sending one
+ * spends a whole hedge, so no more than that fraction of the requests are hedged over time. Until
+ * enough response times have been recorded no request is hedged.
+ *
+ * <p>The policy keeps two histograms. One holds the response time of every first request, whether
+ * or not it was overtaken, which is what callers would have seen without hedging. The other holds
+ * what callers actually saw. Comparing their percentiles shows how much hedging saved.
+ */
+public class HedgingPolicy {
+  public static final double DEFAULT_BUDGET = 0.05;
+
+  /** The number of response times the hedge delay is based on before it is used */
+  static final int MIN_SAMPLES = 100;
+
+  /** The number of response times between each decay of the histograms */
+  private static final int DECAY_INTERVAL = 10_000;
+
+  /** The most hedges that can be saved up while requests are fast */
+  private static final double MAX_SAVED_HEDGES = 10;
+
+  private final double percentile;
+  private final double budget;
+
+  private final LatencyHistogram responseLatencies = new LatencyHistogram(DECAY_INTERVAL);
+  private final LatencyHistogram hedgedLatencies = new LatencyHistogram(DECAY_INTERVAL);
+  private final LongAdder hedgesSent = new LongAdder();
+  private final LongAdder hedgesWon = new LongAdder();
+
+  private double savedHedges;
+
+  /**
+   * Constructor
+   *
+   * @param percentile The percentile of the response times after which a request is hedged, for
+   *     example 0.95.
+   * @param budget The fraction of requests that can be hedged, for example 0.05.
+   */
+  public HedgingPolicy(double percentile, double budget) {
+    if (percentile <= 0 || percentile >= 1) {
+      throw new IllegalArgumentException("The percentile must be between 0 and 1.");
+    }
+    if (budget <= 0 || budget > 1) {
+      throw new IllegalArgumentException("The budget must be greater than 0 and at most 1.");
+    }
+
+    this.percentile = percentile;
+    this.budget = budget;
+  }
+
+  /**
+   * Send a request and hedge it when it is slow.
+   *
+   * @param call The call that sends the request. It is called a second time for the hedge.
+   * @return The response of whichever request answered first. It only fails when every request that
+   *     was sent failed.
+   */
+  public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    long start = System.nanoTime();
+    long delay = getHedgeDelay();
+    earnHedge();
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    AtomicBoolean answered = new AtomicBoolean();
+    AtomicInteger outstanding = new AtomicInteger(1);
+
+    send(call)
+        .whenComplete(
+            (response, exception) -> {
+              responseLatencies.record(System.nanoTime() - start);
+              complete(result, answered, outstanding, response, exception, false);
+            });
+
+    if (delay > 0) {
+      CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+          .execute(
+              () -> {
+                if (result.isDone() || !spendHedge()) {
+                  return;
+                }
+
+                outstanding.incrementAndGet();
+                hedgesSent.increment();
+                send(call)
+                    .whenComplete(
+                        (response, exception) ->
+                            complete(result, answered, outstanding, response, exception, true));
+              });
+    }
+
+    return result.whenComplete(
+        (response, exception) -> hedgedLatencies.record(System.nanoTime() - start));
+  }
+
+  /**
+   * Get the response times of the first requests.
+   *
+   * @return The latencies callers would have seen without hedging.
+   */
+  public LatencyHistogram getResponseLatencies() {
+    return responseLatencies;
+  }
+
+  /**
+   * Get the latencies callers saw.
+   *
+   * @return The latencies with hedging.
+   */
+  public LatencyHistogram getHedgedLatencies() {
+    return hedgedLatencies;
+  }
+
+  /**
+   * @return The number of hedges that have been sent.
+   */
+  public long getHedgesSent() {
+    return hedgesSent.sum();
+  }
+
+  /**
+   * @return The number of hedges that answered before the request they hedged.
+   */
+  public long getHedgesWon() {
+    return hedgesWon.sum();
+  }
+
+  /**
+   * Get how long a request can take before it is hedged.
+   *
+   * @return The delay in nanoseconds or zero when too few response times have been recorded.
+   */
+  long getHedgeDelay() {
+    return responseLatencies.getCount() < MIN_SAMPLES
+        ? 0
+        : responseLatencies.getPercentile(percentile);
+  }
+
+  private synchronized void earnHedge() {
+    savedHedges = Math.min(MAX_SAVED_HEDGES, savedHedges + budget);
+  }
+
+  private synchronized boolean spendHedge() {
+    if (savedHedges < 1) {
+      return false;
+    }
+
+    savedHedges--;
+    return true;
+  }
+
+  private static <T> CompletableFuture<T> send(Supplier<CompletableFuture<T>> call) {
+    try {
+      return call.get();
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Complete the result with the first response, or with the failure once every request that was
+   * sent has failed. A hedge that answers first is counted before the result is completed, so that
+   * whoever sees the result also sees the count.
+   *
+   * @param hedge True if the response is from the hedge.
+   */
+  private <T> void complete(
+      CompletableFuture<T> result,
+      AtomicBoolean answered,
+      AtomicInteger outstanding,
+      T response,
+      Throwable exception,
+      boolean hedge) {
+    if (exception == null) {
+      if (answered.compareAndSet(false, true)) {
+        if (hedge) {
+          hedgesWon.increment();
+        }
+        result.complete(response);
+      }
+      return;
+    }
+
+    if (outstanding.decrementAndGet() == 0 && answered.compareAndSet(false, true)) {
+      result.completeExceptionally(exception);
+    }
+  }
+}
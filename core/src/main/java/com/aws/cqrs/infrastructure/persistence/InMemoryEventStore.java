@@ -0,0 +1,313 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Event store that keeps every stream in memory. Appends follow the same optimistic concurrency
+ * rules as {@link DynamoDbEventStore}: an append only succeeds when the stream is at the expected
+ * version, otherwise it fails with a {@link ConcurrencyException} without waiting for the other
+ * writer. Appends to different aggregates never contend with each other, and the changes of several
+ * aggregates are appended atomically by claiming all of their streams before publishing any.
+ *
+ * <p>Every appended event is also added to a global feed that holds the events of all aggregates in
+ * the order they were committed.
+ */
+public class InMemoryEventStore implements EventStore {
+
+  /** The maximum number of events handed to a page consumer at once */
+  static final int PAGE_SIZE = 1000;
+
+  private final Map<UUID, EventStream> streams = new ConcurrentHashMap<>();
+
+  private final Feed feed = new Feed();
+
+  @Override
+  public CompletableFuture<Void> saveEvents(
+      UUID aggregateId, long expectedVersion, List<Event> events) {
+    EventStream stream = streams.computeIfAbsent(aggregateId, id -> new EventStream());
+
+    if (!stream.append(aggregateId, expectedVersion, events, feed)) {
+      return CompletableFuture.failedFuture(
+          new ConcurrencyException(null, aggregateId, expectedVersion, expectedVersion + 1));
+    }
+
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Append the changes of several aggregates atomically. A conflict on any aggregate releases the
+   * streams claimed so far and leaves all of them untouched, and the events of the commit are added
+   * to the feed together.
+   *
+   * @param changes The changes of each aggregate.
+   * @return A future that completes once the events are committed.
+   */
+  @Override
+  public CompletableFuture<Void> saveEvents(List<AggregateChanges> changes) {
+    List<AggregateChanges> nonEmpty =
+        changes.stream().filter(change -> !change.getEvents().isEmpty()).toList();
+
+    if (nonEmpty.stream().map(AggregateChanges::getAggregateId).distinct().count()
+        != nonEmpty.size()) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("An aggregate can only be saved once per commit."));
+    }
+
+    List<EventStream> claimed = new ArrayList<>(nonEmpty.size());
+
+    for (AggregateChanges change : nonEmpty) {
+      EventStream stream =
+          streams.computeIfAbsent(change.getAggregateId(), id -> new EventStream());
+      long expectedVersion = change.getExpectedVersion();
+
+      if (!stream.claim(expectedVersion, change.getEvents().size())) {
+        for (int i = 0; i < claimed.size(); i++) {
+          AggregateChanges released = nonEmpty.get(i);
+          claimed.get(i).release(released.getExpectedVersion(), released.getEvents().size());
+        }
+
+        return CompletableFuture.failedFuture(
+            new ConcurrencyException(
+                null, change.getAggregateId(), expectedVersion, expectedVersion + 1));
+      }
+
+      claimed.add(stream);
+    }
+
+    // Wait for earlier writers outside the feed lock, since they need it to publish.
+    for (int i = 0; i < claimed.size(); i++) {
+      claimed.get(i).awaitPublished(nonEmpty.get(i).getExpectedVersion());
+    }
+
+    synchronized (feed) {
+      for (int i = 0; i < claimed.size(); i++) {
+        AggregateChanges change = nonEmpty.get(i);
+        claimed
+            .get(i)
+            .publish(
+                change.getAggregateId(), change.getExpectedVersion(), change.getEvents(), feed);
+      }
+    }
+
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public CompletableFuture<List<Event>> getEvents(
+      UUID aggregateId, long fromVersion, long toVersion, int limit) {
+    if (toVersion < fromVersion || limit <= 0) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException(
+              "The version range must not be empty and the limit must be greater than zero."));
+    }
+
+    List<Event> events = read(aggregateId, fromVersion, toVersion, limit);
+
+    if (events.isEmpty() && fromVersion <= 1) {
+      return CompletableFuture.failedFuture(new AggregateNotFoundException(aggregateId));
+    }
+
+    return CompletableFuture.completedFuture(events);
+  }
+
+  @Override
+  public CompletableFuture<Void> streamEvents(
+      UUID aggregateId, long fromVersion, Consumer<List<Event>> pageConsumer) {
+    List<Event> events = read(aggregateId, fromVersion, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    if (events.isEmpty() && fromVersion <= 1) {
+      return CompletableFuture.failedFuture(new AggregateNotFoundException(aggregateId));
+    }
+
+    for (int from = 0; from < events.size(); from += PAGE_SIZE) {
+      pageConsumer.accept(events.subList(from, Math.min(events.size(), from + PAGE_SIZE)));
+    }
+
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public CompletableFuture<EventRecord> getLatestEvent(UUID aggregateId) {
+    EventStream stream = streams.get(aggregateId);
+    Segment segment = stream == null ? Segment.EMPTY : stream.published;
+
+    if (segment.size == 0) {
+      return CompletableFuture.failedFuture(new AggregateNotFoundException(aggregateId));
+    }
+
+    return CompletableFuture.completedFuture(
+        new EventRecord(aggregateId, segment.size, segment.events[segment.size - 1]));
+  }
+
+  /**
+   * Read committed events from the global feed.
+   *
+   * @param fromPosition The position of the first event to read, starting at 0.
+   * @param limit The maximum number of events to read.
+   * @return The events in the order they were committed.
+   */
+  public List<EventRecord> readFeed(long fromPosition, int limit) {
+    if (fromPosition < 0 || limit <= 0) {
+      throw new IllegalArgumentException(
+          "The position must not be negative and the limit must be greater than zero.");
+    }
+
+    return feed.read(fromPosition, limit);
+  }
+
+  /**
+   * Get the position the next event committed to the global feed will have.
+   *
+   * @return The number of events in the feed.
+   */
+  public long getFeedPosition() {
+    return feed.size();
+  }
+
+  /**
+   * Read a range of events of an aggregate.
+   *
+   * @param aggregateId The aggregate id.
+   * @param fromVersion The first version to read.
+   * @param toVersion The last version to read.
+   * @param limit The maximum number of events to read.
+   * @return The events.
+   */
+  private List<Event> read(UUID aggregateId, long fromVersion, long toVersion, int limit) {
+    EventStream stream = streams.get(aggregateId);
+    return stream == null ? List.of() : stream.read(fromVersion, toVersion, limit);
+  }
+
+  /** An immutable view of a stream up to a version */
+  private static class Segment {
+    private static final Segment EMPTY = new Segment(new Event[0], 0);
+
+    private final Event[] events;
+    private final int size;
+
+    Segment(Event[] events, int size) {
+      this.events = events;
+      this.size = size;
+    }
+  }
+
+  /**
+   * The events of a single aggregate. A writer first claims the range of versions it appends with a
+   * compare-and-set on the reserved version, which fails straight away when another writer got
+   * there first. Only the writer holding the claim writes to the array, and readers only look at
+   * the part of the array that was published, so readers never wait and never see a partial append.
+   */
+  private static class EventStream {
+    private final AtomicLong reserved = new AtomicLong();
+    private volatile Segment published = Segment.EMPTY;
+
+    boolean append(UUID aggregateId, long expectedVersion, List<Event> events, Feed feed) {
+      if (!claim(expectedVersion, events.size())) {
+        return false;
+      }
+
+      awaitPublished(expectedVersion);
+      publish(aggregateId, expectedVersion, events, feed);
+      return true;
+    }
+
+    boolean claim(long expectedVersion, int count) {
+      return reserved.compareAndSet(expectedVersion, expectedVersion + count);
+    }
+
+    /** Give back a claim whose events were never published. */
+    void release(long expectedVersion, int count) {
+      reserved.compareAndSet(expectedVersion + count, expectedVersion);
+    }
+
+    void awaitPublished(long expectedVersion) {
+      // The previous writer may have released its claim but not published its events yet.
+      while (published.size != expectedVersion) {
+        Thread.onSpinWait();
+      }
+    }
+
+    void publish(UUID aggregateId, long expectedVersion, List<Event> events, Feed feed) {
+      Segment current = published;
+      Event[] array = current.events;
+      int size = current.size + events.size();
+
+      if (size > array.length) {
+        array = Arrays.copyOf(array, Math.max(size, Math.max(16, array.length * 2)));
+      }
+
+      for (int i = 0; i < events.size(); i++) {
+        array[current.size + i] = events.get(i);
+      }
+
+      feed.append(aggregateId, expectedVersion, events);
+      published = new Segment(array, size);
+    }
+
+    List<Event> read(long fromVersion, long toVersion, int limit) {
+      Segment segment = published;
+      long from = Math.max(fromVersion, 1) - 1;
+      long to = Math.min(Math.min(toVersion, segment.size), from + limit);
+
+      if (from >= to) {
+        return List.of();
+      }
+
+      return Collections.unmodifiableList(
+          Arrays.asList(segment.events).subList((int) from, (int) to));
+    }
+  }
+
+  /**
+   * The events of every aggregate in commit order. Appends are serialized, which keeps the order of
+   * the feed consistent with the version order of each aggregate, while reads never wait.
+   */
+  private static class Feed {
+    private volatile EventRecord[] records = new EventRecord[1024];
+    private volatile int size;
+
+    synchronized void append(UUID aggregateId, long expectedVersion, List<Event> events) {
+      EventRecord[] array = records;
+      int newSize = size + events.size();
+
+      if (newSize > array.length) {
+        array = Arrays.copyOf(array, Math.max(newSize, array.length * 2));
+      }
+
+      for (int i = 0; i < events.size(); i++) {
+        array[size + i] = new EventRecord(aggregateId, expectedVersion + i + 1, events.get(i));
+      }
+
+      records = array;
+      size = newSize;
+    }
+
+    List<EventRecord> read(long fromPosition, int limit) {
+      int end = size;
+      EventRecord[] array = records;
+
+      if (fromPosition >= end) {
+        return List.of();
+      }
+
+      int to = (int) Math.min(end, fromPosition + limit);
+      return Collections.unmodifiableList(Arrays.asList(array).subList((int) fromPosition, to));
+    }
+
+    long size() {
+      return size;
+    }
+  }
+}
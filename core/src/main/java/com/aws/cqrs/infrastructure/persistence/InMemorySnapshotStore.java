@@ -0,0 +1,27 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Snapshot store that keeps the latest snapshot of each aggregate in memory. */
+public class InMemorySnapshotStore implements SnapshotStore {
+
+  private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+  @Override
+  public CompletableFuture<Void> saveSnapshot(Snapshot snapshot) {
+    snapshots.merge(
+        snapshot.getAggregateId(),
+        snapshot,
+        (current, latest) -> latest.getVersion() > current.getVersion() ? latest : current);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public CompletableFuture<Optional<Snapshot>> getSnapshot(UUID aggregateId) {
+    return CompletableFuture.completedFuture(Optional.ofNullable(snapshots.get(aggregateId)));
+  }
+}
@@ -0,0 +1,96 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+/**
+ * A histogram of latencies with buckets that grow geometrically, so every bucket is about 9% wider
+ * than the one before it and percentiles are accurate to within that much from a microsecond up to
+ * about a minute. When the histogram decays, every count is halved each time the given number of
+ * latencies has been recorded, so percentiles follow recent latencies rather than all of them.
+ */
+public class LatencyHistogram {
+  private static final int BUCKETS_PER_DOUBLING = 8;
+  private static final int BUCKETS = 26 * BUCKETS_PER_DOUBLING;
+
+  private final long[] counts = new long[BUCKETS];
+  private final long decayInterval;
+
+  private long count;
+  private long sinceDecay;
+
+  /** Constructor for a histogram that keeps every latency. */
+  public LatencyHistogram() {
+    this(0);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param decayInterval The number of latencies between each halving of the counts or zero to keep
+   *     every latency.
+   */
+  public LatencyHistogram(long decayInterval) {
+    if (decayInterval < 0) {
+      throw new IllegalArgumentException("The decay interval must not be negative.");
+    }
+
+    this.decayInterval = decayInterval;
+  }
+
+  /**
+   * Record a latency.
+   *
+   * @param nanos The latency in nanoseconds.
+   */
+  public synchronized void record(long nanos) {
+    long micros = Math.max(1, nanos / 1000);
+    int bucket = (int) Math.min(BUCKETS - 1, Math.log(micros) / Math.log(2) * BUCKETS_PER_DOUBLING);
+    counts[bucket]++;
+    count++;
+
+    if (decayInterval > 0 && ++sinceDecay >= decayInterval) {
+      count = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] /= 2;
+        count += counts[i];
+      }
+      sinceDecay = 0;
+    }
+  }
+
+  /**
+   * Get the number of latencies the histogram holds.
+   *
+   * @return The count, which drops every time the histogram decays.
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Get a percentile of the latencies.
+   *
+   * @param percentile The percentile between 0 and 1, for example 0.95.
+   * @return The upper bound of the bucket the percentile falls into in nanoseconds or zero when no
+   *     latencies have been recorded.
+   */
+  public synchronized long getPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+
+    long target = Math.max(1, (long) Math.ceil(percentile * count));
+    long seen = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= target) {
+        return upperBound(i);
+      }
+    }
+
+    return upperBound(BUCKETS - 1);
+  }
+
+  private static long upperBound(int bucket) {
+    return (long) (Math.pow(2, (bucket + 1) / (double) BUCKETS_PER_DOUBLING) * 1000);
+  }
+}
@@ -0,0 +1,16 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+/** Receives the concurrency limit of a table every time it changes. */
+public interface LimitListener {
+
+  /** A listener that ignores every change */
+  LimitListener NONE = (tableName, limit) -> {};
+
+  /**
+   * Called when the concurrency limit of a table changes.
+   *
+   * @param tableName The table name.
+   * @param limit The new limit.
+   */
+  void onLimitChanged(String tableName, int limit);
+}
@@ -0,0 +1,234 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.ThrottledException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+/**
+ * A client that puts an {@link AdaptiveLimiter} per table in front of the calls the project makes,
+ * so that a throttled or slow table gets fewer concurrent requests instead of a retry storm. A
+ * request that is shed fails with a {@link ThrottledException}. Batch and transaction requests
+ * count against the first table they name.
+ */
+public class LimitedDynamoDbAsyncClient implements DynamoDbAsyncClient {
+  public static final int DEFAULT_INITIAL_LIMIT = 20;
+  public static final int DEFAULT_MIN_LIMIT = 1;
+  public static final int DEFAULT_MAX_LIMIT = 1000;
+  public static final int DEFAULT_MAX_QUEUED = 1000;
+
+  private final DynamoDbAsyncClient delegate;
+  private final int initialLimit;
+  private final int minLimit;
+  private final int maxLimit;
+  private final int maxQueued;
+  private final LimitListener listener;
+
+  private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor that uses the default limits.
+   *
+   * @param delegate The client that sends the requests.
+   * @param listener The listener that is told every time the limit of a table changes.
+   */
+  public LimitedDynamoDbAsyncClient(DynamoDbAsyncClient delegate, LimitListener listener) {
+    this(
+        delegate,
+        DEFAULT_INITIAL_LIMIT,
+        DEFAULT_MIN_LIMIT,
+        DEFAULT_MAX_LIMIT,
+        DEFAULT_MAX_QUEUED,
+        listener);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param delegate The client that sends the requests.
+   * @param initialLimit The number of requests each table starts with.
+   * @param minLimit The lowest the limit of a table can go.
+   * @param maxLimit The highest the limit of a table can go.
+   * @param maxQueued The number of requests per table that can wait before new ones are shed.
+   * @param listener The listener that is told every time the limit of a table changes.
+   */
+  public LimitedDynamoDbAsyncClient(
+      DynamoDbAsyncClient delegate,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      int maxQueued,
+      LimitListener listener) {
+    AdaptiveLimiter.checkLimits(initialLimit, minLimit, maxLimit);
+
+    this.delegate = delegate;
+    this.initialLimit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.maxQueued = maxQueued;
+    this.listener = listener;
+  }
+
+  /**
+   * Get the current concurrency limit of a table.
+   *
+   * @param tableName The table name.
+   * @return The limit.
+   */
+  public int getLimit(String tableName) {
+    return getLimiter(tableName).getLimit();
+  }
+
+  @Override
+  public CompletableFuture<QueryResponse> query(QueryRequest request) {
+    return limit(request.tableName(), () -> delegate.query(request));
+  }
+
+  @Override
+  public CompletableFuture<ScanResponse> scan(ScanRequest request) {
+    return limit(request.tableName(), () -> delegate.scan(request));
+  }
+
+  @Override
+  public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+    return limit(request.tableName(), () -> delegate.getItem(request));
+  }
+
+  @Override
+  public CompletableFuture<PutItemResponse> putItem(PutItemRequest request) {
+    return limit(request.tableName(), () -> delegate.putItem(request));
+  }
+
+  @Override
+  public CompletableFuture<UpdateItemResponse> updateItem(UpdateItemRequest request) {
+    return limit(request.tableName(), () -> delegate.updateItem(request));
+  }
+
+  @Override
+  public CompletableFuture<DeleteItemResponse> deleteItem(DeleteItemRequest request) {
+    return limit(request.tableName(), () -> delegate.deleteItem(request));
+  }
+
+  @Override
+  public CompletableFuture<BatchGetItemResponse> batchGetItem(BatchGetItemRequest request) {
+    return limit(
+        request.requestItems().keySet().stream().findFirst().orElse(null),
+        () -> delegate.batchGetItem(request));
+  }
+
+  @Override
+  public CompletableFuture<BatchWriteItemResponse> batchWriteItem(BatchWriteItemRequest request) {
+    return limit(
+        request.requestItems().keySet().stream().findFirst().orElse(null),
+        () -> delegate.batchWriteItem(request));
+  }
+
+  @Override
+  public CompletableFuture<TransactWriteItemsResponse> transactWriteItems(
+      TransactWriteItemsRequest request) {
+    return limit(
+        request.transactItems().stream()
+            .map(LimitedDynamoDbAsyncClient::getTableName)
+            .filter(Objects::nonNull)
+            .findFirst()
+            .orElse(null),
+        () -> delegate.transactWriteItems(request));
+  }
+
+  @Override
+  public String serviceName() {
+    return delegate.serviceName();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  /**
+   * Send a request once its table has a free slot and adapt the limit of the table to the response.
+   *
+   * @param tableName The table name or null to send the request straight away.
+   * @param call The call that sends the request.
+   * @return The response.
+   */
+  private <T> CompletableFuture<T> limit(String tableName, Supplier<CompletableFuture<T>> call) {
+    if (tableName == null) {
+      return call.get();
+    }
+
+    AdaptiveLimiter limiter = getLimiter(tableName);
+
+    return limiter
+        .acquire()
+        .thenCompose(
+            x -> {
+              long start = System.nanoTime();
+              CompletableFuture<T> response;
+
+              try {
+                response = call.get();
+              } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+              }
+
+              return response.whenComplete(
+                  (result, exception) ->
+                      limiter.release(System.nanoTime() - start, isThrottled(exception)));
+            });
+  }
+
+  private AdaptiveLimiter getLimiter(String tableName) {
+    return limiters.computeIfAbsent(
+        tableName,
+        name -> new AdaptiveLimiter(name, initialLimit, minLimit, maxLimit, maxQueued, listener));
+  }
+
+  static boolean isThrottled(Throwable exception) {
+    Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+
+    return cause instanceof ProvisionedThroughputExceededException
+        || cause instanceof RequestLimitExceededException
+        || (cause instanceof AwsServiceException
+            && ((AwsServiceException) cause).isThrottlingException());
+  }
+
+  private static String getTableName(TransactWriteItem item) {
+    if (item.put() != null) {
+      return item.put().tableName();
+    }
+    if (item.update() != null) {
+      return item.update().tableName();
+    }
+    if (item.delete() != null) {
+      return item.delete().tableName();
+    }
+    return item.conditionCheck() != null ? item.conditionCheck().tableName() : null;
+  }
+}
@@ -0,0 +1,77 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** A fixed size segment file of a segment log, mapped into memory. */
+class LogSegment implements Closeable {
+
+  private final int index;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+
+  private LogSegment(int index, FileChannel channel, MappedByteBuffer buffer) {
+    this.index = index;
+    this.channel = channel;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Open a segment, creating a zero filled file of the given size when it doesn't exist yet. An
+   * existing file is mapped at its own size.
+   *
+   * @param path The segment file.
+   * @param index The position of the segment in the log.
+   * @param size The size of a new segment.
+   * @return The segment.
+   * @throws IOException
+   */
+  static LogSegment open(Path path, int index, int size) throws IOException {
+    boolean exists = Files.exists(path);
+    FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+    try {
+      long capacity = exists ? channel.size() : size;
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      return new LogSegment(index, channel, buffer);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  int getCapacity() {
+    return buffer.capacity();
+  }
+
+  /**
+   * Get a view of the segment with its own position and limit.
+   *
+   * @return The view.
+   */
+  ByteBuffer view() {
+    return buffer.duplicate();
+  }
+
+  /** Write the changes made to the segment through to the disk. */
+  void force() {
+    buffer.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
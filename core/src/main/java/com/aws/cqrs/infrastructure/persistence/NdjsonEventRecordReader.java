@@ -0,0 +1,72 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Reads event records from newline delimited JSON. Each line is an object holding the aggregate id,
+ * the version, the kind of the event and the event itself, for example:
+ *
+ * <pre>{"id":"...","version":1,"kind":"acct.v1","event":{"accountId":"...",...}}</pre>
+ *
+ * Blank lines are ignored.
+ */
+public class NdjsonEventRecordReader implements EventRecordReader {
+  private final BufferedReader reader;
+  private final EventSerializer serializer;
+  private final EventTypeRegistry eventTypes;
+
+  /**
+   * Constructor
+   *
+   * @param reader The source of the lines.
+   * @param serializer The serializer of the JSON events.
+   * @param eventTypes The registry of event kinds.
+   */
+  public NdjsonEventRecordReader(
+      BufferedReader reader, EventSerializer serializer, EventTypeRegistry eventTypes) {
+    this.reader = reader;
+    this.serializer = serializer;
+    this.eventTypes = eventTypes;
+  }
+
+  @Override
+  public EventRecord read() throws IOException {
+    String line;
+    do {
+      line = reader.readLine();
+      if (line == null) {
+        return null;
+      }
+    } while (line.isBlank());
+
+    try {
+      JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+      Class<? extends Event> eventType = eventTypes.getType(record.get("kind").getAsString());
+      return new EventRecord(
+          UUID.fromString(record.get("id").getAsString()),
+          record.get("version").getAsLong(),
+          serializer.deserialize(record.get("event").toString(), eventType));
+    } catch (JsonParseException
+        | IllegalStateException
+        | IllegalArgumentException
+        | NullPointerException
+        | ClassNotFoundException
+        | ClassCastException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
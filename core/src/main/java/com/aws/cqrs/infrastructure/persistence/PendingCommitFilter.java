@@ -0,0 +1,75 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.COMMIT_ATTRIBUTE;
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.COMMIT_FROM_ATTRIBUTE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Hides the events of a chunked commit until the commit is complete. Every event of a chunked
+ * commit carries the id of the commit and the last one is only written once all the others have
+ * been, so the events of a commit are held back until its last event is read. Events of a commit
+ * that never completed are never released.
+ *
+ * <p>A filter keeps the events it is holding back between pages, so a new filter has to be used for
+ * every read. Items of different aggregates may be passed to the same filter as long as the items
+ * of each aggregate are contiguous and in version order, as they are in a scan.
+ */
+public class PendingCommitFilter {
+
+  private final List<Map<String, AttributeValue>> held = new ArrayList<>();
+
+  private String heldCommit;
+
+  /**
+   * Filter a page of items that were read in version order.
+   *
+   * @param items The items of the page.
+   * @return The items that are part of a complete commit.
+   */
+  public List<Map<String, AttributeValue>> filter(List<Map<String, AttributeValue>> items) {
+    List<Map<String, AttributeValue>> visible = new ArrayList<>(items.size());
+
+    for (Map<String, AttributeValue> item : items) {
+      AttributeValue commit = item.get(COMMIT_ATTRIBUTE);
+
+      if (commit == null) {
+        reset();
+        visible.add(item);
+        continue;
+      }
+
+      if (!commit.s().equals(heldCommit)) {
+        reset();
+        heldCommit = commit.s();
+      }
+
+      held.add(item);
+
+      if (item.containsKey(COMMIT_FROM_ATTRIBUTE)) {
+        visible.addAll(held);
+        reset();
+      }
+    }
+
+    return visible;
+  }
+
+  /**
+   * Check whether items of a commit that hasn't completed yet are being held back.
+   *
+   * @return True if items are being held back.
+   */
+  public boolean isHolding() {
+    return !held.isEmpty();
+  }
+
+  /** Forget the items of the commit being held back. */
+  private void reset() {
+    held.clear();
+    heldCommit = null;
+  }
+}
@@ -0,0 +1,64 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out requests so that they don't consume more than a target number of permits per second,
+ * for example the write capacity units an import is allowed to use. A request that needs more
+ * permits than are available is delayed rather than rejected.
+ */
+class RateLimiter {
+
+  private final double nanosPerPermit;
+
+  private long nextFree = System.nanoTime();
+
+  /**
+   * Constructor
+   *
+   * @param permitsPerSecond The number of permits that can be used every second.
+   */
+  RateLimiter(double permitsPerSecond) {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException("Permits per second must be greater than zero.");
+    }
+
+    this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+  }
+
+  /**
+   * Reserve permits.
+   *
+   * @param permits The number of permits.
+   * @return A future that completes once the permits can be used.
+   */
+  CompletableFuture<Void> acquire(int permits) {
+    long delay = reserve(permits);
+
+    if (delay <= 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return CompletableFuture.runAsync(
+        () -> {}, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+  }
+
+  /**
+   * Reserve permits and work out how long the caller has to wait before using them. Permits that
+   * were not used while the limiter was idle are not saved up for later.
+   *
+   * @param permits The number of permits.
+   * @return The delay in nanoseconds.
+   */
+  synchronized long reserve(int permits) {
+    long now = System.nanoTime();
+    if (nextFree - now < 0) {
+      nextFree = now;
+    }
+
+    long delay = nextFree - now;
+    nextFree += (long) (permits * nanosPerPermit);
+    return delay;
+  }
+}
@@ -4,8 +4,10 @@ import com.aws.cqrs.domain.AggregateRoot;
 import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
 import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Interface for a repository implementation.
@@ -31,4 +33,36 @@ public interface Repository<T extends AggregateRoot> {
    * @throws AggregateNotFoundException
    */
   CompletableFuture<T> getById(UUID id) throws HydrationException, AggregateNotFoundException;
+
+  /**
+   * Get a number of aggregates, hydrating up to a given number of them at the same time. Each
+   * aggregate is handed to the consumer as soon as it has been hydrated, so the aggregates arrive
+   * in no particular order, but the consumer is never called concurrently. Once an aggregate can't
+   * be hydrated no more aggregates are started and the returned future fails.
+   *
+   * @param ids The ids of the aggregates.
+   * @param concurrency The maximum number of aggregates to hydrate at the same time.
+   * @param consumer Receives each aggregate once it has been hydrated.
+   * @return A future that completes once every aggregate has been handed to the consumer.
+   * @throws HydrationException
+   * @throws AggregateNotFoundException
+   */
+  default CompletableFuture<Void> getByIds(
+      Collection<UUID> ids, int concurrency, Consumer<T> consumer)
+      throws HydrationException, AggregateNotFoundException {
+    Consumer<T> serialized = BoundedLoads.serialize(consumer);
+    return BoundedLoads.forEach(
+        ids.iterator(), concurrency, id -> getById(id).thenAccept(serialized));
+  }
+
+  /**
+   * Start a unit of work that commits the changes of several aggregates together.
+   *
+   * @return The unit of work.
+   * @throws UnsupportedOperationException When the repository can't commit aggregates together.
+   */
+  default UnitOfWork newUnitOfWork() throws UnsupportedOperationException {
+    throw new UnsupportedOperationException(
+        "This repository can't commit several aggregates together.");
+  }
 }
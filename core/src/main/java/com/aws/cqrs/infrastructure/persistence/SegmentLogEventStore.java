@@ -0,0 +1,733 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.aws.cqrs.infrastructure.serialization.PayloadDeserializer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Event store that appends events to memory mapped segment files in a local directory, for
+ * deployments without DynamoDB. It follows the same contract as {@link DynamoDbEventStore}: an
+ * append only succeeds when the aggregate is at the expected version and otherwise fails with a
+ * {@link ConcurrencyException}, and reading the first version of an aggregate without events fails
+ * with an {@link AggregateNotFoundException}.
+ *
+ * <p>Each save is written as one frame holding its length, a CRC of its contents and a batch per
+ * aggregate with the aggregate id, the first version and the events, so the aggregates of a save
+ * are recovered together or not at all. A frame that doesn't fit in the current segment starts a
+ * new one. The positions of the events of each aggregate are kept in an in-memory index that is
+ * rebuilt from the segments when the store is opened. A torn frame at the end of the last segment
+ * is dropped and the rest of that segment zeroed.
+ *
+ * <p>Saves complete once their frame has been flushed to disk. Frames written within the fsync
+ * interval are flushed together, and events only become visible to readers once they are durable.
+ * Payloads are decoded straight from the mapped segments.
+ *
+ * <p>When a flush fails the frames that weren't flushed are already in the index and in the mapped
+ * segments, and a later flush could write them out after all, so the store fails closed: every
+ * waiting save and every later one fails, and reads only see what was durable before. Whether the
+ * failed saves reached the disk is only known once the store is reopened and the segments replayed.
+ */
+public class SegmentLogEventStore implements EventStore, Closeable {
+
+  /** The default size of a segment file */
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  /** The default time to wait for other saves before flushing */
+  public static final Duration DEFAULT_FSYNC_INTERVAL = Duration.ofMillis(2);
+
+  /** The maximum number of events handed to a page consumer at once */
+  static final int PAGE_SIZE = 1000;
+
+  /** The size of the length and CRC that precede the contents of a frame */
+  static final int FRAME_HEADER_SIZE = 8;
+
+  /** The size of the aggregate id, first version and event count at the start of a batch */
+  private static final int BATCH_HEADER_SIZE = 28;
+
+  private static final byte TEXT_PAYLOAD = 0;
+
+  private static final byte BINARY_PAYLOAD = 1;
+
+  private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+
+  private final Path directory;
+  private final int segmentSize;
+  private final EventSerializer serializer;
+  private final PayloadDeserializer deserializer;
+  private final EventTypeRegistry eventTypes;
+  private final Duration fsyncInterval;
+
+  private final AggregateIndex index = new AggregateIndex();
+  private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+  private final Set<LogSegment> dirty = new LinkedHashSet<>();
+  private List<PendingAppend> pending = new ArrayList<>();
+  private boolean flushScheduled;
+  private boolean closed;
+
+  /** The failure of a flush, after which nothing more is written */
+  private RuntimeException failure;
+
+  private LogSegment active;
+  private int writePosition;
+
+  /**
+   * Constructor
+   *
+   * @param directory The directory holding the segment files.
+   * @param serializer The event serializer.
+   * @throws IOException When the segments can't be opened or are corrupt.
+   */
+  public SegmentLogEventStore(Path directory, EventSerializer serializer) throws IOException {
+    this(
+        directory,
+        DEFAULT_SEGMENT_SIZE,
+        serializer,
+        EventTypeRegistry.getDefault(),
+        DEFAULT_FSYNC_INTERVAL);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param directory The directory holding the segment files.
+   * @param segmentSize The size of a new segment file.
+   * @param serializer The event serializer.
+   * @param eventTypes The registry of event kinds.
+   * @param fsyncInterval How long to wait for other saves before flushing or zero to flush every
+   *     save on its own.
+   * @throws IOException When the segments can't be opened or are corrupt.
+   */
+  public SegmentLogEventStore(
+      Path directory,
+      int segmentSize,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes,
+      Duration fsyncInterval)
+      throws IOException {
+    if (segmentSize <= FRAME_HEADER_SIZE + BATCH_HEADER_SIZE || fsyncInterval.isNegative()) {
+      throw new IllegalArgumentException(
+          "The segment size must fit a frame and the fsync interval must not be negative.");
+    }
+
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.serializer = serializer;
+    this.deserializer = new PayloadDeserializer(serializer);
+    this.eventTypes = eventTypes;
+    this.fsyncInterval = fsyncInterval;
+
+    Files.createDirectories(directory);
+    recover();
+  }
+
+  @Override
+  public CompletableFuture<Void> saveEvents(
+      UUID aggregateId, long expectedVersion, List<Event> events)
+      throws TransactionFailedException {
+    if (events.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return append(List.of(new AggregateChanges(aggregateId, expectedVersion, events)));
+  }
+
+  /**
+   * Persist the changes of several aggregates atomically by writing them as a single frame.
+   *
+   * @param changes The changes of each aggregate.
+   * @throws TransactionFailedException
+   */
+  @Override
+  public CompletableFuture<Void> saveEvents(List<AggregateChanges> changes)
+      throws TransactionFailedException {
+    List<AggregateChanges> nonEmpty =
+        changes.stream().filter(change -> !change.getEvents().isEmpty()).toList();
+
+    if (nonEmpty.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    if (nonEmpty.stream().map(AggregateChanges::getAggregateId).distinct().count()
+        != nonEmpty.size()) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("An aggregate can only be saved once per commit."));
+    }
+
+    return append(nonEmpty);
+  }
+
+  /**
+   * Write the changes of one or more aggregates as a single frame once every aggregate is at its
+   * expected version.
+   *
+   * @param changes The changes of each aggregate, none of them empty.
+   * @return A future that completes once the frame has been flushed.
+   */
+  private CompletableFuture<Void> append(List<AggregateChanges> changes) {
+    UUID firstAggregateId = changes.get(0).getAggregateId();
+
+    Frame frame;
+    try {
+      frame = encode(changes);
+    } catch (SerializationException e) {
+      return CompletableFuture.failedFuture(new TransactionFailedException(e, firstAggregateId));
+    }
+
+    int frameSize = frame.bytes.remaining();
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    boolean flushNow = false;
+
+    synchronized (this) {
+      if (closed) {
+        return CompletableFuture.failedFuture(
+            new IllegalStateException("The event store is closed."));
+      }
+
+      if (failure != null) {
+        return CompletableFuture.failedFuture(
+            new TransactionFailedException(failure, firstAggregateId));
+      }
+
+      List<AggregateIndex.Positions> aggregatePositions = new ArrayList<>(changes.size());
+
+      for (AggregateChanges change : changes) {
+        AggregateIndex.Positions positions = index.getOrCreate(change.getAggregateId());
+        long expectedVersion = change.getExpectedVersion();
+
+        if (positions.getCount() != expectedVersion) {
+          return CompletableFuture.failedFuture(
+              new ConcurrencyException(
+                  null, change.getAggregateId(), expectedVersion, expectedVersion + 1));
+        }
+
+        aggregatePositions.add(positions);
+      }
+
+      if (writePosition + frameSize > active.getCapacity()) {
+        if (frameSize > segmentSize) {
+          return CompletableFuture.failedFuture(
+              new TransactionFailedException(
+                  null, "The events don't fit in a single segment.", firstAggregateId));
+        }
+
+        try {
+          roll();
+        } catch (IOException e) {
+          return CompletableFuture.failedFuture(
+              new TransactionFailedException(e, firstAggregateId));
+        } catch (UncheckedIOException e) {
+          // The segment being rolled away from couldn't be flushed.
+          failure = e;
+          return CompletableFuture.failedFuture(
+              new TransactionFailedException(e, firstAggregateId));
+        }
+      }
+
+      ByteBuffer view = active.view();
+      view.position(writePosition);
+      view.put(frame.bytes);
+
+      for (int i = 0; i < changes.size(); i++) {
+        AggregateIndex.Positions positions = aggregatePositions.get(i);
+
+        for (int eventOffset : frame.eventOffsets[i]) {
+          positions.add(toPosition(active.getIndex(), writePosition + eventOffset));
+        }
+
+        pending.add(
+            new PendingAppend(
+                changes.get(i).getAggregateId(), positions, positions.getCount(), future));
+      }
+
+      writePosition += frameSize;
+      dirty.add(active);
+
+      if (fsyncInterval.isZero()) {
+        flushNow = true;
+      } else if (!flushScheduled) {
+        flushScheduled = true;
+        CompletableFuture.delayedExecutor(fsyncInterval.toNanos(), TimeUnit.NANOSECONDS)
+            .execute(this::flush);
+      }
+    }
+
+    if (flushNow) {
+      flush();
+    }
+
+    return future;
+  }
+
+  @Override
+  public CompletableFuture<List<Event>> getEvents(
+      UUID aggregateId, long fromVersion, long toVersion, int limit)
+      throws HydrationException, AggregateNotFoundException {
+    if (toVersion < fromVersion || limit <= 0) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException(
+              "The version range must not be empty and the limit must be greater than zero."));
+    }
+
+    long[] positions = getPositions(aggregateId, fromVersion, toVersion, limit);
+
+    if (positions.length == 0 && fromVersion <= 1) {
+      return CompletableFuture.failedFuture(new AggregateNotFoundException(aggregateId));
+    }
+
+    try {
+      return CompletableFuture.completedFuture(decode(aggregateId, positions, 0, positions.length));
+    } catch (HydrationException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> streamEvents(
+      UUID aggregateId, long fromVersion, Consumer<List<Event>> pageConsumer)
+      throws HydrationException, AggregateNotFoundException {
+    long[] positions = getPositions(aggregateId, fromVersion, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    if (positions.length == 0 && fromVersion <= 1) {
+      return CompletableFuture.failedFuture(new AggregateNotFoundException(aggregateId));
+    }
+
+    try {
+      for (int from = 0; from < positions.length; from += PAGE_SIZE) {
+        pageConsumer.accept(
+            decode(aggregateId, positions, from, Math.min(positions.length, from + PAGE_SIZE)));
+      }
+    } catch (HydrationException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /** Flush the saves that are waiting and close the segment files. */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+
+    flush();
+
+    for (LogSegment segment : segments) {
+      segment.close();
+    }
+  }
+
+  /**
+   * Flush every segment that was written to since the last flush and complete the saves that were
+   * waiting for it. Saves that were written while the segments were being forced are picked up by
+   * the next flush. Once a flush has failed the saves fail without being flushed.
+   */
+  private void flush() {
+    List<PendingAppend> flushing;
+    List<LogSegment> forcing;
+    RuntimeException failed;
+
+    synchronized (this) {
+      flushing = pending;
+      forcing = new ArrayList<>(dirty);
+      pending = new ArrayList<>();
+      dirty.clear();
+      flushScheduled = false;
+      failed = failure;
+    }
+
+    if (flushing.isEmpty()) {
+      return;
+    }
+
+    if (failed == null) {
+      try {
+        forcing.forEach(LogSegment::force);
+      } catch (UncheckedIOException e) {
+        synchronized (this) {
+          if (failure == null) {
+            failure = e;
+          }
+        }
+        failed = e;
+      }
+    }
+
+    if (failed != null) {
+      final RuntimeException cause = failed;
+      flushing.forEach(
+          append ->
+              append.future.completeExceptionally(
+                  new TransactionFailedException(cause, append.aggregateId)));
+      return;
+    }
+
+    synchronized (this) {
+      flushing.forEach(append -> append.positions.markDurable(append.count));
+    }
+
+    flushing.forEach(append -> append.future.complete(null));
+  }
+
+  /**
+   * Get the positions of a range of durable events.
+   *
+   * @param aggregateId The aggregate id.
+   * @param fromVersion The first version to read.
+   * @param toVersion The last version to read.
+   * @param limit The maximum number of events to read.
+   * @return The positions.
+   */
+  private synchronized long[] getPositions(
+      UUID aggregateId, long fromVersion, long toVersion, int limit) {
+    AggregateIndex.Positions positions = index.get(aggregateId);
+
+    if (positions == null) {
+      return new long[0];
+    }
+
+    long from = Math.max(fromVersion, 1) - 1;
+    long to = Math.min(Math.min(toVersion, positions.getDurableCount()), from + limit);
+    long[] range = new long[(int) Math.max(0, to - from)];
+
+    for (int i = 0; i < range.length; i++) {
+      range[i] = positions.get((int) from + i);
+    }
+
+    return range;
+  }
+
+  /**
+   * Decode events straight from the segments they are stored in.
+   *
+   * @param aggregateId The aggregate id.
+   * @param positions The positions of the events.
+   * @param from The index of the first position to decode.
+   * @param to The index after the last position to decode.
+   * @return The events.
+   * @throws HydrationException
+   */
+  private List<Event> decode(UUID aggregateId, long[] positions, int from, int to)
+      throws HydrationException {
+    List<Event> events = new ArrayList<>(to - from);
+
+    for (int i = from; i < to; i++) {
+      ByteBuffer view = segments.get((int) (positions[i] >>> 32)).view();
+      view.position((int) positions[i]);
+
+      boolean binary = view.get() == BINARY_PAYLOAD;
+      byte[] kind = new byte[view.getShort()];
+      view.get(kind);
+      int payloadLength = view.getInt();
+      ByteBuffer payload = view.slice(view.position(), payloadLength);
+
+      try {
+        Class<? extends Event> eventType =
+            eventTypes.getType(new String(kind, StandardCharsets.UTF_8));
+        events.add(deserializer.deserialize(payload, binary, eventType));
+      } catch (SerializationException | ClassNotFoundException | ClassCastException e) {
+        throw new HydrationException(e, aggregateId);
+      }
+    }
+
+    return events;
+  }
+
+  /**
+   * Encode a save as a frame with a batch per aggregate.
+   *
+   * @param changes The changes of each aggregate.
+   * @return The frame.
+   * @throws SerializationException
+   */
+  private Frame encode(List<AggregateChanges> changes) throws SerializationException {
+    byte[][][] kinds = new byte[changes.size()][][];
+    byte[][][] payloads = new byte[changes.size()][][];
+    int size = FRAME_HEADER_SIZE;
+
+    for (int batch = 0; batch < changes.size(); batch++) {
+      List<Event> events = changes.get(batch).getEvents();
+      kinds[batch] = new byte[events.size()][];
+      payloads[batch] = new byte[events.size()][];
+      size += BATCH_HEADER_SIZE;
+
+      for (int i = 0; i < events.size(); i++) {
+        Event event = events.get(i);
+        kinds[batch][i] = eventTypes.getKind(event.getClass()).getBytes(StandardCharsets.UTF_8);
+        payloads[batch][i] =
+            serializer.isBinary()
+                ? serializer.serialize(event)
+                : serializer.serializeToString(event).getBytes(StandardCharsets.UTF_8);
+        size += 1 + 2 + kinds[batch][i].length + 4 + payloads[batch][i].length;
+      }
+    }
+
+    ByteBuffer bytes = ByteBuffer.allocate(size);
+    int[][] eventOffsets = new int[changes.size()][];
+
+    bytes.putInt(size - FRAME_HEADER_SIZE);
+    bytes.putInt(0);
+
+    for (int batch = 0; batch < changes.size(); batch++) {
+      AggregateChanges change = changes.get(batch);
+      int count = change.getEvents().size();
+      eventOffsets[batch] = new int[count];
+
+      bytes.putLong(change.getAggregateId().getMostSignificantBits());
+      bytes.putLong(change.getAggregateId().getLeastSignificantBits());
+      bytes.putLong(change.getExpectedVersion() + 1);
+      bytes.putInt(count);
+
+      for (int i = 0; i < count; i++) {
+        eventOffsets[batch][i] = bytes.position();
+        bytes.put(serializer.isBinary() ? BINARY_PAYLOAD : TEXT_PAYLOAD);
+        bytes.putShort((short) kinds[batch][i].length);
+        bytes.put(kinds[batch][i]);
+        bytes.putInt(payloads[batch][i].length);
+        bytes.put(payloads[batch][i]);
+      }
+    }
+
+    CRC32C crc = new CRC32C();
+    crc.update(bytes.array(), FRAME_HEADER_SIZE, size - FRAME_HEADER_SIZE);
+    bytes.putInt(4, (int) crc.getValue());
+    bytes.flip();
+
+    return new Frame(bytes, eventOffsets);
+  }
+
+  /**
+   * Open the segments in order and rebuild the index from their frames.
+   *
+   * @throws IOException When a segment can't be opened or a segment other than the last is corrupt.
+   */
+  private void recover() throws IOException {
+    List<Integer> indexes = new ArrayList<>();
+
+    try (Stream<Path> files = Files.list(directory)) {
+      files.forEach(
+          file -> {
+            Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+            if (matcher.matches()) {
+              indexes.add(Integer.parseInt(matcher.group(1)));
+            }
+          });
+    }
+
+    indexes.sort(null);
+
+    for (int i = 0; i < indexes.size(); i++) {
+      if (indexes.get(i) != i) {
+        throw new IOException("Segment " + i + " is missing from " + directory);
+      }
+
+      active = LogSegment.open(getSegmentPath(i), i, segmentSize);
+      segments.add(active);
+      writePosition = replay(active, i == indexes.size() - 1);
+    }
+
+    if (active == null) {
+      active = LogSegment.open(getSegmentPath(0), 0, segmentSize);
+      segments.add(active);
+      writePosition = 0;
+    }
+  }
+
+  /**
+   * Add the frames of a segment to the index.
+   *
+   * @param segment The segment.
+   * @param last True if this is the last segment, whose tail may have been torn by a crash.
+   * @return The position after the last valid frame.
+   * @throws IOException When a segment other than the last is corrupt.
+   */
+  private int replay(LogSegment segment, boolean last) throws IOException {
+    ByteBuffer view = segment.view();
+    int capacity = segment.getCapacity();
+    int position = 0;
+
+    while (position + FRAME_HEADER_SIZE <= capacity) {
+      int length = view.getInt(position);
+
+      if (length == 0) {
+        break;
+      }
+
+      if (!replayFrame(view, position, length, segment.getIndex())) {
+        if (!last) {
+          throw new IOException(
+              "Segment " + segment.getIndex() + " is corrupt at offset " + position);
+        }
+
+        // Zero the torn tail so that stale bytes can never be mistaken for a frame later on.
+        for (int i = position; i < capacity; i++) {
+          view.put(i, (byte) 0);
+        }
+        segment.force();
+        break;
+      }
+
+      position += FRAME_HEADER_SIZE + length;
+    }
+
+    return position;
+  }
+
+  /**
+   * Check a frame and add the events of all of its batches to the index.
+   *
+   * @param view A view of the segment.
+   * @param position The position of the frame.
+   * @param length The length of the contents of the frame.
+   * @param segmentIndex The index of the segment.
+   * @return True if the frame was valid.
+   */
+  private boolean replayFrame(ByteBuffer view, int position, int length, int segmentIndex) {
+    int start = position + FRAME_HEADER_SIZE;
+
+    if (length < BATCH_HEADER_SIZE || length > view.capacity() - start) {
+      return false;
+    }
+
+    CRC32C crc = new CRC32C();
+    crc.update(view.slice(start, length));
+
+    if ((int) crc.getValue() != view.getInt(position + 4)) {
+      return false;
+    }
+
+    List<AggregateIndex.Positions> batchPositions = new ArrayList<>();
+    List<long[]> batchEventPositions = new ArrayList<>();
+    int offset = start;
+    int end = start + length;
+
+    while (offset < end) {
+      if (offset + BATCH_HEADER_SIZE > end) {
+        return false;
+      }
+
+      UUID aggregateId = new UUID(view.getLong(offset), view.getLong(offset + 8));
+      long firstVersion = view.getLong(offset + 16);
+      int count = view.getInt(offset + 24);
+      AggregateIndex.Positions positions = index.getOrCreate(aggregateId);
+
+      if (positions.getCount() != firstVersion - 1
+          || count <= 0
+          || batchPositions.contains(positions)) {
+        return false;
+      }
+
+      long[] eventPositions = new long[count];
+      offset += BATCH_HEADER_SIZE;
+
+      for (int i = 0; i < count; i++) {
+        if (offset + 3 > end) {
+          return false;
+        }
+
+        eventPositions[i] = toPosition(segmentIndex, offset);
+        int kindLength = view.getShort(offset + 1);
+        offset += 3 + kindLength;
+
+        if (offset + 4 > end) {
+          return false;
+        }
+
+        offset += 4 + view.getInt(offset);
+      }
+
+      batchPositions.add(positions);
+      batchEventPositions.add(eventPositions);
+    }
+
+    if (offset != end) {
+      return false;
+    }
+
+    for (int batch = 0; batch < batchPositions.size(); batch++) {
+      AggregateIndex.Positions positions = batchPositions.get(batch);
+
+      for (long eventPosition : batchEventPositions.get(batch)) {
+        positions.add(eventPosition);
+      }
+      positions.markDurable(positions.getCount());
+    }
+    return true;
+  }
+
+  private void roll() throws IOException {
+    active.force();
+    int next = active.getIndex() + 1;
+    active = LogSegment.open(getSegmentPath(next), next, segmentSize);
+    segments.add(active);
+    writePosition = 0;
+  }
+
+  private Path getSegmentPath(int segmentIndex) {
+    return directory.resolve(String.format("segment-%08d.log", segmentIndex));
+  }
+
+  private static long toPosition(int segmentIndex, int offset) {
+    return ((long) segmentIndex << 32) | offset;
+  }
+
+  /** An encoded save along with the offsets of the events of each batch within it */
+  private static class Frame {
+    private final ByteBuffer bytes;
+    private final int[][] eventOffsets;
+
+    Frame(ByteBuffer bytes, int[][] eventOffsets) {
+      this.bytes = bytes;
+      this.eventOffsets = eventOffsets;
+    }
+  }
+
+  /** The part of a save for one aggregate that has been written but not flushed yet */
+  private static class PendingAppend {
+    private final UUID aggregateId;
+    private final AggregateIndex.Positions positions;
+    private final int count;
+    private final CompletableFuture<Void> future;
+
+    PendingAppend(
+        UUID aggregateId,
+        AggregateIndex.Positions positions,
+        int count,
+        CompletableFuture<Void> future) {
+      this.aggregateId = aggregateId;
+      this.positions = positions;
+      this.count = count;
+      this.future = future;
+    }
+  }
+}
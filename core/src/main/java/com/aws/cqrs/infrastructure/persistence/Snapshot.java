@@ -0,0 +1,45 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import java.util.UUID;
+
+/** The state of an aggregate at a specific version. */
+public class Snapshot {
+
+  private final UUID aggregateId;
+  private final int version;
+  private final Object state;
+
+  /**
+   * Constructor
+   *
+   * @param aggregateId The aggregate id.
+   * @param version The version of the aggregate when the snapshot was taken.
+   * @param state The snapshot state.
+   */
+  public Snapshot(UUID aggregateId, int version, Object state) {
+    this.aggregateId = aggregateId;
+    this.version = version;
+    this.state = state;
+  }
+
+  /**
+   * @return The aggregate id.
+   */
+  public UUID getAggregateId() {
+    return aggregateId;
+  }
+
+  /**
+   * @return The version of the aggregate when the snapshot was taken.
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * @return The snapshot state.
+   */
+  public Object getState() {
+    return state;
+  }
+}
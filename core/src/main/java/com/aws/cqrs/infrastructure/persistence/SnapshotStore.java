@@ -0,0 +1,56 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/** Interface to support storing aggregate snapshots */
+public interface SnapshotStore {
+
+  /**
+   * Persist a snapshot. A snapshot that is older than the one already stored is ignored.
+   *
+   * @param snapshot The snapshot to persist.
+   */
+  CompletableFuture<Void> saveSnapshot(Snapshot snapshot);
+
+  /**
+   * Retrieves the latest snapshot.
+   *
+   * @param aggregateId The aggregate id.
+   * @return The latest snapshot or empty if the aggregate has no snapshot.
+   * @throws HydrationException
+   */
+  CompletableFuture<Optional<Snapshot>> getSnapshot(UUID aggregateId) throws HydrationException;
+
+  /**
+   * Retrieves the latest snapshots of a number of aggregates. Stores that can read several
+   * snapshots in one request should override this; by default the snapshots are read one by one.
+   *
+   * @param aggregateIds The aggregate ids.
+   * @return The latest snapshots by aggregate id, leaving out aggregates that have no snapshot.
+   * @throws HydrationException
+   */
+  default CompletableFuture<Map<UUID, Snapshot>> getSnapshots(Collection<UUID> aggregateIds)
+      throws HydrationException {
+    Map<UUID, Snapshot> snapshots = new HashMap<>();
+    CompletableFuture<?>[] reads =
+        aggregateIds.stream()
+            .map(
+                id ->
+                    getSnapshot(id)
+                        .thenAccept(
+                            snapshot -> {
+                              synchronized (snapshots) {
+                                snapshot.ifPresent(found -> snapshots.put(id, found));
+                              }
+                            }))
+            .toArray(CompletableFuture[]::new);
+
+    return CompletableFuture.allOf(reads).thenApply(x -> snapshots);
+  }
+}
@@ -0,0 +1,134 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.domain.AggregateRoot;
+import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects the changes of several aggregates and commits them together, so that either all of them
+ * are persisted or none are. The expected version of every aggregate is checked as part of the
+ * commit, so a conflict on any of them fails the whole unit of work.
+ *
+ * <p>A unit of work started by a repository tells it the outcome of the commit for every aggregate,
+ * so the repository refreshes its cache and takes snapshots just like when it saves a single
+ * aggregate.
+ */
+public class UnitOfWork {
+  private final EventStore eventStore;
+  private final CommitListener listener;
+  private final Map<UUID, AggregateRoot> aggregates = new LinkedHashMap<>();
+
+  /**
+   * Constructor
+   *
+   * @param eventStore The event store that commits the changes.
+   */
+  public UnitOfWork(EventStore eventStore) {
+    this(eventStore, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param eventStore The event store that commits the changes.
+   * @param listener Receives the outcome of the commit for every aggregate or null.
+   */
+  public UnitOfWork(EventStore eventStore, CommitListener listener) {
+    this.eventStore = eventStore;
+    this.listener = listener;
+  }
+
+  /**
+   * Add an aggregate to the unit of work. Registering the same aggregate again has no effect.
+   *
+   * @param aggregate The aggregate.
+   * @throws IllegalArgumentException When a different instance of the aggregate is registered.
+   */
+  public void register(AggregateRoot aggregate) throws IllegalArgumentException {
+    AggregateRoot registered = aggregates.putIfAbsent(aggregate.getId(), aggregate);
+
+    if (registered != null && registered != aggregate) {
+      throw new IllegalArgumentException(
+          "Another instance of aggregate " + aggregate.getId() + " is already registered.");
+    }
+  }
+
+  /**
+   * Commit the uncommitted changes of every registered aggregate in one go.
+   *
+   * @return A future that completes once the changes are committed.
+   * @throws TransactionFailedException
+   */
+  public CompletableFuture<Void> commit() throws TransactionFailedException {
+    List<AggregateRoot> changed = new ArrayList<>(aggregates.size());
+    List<AggregateChanges> changes = new ArrayList<>(aggregates.size());
+
+    for (AggregateRoot aggregate : aggregates.values()) {
+      if (!aggregate.getUncommittedChanges().isEmpty()) {
+        changed.add(aggregate);
+        changes.add(
+            new AggregateChanges(
+                aggregate.getId(),
+                aggregate.getExpectedVersion(),
+                List.copyOf(aggregate.getUncommittedChanges())));
+      }
+    }
+
+    if (changes.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return eventStore
+        .saveEvents(changes)
+        .whenComplete(
+            (x, exception) -> {
+              if (exception != null && listener != null) {
+                changed.forEach(aggregate -> listener.failed(aggregate, exception));
+              }
+            })
+        .thenCompose(
+            x -> {
+              List<CompletableFuture<Void>> committed = new ArrayList<>(changed.size());
+
+              for (int i = 0; i < changed.size(); i++) {
+                AggregateRoot aggregate = changed.get(i);
+                int previousVersion = (int) changes.get(i).getExpectedVersion();
+                int version = previousVersion + changes.get(i).getEvents().size();
+                aggregate.markChangesAsCommitted();
+
+                if (listener != null) {
+                  committed.add(listener.committed(aggregate, previousVersion, version));
+                }
+              }
+
+              return CompletableFuture.allOf(committed.toArray(new CompletableFuture[0]));
+            });
+  }
+
+  /** Receives the outcome of a commit for each of the aggregates in it. */
+  public interface CommitListener {
+
+    /**
+     * Called once the changes of an aggregate are committed.
+     *
+     * @param aggregate The aggregate.
+     * @param previousVersion The version before the changes were committed.
+     * @param version The version after the changes were committed.
+     * @return A future that completes once the listener is done, which the commit waits for.
+     */
+    CompletableFuture<Void> committed(AggregateRoot aggregate, int previousVersion, int version);
+
+    /**
+     * Called for every aggregate of a commit that failed.
+     *
+     * @param aggregate The aggregate.
+     * @param exception The failure.
+     */
+    void failed(AggregateRoot aggregate, Throwable exception);
+  }
+}
@@ -0,0 +1,89 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import com.aws.cqrs.infrastructure.exceptions.ThrottledException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Sends a DynamoDB batch request and resends whatever DynamoDB left unprocessed, waiting a random
+ * time of up to an exponentially growing ceiling between attempts (full jitter) so that retries of
+ * many batches don't arrive together. A request that is throttled as a whole, either by DynamoDB or
+ * by the client's concurrency limit, is treated as leaving the whole batch unprocessed.
+ */
+final class UnprocessedRetries {
+
+  static final int MAX_ATTEMPTS = 10;
+
+  private static final long BASE_DELAY_MILLIS = 50;
+
+  private static final long MAX_DELAY_MILLIS = 5000;
+
+  private UnprocessedRetries() {}
+
+  /**
+   * Send a batch until every part of it has been processed.
+   *
+   * @param batch The keys or items of the batch.
+   * @param send Sends a batch and returns the keys or items that weren't processed. A throttled
+   *     request is retried like a batch that was left unprocessed, any other failure is not.
+   * @param description What the batch holds, used in the failure message, for example "keys".
+   * @param <T> The type of key or item.
+   * @return A future that completes once the whole batch has been processed, or fails with an
+   *     {@link IllegalStateException} when part of it is still unprocessed after the last attempt.
+   */
+  static <T> CompletableFuture<Void> send(
+      List<T> batch, Function<List<T>, CompletableFuture<List<T>>> send, String description) {
+    return send(batch, send, description, 1);
+  }
+
+  private static <T> CompletableFuture<Void> send(
+      List<T> batch,
+      Function<List<T>, CompletableFuture<List<T>>> send,
+      String description,
+      int attempt) {
+    return send.apply(batch)
+        .handle(
+            (unprocessed, exception) -> {
+              if (exception == null) {
+                return CompletableFuture.completedFuture(unprocessed);
+              }
+
+              return isThrottled(exception)
+                  ? CompletableFuture.completedFuture(batch)
+                  : CompletableFuture.<List<T>>failedFuture(exception);
+            })
+        .thenCompose(x -> x)
+        .thenCompose(
+            unprocessed -> {
+              if (unprocessed.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+              }
+
+              if (attempt >= MAX_ATTEMPTS) {
+                throw new IllegalStateException(
+                    unprocessed.size()
+                        + " "
+                        + description
+                        + " were still unprocessed after "
+                        + attempt
+                        + " attempts.");
+              }
+
+              long ceiling = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << (attempt - 1));
+              long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+              return CompletableFuture.runAsync(
+                      () -> {}, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                  .thenCompose(x -> send(unprocessed, send, description, attempt + 1));
+            });
+  }
+
+  private static boolean isThrottled(Throwable exception) {
+    Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+
+    return cause instanceof ThrottledException || LimitedDynamoDbAsyncClient.isThrottled(cause);
+  }
+}
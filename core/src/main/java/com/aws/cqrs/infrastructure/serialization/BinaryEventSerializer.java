@@ -0,0 +1,94 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.nio.ByteBuffer;
+
+/**
+ * Serializes events into a compact binary form through their generated codecs. UUIDs take 16 bytes,
+ * decimals their scale and unscaled value, and timestamps their epoch nanoseconds and offset. The
+ * payload starts with a format version so that the encoding can change without breaking the events
+ * that have already been stored. Only events with a generated codec are supported.
+ */
+public class BinaryEventSerializer implements EventSerializer {
+
+  /** The version of the binary format that is written */
+  public static final int FORMAT_VERSION = 1;
+
+  /** The initial size of the output buffer, large enough for the account events */
+  private static final int INITIAL_BUFFER_SIZE = 64;
+
+  @Override
+  public boolean isBinary() {
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public byte[] serialize(Event event) throws SerializationException {
+    EventCodec<Event> codec = (EventCodec<Event>) getCodec(event.getClass());
+    BinaryWriter writer = new BinaryWriter(INITIAL_BUFFER_SIZE);
+
+    try {
+      writer.writeByte(FORMAT_VERSION);
+      codec.write(writer, event);
+    } catch (RuntimeException e) {
+      throw new SerializationException(e);
+    }
+
+    return writer.toByteArray();
+  }
+
+  @Override
+  public <T extends Event> T deserialize(byte[] payload, Class<T> eventType)
+      throws SerializationException {
+    return read(new BinaryReader(payload), eventType);
+  }
+
+  @Override
+  public <T extends Event> T deserialize(ByteBuffer payload, Class<T> eventType)
+      throws SerializationException {
+    return read(new BinaryReader(payload), eventType);
+  }
+
+  private static <T extends Event> T read(BinaryReader reader, Class<T> eventType)
+      throws SerializationException {
+    EventCodec<T> codec = getCodec(eventType);
+
+    try {
+      int version = reader.readByte();
+
+      if (version != FORMAT_VERSION) {
+        throw new SerializationException("Unsupported binary format version " + version);
+      }
+
+      return codec.read(reader);
+    } catch (SerializationException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  @Override
+  public String serializeToString(Event event) throws SerializationException {
+    throw new UnsupportedOperationException("Binary payloads can't be stored as strings");
+  }
+
+  @Override
+  public <T extends Event> T deserialize(String payload, Class<T> eventType)
+      throws SerializationException {
+    throw new UnsupportedOperationException("Binary payloads can't be read from strings");
+  }
+
+  private static <T extends Event> EventCodec<T> getCodec(Class<T> eventType)
+      throws SerializationException {
+    EventCodec<T> codec = EventCodecs.get(eventType);
+
+    if (codec == null) {
+      throw new SerializationException("There is no generated codec for " + eventType.getName());
+    }
+
+    return codec;
+  }
+}
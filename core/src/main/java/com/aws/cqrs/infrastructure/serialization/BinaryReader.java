@@ -0,0 +1,149 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Reads the property values written by a {@link BinaryWriter}. The values can be read straight from
+ * a buffer, including a direct or memory mapped one, without copying the payload first.
+ */
+public final class BinaryReader {
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private final ByteBuffer buffer;
+
+  /**
+   * Constructor
+   *
+   * @param buffer The bytes to read.
+   */
+  public BinaryReader(byte[] buffer) {
+    this(ByteBuffer.wrap(buffer));
+  }
+
+  /**
+   * Constructor
+   *
+   * @param buffer The bytes to read, from the position of the buffer up to its limit. The position
+   *     of the buffer is not changed.
+   */
+  public BinaryReader(ByteBuffer buffer) {
+    // A slice is always big endian, which is the order the writer uses.
+    this.buffer = buffer.slice();
+  }
+
+  /**
+   * @return True if there are bytes left to read.
+   */
+  public boolean hasRemaining() {
+    return buffer.hasRemaining();
+  }
+
+  public int readByte() {
+    if (!buffer.hasRemaining()) {
+      throw new IllegalStateException("Unexpected end of the binary payload");
+    }
+
+    return buffer.get() & 0xFF;
+  }
+
+  /**
+   * Read an unsigned variable length integer.
+   *
+   * @return The value.
+   */
+  public long readVarLong() {
+    long value = 0;
+
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new IllegalStateException("Malformed variable length integer");
+  }
+
+  public long readLong() {
+    long value = readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public int readInt() {
+    return Math.toIntExact(readLong());
+  }
+
+  public boolean readBoolean() {
+    return readByte() != 0;
+  }
+
+  public double readDouble() {
+    return Double.longBitsToDouble(readFixedLong());
+  }
+
+  public String readString() {
+    int length = readLength();
+
+    if (buffer.hasArray()) {
+      int offset = buffer.arrayOffset() + buffer.position();
+      buffer.position(buffer.position() + length);
+      return new String(buffer.array(), offset, length, StandardCharsets.UTF_8);
+    }
+
+    return new String(readBytes(length), StandardCharsets.UTF_8);
+  }
+
+  public UUID readUuid() {
+    return new UUID(readFixedLong(), readFixedLong());
+  }
+
+  public BigDecimal readBigDecimal() {
+    int scale = readInt();
+    BigInteger unscaledValue = new BigInteger(readBytes(readLength()));
+    return new BigDecimal(unscaledValue, scale);
+  }
+
+  public OffsetDateTime readOffsetDateTime() {
+    long epochNanos = readLong();
+    ZoneOffset offset = ZoneOffset.ofTotalSeconds(readInt());
+    Instant instant =
+        Instant.ofEpochSecond(
+            Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+            Math.floorMod(epochNanos, NANOS_PER_SECOND));
+    return OffsetDateTime.ofInstant(instant, offset);
+  }
+
+  private int readLength() {
+    long length = readVarLong();
+
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalStateException("Unexpected end of the binary payload");
+    }
+
+    return (int) length;
+  }
+
+  private byte[] readBytes(int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private long readFixedLong() {
+    if (buffer.remaining() < 8) {
+      throw new IllegalStateException("Unexpected end of the binary payload");
+    }
+
+    return buffer.getLong();
+  }
+}
@@ -0,0 +1,123 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Writes the property values supported by the generated event codecs into a compact binary form.
+ * Integers are written as variable length zig-zag encoded values so that small numbers only take a
+ * byte or two.
+ */
+public final class BinaryWriter {
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private byte[] buffer;
+  private int position;
+
+  /**
+   * Constructor
+   *
+   * @param initialCapacity The initial size of the buffer.
+   */
+  public BinaryWriter(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+  }
+
+  /**
+   * @return A copy of the bytes that have been written.
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, position);
+  }
+
+  public void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) value;
+  }
+
+  /**
+   * Write a value as an unsigned variable length integer.
+   *
+   * @param value The value.
+   */
+  public void writeVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  public void writeLong(long value) {
+    writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  public void writeInt(int value) {
+    writeLong(value);
+  }
+
+  public void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  public void writeDouble(double value) {
+    writeFixedLong(Double.doubleToLongBits(value));
+  }
+
+  public void writeString(String value) {
+    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public void writeUuid(UUID value) {
+    writeFixedLong(value.getMostSignificantBits());
+    writeFixedLong(value.getLeastSignificantBits());
+  }
+
+  /**
+   * Write a decimal as its scale followed by the two's complement bytes of its unscaled value.
+   *
+   * @param value The value.
+   */
+  public void writeBigDecimal(BigDecimal value) {
+    writeInt(value.scale());
+    writeBytes(value.unscaledValue().toByteArray());
+  }
+
+  /**
+   * Write a timestamp as the nanoseconds since the epoch followed by the offset in seconds.
+   *
+   * @param value The value.
+   * @throws ArithmeticException When the timestamp can't be represented in epoch nanoseconds.
+   */
+  public void writeOffsetDateTime(OffsetDateTime value) {
+    long epochNanos =
+        Math.addExact(Math.multiplyExact(value.toEpochSecond(), NANOS_PER_SECOND), value.getNano());
+    writeLong(epochNanos);
+    writeInt(value.getOffset().getTotalSeconds());
+  }
+
+  private void writeBytes(byte[] value) {
+    writeVarLong(value.length);
+    ensureCapacity(value.length);
+    System.arraycopy(value, 0, buffer, position, value.length);
+    position += value.length;
+  }
+
+  private void writeFixedLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void ensureCapacity(int length) {
+    if (position + length > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads and writes an event as JSON or as compact binary without reflection. Implementations are
+ * generated for events annotated with {@code @GenerateCodec}.
+ *
+ * @param <T> The event type.
+ */
+public interface EventCodec<T extends Event> {
+
+  /**
+   * @return The type of event this codec reads and writes.
+   */
+  Class<T> getEventType();
+
+  /**
+   * @return The code that is stored to identify the type of the event.
+   */
+  default String getKind() {
+    return getEventType().getName();
+  }
+
+  /**
+   * @return Other codes that identify the type of the event, such as former class names.
+   */
+  default List<String> getAliases() {
+    return List.of();
+  }
+
+  /**
+   * Write the event.
+   *
+   * @param writer The writer.
+   * @param event The event to write.
+   * @throws IOException
+   */
+  void write(JsonWriter writer, T event) throws IOException;
+
+  /**
+   * Read the event.
+   *
+   * @param reader The reader.
+   * @return The event.
+   * @throws IOException
+   */
+  T read(JsonReader reader) throws IOException;
+
+  /**
+   * Write the event in binary. A bit mask of the null properties is written first, followed by each
+   * property that isn't null in constructor order.
+   *
+   * @param writer The writer.
+   * @param event The event to write.
+   */
+  void write(BinaryWriter writer, T event);
+
+  /**
+   * Read the event from binary.
+   *
+   * @param reader The reader.
+   * @return The event.
+   */
+  T read(BinaryReader reader);
+}
@@ -0,0 +1,40 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Lets Gson read and write events through their generated codecs instead of reflection. Events
+ * without a generated codec are left to Gson's default handling.
+ */
+public class EventCodecTypeAdapterFactory implements TypeAdapterFactory {
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    if (!EventCodecs.contains(type.getRawType())) {
+      return null;
+    }
+
+    EventCodec<Event> codec = EventCodecs.get((Class<Event>) type.getRawType());
+
+    return (TypeAdapter<T>)
+        new TypeAdapter<Event>() {
+          @Override
+          public void write(JsonWriter out, Event value) throws IOException {
+            codec.write(out, value);
+          }
+
+          @Override
+          public Event read(JsonReader in) throws IOException {
+            return codec.read(in);
+          }
+        }.nullSafe();
+  }
+}
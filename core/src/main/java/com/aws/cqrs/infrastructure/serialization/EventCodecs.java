@@ -0,0 +1,56 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/** The generated event codecs, loaded once when this class is initialized. */
+public final class EventCodecs {
+
+  private static final Map<Class<?>, EventCodec<?>> CODECS = loadCodecs();
+
+  private EventCodecs() {}
+
+  /**
+   * Get the codec for an event type.
+   *
+   * @param eventType The event type.
+   * @param <T> The event type.
+   * @return The codec or null if one hasn't been generated for the event type.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends Event> EventCodec<T> get(Class<T> eventType) {
+    return (EventCodec<T>) CODECS.get(eventType);
+  }
+
+  /**
+   * Check whether a codec has been generated for a type.
+   *
+   * @param type The type.
+   * @return True if there is a codec for the type.
+   */
+  public static boolean contains(Class<?> type) {
+    return CODECS.containsKey(type);
+  }
+
+  /**
+   * @return All of the generated codecs.
+   */
+  public static Collection<EventCodec<?>> getAll() {
+    return CODECS.values();
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static Map<Class<?>, EventCodec<?>> loadCodecs() {
+    Map<Class<?>, EventCodec<?>> codecs = new HashMap<>();
+
+    for (EventCodec codec :
+        ServiceLoader.load(EventCodec.class, EventCodecs.class.getClassLoader())) {
+      codecs.put(codec.getEventType(), codec);
+    }
+
+    return Map.copyOf(codecs);
+  }
+}
@@ -0,0 +1,84 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts events to and from the payload that is persisted. Text based implementations should
+ * override the string methods so that no extra copies are made when the payload is stored as a
+ * string.
+ */
+public interface EventSerializer {
+
+  /**
+   * @return True if the payloads are binary and must be stored as such rather than as strings.
+   */
+  default boolean isBinary() {
+    return false;
+  }
+
+  /**
+   * Serialize an event.
+   *
+   * @param event The event.
+   * @return The payload.
+   * @throws SerializationException
+   */
+  byte[] serialize(Event event) throws SerializationException;
+
+  /**
+   * Deserialize an event.
+   *
+   * @param payload The payload.
+   * @param eventType The type of the event.
+   * @param <T> The type of the event.
+   * @return The event.
+   * @throws SerializationException
+   */
+  <T extends Event> T deserialize(byte[] payload, Class<T> eventType) throws SerializationException;
+
+  /**
+   * Deserialize an event from the remaining bytes of a buffer without changing its position.
+   * Implementations that can decode straight from the buffer should override this so that the
+   * payload isn't copied first.
+   *
+   * @param payload The payload.
+   * @param eventType The type of the event.
+   * @param <T> The type of the event.
+   * @return The event.
+   * @throws SerializationException
+   */
+  default <T extends Event> T deserialize(ByteBuffer payload, Class<T> eventType)
+      throws SerializationException {
+    byte[] bytes = new byte[payload.remaining()];
+    payload.duplicate().get(bytes);
+    return deserialize(bytes, eventType);
+  }
+
+  /**
+   * Serialize an event to a string.
+   *
+   * @param event The event.
+   * @return The payload.
+   * @throws SerializationException
+   */
+  default String serializeToString(Event event) throws SerializationException {
+    return new String(serialize(event), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Deserialize an event from a string.
+   *
+   * @param payload The payload.
+   * @param eventType The type of the event.
+   * @param <T> The type of the event.
+   * @return The event.
+   * @throws SerializationException
+   */
+  default <T extends Event> T deserialize(String payload, Class<T> eventType)
+      throws SerializationException {
+    return deserialize(payload.getBytes(StandardCharsets.UTF_8), eventType);
+  }
+}
@@ -0,0 +1,60 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.application.OffsetDateTimeDeserializer;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.time.OffsetDateTime;
+
+/**
+ * Creates the event serializers by name so that the serializer can be chosen per table through
+ * configuration, and the Gson instance that every module should use for events.
+ */
+public final class EventSerializers {
+
+  /** Serialize events as JSON with Gson */
+  public static final String GSON = "gson";
+
+  /** Serialize events as JSON with the generated codecs */
+  public static final String STREAMING_JSON = "json";
+
+  /** Serialize events into a compact binary form with the generated codecs */
+  public static final String BINARY = "binary";
+
+  /** The serializer that is used when one isn't configured */
+  public static final String DEFAULT = STREAMING_JSON;
+
+  private EventSerializers() {}
+
+  /**
+   * Create the Gson instance for events. Events with a generated codec are handled by the codec and
+   * everything else falls back to reflection with ISO-8601 dates.
+   *
+   * @return The Gson instance.
+   */
+  public static Gson createGson() {
+    return new GsonBuilder()
+        .registerTypeAdapterFactory(new EventCodecTypeAdapterFactory())
+        .registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeDeserializer())
+        .create();
+  }
+
+  /**
+   * Create an event serializer.
+   *
+   * @param name The name of the serializer or null for the default.
+   * @param gson The Gson instance used by the Gson serializer.
+   * @return The event serializer.
+   */
+  public static EventSerializer create(String name, Gson gson) {
+    switch (name == null || name.isEmpty() ? DEFAULT : name) {
+      case GSON:
+        return new GsonEventSerializer(gson);
+      case STREAMING_JSON:
+        return new StreamingJsonEventSerializer();
+      case BINARY:
+        return new BinaryEventSerializer();
+      default:
+        throw new IllegalArgumentException("Unknown event serializer: " + name);
+    }
+  }
+}
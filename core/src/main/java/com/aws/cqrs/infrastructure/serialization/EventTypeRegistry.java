@@ -0,0 +1,101 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the kinds that are stored with each event to the event types. Events can register a short,
+ * stable kind, such as {@code dep.v1}, which is stored instead of the class name. The class name of
+ * each registered event is kept as an alias so that events that were stored before the kind was
+ * introduced can still be read, and further aliases allow an event to move to another package.
+ * Kinds that aren't registered are treated as class names and the classes are cached once loaded.
+ */
+public class EventTypeRegistry {
+
+  private static final EventTypeRegistry DEFAULT = createDefault();
+
+  /** The event type of each kind and alias */
+  private final Map<String, Class<? extends Event>> types = new ConcurrentHashMap<>();
+
+  /** The kind of each registered event type */
+  private final Map<Class<?>, String> kinds = new ConcurrentHashMap<>();
+
+  /**
+   * Get the registry of the events that have a generated codec.
+   *
+   * @return The default registry.
+   */
+  public static EventTypeRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Register an event type.
+   *
+   * @param kind The kind that is stored for the event.
+   * @param type The event type.
+   * @param aliases Other kinds that identify the event.
+   * @throws IllegalStateException When the kind or an alias is registered to another type.
+   */
+  public void register(String kind, Class<? extends Event> type, String... aliases) {
+    put(kind, type);
+    put(type.getName(), type);
+
+    for (String alias : aliases) {
+      put(alias, type);
+    }
+
+    kinds.put(type, kind);
+  }
+
+  /**
+   * Get the kind to store for an event type.
+   *
+   * @param type The event type.
+   * @return The registered kind or the class name when the type isn't registered.
+   */
+  public String getKind(Class<? extends Event> type) {
+    String kind = kinds.get(type);
+    return kind != null ? kind : type.getName();
+  }
+
+  /**
+   * Get the event type of a stored kind.
+   *
+   * @param kind The kind.
+   * @return The event type.
+   * @throws ClassNotFoundException When the kind isn't registered and isn't the name of a class.
+   * @throws ClassCastException When the kind is the name of a class that isn't an event.
+   */
+  public Class<? extends Event> getType(String kind) throws ClassNotFoundException {
+    Class<? extends Event> type = types.get(kind);
+
+    if (type == null) {
+      type = Class.forName(kind).asSubclass(Event.class);
+      types.putIfAbsent(kind, type);
+    }
+
+    return type;
+  }
+
+  private void put(String kind, Class<? extends Event> type) {
+    Class<? extends Event> existing = types.putIfAbsent(kind, type);
+
+    if (existing != null && existing != type) {
+      throw new IllegalStateException(
+          "The kind " + kind + " is registered to both " + existing.getName() + " and " + type);
+    }
+  }
+
+  private static EventTypeRegistry createDefault() {
+    EventTypeRegistry registry = new EventTypeRegistry();
+
+    for (EventCodec<?> codec : EventCodecs.getAll()) {
+      registry.register(
+          codec.getKind(), codec.getEventType(), codec.getAliases().toArray(new String[0]));
+    }
+
+    return registry;
+  }
+}
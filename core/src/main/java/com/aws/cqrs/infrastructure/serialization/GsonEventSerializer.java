@@ -0,0 +1,60 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/** Serializes events as JSON with Gson. */
+public class GsonEventSerializer implements EventSerializer {
+
+  private final Gson gson;
+
+  /**
+   * Constructor
+   *
+   * @param gson The Gson instance to serialize with.
+   */
+  public GsonEventSerializer(Gson gson) {
+    this.gson = gson;
+  }
+
+  @Override
+  public byte[] serialize(Event event) throws SerializationException {
+    return serializeToString(event).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public <T extends Event> T deserialize(byte[] payload, Class<T> eventType)
+      throws SerializationException {
+    try {
+      return gson.fromJson(
+          new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8),
+          eventType);
+    } catch (JsonParseException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  @Override
+  public String serializeToString(Event event) throws SerializationException {
+    try {
+      return gson.toJson(event);
+    } catch (JsonParseException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  @Override
+  public <T extends Event> T deserialize(String payload, Class<T> eventType)
+      throws SerializationException {
+    try {
+      return gson.fromJson(payload, eventType);
+    } catch (JsonParseException e) {
+      throw new SerializationException(e);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Reads and writes the property values supported by the generated event codecs. Null values are
+ * left out when writing, the same as Gson does by default.
+ */
+public final class JsonValues {
+
+  private JsonValues() {}
+
+  public static void writeString(JsonWriter writer, String name, String value) throws IOException {
+    if (value != null) {
+      writer.name(name).value(value);
+    }
+  }
+
+  public static String readString(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+
+    return reader.nextString();
+  }
+
+  public static void writeUuid(JsonWriter writer, String name, UUID value) throws IOException {
+    if (value != null) {
+      writer.name(name).value(value.toString());
+    }
+  }
+
+  public static UUID readUuid(JsonReader reader) throws IOException {
+    String value = readString(reader);
+    return value == null ? null : UUID.fromString(value);
+  }
+
+  public static void writeBigDecimal(JsonWriter writer, String name, BigDecimal value)
+      throws IOException {
+    if (value != null) {
+      writer.name(name).value(value);
+    }
+  }
+
+  public static BigDecimal readBigDecimal(JsonReader reader) throws IOException {
+    String value = readString(reader);
+    return value == null ? null : new BigDecimal(value);
+  }
+
+  public static void writeOffsetDateTime(JsonWriter writer, String name, OffsetDateTime value)
+      throws IOException {
+    if (value != null) {
+      writer.name(name).value(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value));
+    }
+  }
+
+  public static OffsetDateTime readOffsetDateTime(JsonReader reader) throws IOException {
+    String value = readString(reader);
+    return value == null
+        ? null
+        : OffsetDateTime.parse(value, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+  }
+
+  public static void writeInteger(JsonWriter writer, String name, Integer value)
+      throws IOException {
+    if (value != null) {
+      writer.name(name).value(value);
+    }
+  }
+
+  public static Integer readInteger(JsonReader reader) throws IOException {
+    String value = readString(reader);
+    return value == null ? null : Integer.valueOf(value);
+  }
+
+  public static void writeLong(JsonWriter writer, String name, Long value) throws IOException {
+    if (value != null) {
+      writer.name(name).value(value);
+    }
+  }
+
+  public static Long readLong(JsonReader reader) throws IOException {
+    String value = readString(reader);
+    return value == null ? null : Long.valueOf(value);
+  }
+
+  public static void writeBoolean(JsonWriter writer, String name, Boolean value)
+      throws IOException {
+    if (value != null) {
+      writer.name(name).value(value);
+    }
+  }
+
+  public static Boolean readBoolean(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+
+    return reader.nextBoolean();
+  }
+
+  public static void writeDouble(JsonWriter writer, String name, Double value) throws IOException {
+    if (value != null) {
+      writer.name(name).value(value);
+    }
+  }
+
+  public static Double readDouble(JsonReader reader) throws IOException {
+    String value = readString(reader);
+    return value == null ? null : Double.valueOf(value);
+  }
+
+  public static void writeInt(JsonWriter writer, String name, int value) throws IOException {
+    writer.name(name).value(value);
+  }
+
+  public static int readInt(JsonReader reader) throws IOException {
+    return reader.nextInt();
+  }
+
+  public static void writePrimitiveLong(JsonWriter writer, String name, long value)
+      throws IOException {
+    writer.name(name).value(value);
+  }
+
+  public static long readPrimitiveLong(JsonReader reader) throws IOException {
+    return reader.nextLong();
+  }
+
+  public static void writePrimitiveBoolean(JsonWriter writer, String name, boolean value)
+      throws IOException {
+    writer.name(name).value(value);
+  }
+
+  public static boolean readPrimitiveBoolean(JsonReader reader) throws IOException {
+    return reader.nextBoolean();
+  }
+
+  public static void writePrimitiveDouble(JsonWriter writer, String name, double value)
+      throws IOException {
+    writer.name(name).value(value);
+  }
+
+  public static double readPrimitiveDouble(JsonReader reader) throws IOException {
+    return reader.nextDouble();
+  }
+}
@@ -0,0 +1,75 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.nio.ByteBuffer;
+
+/**
+ * Deserializes event payloads by the way they were stored rather than by the serializer that is
+ * currently configured. Binary payloads are read by a binary serializer and strings by a text one,
+ * so that a table can switch serializers and still read the events it already holds.
+ */
+public class PayloadDeserializer {
+
+  private final EventSerializer textSerializer;
+  private final EventSerializer binarySerializer;
+
+  /**
+   * Constructor
+   *
+   * @param serializer The configured serializer. It is used for the payloads it can read and the
+   *     defaults are used for the others.
+   */
+  public PayloadDeserializer(EventSerializer serializer) {
+    if (serializer.isBinary()) {
+      this.textSerializer = new GsonEventSerializer(EventSerializers.createGson());
+      this.binarySerializer = serializer;
+    } else {
+      this.textSerializer = serializer;
+      this.binarySerializer = new BinaryEventSerializer();
+    }
+  }
+
+  /**
+   * Deserialize an event that was stored as a string.
+   *
+   * @param payload The payload.
+   * @param eventType The type of the event.
+   * @param <T> The type of the event.
+   * @return The event.
+   * @throws SerializationException
+   */
+  public <T extends Event> T deserialize(String payload, Class<T> eventType)
+      throws SerializationException {
+    return textSerializer.deserialize(payload, eventType);
+  }
+
+  /**
+   * Deserialize an event that was stored as binary.
+   *
+   * @param payload The payload.
+   * @param eventType The type of the event.
+   * @param <T> The type of the event.
+   * @return The event.
+   * @throws SerializationException
+   */
+  public <T extends Event> T deserialize(byte[] payload, Class<T> eventType)
+      throws SerializationException {
+    return binarySerializer.deserialize(payload, eventType);
+  }
+
+  /**
+   * Deserialize an event from the remaining bytes of a buffer without changing its position.
+   *
+   * @param payload The payload.
+   * @param binary True if the payload is binary, false if it holds UTF-8 text.
+   * @param eventType The type of the event.
+   * @param <T> The type of the event.
+   * @return The event.
+   * @throws SerializationException
+   */
+  public <T extends Event> T deserialize(ByteBuffer payload, boolean binary, Class<T> eventType)
+      throws SerializationException {
+    return (binary ? binarySerializer : textSerializer).deserialize(payload, eventType);
+  }
+}
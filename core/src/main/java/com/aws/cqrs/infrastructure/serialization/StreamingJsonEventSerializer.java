@@ -0,0 +1,88 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializes events as JSON through their generated codecs, writing straight to the output buffer
+ * without building a tree or using reflection. The JSON is the same as {@link GsonEventSerializer}
+ * produces, so either one can read what the other wrote. Only events with a generated codec are
+ * supported.
+ */
+public class StreamingJsonEventSerializer implements EventSerializer {
+
+  /** The initial size of the output buffer, large enough for the account events */
+  private static final int INITIAL_BUFFER_SIZE = 256;
+
+  @Override
+  public byte[] serialize(Event event) throws SerializationException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+    write(event, new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    return output.toByteArray();
+  }
+
+  @Override
+  public <T extends Event> T deserialize(byte[] payload, Class<T> eventType)
+      throws SerializationException {
+    return read(
+        new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8),
+        eventType);
+  }
+
+  @Override
+  public String serializeToString(Event event) throws SerializationException {
+    StringWriter output = new StringWriter(INITIAL_BUFFER_SIZE);
+    write(event, output);
+    return output.toString();
+  }
+
+  @Override
+  public <T extends Event> T deserialize(String payload, Class<T> eventType)
+      throws SerializationException {
+    return read(new StringReader(payload), eventType);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void write(Event event, Writer output) throws SerializationException {
+    EventCodec<Event> codec = (EventCodec<Event>) getCodec(event.getClass());
+
+    try (JsonWriter writer = new JsonWriter(output)) {
+      codec.write(writer, event);
+    } catch (IOException | RuntimeException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  private <T extends Event> T read(Reader input, Class<T> eventType) throws SerializationException {
+    EventCodec<T> codec = getCodec(eventType);
+
+    try (JsonReader reader = new JsonReader(input)) {
+      return codec.read(reader);
+    } catch (IOException | RuntimeException e) {
+      throw new SerializationException(e);
+    }
+  }
+
+  private static <T extends Event> EventCodec<T> getCodec(Class<T> eventType)
+      throws SerializationException {
+    EventCodec<T> codec = EventCodecs.get(eventType);
+
+    if (codec == null) {
+      throw new SerializationException("There is no generated codec for " + eventType.getName());
+    }
+
+    return codec;
+  }
+}
@@ -1,16 +1,48 @@
 package com.aws.cqrs.application;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.aws.cqrs.domain.Account;
+import com.aws.cqrs.domain.SubLedger;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.persistence.AggregateChanges;
+import com.aws.cqrs.infrastructure.persistence.EventStore;
 import com.aws.cqrs.infrastructure.persistence.Repository;
+import com.aws.cqrs.infrastructure.persistence.UnitOfWork;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.MockitoAnnotations;
 
 class AccountServiceTest {
 
+  @Captor private ArgumentCaptor<List<AggregateChanges>> changesCaptor;
+
+  private AutoCloseable mocks;
+
+  @BeforeEach
+  void openMocks() {
+    mocks = MockitoAnnotations.openMocks(this);
+  }
+
+  @AfterEach
+  void closeMocks() throws Exception {
+    mocks.close();
+  }
+
   @Test
   void when_createAccount_expect_repository_save() {
     // Arrange
@@ -63,4 +95,325 @@ class AccountServiceTest {
     verify(accountRepository, times(1)).save(account);
     verify(account, times(1)).withdraw(new BigDecimal(100));
   }
+
+  @Test
+  void when_deposit_conflicts_expect_reloaded_and_retried() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    Account account = mock(Account.class);
+    AccountService accountService =
+        new AccountService(accountRepository, new RetryPolicy(3, Duration.ZERO, Duration.ZERO));
+    when(accountRepository.getById(account.getId()))
+        .thenReturn(CompletableFuture.completedFuture(account));
+    ConcurrencyException conflict =
+        new ConcurrencyException(new RuntimeException(), account.getId(), 1, 2);
+    when(accountRepository.save(account))
+        .thenReturn(CompletableFuture.failedFuture(conflict))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    accountService.deposit(account.getId(), new BigDecimal(100)).join();
+
+    // Assert
+    verify(accountRepository, times(2)).getById(account.getId());
+    verify(accountRepository, times(2)).save(account);
+    verify(account, times(2)).deposit(new BigDecimal(100));
+  }
+
+  @Test
+  void when_mailbox_commands_queued_expect_committed_together() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    Account account = mock(Account.class);
+    UUID accountId = UUID.randomUUID();
+    AccountService accountService =
+        new AccountService(accountRepository, RetryPolicy.NONE, Runnable::run);
+    CompletableFuture<Account> firstLoad = new CompletableFuture<>();
+    when(accountRepository.getById(accountId))
+        .thenReturn(firstLoad)
+        .thenReturn(CompletableFuture.completedFuture(account));
+    when(accountRepository.save(account)).thenReturn(CompletableFuture.completedFuture(null));
+    when(account.getUncommittedChanges()).thenReturn(List.of(mock(Event.class)));
+
+    // Act
+    CompletableFuture<Void> first = accountService.deposit(accountId, new BigDecimal(1));
+    CompletableFuture<Void> second = accountService.deposit(accountId, new BigDecimal(2));
+    CompletableFuture<Void> third = accountService.withdraw(accountId, new BigDecimal(3));
+    firstLoad.complete(account);
+    CompletableFuture.allOf(first, second, third).join();
+
+    // Assert
+    verify(accountRepository, times(2)).getById(accountId);
+    verify(accountRepository, times(2)).save(account);
+    verify(account, times(1)).deposit(new BigDecimal(2));
+    verify(account, times(1)).withdraw(new BigDecimal(3));
+  }
+
+  @Test
+  void when_mailbox_command_rejected_expect_only_its_future_failed() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    Account account = mock(Account.class);
+    UUID accountId = UUID.randomUUID();
+    AccountService accountService =
+        new AccountService(accountRepository, RetryPolicy.NONE, Runnable::run);
+    CompletableFuture<Account> load = new CompletableFuture<>();
+    when(accountRepository.getById(accountId)).thenReturn(load);
+    when(accountRepository.save(account)).thenReturn(CompletableFuture.completedFuture(null));
+    doThrow(new IllegalArgumentException()).when(account).withdraw(BigDecimal.ZERO);
+
+    // Act
+    CompletableFuture<Void> rejected = accountService.withdraw(accountId, BigDecimal.ZERO);
+    CompletableFuture<Void> accepted = accountService.deposit(accountId, BigDecimal.ONE);
+    load.complete(account);
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+    assertTrue(exception.getCause() instanceof IllegalArgumentException);
+    accepted.join();
+    verify(account, times(1)).deposit(BigDecimal.ONE);
+  }
+
+  @Test
+  void when_execute_batch_expect_one_load_and_save_per_account() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    Account first = mock(Account.class);
+    Account second = mock(Account.class);
+    UUID firstId = UUID.randomUUID();
+    UUID secondId = UUID.randomUUID();
+    AccountService accountService = new AccountService(accountRepository, RetryPolicy.NONE);
+    when(accountRepository.getById(firstId)).thenReturn(CompletableFuture.completedFuture(first));
+    when(accountRepository.getById(secondId)).thenReturn(CompletableFuture.completedFuture(second));
+    when(accountRepository.save(any(Account.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    doThrow(new IllegalArgumentException()).when(second).withdraw(BigDecimal.ZERO);
+    when(first.getUncommittedChanges()).thenReturn(List.of(mock(Event.class)));
+    when(second.getUncommittedChanges()).thenReturn(List.of(mock(Event.class)));
+
+    // Act
+    List<CompletableFuture<Void>> results =
+        accountService.execute(
+            List.of(
+                AccountCommand.deposit(firstId, new BigDecimal(10)),
+                AccountCommand.withdraw(secondId, BigDecimal.ZERO),
+                AccountCommand.withdraw(firstId, new BigDecimal(4)),
+                AccountCommand.deposit(secondId, BigDecimal.ONE)),
+            2);
+
+    // Assert
+    assertEquals(4, results.size());
+    results.get(0).join();
+    CompletionException exception = assertThrows(CompletionException.class, results.get(1)::join);
+    assertTrue(exception.getCause() instanceof IllegalArgumentException);
+    results.get(2).join();
+    results.get(3).join();
+
+    InOrder inOrder = inOrder(first);
+    inOrder.verify(first).deposit(new BigDecimal(10));
+    inOrder.verify(first).withdraw(new BigDecimal(4));
+    verify(accountRepository, times(1)).getById(firstId);
+    verify(accountRepository, times(1)).getById(secondId);
+    verify(accountRepository, times(1)).save(first);
+    verify(accountRepository, times(1)).save(second);
+  }
+
+  @Test
+  void when_execute_batch_all_rejected_expect_no_save() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    UUID accountId = UUID.randomUUID();
+    Account account = Account.create(accountId, "John", "Smith");
+    account.markChangesAsCommitted();
+    AccountService accountService = new AccountService(accountRepository, RetryPolicy.NONE);
+    when(accountRepository.getById(accountId))
+        .thenReturn(CompletableFuture.completedFuture(account));
+
+    // Act
+    List<CompletableFuture<Void>> results =
+        accountService.execute(
+            List.of(
+                AccountCommand.withdraw(accountId, BigDecimal.ZERO),
+                AccountCommand.deposit(accountId, new BigDecimal(-1))),
+            2);
+
+    // Assert
+    for (CompletableFuture<Void> result : results) {
+      CompletionException exception = assertThrows(CompletionException.class, result::join);
+      assertTrue(exception.getCause() instanceof IllegalArgumentException);
+    }
+    verify(accountRepository, times(1)).getById(accountId);
+    verify(accountRepository, never()).save(any(Account.class));
+  }
+
+  @Test
+  void when_transfer_expect_both_accounts_committed_in_one_unit_of_work() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    EventStore eventStore = mock(EventStore.class);
+    UUID fromId = UUID.randomUUID();
+    UUID toId = UUID.randomUUID();
+    Account from = Account.create(fromId, "John", "Smith");
+    Account to = Account.create(toId, "Jane", "Smith");
+    from.markChangesAsCommitted();
+    to.markChangesAsCommitted();
+    AccountService accountService = new AccountService(accountRepository, RetryPolicy.NONE);
+    when(accountRepository.getById(fromId)).thenReturn(CompletableFuture.completedFuture(from));
+    when(accountRepository.getById(toId)).thenReturn(CompletableFuture.completedFuture(to));
+    when(accountRepository.newUnitOfWork()).thenReturn(new UnitOfWork(eventStore));
+    when(eventStore.saveEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    accountService.transfer(fromId, toId, new BigDecimal(10)).join();
+
+    // Assert
+    verify(eventStore, times(1)).saveEvents(changesCaptor.capture());
+    verify(accountRepository, never()).save(any(Account.class));
+    List<AggregateChanges> changes = changesCaptor.getValue();
+    assertEquals(2, changes.size());
+    assertEquals(fromId, changes.get(0).getAggregateId());
+    assertEquals(2, changes.get(0).getEvents().size());
+    assertEquals(toId, changes.get(1).getAggregateId());
+    assertTrue(from.getUncommittedChanges().isEmpty());
+    assertTrue(to.getUncommittedChanges().isEmpty());
+  }
+
+  @Test
+  void when_transfer_from_sharded_account_expect_IllegalStateException() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    Repository<SubLedger> subLedgerRepository = mock(Repository.class);
+    UUID fromId = UUID.randomUUID();
+    UUID toId = UUID.randomUUID();
+    Account from = Account.create(fromId, "John", "Smith");
+    Account to = Account.create(toId, "Jane", "Smith");
+    from.deposit(new BigDecimal(100));
+    from.shard(2);
+    from.markChangesAsCommitted();
+    to.markChangesAsCommitted();
+    AccountService accountService =
+        new AccountService(accountRepository, RetryPolicy.NONE, null, subLedgerRepository);
+    when(accountRepository.getById(fromId)).thenReturn(CompletableFuture.completedFuture(from));
+    when(accountRepository.getById(toId)).thenReturn(CompletableFuture.completedFuture(to));
+
+    // Act
+    CompletionException exception =
+        assertThrows(
+            CompletionException.class,
+            () -> accountService.transfer(fromId, toId, new BigDecimal(10)).join());
+
+    // Assert
+    assertInstanceOf(IllegalStateException.class, exception.getCause());
+    verify(accountRepository, never()).newUnitOfWork();
+    verifyNoInteractions(subLedgerRepository);
+  }
+
+  @Test
+  void when_shard_expect_account_and_sub_ledgers_committed_together() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    Repository<SubLedger> subLedgerRepository = mock(Repository.class);
+    EventStore eventStore = mock(EventStore.class);
+    UUID accountId = UUID.randomUUID();
+    Account account = Account.create(accountId, "John", "Smith");
+    account.deposit(new BigDecimal(100));
+    account.markChangesAsCommitted();
+    AccountService accountService =
+        new AccountService(accountRepository, RetryPolicy.NONE, null, subLedgerRepository);
+    when(accountRepository.getById(accountId))
+        .thenReturn(CompletableFuture.completedFuture(account));
+    when(accountRepository.newUnitOfWork()).thenReturn(new UnitOfWork(eventStore));
+    when(eventStore.saveEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    accountService.shard(accountId, 4).join();
+
+    // Assert
+    verify(eventStore, times(1)).saveEvents(changesCaptor.capture());
+    List<AggregateChanges> changes = changesCaptor.getValue();
+    assertEquals(5, changes.size());
+    assertEquals(accountId, changes.get(0).getAggregateId());
+    assertEquals(SubLedger.subLedgerId(accountId, 3), changes.get(4).getAggregateId());
+    assertEquals(4, account.getShards());
+  }
+
+  @Test
+  void when_deposit_into_sharded_account_expect_only_sub_ledger_saved() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    Repository<SubLedger> subLedgerRepository = mock(Repository.class);
+    UUID accountId = UUID.randomUUID();
+    Account account = Account.create(accountId, "John", "Smith");
+    List<SubLedger> subLedgers = account.shard(2);
+    AccountService accountService =
+        new AccountService(accountRepository, RetryPolicy.NONE, null, subLedgerRepository);
+    when(accountRepository.getById(accountId))
+        .thenReturn(CompletableFuture.completedFuture(account));
+    when(subLedgerRepository.getById(any(UUID.class)))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.completedFuture(
+                    subLedgers.stream()
+                        .filter(s -> s.getId().equals(invocation.getArgument(0)))
+                        .findFirst()
+                        .get()));
+    when(subLedgerRepository.save(any(SubLedger.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    accountService.deposit(accountId, new BigDecimal(100)).join();
+
+    // Assert
+    verify(subLedgerRepository, times(1)).save(any(SubLedger.class));
+    verify(accountRepository, never()).save(any(Account.class));
+    assertEquals(
+        new BigDecimal(100),
+        subLedgers.get(0).getAvailable().add(subLedgers.get(1).getAvailable()));
+  }
+
+  @Test
+  void when_withdraw_beyond_sub_ledger_expect_sub_ledgers_committed_together() {
+    // Arrange
+    Repository<Account> accountRepository = mock(Repository.class);
+    Repository<SubLedger> subLedgerRepository = mock(Repository.class);
+    EventStore eventStore = mock(EventStore.class);
+    UUID accountId = UUID.randomUUID();
+    Account account = Account.create(accountId, "John", "Smith");
+    account.deposit(new BigDecimal(100));
+    List<SubLedger> subLedgers = account.shard(2);
+    subLedgers.forEach(SubLedger::markChangesAsCommitted);
+    AccountService accountService =
+        new AccountService(accountRepository, RetryPolicy.NONE, null, subLedgerRepository);
+    when(accountRepository.getById(accountId))
+        .thenReturn(CompletableFuture.completedFuture(account));
+    when(subLedgerRepository.getById(any(UUID.class)))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.completedFuture(
+                    subLedgers.stream()
+                        .filter(s -> s.getId().equals(invocation.getArgument(0)))
+                        .findFirst()
+                        .get()));
+    doAnswer(
+            invocation -> {
+              Collection<UUID> ids = invocation.getArgument(0);
+              Consumer<SubLedger> consumer = invocation.getArgument(2);
+              subLedgers.stream().filter(s -> ids.contains(s.getId())).forEach(consumer);
+              return CompletableFuture.completedFuture(null);
+            })
+        .when(subLedgerRepository)
+        .getByIds(anyCollection(), anyInt(), any());
+    when(subLedgerRepository.newUnitOfWork()).thenReturn(new UnitOfWork(eventStore));
+    when(eventStore.saveEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    accountService.withdraw(accountId, new BigDecimal(80)).join();
+    BigDecimal balance = accountService.getBalance(accountId).join();
+
+    // Assert
+    verify(eventStore, times(1)).saveEvents(changesCaptor.capture());
+    verify(subLedgerRepository, never()).save(any(SubLedger.class));
+    assertEquals(2, changesCaptor.getValue().size());
+    assertEquals(new BigDecimal(20), balance);
+  }
 }
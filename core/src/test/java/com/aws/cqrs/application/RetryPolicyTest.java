@@ -0,0 +1,89 @@
+package com.aws.cqrs.application;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+  private final RetryPolicy retryPolicy =
+      new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(4));
+
+  @Test
+  void when_conflict_then_success_expect_retried() {
+    // Arrange
+    AtomicInteger attempts = new AtomicInteger();
+
+    // Act
+    String result =
+        retryPolicy
+            .execute(
+                () ->
+                    attempts.incrementAndGet() == 1
+                        ? CompletableFuture.<String>failedFuture(conflict())
+                        : CompletableFuture.completedFuture("done"))
+            .join();
+
+    // Assert
+    assertEquals("done", result);
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  void when_conflicts_exceed_max_attempts_expect_ConcurrencyException() {
+    // Arrange
+    AtomicInteger attempts = new AtomicInteger();
+
+    // Act
+    CompletableFuture<Void> result =
+        retryPolicy.execute(
+            () -> {
+              attempts.incrementAndGet();
+              return CompletableFuture.failedFuture(conflict());
+            });
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof ConcurrencyException);
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  void when_other_failure_expect_not_retried() {
+    // Arrange
+    AtomicInteger attempts = new AtomicInteger();
+
+    // Act
+    CompletableFuture<Void> result =
+        retryPolicy.execute(
+            () -> {
+              attempts.incrementAndGet();
+              return CompletableFuture.failedFuture(
+                  new TransactionFailedException(new RuntimeException(), UUID.randomUUID()));
+            });
+
+    // Assert
+    assertThrows(CompletionException.class, result::join);
+    assertEquals(1, attempts.get());
+  }
+
+  @Test
+  void when_getMaxDelayMillis_expect_doubled_and_capped() {
+    // Assert
+    assertEquals(1, retryPolicy.getMaxDelayMillis(1));
+    assertEquals(2, retryPolicy.getMaxDelayMillis(2));
+    assertEquals(4, retryPolicy.getMaxDelayMillis(3));
+    assertEquals(4, retryPolicy.getMaxDelayMillis(40));
+  }
+
+  private static ConcurrencyException conflict() {
+    return new ConcurrencyException(new RuntimeException(), UUID.randomUUID(), 1, 2);
+  }
+}
@@ -0,0 +1,26 @@
+package com.aws.cqrs.domain;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class AccountSnapshotTest {
+  @Test
+  void when_create_with_default_constructor_expect_success() {
+    UUID accountId = UUID.randomUUID();
+    AccountSnapshot snapshot = new AccountSnapshot(accountId, new BigDecimal(100));
+
+    assertEquals(accountId, snapshot.getAccountId());
+    assertEquals(new BigDecimal(100), snapshot.getBalance());
+  }
+
+  @Test
+  void when_create_with_empty_constructor_expect_null_values() {
+    AccountSnapshot snapshot = new AccountSnapshot();
+
+    assertNull(snapshot.getAccountId());
+    assertNull(snapshot.getBalance());
+  }
+}
@@ -198,6 +198,76 @@ class AccountTest {
     Assertions.assertTrue(balance.compareTo(BigDecimal.ZERO) > 0);
   }
 
+  @Test
+  void when_loadFromSnapshot_expect_state_and_version() {
+    Account account = Account.create(accountId, "John", "Smith");
+    account.deposit(new BigDecimal(100));
+
+    Account restored = new Account();
+    restored.loadFromSnapshot(account.getSnapshot(), 2);
+
+    assertEquals(accountId, restored.getId());
+    assertEquals(2, restored.getExpectedVersion());
+    assertEquals(new BigDecimal(100), restored.getSnapshot().getBalance());
+    assertTrue(restored.getUncommittedChanges().isEmpty());
+  }
+
+  @Test
+  void when_loadFromSnapshot_null_expect_HydrationException() {
+    Account account = new Account();
+
+    assertThrows(HydrationException.class, () -> account.loadFromSnapshot(null, 1));
+  }
+
+  @Test
+  void when_shard_expect_balance_split_over_sub_ledgers() {
+    Account account = Account.create(accountId, "John", "Smith");
+    account.deposit(new BigDecimal("100.00"));
+
+    List<SubLedger> subLedgers = account.shard(3);
+
+    assertEquals(3, account.getShards());
+    assertEquals(3, subLedgers.size());
+    assertEquals(new BigDecimal("33.34"), subLedgers.get(0).getAvailable());
+    assertEquals(new BigDecimal("33.33"), subLedgers.get(1).getAvailable());
+    assertEquals(new BigDecimal("33.33"), subLedgers.get(2).getAvailable());
+    assertEquals(SubLedger.subLedgerId(accountId, 2), subLedgers.get(2).getId());
+    assertInstanceOf(AccountSharded.class, account.getUncommittedChanges().get(2));
+  }
+
+  @Test
+  void when_deposit_into_sharded_account_expect_IllegalStateException() {
+    Account account = Account.create(accountId, "John", "Smith");
+    account.shard(2);
+
+    assertThrows(IllegalStateException.class, () -> account.deposit(BigDecimal.TEN));
+    assertThrows(IllegalStateException.class, () -> account.shard(2));
+  }
+
+  @Test
+  void when_loadFromLatestEvent_sharded_expect_shards_restored() {
+    Account restored = new Account();
+
+    boolean loaded =
+        restored.loadFromLatestEvent(
+            new AccountCreated(accountId, "John", "Smith"),
+            new AccountSharded(accountId, 3, new BigDecimal(100)),
+            3);
+
+    assertTrue(loaded);
+    assertEquals(3, restored.getShards());
+    assertEquals(new BigDecimal(100), restored.getSnapshot().getBalance());
+    assertThrows(IllegalStateException.class, () -> restored.deposit(BigDecimal.TEN));
+  }
+
+  @Test
+  void when_shard_overdrawn_account_expect_IllegalStateException() {
+    Account account = Account.create(accountId, "John", "Smith");
+    account.withdraw(BigDecimal.TEN);
+
+    assertThrows(IllegalStateException.class, () -> account.shard(2));
+  }
+
   @Test
   void when_getHashcode_expect_match() {
     UUID accountId = UUID.randomUUID();
@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
 import com.aws.cqrs.infrastructure.messaging.Event;
 import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.ServiceLoader;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 
@@ -72,6 +74,22 @@ class AggregateRootBaseTest {
     assertTrue(aggregateRootBase.getUncommittedChanges().isEmpty());
   }
 
+  @Test
+  void when_markChangesAsCommitted_expect_version_past_changes() {
+    // Arrange
+    AggregateRootBase aggregateRootBase = new AggregateRootBase() {};
+    aggregateRootBase.loadFromHistory(
+        List.of(new AccountCreated(UUID.randomUUID(), "John", "Smith")));
+    aggregateRootBase.applyChange(new AccountCreated(UUID.randomUUID(), "John", "Smith"));
+    aggregateRootBase.applyChange(new AccountCreated(UUID.randomUUID(), "John", "Smith"));
+
+    // Act
+    aggregateRootBase.markChangesAsCommitted();
+
+    // Assert
+    assertEquals(3, aggregateRootBase.getExpectedVersion());
+  }
+
   @Test
   void when_getExpectedVersion_expect_zero() {
     // Arrange
@@ -123,4 +141,113 @@ class AggregateRootBaseTest {
           aggregateRootBase.applyChange(new AccountCreated(UUID.randomUUID(), "John", "Smith"));
         });
   }
+
+  @Test
+  void when_apply_declared_on_super_class_expect_applied() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DerivedAggregate aggregate = new DerivedAggregate();
+
+    // Act
+    aggregate.loadFromHistory(List.of(new AccountCreated(accountId, "John", "Smith")));
+
+    // Assert
+    assertEquals(accountId, aggregate.getId());
+  }
+
+  @Test
+  void when_apply_overridden_expect_sub_class_applied() {
+    // Arrange
+    DerivedAggregate aggregate = new DerivedAggregate();
+
+    // Act
+    aggregate.loadFromHistory(
+        List.of(new Deposited(UUID.randomUUID(), new BigDecimal(100), new BigDecimal(100))));
+
+    // Assert
+    assertEquals("derived", aggregate.lastApplied);
+  }
+
+  @Test
+  void when_applyChange_repeated_expect_each_event_applied() {
+    // Arrange
+    DerivedAggregate aggregate = new DerivedAggregate();
+    UUID accountId = UUID.randomUUID();
+
+    // Act
+    for (int i = 0; i < 100; i++) {
+      aggregate.applyChange(new Deposited(accountId, BigDecimal.ONE, BigDecimal.ONE));
+    }
+
+    // Assert
+    assertEquals(100, aggregate.depositCount);
+    assertEquals(100, aggregate.getUncommittedChanges().size());
+  }
+
+  @Test
+  void when_dispatchers_loaded_expect_generated_account_dispatcher() {
+    // Act
+    EventDispatcher<?> dispatcher =
+        ServiceLoader.load(EventDispatcher.class).stream()
+            .map(ServiceLoader.Provider::get)
+            .filter(loaded -> loaded.getAggregateType() == Account.class)
+            .findFirst()
+            .orElse(null);
+
+    // Assert
+    assertNotNull(dispatcher);
+    assertEquals("Account_EventDispatcher", dispatcher.getClass().getSimpleName());
+  }
+
+  @Test
+  void when_loadFromHistory_generated_dispatcher_expect_same_state_as_reflection() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    List<Event> history =
+        List.of(
+            new AccountCreated(accountId, "John", "Smith"),
+            new Deposited(accountId, new BigDecimal(100), new BigDecimal(100)),
+            new Withdrew(accountId, new BigDecimal(150), new BigDecimal(-50)),
+            new Overdrawn(accountId, UUID.randomUUID(), new BigDecimal(10), new BigDecimal(-60)),
+            new AccountSharded(accountId, 4, new BigDecimal(-60)));
+    Account generated = new Account();
+    // A sub class has no generated dispatcher of its own, so its events go through reflection.
+    Account reflective = new Account() {};
+
+    // Act
+    generated.loadFromHistory(history);
+    reflective.loadFromHistory(history);
+
+    // Assert
+    assertEquals(reflective.getId(), generated.getId());
+    assertEquals(reflective.getBalance(), generated.getBalance());
+    assertEquals(reflective.getShards(), generated.getShards());
+    assertEquals(reflective.getExpectedVersion(), generated.getExpectedVersion());
+    assertEquals(new BigDecimal(-60), generated.getBalance());
+    assertEquals(4, generated.getShards());
+  }
+
+  private static class BaseAggregate extends AggregateRootBase {
+    String lastApplied;
+
+    @SuppressWarnings("unused")
+    private void apply(AccountCreated event) {
+      id = event.getAccountId();
+    }
+
+    @SuppressWarnings("unused")
+    void apply(Deposited event) {
+      lastApplied = "base";
+    }
+  }
+
+  private static class DerivedAggregate extends BaseAggregate {
+    int depositCount;
+
+    @Override
+    void apply(Deposited event) {
+      lastApplied = "derived";
+      depositCount++;
+    }
+  }
 }
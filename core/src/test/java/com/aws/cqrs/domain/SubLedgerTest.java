@@ -0,0 +1,67 @@
+package com.aws.cqrs.domain;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class SubLedgerTest {
+
+  private static final UUID accountId = UUID.fromString("c96b90e6-c3d8-4391-bc82-2bf02882eeba");
+
+  @Test
+  void when_subLedgerId_expect_stable_per_shard() {
+    assertEquals(SubLedger.subLedgerId(accountId, 1), SubLedger.subLedgerId(accountId, 1));
+    assertNotEquals(SubLedger.subLedgerId(accountId, 0), SubLedger.subLedgerId(accountId, 1));
+  }
+
+  @Test
+  void when_withdraw_within_headroom_expect_single_posting() {
+    SubLedger subLedger = SubLedger.open(accountId, 0, new BigDecimal(50));
+    subLedger.markChangesAsCommitted();
+
+    subLedger.withdraw(new BigDecimal(20));
+
+    assertEquals(new BigDecimal(30), subLedger.getAvailable());
+    assertEquals(1, subLedger.getUncommittedChanges().size());
+  }
+
+  @Test
+  void when_withdraw_beyond_headroom_expect_IllegalStateException() {
+    SubLedger subLedger = SubLedger.open(accountId, 0, new BigDecimal(50));
+
+    assertFalse(subLedger.canWithdraw(new BigDecimal(60)));
+    assertThrows(IllegalStateException.class, () -> subLedger.withdraw(new BigDecimal(60)));
+  }
+
+  @Test
+  void when_withdraw_covered_by_account_expect_missing_headroom_moved() {
+    SubLedger first = SubLedger.open(accountId, 0, new BigDecimal(50));
+    SubLedger second = SubLedger.open(accountId, 1, new BigDecimal(50));
+
+    SubLedger.withdraw(List.of(first, second), first, new BigDecimal(70));
+
+    assertEquals(new BigDecimal(0), first.getAvailable());
+    assertEquals(new BigDecimal(30), second.getAvailable());
+    assertTrue(second.canWithdraw(new BigDecimal(30)));
+  }
+
+  @Test
+  void when_withdraw_overdraws_account_expect_overdraft_charged_and_flagged() {
+    SubLedger first = SubLedger.open(accountId, 0, new BigDecimal(50));
+    SubLedger second = SubLedger.open(accountId, 1, new BigDecimal(50));
+
+    SubLedger.withdraw(List.of(first, second), first, new BigDecimal(110));
+
+    assertEquals(
+        new BigDecimal(-10).subtract(Account.OVERDRAFT_CHARGE),
+        first.getAvailable().add(second.getAvailable()));
+    assertEquals(BigDecimal.ZERO, second.getAvailable());
+
+    // The account stays overdrawn, so even a covered withdrawal needs every sub-ledger.
+    second.deposit(new BigDecimal(5));
+    assertFalse(second.canWithdraw(BigDecimal.ONE));
+  }
+}
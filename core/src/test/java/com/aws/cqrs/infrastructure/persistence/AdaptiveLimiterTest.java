@@ -0,0 +1,62 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+
+  private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(5);
+
+  @Test
+  void when_saturated_successes_expect_limit_raised() {
+    // Arrange
+    AdaptiveLimiter limiter = new AdaptiveLimiter("events", 2, 1, 10, 10, LimitListener.NONE);
+
+    // Act
+    for (int i = 0; i < 10; i++) {
+      limiter.acquire().join();
+      limiter.acquire().join();
+      limiter.release(LATENCY, false);
+      limiter.release(LATENCY, false);
+    }
+
+    // Assert
+    assertTrue(limiter.getLimit() > 2);
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void when_idle_successes_expect_limit_kept() {
+    // Arrange
+    AdaptiveLimiter limiter = new AdaptiveLimiter("events", 10, 1, 100, 10, LimitListener.NONE);
+
+    // Act
+    for (int i = 0; i < 50; i++) {
+      limiter.acquire().join();
+      limiter.release(LATENCY, false);
+    }
+
+    // Assert
+    assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  void when_burst_of_slow_responses_expect_limit_lowered_once() {
+    // Arrange
+    AdaptiveLimiter limiter = new AdaptiveLimiter("events", 20, 1, 100, 10, LimitListener.NONE);
+    for (int i = 0; i < 5; i++) {
+      limiter.acquire().join();
+    }
+    limiter.release(LATENCY, false);
+
+    // Act
+    for (int i = 0; i < 4; i++) {
+      limiter.release(TimeUnit.SECONDS.toNanos(1), false);
+    }
+
+    // Assert
+    assertEquals(18, limiter.getLimit());
+  }
+}
@@ -0,0 +1,83 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.domain.AccountSnapshot;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class AggregateCacheTest {
+
+  @Test
+  void when_put_expect_get() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    AggregateCache cache = new AggregateCache(10);
+    Snapshot snapshot = snapshot(accountId, 5);
+
+    // Act
+    cache.put(snapshot);
+
+    // Assert
+    assertSame(snapshot, cache.get(accountId));
+  }
+
+  @Test
+  void when_put_older_version_expect_ignored() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    AggregateCache cache = new AggregateCache(10);
+    cache.put(snapshot(accountId, 5));
+
+    // Act
+    cache.put(snapshot(accountId, 4));
+
+    // Assert
+    assertEquals(5, cache.get(accountId).getVersion());
+  }
+
+  @Test
+  void when_full_expect_least_recently_used_evicted() {
+    // Arrange
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+    AggregateCache cache = new AggregateCache(2);
+    cache.put(snapshot(first, 1));
+    cache.put(snapshot(second, 1));
+    cache.get(first);
+
+    // Act
+    cache.put(snapshot(third, 1));
+
+    // Assert
+    assertEquals(2, cache.size());
+    assertNotNull(cache.get(first));
+    assertNull(cache.get(second));
+    assertNotNull(cache.get(third));
+  }
+
+  @Test
+  void when_invalidate_expect_removed() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    AggregateCache cache = new AggregateCache(10);
+    cache.put(snapshot(accountId, 5));
+
+    // Act
+    cache.invalidate(accountId);
+
+    // Assert
+    assertNull(cache.get(accountId));
+  }
+
+  @Test
+  void when_invalid_size_expect_IllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> new AggregateCache(0));
+  }
+
+  private static Snapshot snapshot(UUID accountId, int version) {
+    return new Snapshot(accountId, version, new AccountSnapshot(accountId, BigDecimal.ZERO));
+  }
+}
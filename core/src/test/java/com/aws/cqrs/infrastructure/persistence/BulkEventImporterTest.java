@@ -0,0 +1,185 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.infrastructure.serialization.EventSerializers;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.aws.cqrs.infrastructure.serialization.StreamingJsonEventSerializer;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+class BulkEventImporterTest {
+
+  private static final String TABLE_NAME = "tableName";
+
+  private final EventTypeRegistry eventTypes = EventTypeRegistry.getDefault();
+
+  @TempDir Path directory;
+
+  @Test
+  void when_importEvents_ndjson_expect_all_written_and_checkpointed() throws IOException {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    StringBuilder lines = new StringBuilder();
+    lines.append(
+        "{\"id\":\""
+            + accountId
+            + "\",\"version\":1,\"kind\":\"acct.v1\",\"event\":{\"accountId\":\""
+            + accountId
+            + "\",\"firstName\":\"John\",\"lastName\":\"Doe\"}}\n");
+    for (int version = 2; version <= 60; version++) {
+      lines.append(
+          "{\"id\":\""
+              + accountId
+              + "\",\"version\":"
+              + version
+              + ",\"kind\":\"dep.v1\",\"event\":{\"accountId\":\""
+              + accountId
+              + "\",\"amount\":1,\"newBalance\":"
+              + (version - 1)
+              + "}}\n");
+    }
+    EventRecordReader reader =
+        new NdjsonEventRecordReader(
+            new BufferedReader(new StringReader(lines.toString())),
+            EventSerializers.create(EventSerializers.GSON, EventSerializers.createGson()),
+            eventTypes);
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    BulkEventImporter importer =
+        new BulkEventImporter(
+            TABLE_NAME,
+            dynamoDbAsyncClient,
+            new StreamingJsonEventSerializer(),
+            eventTypes,
+            4,
+            100_000);
+    Path checkpoint = directory.resolve("checkpoint");
+    Set<String> written = Collections.synchronizedSet(new HashSet<>());
+    ArgumentCaptor<BatchWriteItemRequest> captor =
+        ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+
+    when(dynamoDbAsyncClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              BatchWriteItemRequest request = invocation.getArgument(0);
+              List<WriteRequest> requests = request.requestItems().get(TABLE_NAME);
+              // Leave the first item of every first attempt unprocessed.
+              boolean retry = written.add("attempt:" + requests.get(0).putRequest().item());
+              for (WriteRequest writeRequest : requests.subList(retry ? 1 : 0, requests.size())) {
+                written.add(writeRequest.putRequest().item().get(VERSION_ATTRIBUTE).n());
+              }
+              return CompletableFuture.completedFuture(
+                  BatchWriteItemResponse.builder()
+                      .unprocessedItems(
+                          retry ? Map.of(TABLE_NAME, requests.subList(0, 1)) : Map.of())
+                      .build());
+            });
+
+    // Act
+    long imported = importer.importEvents(reader, checkpoint);
+
+    // Assert
+    assertEquals(60, imported);
+    assertEquals("60", Files.readString(checkpoint));
+    for (int version = 1; version <= 60; version++) {
+      assertTrue(written.contains(String.valueOf(version)));
+    }
+    verify(dynamoDbAsyncClient, atLeastOnce()).batchWriteItem(captor.capture());
+    assertTrue(
+        captor.getAllValues().stream()
+            .allMatch(request -> request.requestItems().get(TABLE_NAME).size() <= 25));
+  }
+
+  @Test
+  void when_importEvents_with_checkpoint_expect_resumed() throws IOException {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      BinaryEventRecordReader.write(
+          output,
+          new EventRecord(accountId, 1, new AccountCreated(accountId, "John", "Doe")),
+          eventTypes);
+      for (int version = 2; version <= 30; version++) {
+        BinaryEventRecordReader.write(
+            output,
+            new EventRecord(
+                accountId,
+                version,
+                new Deposited(accountId, BigDecimal.ONE, new BigDecimal(version - 1))),
+            eventTypes);
+      }
+    }
+    EventRecordReader reader =
+        new BinaryEventRecordReader(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), eventTypes);
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    BulkEventImporter importer =
+        new BulkEventImporter(
+            TABLE_NAME,
+            dynamoDbAsyncClient,
+            new StreamingJsonEventSerializer(),
+            eventTypes,
+            2,
+            100_000);
+    Path checkpoint = directory.resolve("checkpoint");
+    Files.writeString(checkpoint, "25");
+    ArgumentCaptor<BatchWriteItemRequest> captor =
+        ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+
+    when(dynamoDbAsyncClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(BatchWriteItemResponse.builder().build()));
+
+    // Act
+    long imported = importer.importEvents(reader, checkpoint);
+
+    // Assert
+    assertEquals(5, imported);
+    assertEquals("30", Files.readString(checkpoint));
+    verify(dynamoDbAsyncClient, times(1)).batchWriteItem(captor.capture());
+    List<WriteRequest> requests = captor.getValue().requestItems().get(TABLE_NAME);
+    assertEquals(5, requests.size());
+    assertEquals("26", requests.get(0).putRequest().item().get(VERSION_ATTRIBUTE).n());
+    assertEquals("dep.v1", requests.get(0).putRequest().item().get(KIND_ATTRIBUTE).s());
+  }
+
+  @Test
+  void when_getWriteUnits_expect_unit_per_started_kilobyte() {
+    // Arrange
+    Map<String, AttributeValue> small =
+        Map.of(EVENT_ATTRIBUTE, AttributeValue.builder().s("x").build());
+    Map<String, AttributeValue> large =
+        Map.of(EVENT_ATTRIBUTE, AttributeValue.builder().s("x".repeat(1500)).build());
+
+    // Act
+    int units =
+        BulkEventImporter.getWriteUnits(
+            List.of(
+                WriteRequest.builder().putRequest(PutRequest.builder().item(small).build()).build(),
+                WriteRequest.builder()
+                    .putRequest(PutRequest.builder().item(large).build())
+                    .build()));
+
+    // Assert
+    assertEquals(3, units);
+  }
+}
@@ -0,0 +1,250 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbCommitEventStore.EVENTS_ATTRIBUTE;
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.BinaryEventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+class DynamoDbCommitEventStoreTest {
+
+  private static final String TABLE_NAME = "tableName";
+
+  private final BinaryEventSerializer serializer = new BinaryEventSerializer();
+
+  @Test
+  void when_saveEvents_expect_single_conditional_put() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbCommitEventStore eventStore =
+        new DynamoDbCommitEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+
+    when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+
+    // Act
+    eventStore.saveEvents(accountId, 4, deposits(accountId, 5, 2)).join();
+
+    // Assert
+    ArgumentCaptor<PutItemRequest> captor = ArgumentCaptor.forClass(PutItemRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).putItem(captor.capture());
+    verify(dynamoDbAsyncClient, never()).transactWriteItems(any(TransactWriteItemsRequest.class));
+
+    PutItemRequest request = captor.getValue();
+    assertEquals("attribute_not_exists(#version)", request.conditionExpression());
+    assertEquals("5", request.item().get(VERSION_ATTRIBUTE).n());
+
+    List<AttributeValue> packed = request.item().get(EVENTS_ATTRIBUTE).l();
+    assertEquals(2, packed.size());
+    assertEquals(
+        EventTypeRegistry.getDefault().getKind(Deposited.class),
+        packed.get(0).m().get(KIND_ATTRIBUTE).s());
+    assertNotNull(packed.get(1).m().get(EVENT_ATTRIBUTE).b());
+  }
+
+  @Test
+  void when_saveEvents_conflict_expect_ConcurrencyException() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbCommitEventStore eventStore =
+        new DynamoDbCommitEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+    ConditionalCheckFailedException conflict = ConditionalCheckFailedException.builder().build();
+
+    when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(conflict));
+
+    // Act
+    CompletableFuture<Void> result = eventStore.saveEvents(accountId, 3, deposits(accountId, 4, 2));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    ConcurrencyException concurrencyException = (ConcurrencyException) exception.getCause();
+    assertEquals(3, concurrencyException.getExpectedVersion());
+    assertEquals(4, concurrencyException.getConflictingVersion());
+  }
+
+  @Test
+  void when_saveEvents_over_item_limit_expect_TransactionFailedException() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbCommitEventStore eventStore =
+        new DynamoDbCommitEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+
+    // Act
+    CompletableFuture<Void> result =
+        eventStore.saveEvents(accountId, 0, deposits(accountId, 1, 20_000));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof TransactionFailedException);
+    verify(dynamoDbAsyncClient, never()).putItem(any(PutItemRequest.class));
+  }
+
+  @Test
+  void when_getEvents_expect_commits_expanded_in_order() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbCommitEventStore eventStore =
+        new DynamoDbCommitEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+
+    List<Event> first = new ArrayList<>();
+    first.add(new AccountCreated(accountId, "John", "Doe"));
+    first.addAll(deposits(accountId, 1, 1));
+
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                QueryResponse.builder()
+                    .items(
+                        commitItem(accountId, 1, first),
+                        commitItem(accountId, 3, deposits(accountId, 2, 2)))
+                    .build()));
+
+    // Act
+    List<Event> events = eventStore.getEvents(accountId).join();
+
+    // Assert
+    assertEquals(4, events.size());
+    assertTrue(events.get(0) instanceof AccountCreated);
+    assertEquals(new BigDecimal(3), ((Deposited) events.get(3)).getNewBalance());
+  }
+
+  @Test
+  void when_getEvents_fromVersion_inside_commit_expect_head_and_forward_queries() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbCommitEventStore eventStore =
+        new DynamoDbCommitEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              QueryRequest request = invocation.getArgument(0);
+              QueryResponse.Builder response = QueryResponse.builder();
+              if (Boolean.FALSE.equals(request.scanIndexForward())) {
+                response.items(commitItem(accountId, 2, deposits(accountId, 1, 3)));
+              } else {
+                response.items(commitItem(accountId, 5, deposits(accountId, 4, 2)));
+              }
+              return CompletableFuture.completedFuture(response.build());
+            });
+
+    // Act
+    List<Event> events = eventStore.getEvents(accountId, 3, 5, 10).join();
+
+    // Assert
+    ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(dynamoDbAsyncClient, times(2)).query(captor.capture());
+    assertTrue(
+        captor.getAllValues().stream()
+            .anyMatch(
+                request ->
+                    request.keyConditionExpression().endsWith("#version <= :headVersion")
+                        && request.limit() == 1));
+
+    assertEquals(3, events.size());
+    assertEquals(new BigDecimal(2), ((Deposited) events.get(0)).getNewBalance());
+    assertEquals(new BigDecimal(4), ((Deposited) events.get(2)).getNewBalance());
+  }
+
+  @Test
+  void when_getLatestEvent_expect_last_event_of_latest_commit() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbCommitEventStore eventStore =
+        new DynamoDbCommitEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                QueryResponse.builder()
+                    .items(commitItem(accountId, 7, deposits(accountId, 6, 3)))
+                    .build()));
+
+    // Act
+    EventRecord latest = eventStore.getLatestEvent(accountId).join();
+
+    // Assert
+    assertEquals(9, latest.getVersion());
+    assertEquals(new BigDecimal(8), ((Deposited) latest.getEvent()).getNewBalance());
+  }
+
+  @Test
+  void when_getEvents_expect_AggregateNotFoundException() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbCommitEventStore eventStore =
+        new DynamoDbCommitEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(QueryResponse.builder().build()));
+
+    // Act
+    CompletableFuture<List<Event>> result = eventStore.getEvents(UUID.randomUUID());
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof AggregateNotFoundException);
+  }
+
+  private Map<String, AttributeValue> commitItem(
+      UUID accountId, long firstVersion, List<Event> events) {
+    List<AttributeValue> packed = new ArrayList<>();
+    for (Event event : events) {
+      packed.add(
+          AttributeValue.builder()
+              .m(
+                  Map.of(
+                      KIND_ATTRIBUTE,
+                      AttributeValue.builder()
+                          .s(EventTypeRegistry.getDefault().getKind(event.getClass()))
+                          .build(),
+                      EVENT_ATTRIBUTE,
+                      AttributeValue.builder()
+                          .b(SdkBytes.fromByteArray(serializer.serialize(event)))
+                          .build()))
+              .build());
+    }
+
+    Map<String, AttributeValue> item = new HashMap<>();
+    item.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    item.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(firstVersion)).build());
+    item.put(EVENTS_ATTRIBUTE, AttributeValue.builder().l(packed).build());
+    return item;
+  }
+
+  private static List<Event> deposits(UUID accountId, int fromBalance, int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      events.add(new Deposited(accountId, BigDecimal.ONE, new BigDecimal(fromBalance + i)));
+    }
+    return events;
+  }
+}
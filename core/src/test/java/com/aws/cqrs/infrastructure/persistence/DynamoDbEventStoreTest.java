@@ -8,17 +8,25 @@ import com.aws.cqrs.application.OffsetDateTimeDeserializer;
 import com.aws.cqrs.domain.AccountCreated;
 import com.aws.cqrs.domain.Deposited;
 import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
 import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
 import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.BinaryEventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.aws.cqrs.infrastructure.serialization.StreamingJsonEventSerializer;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
@@ -43,10 +51,15 @@ class DynamoDbEventStoreTest {
     propertyMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(1)).build());
     propertyMap.put(
         EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(events.get(0))).build());
-    propertyMap.put(
-        KIND_ATTRIBUTE, AttributeValue.builder().s(events.get(0).getClass().getName()).build());
+    propertyMap.put(KIND_ATTRIBUTE, AttributeValue.builder().s("acct.v1").build());
 
-    Put put = Put.builder().item(propertyMap).tableName(TABLE_NAME).build();
+    Put put =
+        Put.builder()
+            .item(propertyMap)
+            .tableName(TABLE_NAME)
+            .conditionExpression("attribute_not_exists(#version)")
+            .expressionAttributeNames(Map.of("#version", VERSION_ATTRIBUTE))
+            .build();
 
     TransactWriteItemsRequest transactWriteItemsRequest =
         TransactWriteItemsRequest.builder()
@@ -77,10 +90,15 @@ class DynamoDbEventStoreTest {
     propertyMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(1)).build());
     propertyMap.put(
         EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(events.get(0))).build());
-    propertyMap.put(
-        KIND_ATTRIBUTE, AttributeValue.builder().s(events.get(0).getClass().getName()).build());
+    propertyMap.put(KIND_ATTRIBUTE, AttributeValue.builder().s("acct.v1").build());
 
-    Put put = Put.builder().item(propertyMap).tableName(TABLE_NAME).build();
+    Put put =
+        Put.builder()
+            .item(propertyMap)
+            .tableName(TABLE_NAME)
+            .conditionExpression("attribute_not_exists(#version)")
+            .expressionAttributeNames(Map.of("#version", VERSION_ATTRIBUTE))
+            .build();
 
     TransactWriteItemsRequest transactWriteItemsRequest =
         TransactWriteItemsRequest.builder()
@@ -108,6 +126,509 @@ class DynamoDbEventStoreTest {
     verify(dynamoDbAsyncClient, times(1)).transactWriteItems(transactWriteItemsRequest);
   }
 
+  @Test
+  void when_saveEvents_conflict_expect_ConcurrencyException() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    List<Event> events =
+        List.of(
+            new Deposited(accountId, new BigDecimal(100), new BigDecimal(100)),
+            new Deposited(accountId, new BigDecimal(50), new BigDecimal(150)));
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                TransactionCanceledException.builder()
+                    .cancellationReasons(
+                        CancellationReason.builder().code("None").build(),
+                        CancellationReason.builder().code("ConditionalCheckFailed").build())
+                    .build()));
+
+    // Act
+    CompletableFuture<Void> result = eventStore.saveEvents(accountId, 3, events);
+
+    // Assert
+    ConcurrencyException exception =
+        assertThrows(
+            ConcurrencyException.class,
+            () -> {
+              try {
+                result.join();
+              } catch (CompletionException x) {
+                throw x.getCause();
+              }
+            });
+    assertEquals(3, exception.getExpectedVersion());
+    assertEquals(5, exception.getConflictingVersion());
+  }
+
+  @Test
+  void when_saveEvents_several_aggregates_expect_single_transaction() {
+    // Arrange
+    UUID fromId = UUID.randomUUID();
+    UUID toId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(TransactWriteItemsResponse.builder().build()));
+
+    // Act
+    eventStore
+        .saveEvents(
+            List.of(
+                new AggregateChanges(
+                    fromId, 3, List.of(new Deposited(fromId, BigDecimal.ONE, new BigDecimal(-1)))),
+                new AggregateChanges(
+                    toId, 7, List.of(new Deposited(toId, BigDecimal.ONE, BigDecimal.ONE)))))
+        .join();
+
+    // Assert
+    ArgumentCaptor<TransactWriteItemsRequest> captor =
+        ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).transactWriteItems(captor.capture());
+    List<TransactWriteItem> items = captor.getValue().transactItems();
+    assertEquals(2, items.size());
+    assertEquals(fromId.toString(), items.get(0).put().item().get(ID_ATTRIBUTE).s());
+    assertEquals("4", items.get(0).put().item().get(VERSION_ATTRIBUTE).n());
+    assertEquals(toId.toString(), items.get(1).put().item().get(ID_ATTRIBUTE).s());
+    assertEquals("8", items.get(1).put().item().get(VERSION_ATTRIBUTE).n());
+  }
+
+  @Test
+  void when_saveEvents_several_aggregates_conflict_expect_ConcurrencyException_for_aggregate() {
+    // Arrange
+    UUID fromId = UUID.randomUUID();
+    UUID toId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    TransactionCanceledException cancelled =
+        TransactionCanceledException.builder()
+            .cancellationReasons(
+                CancellationReason.builder().code("None").build(),
+                CancellationReason.builder().code("ConditionalCheckFailed").build())
+            .build();
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(cancelled));
+
+    // Act
+    CompletableFuture<Void> result =
+        eventStore.saveEvents(
+            List.of(
+                new AggregateChanges(
+                    fromId, 3, List.of(new Deposited(fromId, BigDecimal.ONE, new BigDecimal(-1)))),
+                new AggregateChanges(
+                    toId, 7, List.of(new Deposited(toId, BigDecimal.ONE, BigDecimal.ONE)))));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    ConcurrencyException concurrencyException = (ConcurrencyException) exception.getCause();
+    assertEquals(toId, concurrencyException.getAggregateId());
+    assertEquals(7, concurrencyException.getExpectedVersion());
+    assertEquals(8, concurrencyException.getConflictingVersion());
+  }
+
+  @Test
+  void when_saveEvents_group_commit_expect_single_transaction() {
+    // Arrange
+    UUID firstId = UUID.randomUUID();
+    UUID secondId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore =
+        new DynamoDbEventStore(
+            TABLE_NAME,
+            dynamoDbAsyncClient,
+            new StreamingJsonEventSerializer(),
+            EventTypeRegistry.getDefault(),
+            Duration.ofMillis(50));
+    ArgumentCaptor<TransactWriteItemsRequest> captor =
+        ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(TransactWriteItemsResponse.builder().build()));
+
+    // Act
+    CompletableFuture<Void> first =
+        eventStore.saveEvents(firstId, 0, List.of(new AccountCreated(firstId, "John", "Doe")));
+    CompletableFuture<Void> second =
+        eventStore.saveEvents(secondId, 0, List.of(new AccountCreated(secondId, "Jane", "Doe")));
+    CompletableFuture.allOf(first, second).join();
+
+    // Assert
+    verify(dynamoDbAsyncClient, times(1)).transactWriteItems(captor.capture());
+    assertEquals(2, captor.getValue().transactItems().size());
+  }
+
+  @Test
+  void when_saveEvents_group_commit_cancelled_expect_retried_individually() {
+    // Arrange
+    UUID firstId = UUID.randomUUID();
+    UUID secondId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore =
+        new DynamoDbEventStore(
+            TABLE_NAME,
+            dynamoDbAsyncClient,
+            new StreamingJsonEventSerializer(),
+            EventTypeRegistry.getDefault(),
+            Duration.ofMillis(50));
+    TransactionCanceledException conflict =
+        TransactionCanceledException.builder()
+            .cancellationReasons(
+                CancellationReason.builder().code("ConditionalCheckFailed").build())
+            .build();
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              TransactWriteItemsRequest request = invocation.getArgument(0);
+              String id = request.transactItems().get(0).put().item().get(ID_ATTRIBUTE).s();
+              if (request.transactItems().size() > 1 || id.equals(secondId.toString())) {
+                return CompletableFuture.failedFuture(conflict);
+              }
+              return CompletableFuture.completedFuture(
+                  TransactWriteItemsResponse.builder().build());
+            });
+
+    // Act
+    CompletableFuture<Void> first =
+        eventStore.saveEvents(firstId, 0, List.of(new AccountCreated(firstId, "John", "Doe")));
+    CompletableFuture<Void> second =
+        eventStore.saveEvents(secondId, 0, List.of(new AccountCreated(secondId, "Jane", "Doe")));
+
+    // Assert
+    first.join();
+    CompletionException exception = assertThrows(CompletionException.class, second::join);
+    assertTrue(exception.getCause() instanceof ConcurrencyException);
+    verify(dynamoDbAsyncClient, times(3)).transactWriteItems(any(TransactWriteItemsRequest.class));
+  }
+
+  @Test
+  void when_saveEvents_no_events_expect_no_transaction() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    // Act
+    eventStore.saveEvents(UUID.randomUUID(), 3, List.of()).join();
+
+    // Assert
+    verifyNoInteractions(dynamoDbAsyncClient);
+  }
+
+  @Test
+  void when_saveEvents_over_transaction_limit_expect_chunked_commit() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    List<Event> events = new ArrayList<>();
+    for (int i = 1; i <= 150; i++) {
+      events.add(new Deposited(accountId, BigDecimal.ONE, new BigDecimal(i)));
+    }
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    ArgumentCaptor<TransactWriteItemsRequest> captor =
+        ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(TransactWriteItemsResponse.builder().build()));
+
+    // Act
+    eventStore.saveEvents(accountId, 0, events).join();
+
+    // Assert
+    verify(dynamoDbAsyncClient, times(3)).transactWriteItems(captor.capture());
+    List<TransactWriteItemsRequest> requests = captor.getAllValues();
+    assertEquals(100, requests.get(0).transactItems().size());
+    assertEquals(49, requests.get(1).transactItems().size());
+    assertEquals(1, requests.get(2).transactItems().size());
+
+    Map<String, AttributeValue> last = requests.get(2).transactItems().get(0).put().item();
+    assertEquals("150", last.get(VERSION_ATTRIBUTE).n());
+    assertEquals("1", last.get(COMMIT_FROM_ATTRIBUTE).n());
+    assertTrue(
+        requests.stream()
+            .flatMap(request -> request.transactItems().stream())
+            .allMatch(
+                item ->
+                    item.put().item().get(COMMIT_ATTRIBUTE).equals(last.get(COMMIT_ATTRIBUTE))));
+  }
+
+  @Test
+  void when_saveEvents_chunk_conflicts_expect_rollback_and_ConcurrencyException() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    List<Event> events = new ArrayList<>();
+    for (int i = 1; i <= 150; i++) {
+      events.add(new Deposited(accountId, BigDecimal.ONE, new BigDecimal(i)));
+    }
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              TransactWriteItemsRequest request = invocation.getArgument(0);
+              if (request.transactItems().size() == 49) {
+                return CompletableFuture.failedFuture(
+                    TransactionCanceledException.builder()
+                        .cancellationReasons(
+                            CancellationReason.builder().code("ConditionalCheckFailed").build())
+                        .build());
+              }
+              return CompletableFuture.completedFuture(
+                  TransactWriteItemsResponse.builder().build());
+            });
+    when(dynamoDbAsyncClient.deleteItem(any(DeleteItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(DeleteItemResponse.builder().build()));
+
+    // Act
+    CompletableFuture<Void> result = eventStore.saveEvents(accountId, 0, events);
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof ConcurrencyException);
+    assertEquals(101, ((ConcurrencyException) exception.getCause()).getConflictingVersion());
+    verify(dynamoDbAsyncClient, times(2)).transactWriteItems(any(TransactWriteItemsRequest.class));
+    verify(dynamoDbAsyncClient, times(100)).deleteItem(any(DeleteItemRequest.class));
+  }
+
+  @Test
+  void when_saveEvents_last_chunk_fails_and_not_written_expect_rollback() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              TransactWriteItemsRequest request = invocation.getArgument(0);
+              if (request.transactItems().size() == 1) {
+                return CompletableFuture.failedFuture(
+                    InternalServerErrorException.builder().message("Mocked").build());
+              }
+              return CompletableFuture.completedFuture(
+                  TransactWriteItemsResponse.builder().build());
+            });
+    when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder().build()));
+    when(dynamoDbAsyncClient.deleteItem(any(DeleteItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(DeleteItemResponse.builder().build()));
+
+    // Act
+    CompletableFuture<Void> result = eventStore.saveEvents(accountId, 0, deposits(accountId, 150));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof TransactionFailedException);
+    assertFalse(exception.getCause() instanceof ConcurrencyException);
+    ArgumentCaptor<GetItemRequest> captor = ArgumentCaptor.forClass(GetItemRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).getItem(captor.capture());
+    assertTrue(captor.getValue().consistentRead());
+    assertEquals("150", captor.getValue().key().get(VERSION_ATTRIBUTE).n());
+    verify(dynamoDbAsyncClient, times(149)).deleteItem(any(DeleteItemRequest.class));
+  }
+
+  @Test
+  void when_saveEvents_last_chunk_fails_but_written_expect_success() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    List<Map<String, AttributeValue>> lastItems = new ArrayList<>();
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              TransactWriteItemsRequest request = invocation.getArgument(0);
+              if (request.transactItems().size() == 1) {
+                // The write lands but its response is lost.
+                lastItems.add(request.transactItems().get(0).put().item());
+                return CompletableFuture.failedFuture(
+                    InternalServerErrorException.builder().message("Mocked").build());
+              }
+              return CompletableFuture.completedFuture(
+                  TransactWriteItemsResponse.builder().build());
+            });
+    when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class)))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.completedFuture(
+                    GetItemResponse.builder().item(lastItems.get(0)).build()));
+
+    // Act
+    eventStore.saveEvents(accountId, 0, deposits(accountId, 150)).join();
+
+    // Assert
+    verify(dynamoDbAsyncClient, never()).deleteItem(any(DeleteItemRequest.class));
+  }
+
+  @Test
+  void when_saveEvents_conflicts_with_abandoned_commit_expect_cleared() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                TransactionCanceledException.builder()
+                    .cancellationReasons(
+                        CancellationReason.builder().code("ConditionalCheckFailed").build())
+                    .build()));
+    // The writer of a chunked commit died after writing its chunks, long ago.
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                QueryResponse.builder()
+                    .items(pendingCommit(accountId, 2, 3, Instant.EPOCH.toEpochMilli()))
+                    .build()));
+    when(dynamoDbAsyncClient.deleteItem(any(DeleteItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(DeleteItemResponse.builder().build()));
+
+    // Act
+    CompletableFuture<Void> result =
+        eventStore.saveEvents(
+            accountId, 1, List.of(new Deposited(accountId, BigDecimal.ONE, BigDecimal.ONE)));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof ConcurrencyException);
+    ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).query(captor.capture());
+    assertEquals("2", captor.getValue().expressionAttributeValues().get(":fromVersion").n());
+    verify(dynamoDbAsyncClient, times(3)).deleteItem(any(DeleteItemRequest.class));
+  }
+
+  @Test
+  void when_saveEvents_conflicts_with_recent_commit_expect_kept() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                TransactionCanceledException.builder()
+                    .cancellationReasons(
+                        CancellationReason.builder().code("ConditionalCheckFailed").build())
+                    .build()));
+    // Another writer is still writing the chunks of its commit.
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                QueryResponse.builder()
+                    .items(pendingCommit(accountId, 2, 3, System.currentTimeMillis()))
+                    .build()));
+
+    // Act
+    CompletableFuture<Void> result =
+        eventStore.saveEvents(
+            accountId, 1, List.of(new Deposited(accountId, BigDecimal.ONE, BigDecimal.ONE)));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof ConcurrencyException);
+    verify(dynamoDbAsyncClient, never()).deleteItem(any(DeleteItemRequest.class));
+  }
+
+  private static List<Event> deposits(UUID accountId, int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      events.add(new Deposited(accountId, BigDecimal.ONE, new BigDecimal(i)));
+    }
+    return events;
+  }
+
+  private List<Map<String, AttributeValue>> pendingCommit(
+      UUID accountId, long fromVersion, int count, long started) {
+    List<Map<String, AttributeValue>> items = new ArrayList<>();
+    for (long version = fromVersion; version < fromVersion + count; version++) {
+      Map<String, AttributeValue> item =
+          eventItem(accountId, version, new Deposited(accountId, BigDecimal.ONE, BigDecimal.ONE));
+      item.put(COMMIT_ATTRIBUTE, AttributeValue.builder().s("abandoned").build());
+      item.put(
+          COMMIT_STARTED_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(started)).build());
+      items.add(item);
+    }
+    return items;
+  }
+
+  @Test
+  void when_getEvents_incomplete_chunked_commit_expect_hidden() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    AttributeValue complete = AttributeValue.builder().s("complete").build();
+    AttributeValue pending = AttributeValue.builder().s("pending").build();
+
+    List<Map<String, AttributeValue>> items = new ArrayList<>();
+    items.add(eventItem(accountId, 1, new AccountCreated(accountId, "John", "Doe")));
+    for (int version = 2; version <= 5; version++) {
+      Map<String, AttributeValue> item =
+          eventItem(
+              accountId,
+              version,
+              new Deposited(accountId, BigDecimal.ONE, new BigDecimal(version - 1)));
+      item.put(COMMIT_ATTRIBUTE, version <= 3 ? complete : pending);
+      items.add(item);
+    }
+    items.get(2).put(COMMIT_FROM_ATTRIBUTE, AttributeValue.builder().n("2").build());
+
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(QueryResponse.builder().items(items).build()));
+
+    // Act
+    List<Event> events = eventStore.getEvents(accountId).join();
+
+    // Assert
+    assertEquals(3, events.size());
+    assertEquals(new BigDecimal(2), ((Deposited) events.get(2)).getNewBalance());
+  }
+
+  private Map<String, AttributeValue> eventItem(UUID accountId, long version, Event event) {
+    Map<String, AttributeValue> item = new HashMap<>();
+    item.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    item.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(version)).build());
+    item.put(EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(event)).build());
+    item.put(KIND_ATTRIBUTE, AttributeValue.builder().s(event.getClass().getName()).build());
+    return item;
+  }
+
+  @Test
+  void when_getLatestEvent_expect_reverse_query_of_one_item() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    Deposited deposited = new Deposited(accountId, new BigDecimal(100), new BigDecimal(300));
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                QueryResponse.builder().items(eventItem(accountId, 42, deposited)).build()));
+
+    // Act
+    EventRecord latest = eventStore.getLatestEvent(accountId).join();
+
+    // Assert
+    ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).query(captor.capture());
+    assertFalse(captor.getValue().scanIndexForward());
+    assertEquals(1, captor.getValue().limit());
+    assertEquals(42, latest.getVersion());
+    assertEquals(new BigDecimal(300), ((Deposited) latest.getEvent()).getNewBalance());
+  }
+
   @Test
   void when_getEvents_expect_success() {
     // Arrange
@@ -145,6 +666,303 @@ class DynamoDbEventStoreTest {
     assertEquals(Deposited.class, events.get(1).getClass());
   }
 
+  @Test
+  void when_getEvents_with_streaming_serializer_expect_events_written_by_gson() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    Deposited deposited = new Deposited(accountId, new BigDecimal(100), new BigDecimal(100));
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore =
+        new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, new StreamingJsonEventSerializer());
+
+    Map<String, AttributeValue> depositedMap = new HashMap<>();
+    depositedMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    depositedMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(1)).build());
+    depositedMap.put(EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(deposited)).build());
+    depositedMap.put(KIND_ATTRIBUTE, AttributeValue.builder().s(Deposited.class.getName()).build());
+
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(QueryResponse.builder().items(depositedMap).build()));
+
+    // Act
+    List<Event> events = eventStore.getEvents(accountId).join();
+
+    // Assert
+    assertEquals(1, events.size());
+    Deposited restored = (Deposited) events.get(0);
+    assertEquals(deposited.getTransactionId(), restored.getTransactionId());
+    assertEquals(deposited.getDate(), restored.getDate());
+    assertEquals(deposited.getNewBalance(), restored.getNewBalance());
+  }
+
+  @Test
+  void when_saveEvents_with_binary_serializer_expect_binary_attribute() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    Deposited deposited = new Deposited(accountId, new BigDecimal(100), new BigDecimal(100));
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    BinaryEventSerializer serializer = new BinaryEventSerializer();
+    DynamoDbEventStore eventStore =
+        new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+    ArgumentCaptor<TransactWriteItemsRequest> requestCaptor =
+        ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+
+    when(dynamoDbAsyncClient.transactWriteItems(requestCaptor.capture()))
+        .thenReturn(
+            CompletableFuture.completedFuture(TransactWriteItemsResponse.builder().build()));
+
+    // Act
+    eventStore.saveEvents(accountId, 0, List.of(deposited)).join();
+
+    // Assert
+    AttributeValue payload =
+        requestCaptor.getValue().transactItems().get(0).put().item().get(EVENT_ATTRIBUTE);
+    assertNull(payload.s());
+    Deposited restored = serializer.deserialize(payload.b().asByteArray(), Deposited.class);
+    assertEquals(deposited.getTransactionId(), restored.getTransactionId());
+    assertEquals(deposited.getNewBalance(), restored.getNewBalance());
+  }
+
+  @Test
+  void when_getEvents_json_and_binary_items_expect_both_read() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    AccountCreated accountCreated = new AccountCreated(accountId, "John", "Doe");
+    Deposited deposited = new Deposited(accountId, new BigDecimal(100), new BigDecimal(100));
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    BinaryEventSerializer serializer = new BinaryEventSerializer();
+    DynamoDbEventStore eventStore =
+        new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, serializer);
+
+    Map<String, AttributeValue> accountCreatedMap = new HashMap<>();
+    accountCreatedMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    accountCreatedMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(1)).build());
+    accountCreatedMap.put(
+        EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(accountCreated)).build());
+    accountCreatedMap.put(
+        KIND_ATTRIBUTE, AttributeValue.builder().s(AccountCreated.class.getName()).build());
+
+    Map<String, AttributeValue> depositedMap = new HashMap<>();
+    depositedMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    depositedMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(2)).build());
+    depositedMap.put(
+        EVENT_ATTRIBUTE,
+        AttributeValue.builder()
+            .b(SdkBytes.fromByteArray(serializer.serialize(deposited)))
+            .build());
+    depositedMap.put(KIND_ATTRIBUTE, AttributeValue.builder().s(Deposited.class.getName()).build());
+
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                QueryResponse.builder().items(accountCreatedMap, depositedMap).build()));
+
+    // Act
+    List<Event> events = eventStore.getEvents(accountId).join();
+
+    // Assert
+    assertEquals(2, events.size());
+    assertEquals("John", ((AccountCreated) events.get(0)).getFirstName());
+    assertEquals(deposited.getTransactionId(), ((Deposited) events.get(1)).getTransactionId());
+  }
+
+  @Test
+  void when_getEvents_multiple_pages_expect_all_events() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    AccountCreated accountCreated = new AccountCreated(accountId, "John", "Doe");
+    Deposited deposited = new Deposited(accountId, new BigDecimal(100), new BigDecimal(100));
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    Map<String, AttributeValue> accountCreatedMap = new HashMap<>();
+    accountCreatedMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    accountCreatedMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(1)).build());
+    accountCreatedMap.put(
+        EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(accountCreated)).build());
+    accountCreatedMap.put(
+        KIND_ATTRIBUTE, AttributeValue.builder().s(AccountCreated.class.getName()).build());
+
+    Map<String, AttributeValue> depositedMap = new HashMap<>();
+    depositedMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    depositedMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(2)).build());
+    depositedMap.put(EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(deposited)).build());
+    depositedMap.put(KIND_ATTRIBUTE, AttributeValue.builder().s(Deposited.class.getName()).build());
+
+    Map<String, AttributeValue> lastEvaluatedKey = new HashMap<>();
+    lastEvaluatedKey.put(ID_ATTRIBUTE, accountCreatedMap.get(ID_ATTRIBUTE));
+    lastEvaluatedKey.put(VERSION_ATTRIBUTE, accountCreatedMap.get(VERSION_ATTRIBUTE));
+
+    QueryResponse firstPage =
+        QueryResponse.builder().items(accountCreatedMap).lastEvaluatedKey(lastEvaluatedKey).build();
+    QueryResponse secondPage = QueryResponse.builder().items(depositedMap).build();
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(firstPage))
+        .thenReturn(CompletableFuture.completedFuture(secondPage));
+
+    // Act
+    List<Event> events = eventStore.getEvents(accountId).join();
+
+    // Assert
+    ArgumentCaptor<QueryRequest> queryRequestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(dynamoDbAsyncClient, times(2)).query(queryRequestCaptor.capture());
+    assertFalse(queryRequestCaptor.getAllValues().get(0).hasExclusiveStartKey());
+    assertEquals(lastEvaluatedKey, queryRequestCaptor.getAllValues().get(1).exclusiveStartKey());
+    assertEquals(2, events.size());
+    assertEquals(AccountCreated.class, events.get(0).getClass());
+    assertEquals(Deposited.class, events.get(1).getClass());
+  }
+
+  @Test
+  void when_streamEvents_expect_page_per_query() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    AccountCreated accountCreated = new AccountCreated(accountId, "John", "Doe");
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    Map<String, AttributeValue> accountCreatedMap = new HashMap<>();
+    accountCreatedMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    accountCreatedMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(1)).build());
+    accountCreatedMap.put(
+        EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(accountCreated)).build());
+    accountCreatedMap.put(
+        KIND_ATTRIBUTE, AttributeValue.builder().s(AccountCreated.class.getName()).build());
+
+    QueryResponse firstPage =
+        QueryResponse.builder()
+            .items(accountCreatedMap)
+            .lastEvaluatedKey(Map.of(ID_ATTRIBUTE, accountCreatedMap.get(ID_ATTRIBUTE)))
+            .build();
+    QueryResponse secondPage = QueryResponse.builder().items(accountCreatedMap).build();
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(firstPage))
+        .thenReturn(CompletableFuture.completedFuture(secondPage));
+
+    List<List<Event>> pages = new ArrayList<>();
+
+    // Act
+    eventStore.streamEvents(accountId, pages::add).join();
+
+    // Assert
+    assertEquals(2, pages.size());
+    assertEquals(1, pages.get(0).size());
+    assertEquals(1, pages.get(1).size());
+  }
+
+  @Test
+  void when_streamEvents_fromVersion_expect_version_condition() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(QueryResponse.builder().build()));
+    List<List<Event>> pages = new ArrayList<>();
+
+    // Act
+    eventStore.streamEvents(accountId, 11, pages::add).join();
+
+    // Assert
+    ArgumentCaptor<QueryRequest> queryRequestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).query(queryRequestCaptor.capture());
+    QueryRequest queryRequest = queryRequestCaptor.getValue();
+    assertEquals("#id = :id AND #version >= :fromVersion", queryRequest.keyConditionExpression());
+    assertEquals("11", queryRequest.expressionAttributeValues().get(":fromVersion").n());
+    assertTrue(pages.isEmpty());
+  }
+
+  @Test
+  void when_getEvents_range_expect_between_condition_and_limit() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    Deposited deposited = new Deposited(accountId, new BigDecimal(100), new BigDecimal(100));
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    Map<String, AttributeValue> depositedMap = new HashMap<>();
+    depositedMap.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    depositedMap.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(5)).build());
+    depositedMap.put(EVENT_ATTRIBUTE, AttributeValue.builder().s(gson.toJson(deposited)).build());
+    depositedMap.put(KIND_ATTRIBUTE, AttributeValue.builder().s(Deposited.class.getName()).build());
+
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                QueryResponse.builder()
+                    .items(depositedMap)
+                    .lastEvaluatedKey(
+                        Map.of(VERSION_ATTRIBUTE, depositedMap.get(VERSION_ATTRIBUTE)))
+                    .build()));
+
+    // Act
+    List<Event> events = eventStore.getEvents(accountId, 5, 10, 1).join();
+
+    // Assert
+    ArgumentCaptor<QueryRequest> queryRequestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).query(queryRequestCaptor.capture());
+    QueryRequest queryRequest = queryRequestCaptor.getValue();
+    assertEquals(
+        "#id = :id AND #version BETWEEN :fromVersion AND :toVersion",
+        queryRequest.keyConditionExpression());
+    assertEquals("5", queryRequest.expressionAttributeValues().get(":fromVersion").n());
+    assertEquals("10", queryRequest.expressionAttributeValues().get(":toVersion").n());
+    assertEquals(1, queryRequest.limit());
+    assertEquals(1, events.size());
+  }
+
+  @Test
+  void when_getEvents_toVersion_expect_upper_bound_condition() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(QueryResponse.builder().build()));
+
+    // Act
+    CompletableFuture<List<Event>> result =
+        eventStore.getEvents(UUID.randomUUID(), 1, 10, Integer.MAX_VALUE);
+
+    // Assert
+    assertThrows(CompletionException.class, result::join);
+    ArgumentCaptor<QueryRequest> queryRequestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).query(queryRequestCaptor.capture());
+    assertEquals(
+        "#id = :id AND #version <= :toVersion",
+        queryRequestCaptor.getValue().keyConditionExpression());
+    assertNull(queryRequestCaptor.getValue().limit());
+  }
+
+  @Test
+  void when_getEvents_fromVersion_empty_expect_empty_list() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbEventStore eventStore = new DynamoDbEventStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(QueryResponse.builder().build()));
+
+    // Act
+    List<Event> events = eventStore.getEvents(UUID.randomUUID(), 3).join();
+
+    // Assert
+    assertTrue(events.isEmpty());
+  }
+
+  @Test
+  void when_getEvents_invalid_range_expect_IllegalArgumentException() {
+    // Arrange
+    DynamoDbEventStore eventStore =
+        new DynamoDbEventStore(TABLE_NAME, mock(DynamoDbAsyncClient.class), gson);
+
+    // Act
+    CompletableFuture<List<Event>> events = eventStore.getEvents(UUID.randomUUID(), 5, 4, 1);
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, events::join);
+    assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+  }
+
   @Test
   void when_getEvents_expect_AggregateNotFoundException() {
     // Arrange
@@ -0,0 +1,194 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbSnapshotStore.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.domain.AccountSnapshot;
+import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import com.google.gson.Gson;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+class DynamoDbSnapshotStoreTest {
+
+  private static final String TABLE_NAME = "tableName";
+  private final Gson gson = new Gson();
+
+  @Test
+  void when_saveSnapshot_expect_conditional_put() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbSnapshotStore snapshotStore =
+        new DynamoDbSnapshotStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    AccountSnapshot state = new AccountSnapshot(accountId, new BigDecimal(100));
+    when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+
+    // Act
+    snapshotStore.saveSnapshot(new Snapshot(accountId, 10, state)).join();
+
+    // Assert
+    ArgumentCaptor<PutItemRequest> putItemRequestCaptor =
+        ArgumentCaptor.forClass(PutItemRequest.class);
+    verify(dynamoDbAsyncClient, times(1)).putItem(putItemRequestCaptor.capture());
+    PutItemRequest putItemRequest = putItemRequestCaptor.getValue();
+    assertEquals(TABLE_NAME, putItemRequest.tableName());
+    assertEquals(accountId.toString(), putItemRequest.item().get(ID_ATTRIBUTE).s());
+    assertEquals("10", putItemRequest.item().get(VERSION_ATTRIBUTE).n());
+    assertEquals(gson.toJson(state), putItemRequest.item().get(STATE_ATTRIBUTE).s());
+    assertEquals(AccountSnapshot.class.getName(), putItemRequest.item().get(KIND_ATTRIBUTE).s());
+    assertNotNull(putItemRequest.conditionExpression());
+  }
+
+  @Test
+  void when_saveSnapshot_newer_exists_expect_success() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbSnapshotStore snapshotStore =
+        new DynamoDbSnapshotStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(ConditionalCheckFailedException.builder().build()));
+
+    // Act & Assert
+    assertDoesNotThrow(
+        () ->
+            snapshotStore
+                .saveSnapshot(
+                    new Snapshot(
+                        accountId, 10, new AccountSnapshot(accountId, new BigDecimal(100))))
+                .join());
+  }
+
+  @Test
+  void when_getSnapshot_expect_success() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbSnapshotStore snapshotStore =
+        new DynamoDbSnapshotStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+
+    Map<String, AttributeValue> item = new HashMap<>();
+    item.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    item.put(VERSION_ATTRIBUTE, AttributeValue.builder().n("10").build());
+    item.put(
+        STATE_ATTRIBUTE,
+        AttributeValue.builder()
+            .s(gson.toJson(new AccountSnapshot(accountId, new BigDecimal(100))))
+            .build());
+    item.put(KIND_ATTRIBUTE, AttributeValue.builder().s(AccountSnapshot.class.getName()).build());
+    when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(GetItemResponse.builder().item(item).build()));
+
+    // Act
+    Optional<Snapshot> snapshot = snapshotStore.getSnapshot(accountId).join();
+
+    // Assert
+    assertTrue(snapshot.isPresent());
+    assertEquals(10, snapshot.get().getVersion());
+    AccountSnapshot state = (AccountSnapshot) snapshot.get().getState();
+    assertEquals(accountId, state.getAccountId());
+    assertEquals(new BigDecimal(100), state.getBalance());
+  }
+
+  @Test
+  void when_getSnapshots_unprocessed_expect_retried() {
+    // Arrange
+    UUID firstId = UUID.randomUUID();
+    UUID secondId = UUID.randomUUID();
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbSnapshotStore snapshotStore =
+        new DynamoDbSnapshotStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    Map<String, AttributeValue> secondKey =
+        Map.of(ID_ATTRIBUTE, AttributeValue.builder().s(secondId.toString()).build());
+    when(dynamoDbAsyncClient.batchGetItem(any(BatchGetItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                BatchGetItemResponse.builder()
+                    .responses(Map.of(TABLE_NAME, List.of(snapshotItem(firstId, 10))))
+                    .unprocessedKeys(
+                        Map.of(TABLE_NAME, KeysAndAttributes.builder().keys(secondKey).build()))
+                    .build()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                BatchGetItemResponse.builder()
+                    .responses(Map.of(TABLE_NAME, List.of(snapshotItem(secondId, 20))))
+                    .build()));
+
+    // Act
+    Map<UUID, Snapshot> snapshots =
+        snapshotStore.getSnapshots(List.of(firstId, secondId, UUID.randomUUID())).join();
+
+    // Assert
+    ArgumentCaptor<BatchGetItemRequest> captor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+    verify(dynamoDbAsyncClient, times(2)).batchGetItem(captor.capture());
+    assertEquals(3, captor.getAllValues().get(0).requestItems().get(TABLE_NAME).keys().size());
+    assertEquals(
+        List.of(secondKey), captor.getAllValues().get(1).requestItems().get(TABLE_NAME).keys());
+    assertEquals(2, snapshots.size());
+    assertEquals(10, snapshots.get(firstId).getVersion());
+    assertEquals(20, snapshots.get(secondId).getVersion());
+  }
+
+  @Test
+  void when_getSnapshot_missing_expect_empty() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbSnapshotStore snapshotStore =
+        new DynamoDbSnapshotStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder().build()));
+
+    // Act
+    Optional<Snapshot> snapshot = snapshotStore.getSnapshot(UUID.randomUUID()).join();
+
+    // Assert
+    assertTrue(snapshot.isEmpty());
+  }
+
+  @Test
+  void when_getSnapshot_expect_HydrationException() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DynamoDbSnapshotStore snapshotStore =
+        new DynamoDbSnapshotStore(TABLE_NAME, dynamoDbAsyncClient, gson);
+    when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                ProvisionedThroughputExceededException.builder().build()));
+
+    // Act & Assert
+    assertThrows(
+        HydrationException.class,
+        () -> {
+          try {
+            snapshotStore.getSnapshot(UUID.randomUUID()).join();
+          } catch (CompletionException x) {
+            throw x.getCause();
+          }
+        });
+  }
+
+  private Map<String, AttributeValue> snapshotItem(UUID accountId, int version) {
+    Map<String, AttributeValue> item = new HashMap<>();
+    item.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    item.put(VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(version)).build());
+    item.put(
+        STATE_ATTRIBUTE,
+        AttributeValue.builder()
+            .s(gson.toJson(new AccountSnapshot(accountId, new BigDecimal(100))))
+            .build());
+    item.put(KIND_ATTRIBUTE, AttributeValue.builder().s(AccountSnapshot.class.getName()).build());
+    return item;
+  }
+}
@@ -1,18 +1,26 @@
 package com.aws.cqrs.infrastructure.persistence;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.aws.cqrs.domain.Account;
 import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.AccountSnapshot;
 import com.aws.cqrs.domain.AggregateRootBase;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.domain.Snapshottable;
+import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
 import com.aws.cqrs.infrastructure.exceptions.HydrationException;
+import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
 import com.aws.cqrs.infrastructure.messaging.Event;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 
 class EventRepositoryTest {
@@ -46,26 +54,486 @@ class EventRepositoryTest {
     UUID accountId = UUID.randomUUID();
     List<Event> events = List.of(new AccountCreated(accountId, "John", "Smith"));
     EventStore eventStore = mock(EventStore.class);
+    EventRepository<Ledger> eventRepository = new EventRepository<>(Ledger.class, eventStore);
+    doAnswer(
+            invocation -> {
+              Consumer<List<Event>> pageConsumer = invocation.getArgument(1);
+              pageConsumer.accept(events);
+              return CompletableFuture.completedFuture(null);
+            })
+        .when(eventStore)
+        .streamEvents(eq(accountId), any());
+
+    // Act
+    Ledger result = eventRepository.getById(accountId).join();
+
+    // Assert
+    assertNotNull(result);
+    assertEquals(accountId, result.getId());
+    assertEquals(1, result.getExpectedVersion());
+    verify(eventStore, times(1)).streamEvents(eq(accountId), any());
+  }
+
+  @Test
+  void when_getById_state_carrying_expect_latest_event_only() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
     EventRepository<Account> eventRepository = new EventRepository<>(Account.class, eventStore);
-    when(eventStore.getEvents(accountId)).thenReturn(CompletableFuture.completedFuture(events));
+    when(eventStore.getLatestEvent(accountId))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new EventRecord(
+                    accountId,
+                    500,
+                    new Deposited(accountId, new BigDecimal(50), new BigDecimal(150)))));
+    when(eventStore.getEvents(accountId, 1, 1, 1))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                List.of(new AccountCreated(accountId, "John", "Smith"))));
 
     // Act
     Account result = eventRepository.getById(accountId).join();
 
     // Assert
-    assertNotNull(result);
-    verify(eventStore, times(1)).getEvents(accountId);
+    assertEquals(accountId, result.getId());
+    assertEquals(500, result.getExpectedVersion());
+    assertEquals(new BigDecimal(150), result.getSnapshot().getBalance());
+    verify(eventStore, never()).streamEvents(any(), anyLong(), any());
   }
 
   @Test
-  void when_getById_missing_constructor_expect_hydrationException() {
+  void when_getById_state_carrying_with_snapshot_expect_tail_only() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    SnapshotStore snapshotStore = new InMemorySnapshotStore();
+    snapshotStore
+        .saveSnapshot(
+            new Snapshot(accountId, 10, new AccountSnapshot(accountId, new BigDecimal(100))))
+        .join();
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, snapshotStore, 10);
+    List<Event> tail = List.of(new Deposited(accountId, new BigDecimal(50), new BigDecimal(150)));
+    doAnswer(
+            invocation -> {
+              Consumer<List<Event>> pageConsumer = invocation.getArgument(2);
+              pageConsumer.accept(tail);
+              return CompletableFuture.completedFuture(null);
+            })
+        .when(eventStore)
+        .streamEvents(eq(accountId), eq(11L), any());
+
+    // Act
+    Account result = eventRepository.getById(accountId).join();
+
+    // Assert
+    assertEquals(accountId, result.getId());
+    assertEquals(11, result.getExpectedVersion());
+    assertEquals(new BigDecimal(150), result.getSnapshot().getBalance());
+    verify(eventStore, never()).getLatestEvent(any());
+  }
+
+  @Test
+  void when_getById_multiple_pages_expect_all_applied() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    List<Event> firstPage = List.of(new AccountCreated(accountId, "John", "Smith"));
+    List<Event> secondPage =
+        List.of(new Deposited(accountId, new BigDecimal(100), new BigDecimal(100)));
+    EventStore eventStore = mock(EventStore.class);
+    EventRepository<Ledger> eventRepository = new EventRepository<>(Ledger.class, eventStore);
+    doAnswer(
+            invocation -> {
+              Consumer<List<Event>> pageConsumer = invocation.getArgument(1);
+              pageConsumer.accept(firstPage);
+              pageConsumer.accept(secondPage);
+              return CompletableFuture.completedFuture(null);
+            })
+        .when(eventStore)
+        .streamEvents(eq(accountId), any());
+
+    // Act
+    Ledger result = eventRepository.getById(accountId).join();
+
+    // Assert
+    assertEquals(accountId, result.getId());
+    assertEquals(2, result.getExpectedVersion());
+  }
+
+  @Test
+  void when_getById_with_snapshot_expect_tail_only() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    SnapshotStore snapshotStore = new InMemorySnapshotStore();
+    snapshotStore
+        .saveSnapshot(
+            new Snapshot(accountId, 10, new AccountSnapshot(accountId, new BigDecimal(100))))
+        .join();
+    EventRepository<Ledger> eventRepository =
+        new EventRepository<>(Ledger.class, eventStore, snapshotStore, 10);
+    List<Event> tail = List.of(new Deposited(accountId, new BigDecimal(50), new BigDecimal(150)));
+    doAnswer(
+            invocation -> {
+              Consumer<List<Event>> pageConsumer = invocation.getArgument(2);
+              pageConsumer.accept(tail);
+              return CompletableFuture.completedFuture(null);
+            })
+        .when(eventStore)
+        .streamEvents(eq(accountId), eq(11L), any());
+
+    // Act
+    Ledger result = eventRepository.getById(accountId).join();
+
+    // Assert
+    assertEquals(accountId, result.getId());
+    assertEquals(11, result.getExpectedVersion());
+    assertEquals(new BigDecimal(150), result.getSnapshot().getBalance());
+    verify(eventStore, times(1)).streamEvents(eq(accountId), eq(11L), any());
+  }
+
+  @Test
+  void when_getById_without_snapshot_expect_full_history() {
     // Arrange
     UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    EventRepository<Ledger> eventRepository =
+        new EventRepository<>(Ledger.class, eventStore, new InMemorySnapshotStore(), 10);
     List<Event> events = List.of(new AccountCreated(accountId, "John", "Smith"));
+    doAnswer(
+            invocation -> {
+              Consumer<List<Event>> pageConsumer = invocation.getArgument(2);
+              pageConsumer.accept(events);
+              return CompletableFuture.completedFuture(null);
+            })
+        .when(eventStore)
+        .streamEvents(eq(accountId), eq(1L), any());
+
+    // Act
+    Ledger result = eventRepository.getById(accountId).join();
+
+    // Assert
+    assertEquals(accountId, result.getId());
+    assertEquals(1, result.getExpectedVersion());
+  }
+
+  @Test
+  void when_getByIds_with_snapshots_expect_one_batch_read() {
+    // Arrange
+    EventStore eventStore = mock(EventStore.class);
+    SnapshotStore snapshotStore = spy(new InMemorySnapshotStore());
+    EventRepository<Ledger> eventRepository =
+        new EventRepository<>(Ledger.class, eventStore, snapshotStore, 10);
+    List<UUID> accountIds = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      UUID accountId = UUID.randomUUID();
+      accountIds.add(accountId);
+      snapshotStore
+          .saveSnapshot(new Snapshot(accountId, 10, new AccountSnapshot(accountId, BigDecimal.TEN)))
+          .join();
+    }
+    doReturn(CompletableFuture.completedFuture(null))
+        .when(eventStore)
+        .streamEvents(any(UUID.class), eq(11L), any());
+    List<Ledger> results = new ArrayList<>();
+
+    // Act
+    eventRepository.getByIds(accountIds, 4, results::add).join();
+
+    // Assert
+    assertEquals(20, results.size());
+    assertEquals(BigDecimal.TEN, results.get(0).getSnapshot().getBalance());
+    verify(snapshotStore, times(1)).getSnapshots(accountIds);
+    verify(eventStore, times(20)).streamEvents(any(UUID.class), eq(11L), any());
+  }
+
+  @Test
+  void when_getByIds_state_carrying_expect_snapshots_then_latest_event() {
+    // Arrange
+    UUID snapshotId = UUID.randomUUID();
+    UUID latestEventId = UUID.randomUUID();
+    List<UUID> accountIds = List.of(snapshotId, latestEventId);
+    EventStore eventStore = mock(EventStore.class);
+    SnapshotStore snapshotStore = spy(new InMemorySnapshotStore());
+    snapshotStore
+        .saveSnapshot(new Snapshot(snapshotId, 10, new AccountSnapshot(snapshotId, BigDecimal.TEN)))
+        .join();
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, snapshotStore, 10);
+    doReturn(CompletableFuture.completedFuture(null))
+        .when(eventStore)
+        .streamEvents(eq(snapshotId), eq(11L), any());
+    when(eventStore.getLatestEvent(latestEventId))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new EventRecord(
+                    latestEventId,
+                    5,
+                    new Deposited(latestEventId, new BigDecimal(50), new BigDecimal(150)))));
+    when(eventStore.getEvents(latestEventId, 1, 1, 1))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                List.of(new AccountCreated(latestEventId, "John", "Smith"))));
+    List<Account> results = new ArrayList<>();
+
+    // Act
+    eventRepository.getByIds(accountIds, 4, results::add).join();
+
+    // Assert
+    assertEquals(2, results.size());
+    assertEquals(
+        BigDecimal.TEN,
+        results.stream()
+            .filter(account -> account.getId().equals(snapshotId))
+            .findFirst()
+            .orElseThrow()
+            .getSnapshot()
+            .getBalance());
+    assertEquals(
+        new BigDecimal(150),
+        results.stream()
+            .filter(account -> account.getId().equals(latestEventId))
+            .findFirst()
+            .orElseThrow()
+            .getSnapshot()
+            .getBalance());
+    verify(snapshotStore, times(1)).getSnapshots(accountIds);
+    verify(eventStore, never()).getLatestEvent(snapshotId);
+    verify(eventStore, never()).streamEvents(eq(latestEventId), anyLong(), any());
+  }
+
+  @Test
+  void when_getByIds_fails_expect_failure() {
+    // Arrange
+    UUID missingId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    EventRepository<Ledger> eventRepository = new EventRepository<>(Ledger.class, eventStore);
+    doReturn(CompletableFuture.failedFuture(new AggregateNotFoundException(missingId)))
+        .when(eventStore)
+        .streamEvents(eq(missingId), any());
+    List<Ledger> results = new ArrayList<>();
+
+    // Act
+    CompletableFuture<Void> result = eventRepository.getByIds(List.of(missingId), 2, results::add);
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof AggregateNotFoundException);
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  void when_save_crosses_snapshot_frequency_expect_snapshot() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    SnapshotStore snapshotStore = new InMemorySnapshotStore();
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, snapshotStore, 2);
+    Account account = Account.create(accountId, "John", "Smith");
+    account.deposit(new BigDecimal(100));
+    when(eventStore.saveEvents(eq(accountId), eq(0L), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    eventRepository.save(account).join();
+
+    // Assert
+    Snapshot snapshot = snapshotStore.getSnapshot(accountId).join().orElseThrow();
+    assertEquals(2, snapshot.getVersion());
+    assertEquals(new BigDecimal(100), ((AccountSnapshot) snapshot.getState()).getBalance());
+  }
+
+  @Test
+  void when_save_below_snapshot_frequency_expect_no_snapshot() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    SnapshotStore snapshotStore = mock(SnapshotStore.class);
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, snapshotStore, 10);
+    Account account = Account.create(accountId, "John", "Smith");
+    when(eventStore.saveEvents(eq(accountId), eq(0L), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    eventRepository.save(account).join();
+
+    // Assert
+    verifyNoInteractions(snapshotStore);
+  }
+
+  @Test
+  void when_getById_cached_expect_tail_only() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    AggregateCache cache = new AggregateCache(10);
+    cache.put(new Snapshot(accountId, 3, new AccountSnapshot(accountId, new BigDecimal(100))));
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, null, 0, cache);
+    List<Event> tail = List.of(new Deposited(accountId, new BigDecimal(50), new BigDecimal(150)));
+    doAnswer(
+            invocation -> {
+              Consumer<List<Event>> pageConsumer = invocation.getArgument(2);
+              pageConsumer.accept(tail);
+              return CompletableFuture.completedFuture(null);
+            })
+        .when(eventStore)
+        .streamEvents(eq(accountId), eq(4L), any());
+
+    // Act
+    Account result = eventRepository.getById(accountId).join();
+
+    // Assert
+    assertEquals(4, result.getExpectedVersion());
+    assertEquals(new BigDecimal(150), result.getSnapshot().getBalance());
+    assertEquals(4, cache.get(accountId).getVersion());
+    verify(eventStore, times(1)).streamEvents(eq(accountId), eq(4L), any());
+  }
+
+  @Test
+  void when_save_expect_cached() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    AggregateCache cache = new AggregateCache(10);
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, null, 0, cache);
+    Account account = Account.create(accountId, "John", "Smith");
+    account.deposit(new BigDecimal(100));
+    when(eventStore.saveEvents(eq(accountId), eq(0L), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    eventRepository.save(account).join();
+
+    // Assert
+    Snapshot cached = cache.get(accountId);
+    assertEquals(2, cached.getVersion());
+    assertEquals(new BigDecimal(100), ((AccountSnapshot) cached.getState()).getBalance());
+  }
+
+  @Test
+  void when_save_fails_expect_cache_invalidated() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    AggregateCache cache = new AggregateCache(10);
+    cache.put(new Snapshot(accountId, 1, new AccountSnapshot(accountId, BigDecimal.ZERO)));
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, null, 0, cache);
+    Account account = new Account();
+    account.loadFromSnapshot(new AccountSnapshot(accountId, BigDecimal.ZERO), 1);
+    account.deposit(new BigDecimal(100));
+    when(eventStore.saveEvents(eq(accountId), eq(1L), any()))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                new TransactionFailedException(new RuntimeException("conflict"), accountId)));
+
+    // Act
+    CompletableFuture<Void> result = eventRepository.save(account);
+
+    // Assert
+    assertThrows(CompletionException.class, result::join);
+    assertNull(cache.get(accountId));
+    assertFalse(account.getUncommittedChanges().isEmpty());
+  }
+
+  @Test
+  void when_save_conflicts_expect_cache_kept() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    AggregateCache cache = new AggregateCache(10);
+    cache.put(new Snapshot(accountId, 1, new AccountSnapshot(accountId, BigDecimal.ZERO)));
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, null, 0, cache);
+    Account account = new Account();
+    account.loadFromSnapshot(new AccountSnapshot(accountId, BigDecimal.ZERO), 1);
+    account.deposit(new BigDecimal(100));
+    when(eventStore.saveEvents(eq(accountId), eq(1L), any()))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                new ConcurrencyException(new RuntimeException("conflict"), accountId, 1, 2)));
+
+    // Act
+    CompletableFuture<Void> result = eventRepository.save(account);
+
+    // Assert
+    assertThrows(CompletionException.class, result::join);
+    assertEquals(1, cache.get(accountId).getVersion());
+  }
+
+  @Test
+  void when_unitOfWork_crosses_snapshot_frequency_expect_snapshot_and_cached() {
+    // Arrange
+    UUID fromAccountId = UUID.randomUUID();
+    UUID toAccountId = UUID.randomUUID();
+    EventStore eventStore = new InMemoryEventStore();
+    SnapshotStore snapshotStore = new InMemorySnapshotStore();
+    AggregateCache cache = new AggregateCache(10);
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, snapshotStore, 3, cache);
+    Account from = Account.create(fromAccountId, "John", "Smith");
+    from.deposit(new BigDecimal(100));
+    Account to = Account.create(toAccountId, "Jane", "Smith");
+    eventRepository.save(from).join();
+    eventRepository.save(to).join();
+    from.withdraw(new BigDecimal(40));
+    to.deposit(new BigDecimal(40));
+    UnitOfWork unitOfWork = eventRepository.newUnitOfWork();
+    unitOfWork.register(from);
+    unitOfWork.register(to);
+
+    // Act
+    unitOfWork.commit().join();
+
+    // Assert
+    Snapshot snapshot = snapshotStore.getSnapshot(fromAccountId).join().orElseThrow();
+    assertEquals(3, snapshot.getVersion());
+    assertEquals(new BigDecimal(60), ((AccountSnapshot) snapshot.getState()).getBalance());
+    assertTrue(snapshotStore.getSnapshot(toAccountId).join().isEmpty());
+    assertEquals(3, cache.get(fromAccountId).getVersion());
+    assertEquals(2, cache.get(toAccountId).getVersion());
+  }
+
+  @Test
+  void when_unitOfWork_fails_expect_cache_invalidated() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventStore eventStore = mock(EventStore.class);
+    AggregateCache cache = new AggregateCache(10);
+    cache.put(new Snapshot(accountId, 1, new AccountSnapshot(accountId, BigDecimal.ZERO)));
+    EventRepository<Account> eventRepository =
+        new EventRepository<>(Account.class, eventStore, null, 0, cache);
+    Account account = new Account();
+    account.loadFromSnapshot(new AccountSnapshot(accountId, BigDecimal.ZERO), 1);
+    account.deposit(new BigDecimal(100));
+    when(eventStore.saveEvents(anyList()))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                new TransactionFailedException(new RuntimeException("timeout"), accountId)));
+    UnitOfWork unitOfWork = eventRepository.newUnitOfWork();
+    unitOfWork.register(account);
+
+    // Act
+    CompletableFuture<Void> result = unitOfWork.commit();
+
+    // Assert
+    assertThrows(CompletionException.class, result::join);
+    assertNull(cache.get(accountId));
+    assertFalse(account.getUncommittedChanges().isEmpty());
+  }
+
+  @Test
+  void when_getById_missing_constructor_expect_hydrationException() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
     EventStore eventStore = mock(EventStore.class);
     EventRepository<InvalidConstructor> eventRepository =
         new EventRepository<>(InvalidConstructor.class, eventStore);
-    when(eventStore.getEvents(accountId)).thenReturn(CompletableFuture.completedFuture(events));
 
     // Act
     assertThrows(
@@ -77,7 +545,35 @@ class EventRepositoryTest {
             throw x.getCause();
           }
         });
+    verifyNoInteractions(eventStore);
   }
 
   private static class InvalidConstructor extends AggregateRootBase {}
+
+  /** Snapshottable aggregate whose events don't carry its state, so its history is replayed. */
+  public static class Ledger extends AggregateRootBase implements Snapshottable<AccountSnapshot> {
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    public Ledger() {}
+
+    @Override
+    public AccountSnapshot getSnapshot() {
+      return new AccountSnapshot(id, balance);
+    }
+
+    @Override
+    public void loadFromSnapshot(AccountSnapshot snapshot, int version) {
+      id = snapshot.getAccountId();
+      balance = snapshot.getBalance();
+      setExpectedVersion(version);
+    }
+
+    void apply(AccountCreated event) {
+      id = event.getAccountId();
+    }
+
+    void apply(Deposited event) {
+      balance = event.getNewBalance();
+    }
+  }
 }
@@ -0,0 +1,86 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class HedgingPolicyTest {
+
+  @Test
+  void when_request_slower_than_percentile_expect_hedge_used() throws Exception {
+    // Arrange
+    HedgingPolicy policy = warmedUp(HedgingPolicy.DEFAULT_BUDGET);
+    AtomicInteger calls = new AtomicInteger();
+
+    // Act
+    String result =
+        policy
+            .execute(
+                () ->
+                    calls.incrementAndGet() == 1
+                        ? new CompletableFuture<String>()
+                        : CompletableFuture.completedFuture("hedge"))
+            .get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertEquals("hedge", result);
+    assertEquals(2, calls.get());
+    assertEquals(1, policy.getHedgesSent());
+    assertEquals(1, policy.getHedgesWon());
+  }
+
+  @Test
+  void when_budget_spent_expect_no_hedge() throws Exception {
+    // Arrange
+    HedgingPolicy policy = warmedUp(0.01);
+    AtomicInteger calls = new AtomicInteger();
+
+    // Act
+    policy.execute(
+        () -> {
+          calls.incrementAndGet();
+          return new CompletableFuture<String>();
+        });
+    policy.execute(
+        () -> {
+          calls.incrementAndGet();
+          return new CompletableFuture<String>();
+        });
+    Thread.sleep(200);
+
+    // Assert
+    assertEquals(3, calls.get());
+    assertEquals(1, policy.getHedgesSent());
+  }
+
+  @Test
+  void when_request_fails_before_hedge_expect_failure() {
+    // Arrange
+    HedgingPolicy policy = new HedgingPolicy(0.95, HedgingPolicy.DEFAULT_BUDGET);
+
+    // Act
+    CompletableFuture<String> result =
+        policy.execute(() -> CompletableFuture.failedFuture(new IllegalStateException()));
+
+    // Assert
+    ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+    assertInstanceOf(IllegalStateException.class, exception.getCause());
+    assertEquals(0, policy.getHedgesSent());
+    assertEquals(1, policy.getResponseLatencies().getCount());
+  }
+
+  private static HedgingPolicy warmedUp(double budget) {
+    HedgingPolicy policy = new HedgingPolicy(0.95, budget);
+
+    for (int i = 0; i < HedgingPolicy.MIN_SAMPLES; i++) {
+      policy.execute(() -> CompletableFuture.completedFuture("fast")).join();
+    }
+
+    assertTrue(policy.getHedgeDelay() > 0);
+    return policy;
+  }
+}
@@ -0,0 +1,234 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.domain.Account;
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InMemoryEventStoreTest {
+
+  @Test
+  void when_getEvents_range_expect_events_in_range() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    InMemoryEventStore eventStore = new InMemoryEventStore();
+    eventStore
+        .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+        .join();
+    for (int version = 1; version < 10; version++) {
+      eventStore
+          .saveEvents(
+              accountId,
+              version,
+              List.of(new Deposited(accountId, BigDecimal.ONE, new BigDecimal(version))))
+          .join();
+    }
+
+    // Act
+    List<Event> events = eventStore.getEvents(accountId, 3, 8, 4).join();
+    List<Event> tail = eventStore.getEvents(accountId, 11).join();
+
+    // Assert
+    assertEquals(4, events.size());
+    assertEquals(new BigDecimal(2), ((Deposited) events.get(0)).getNewBalance());
+    assertEquals(new BigDecimal(5), ((Deposited) events.get(3)).getNewBalance());
+    assertTrue(tail.isEmpty());
+  }
+
+  @Test
+  void when_getEvents_invalid_range_expect_failed_future() {
+    // Arrange
+    InMemoryEventStore eventStore = new InMemoryEventStore();
+
+    // Act
+    CompletableFuture<List<Event>> events = eventStore.getEvents(UUID.randomUUID(), 5, 4, 1);
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, events::join);
+    assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+  }
+
+  @Test
+  void when_saveEvents_wrong_version_expect_ConcurrencyException() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    InMemoryEventStore eventStore = new InMemoryEventStore();
+    eventStore
+        .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+        .join();
+
+    // Act
+    CompletableFuture<Void> result =
+        eventStore.saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "Jane", "Doe")));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof ConcurrencyException);
+    assertEquals(1, eventStore.getEvents(accountId).join().size());
+  }
+
+  @Test
+  void when_saveEvents_several_aggregates_expect_all_saved_and_fed_together() {
+    // Arrange
+    UUID fromAccountId = UUID.randomUUID();
+    UUID toAccountId = UUID.randomUUID();
+    InMemoryEventStore eventStore = new InMemoryEventStore();
+    eventStore
+        .saveEvents(fromAccountId, 0, List.of(new AccountCreated(fromAccountId, "John", "Doe")))
+        .join();
+
+    // Act
+    eventStore
+        .saveEvents(
+            List.of(
+                new AggregateChanges(
+                    fromAccountId,
+                    1,
+                    List.of(new Deposited(fromAccountId, BigDecimal.ONE, BigDecimal.ONE))),
+                new AggregateChanges(
+                    toAccountId, 0, List.of(new AccountCreated(toAccountId, "Jane", "Doe")))))
+        .join();
+
+    // Assert
+    assertEquals(2, eventStore.getEvents(fromAccountId).join().size());
+    assertEquals(1, eventStore.getEvents(toAccountId).join().size());
+    List<EventRecord> feed = eventStore.readFeed(1, 10);
+    assertEquals(2, feed.size());
+    assertEquals(fromAccountId, feed.get(0).getAggregateId());
+    assertEquals(toAccountId, feed.get(1).getAggregateId());
+  }
+
+  @Test
+  void when_saveEvents_several_aggregates_conflict_expect_none_saved() {
+    // Arrange
+    UUID fromAccountId = UUID.randomUUID();
+    UUID toAccountId = UUID.randomUUID();
+    InMemoryEventStore eventStore = new InMemoryEventStore();
+    eventStore
+        .saveEvents(toAccountId, 0, List.of(new AccountCreated(toAccountId, "Jane", "Doe")))
+        .join();
+
+    // Act
+    CompletableFuture<Void> result =
+        eventStore.saveEvents(
+            List.of(
+                new AggregateChanges(
+                    fromAccountId, 0, List.of(new AccountCreated(fromAccountId, "John", "Doe"))),
+                new AggregateChanges(
+                    toAccountId, 0, List.of(new AccountCreated(toAccountId, "Jane", "Doe")))));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof ConcurrencyException);
+    assertEquals(1, eventStore.getFeedPosition());
+    eventStore
+        .saveEvents(fromAccountId, 0, List.of(new AccountCreated(fromAccountId, "John", "Doe")))
+        .join();
+    assertEquals(1, eventStore.getEvents(fromAccountId).join().size());
+  }
+
+  @Test
+  void when_getEvents_unknown_aggregate_expect_AggregateNotFoundException() {
+    // Arrange
+    InMemoryEventStore eventStore = new InMemoryEventStore();
+
+    // Act
+    CompletableFuture<List<Event>> result = eventStore.getEvents(UUID.randomUUID());
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof AggregateNotFoundException);
+  }
+
+  @Test
+  void when_saveEvents_concurrently_expect_one_writer_per_version_and_feed_in_order()
+      throws InterruptedException {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    InMemoryEventStore eventStore = new InMemoryEventStore();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    AtomicInteger conflicts = new AtomicInteger();
+
+    // Act
+    for (int writer = 0; writer < 8; writer++) {
+      executor.execute(
+          () -> {
+            for (int i = 0; i < 500; i++) {
+              long version = eventStore.getFeedPosition();
+              try {
+                eventStore
+                    .saveEvents(
+                        accountId,
+                        version,
+                        List.of(new Deposited(accountId, BigDecimal.ONE, BigDecimal.ZERO)))
+                    .join();
+              } catch (CompletionException e) {
+                conflicts.incrementAndGet();
+              }
+            }
+          });
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+
+    // Assert
+    long size = eventStore.getFeedPosition();
+    assertEquals(8 * 500, size + conflicts.get());
+    assertEquals(size, eventStore.getEvents(accountId).join().size());
+    List<EventRecord> feed = eventStore.readFeed(0, Integer.MAX_VALUE);
+    for (int i = 0; i < feed.size(); i++) {
+      assertEquals(i + 1, feed.get(i).getVersion());
+    }
+  }
+
+  @Test
+  void when_streamEvents_large_stream_expect_pages() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    InMemoryEventStore eventStore = new InMemoryEventStore();
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < InMemoryEventStore.PAGE_SIZE + 10; i++) {
+      events.add(new Deposited(accountId, BigDecimal.ONE, new BigDecimal(i + 1)));
+    }
+    eventStore.saveEvents(accountId, 0, events).join();
+    List<Integer> pageSizes = new ArrayList<>();
+
+    // Act
+    eventStore.streamEvents(accountId, page -> pageSizes.add(page.size())).join();
+
+    // Assert
+    assertEquals(List.of(InMemoryEventStore.PAGE_SIZE, 10), pageSizes);
+  }
+
+  @Test
+  void when_used_by_repository_expect_account_round_trip() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    EventRepository<Account> repository =
+        new EventRepository<>(Account.class, new InMemoryEventStore());
+    Account account = Account.create(accountId, "John", "Doe");
+    account.deposit(new BigDecimal(100));
+
+    // Act
+    repository.save(account).join();
+    Account loaded = repository.getById(accountId).join();
+
+    // Assert
+    assertEquals(new BigDecimal(100), loaded.getSnapshot().getBalance());
+  }
+}
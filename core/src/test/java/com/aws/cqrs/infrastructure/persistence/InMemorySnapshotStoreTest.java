@@ -0,0 +1,61 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.domain.AccountSnapshot;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class InMemorySnapshotStoreTest {
+
+  @Test
+  void when_getSnapshot_missing_expect_empty() {
+    // Arrange
+    InMemorySnapshotStore snapshotStore = new InMemorySnapshotStore();
+
+    // Act
+    Optional<Snapshot> snapshot = snapshotStore.getSnapshot(UUID.randomUUID()).join();
+
+    // Assert
+    assertTrue(snapshot.isEmpty());
+  }
+
+  @Test
+  void when_saveSnapshot_expect_latest() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    InMemorySnapshotStore snapshotStore = new InMemorySnapshotStore();
+    AccountSnapshot state = new AccountSnapshot(accountId, new BigDecimal(100));
+
+    // Act
+    snapshotStore.saveSnapshot(new Snapshot(accountId, 10, state)).join();
+    Optional<Snapshot> snapshot = snapshotStore.getSnapshot(accountId).join();
+
+    // Assert
+    assertTrue(snapshot.isPresent());
+    assertEquals(10, snapshot.get().getVersion());
+    assertSame(state, snapshot.get().getState());
+  }
+
+  @Test
+  void when_saveSnapshot_older_expect_ignored() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    InMemorySnapshotStore snapshotStore = new InMemorySnapshotStore();
+    snapshotStore
+        .saveSnapshot(
+            new Snapshot(accountId, 20, new AccountSnapshot(accountId, new BigDecimal(200))))
+        .join();
+
+    // Act
+    snapshotStore
+        .saveSnapshot(
+            new Snapshot(accountId, 10, new AccountSnapshot(accountId, new BigDecimal(100))))
+        .join();
+
+    // Assert
+    assertEquals(20, snapshotStore.getSnapshot(accountId).join().get().getVersion());
+  }
+}
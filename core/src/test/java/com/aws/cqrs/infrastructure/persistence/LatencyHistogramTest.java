@@ -0,0 +1,44 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void when_percentile_expect_within_bucket_precision() {
+    // Arrange
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    // Act
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+
+    // Assert
+    long p95 = histogram.getPercentile(0.95);
+    assertTrue(p95 >= TimeUnit.MILLISECONDS.toNanos(95), "p95 was " + p95);
+    assertTrue(p95 <= TimeUnit.MILLISECONDS.toNanos(95) * 11 / 10, "p95 was " + p95);
+    assertEquals(0, new LatencyHistogram().getPercentile(0.95));
+  }
+
+  @Test
+  void when_decayed_expect_recent_latencies_dominate() {
+    // Arrange
+    LatencyHistogram histogram = new LatencyHistogram(100);
+    for (int i = 0; i < 100; i++) {
+      histogram.record(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    // Act
+    for (int i = 0; i < 500; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    // Assert
+    assertTrue(histogram.getPercentile(0.95) < TimeUnit.MILLISECONDS.toNanos(2));
+    assertTrue(histogram.getCount() < 600);
+  }
+}
@@ -0,0 +1,107 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.infrastructure.exceptions.ThrottledException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+
+class LimitedDynamoDbAsyncClientTest {
+
+  @Test
+  void when_limit_reached_expect_queued_then_shed() {
+    // Arrange
+    DynamoDbAsyncClient delegate = mock(DynamoDbAsyncClient.class);
+    CompletableFuture<QueryResponse> pending = new CompletableFuture<>();
+    when(delegate.query(any(QueryRequest.class))).thenReturn(pending);
+    LimitedDynamoDbAsyncClient client =
+        new LimitedDynamoDbAsyncClient(delegate, 1, 1, 10, 1, LimitListener.NONE);
+    QueryRequest request = QueryRequest.builder().tableName("events").build();
+
+    // Act
+    CompletableFuture<QueryResponse> first = client.query(request);
+    CompletableFuture<QueryResponse> queued = client.query(request);
+    CompletableFuture<QueryResponse> shed = client.query(request);
+
+    // Assert
+    verify(delegate, times(1)).query(request);
+    CompletionException exception = assertThrows(CompletionException.class, shed::join);
+    assertInstanceOf(ThrottledException.class, exception.getCause());
+
+    pending.complete(QueryResponse.builder().build());
+    verify(delegate, times(2)).query(request);
+    assertTrue(first.isDone());
+    assertTrue(queued.isDone());
+  }
+
+  @Test
+  void when_throttled_expect_limit_halved_and_reported() {
+    // Arrange
+    DynamoDbAsyncClient delegate = mock(DynamoDbAsyncClient.class);
+    when(delegate.putItem(any(PutItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                ProvisionedThroughputExceededException.builder().build()));
+    List<String> changes = new ArrayList<>();
+    LimitedDynamoDbAsyncClient client =
+        new LimitedDynamoDbAsyncClient(
+            delegate, 20, 1, 100, 10, (tableName, limit) -> changes.add(tableName + "=" + limit));
+
+    // Act
+    CompletableFuture<PutItemResponse> result =
+        client.putItem(PutItemRequest.builder().tableName("events").build());
+
+    // Assert
+    assertThrows(CompletionException.class, result::join);
+    assertEquals(10, client.getLimit("events"));
+    assertEquals(20, client.getLimit("snapshots"));
+    assertEquals(List.of("events=10"), changes);
+  }
+
+  @Test
+  void when_transact_write_expect_limited_by_first_table() {
+    // Arrange
+    DynamoDbAsyncClient delegate = mock(DynamoDbAsyncClient.class);
+    when(delegate.transactWriteItems(any(TransactWriteItemsRequest.class)))
+        .thenReturn(new CompletableFuture<>());
+    LimitedDynamoDbAsyncClient client =
+        new LimitedDynamoDbAsyncClient(delegate, 1, 1, 10, 0, LimitListener.NONE);
+    TransactWriteItemsRequest request =
+        TransactWriteItemsRequest.builder()
+            .transactItems(
+                TransactWriteItem.builder().put(Put.builder().tableName("events").build()).build())
+            .build();
+
+    // Act
+    CompletableFuture<TransactWriteItemsResponse> first = client.transactWriteItems(request);
+    CompletableFuture<TransactWriteItemsResponse> second = client.transactWriteItems(request);
+
+    // Assert
+    assertFalse(first.isDone());
+    CompletionException exception = assertThrows(CompletionException.class, second::join);
+    assertInstanceOf(ThrottledException.class, exception.getCause());
+  }
+
+  @Test
+  void when_format_metric_expect_embedded_metric_line() {
+    assertEquals(
+        "{\"_aws\":{\"Timestamp\":1,\"CloudWatchMetrics\":[{\"Namespace\":\"aws-cqrs\","
+            + "\"Dimensions\":[[\"TableName\"]],\"Metrics\":[{\"Name\":\"DynamoDbConcurrencyLimit\","
+            + "\"Unit\":\"Count\"}]}]},\"TableName\":\"events\",\"DynamoDbConcurrencyLimit\":7}",
+        EmbeddedMetricsLimitListener.format("events", 7, 1));
+  }
+}
@@ -0,0 +1,363 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.infrastructure.exceptions.AggregateNotFoundException;
+import com.aws.cqrs.infrastructure.exceptions.ConcurrencyException;
+import com.aws.cqrs.infrastructure.exceptions.TransactionFailedException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.BinaryEventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventSerializers;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.aws.cqrs.infrastructure.serialization.GsonEventSerializer;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+
+class SegmentLogEventStoreTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void when_reopened_expect_events_recovered() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+      eventStore
+          .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+          .join();
+      eventStore.saveEvents(accountId, 1, deposits(accountId, 1, 3)).join();
+    }
+
+    // Act
+    List<Event> events;
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+      events = eventStore.getEvents(accountId).join();
+    }
+
+    // Assert
+    assertEquals(4, events.size());
+    assertEquals("John", ((AccountCreated) events.get(0)).getFirstName());
+    assertEquals(new BigDecimal(3), ((Deposited) events.get(3)).getNewBalance());
+  }
+
+  @Test
+  void when_getEvents_range_expect_events_in_range() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    try (SegmentLogEventStore eventStore =
+        new SegmentLogEventStore(
+            directory, new GsonEventSerializer(EventSerializers.createGson()))) {
+      eventStore
+          .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+          .join();
+      eventStore.saveEvents(accountId, 1, deposits(accountId, 1, 9)).join();
+
+      // Act
+      List<Event> events = eventStore.getEvents(accountId, 3, 8, 4).join();
+      List<Event> tail = eventStore.getEvents(accountId, 11).join();
+
+      // Assert
+      assertEquals(4, events.size());
+      assertEquals(new BigDecimal(2), ((Deposited) events.get(0)).getNewBalance());
+      assertEquals(new BigDecimal(5), ((Deposited) events.get(3)).getNewBalance());
+      assertTrue(tail.isEmpty());
+    }
+  }
+
+  @Test
+  void when_saveEvents_wrong_version_expect_ConcurrencyException() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+      eventStore
+          .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+          .join();
+
+      // Act
+      CompletableFuture<Void> result =
+          eventStore.saveEvents(
+              accountId, 0, List.of(new AccountCreated(accountId, "Jane", "Doe")));
+
+      // Assert
+      CompletionException exception = assertThrows(CompletionException.class, result::join);
+      assertTrue(exception.getCause() instanceof ConcurrencyException);
+      assertEquals(1, eventStore.getEvents(accountId).join().size());
+    }
+  }
+
+  @Test
+  void when_saveEvents_several_aggregates_expect_all_recovered() throws Exception {
+    // Arrange
+    UUID fromAccountId = UUID.randomUUID();
+    UUID toAccountId = UUID.randomUUID();
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+      eventStore
+          .saveEvents(fromAccountId, 0, List.of(new AccountCreated(fromAccountId, "John", "Doe")))
+          .join();
+      eventStore
+          .saveEvents(
+              List.of(
+                  new AggregateChanges(fromAccountId, 1, deposits(fromAccountId, 1, 2)),
+                  new AggregateChanges(
+                      toAccountId, 0, List.of(new AccountCreated(toAccountId, "Jane", "Doe")))))
+          .join();
+    }
+
+    // Act
+    List<Event> fromEvents;
+    List<Event> toEvents;
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+      fromEvents = eventStore.getEvents(fromAccountId).join();
+      toEvents = eventStore.getEvents(toAccountId).join();
+    }
+
+    // Assert
+    assertEquals(3, fromEvents.size());
+    assertEquals(new BigDecimal(2), ((Deposited) fromEvents.get(2)).getNewBalance());
+    assertEquals(1, toEvents.size());
+    assertEquals("Jane", ((AccountCreated) toEvents.get(0)).getFirstName());
+  }
+
+  @Test
+  void when_saveEvents_several_aggregates_conflict_expect_none_saved() throws Exception {
+    // Arrange
+    UUID fromAccountId = UUID.randomUUID();
+    UUID toAccountId = UUID.randomUUID();
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+      eventStore
+          .saveEvents(toAccountId, 0, List.of(new AccountCreated(toAccountId, "Jane", "Doe")))
+          .join();
+
+      // Act
+      CompletableFuture<Void> result =
+          eventStore.saveEvents(
+              List.of(
+                  new AggregateChanges(
+                      fromAccountId, 0, List.of(new AccountCreated(fromAccountId, "John", "Doe"))),
+                  new AggregateChanges(
+                      toAccountId, 0, List.of(new AccountCreated(toAccountId, "Jane", "Doe")))));
+
+      // Assert
+      CompletionException exception = assertThrows(CompletionException.class, result::join);
+      assertTrue(exception.getCause() instanceof ConcurrencyException);
+      CompletableFuture<List<Event>> fromEvents = eventStore.getEvents(fromAccountId);
+      assertThrows(CompletionException.class, fromEvents::join);
+      assertEquals(1, eventStore.getEvents(toAccountId).join().size());
+    }
+  }
+
+  @Test
+  void when_saveEvents_after_close_expect_failed_future() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    SegmentLogEventStore eventStore = open(1024 * 1024);
+    eventStore.close();
+
+    // Act
+    CompletableFuture<Void> result =
+        eventStore.saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")));
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  void when_getEvents_unknown_aggregate_expect_AggregateNotFoundException() throws Exception {
+    // Arrange
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+
+      // Act
+      CompletableFuture<List<Event>> result = eventStore.getEvents(UUID.randomUUID());
+
+      // Assert
+      CompletionException exception = assertThrows(CompletionException.class, result::join);
+      assertTrue(exception.getCause() instanceof AggregateNotFoundException);
+    }
+  }
+
+  @Test
+  void when_segment_full_expect_new_segment() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    try (SegmentLogEventStore eventStore = open(512)) {
+      eventStore
+          .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+          .join();
+
+      // Act
+      for (int version = 1; version <= 20; version++) {
+        eventStore.saveEvents(accountId, version, deposits(accountId, version, 1)).join();
+      }
+    }
+
+    // Assert
+    try (Stream<Path> files = Files.list(directory)) {
+      assertTrue(files.count() > 1);
+    }
+    try (SegmentLogEventStore eventStore = open(512)) {
+      List<Event> events = eventStore.getEvents(accountId).join();
+      assertEquals(21, events.size());
+      assertEquals(new BigDecimal(20), ((Deposited) events.get(20)).getNewBalance());
+    }
+  }
+
+  @Test
+  void when_tail_torn_expect_frame_dropped() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    int savedCount;
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+      eventStore
+          .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+          .join();
+      eventStore.saveEvents(accountId, 1, deposits(accountId, 1, 1)).join();
+      savedCount = eventStore.getEvents(accountId).join().size();
+    }
+
+    // Corrupt the last byte of the second frame as if the crash happened while it was written.
+    Path segment = directory.resolve("segment-00000000.log");
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      int firstLength = file.readInt();
+      file.seek(SegmentLogEventStore.FRAME_HEADER_SIZE + firstLength);
+      int secondLength = file.readInt();
+      file.seek(2L * SegmentLogEventStore.FRAME_HEADER_SIZE + firstLength + secondLength - 1);
+      int last = file.read();
+      file.seek(2L * SegmentLogEventStore.FRAME_HEADER_SIZE + firstLength + secondLength - 1);
+      file.write(last ^ 0xFF);
+    }
+
+    // Act
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+      List<Event> recovered = eventStore.getEvents(accountId).join();
+      eventStore.saveEvents(accountId, 1, deposits(accountId, 1, 1)).join();
+
+      // Assert
+      assertEquals(2, savedCount);
+      assertEquals(1, recovered.size());
+      assertEquals(2, eventStore.getEvents(accountId).join().size());
+    }
+  }
+
+  @Test
+  void when_saveEvents_concurrently_expect_all_saved() throws Exception {
+    // Arrange
+    List<UUID> accountIds = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      accountIds.add(UUID.randomUUID());
+    }
+
+    try (SegmentLogEventStore eventStore = open(1024 * 1024)) {
+
+      // Act
+      accountIds.parallelStream()
+          .forEach(
+              accountId -> {
+                eventStore
+                    .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+                    .join();
+                for (int version = 1; version <= 10; version++) {
+                  eventStore.saveEvents(accountId, version, deposits(accountId, version, 1)).join();
+                }
+              });
+
+      // Assert
+      for (UUID accountId : accountIds) {
+        assertEquals(11, eventStore.getEvents(accountId).join().size());
+      }
+    }
+  }
+
+  @Test
+  void when_flush_fails_expect_store_fails_closed() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    AtomicBoolean failing = new AtomicBoolean();
+    List<Event> events;
+    CompletableFuture<Void> failed;
+    CompletableFuture<Void> retried;
+    CompletableFuture<Void> next;
+
+    try (MockedStatic<LogSegment> segments = mockStatic(LogSegment.class, CALLS_REAL_METHODS)) {
+      segments
+          .when(() -> LogSegment.open(any(), anyInt(), anyInt()))
+          .thenAnswer(
+              invocation -> {
+                LogSegment segment = spy((LogSegment) invocation.callRealMethod());
+                doAnswer(
+                        force -> {
+                          if (failing.get()) {
+                            throw new UncheckedIOException(new IOException("Mocked fsync failure"));
+                          }
+                          return force.callRealMethod();
+                        })
+                    .when(segment)
+                    .force();
+                return segment;
+              });
+
+      try (SegmentLogEventStore eventStore =
+          new SegmentLogEventStore(
+              directory,
+              1024 * 1024,
+              new BinaryEventSerializer(),
+              EventTypeRegistry.getDefault(),
+              Duration.ZERO)) {
+        eventStore
+            .saveEvents(accountId, 0, List.of(new AccountCreated(accountId, "John", "Doe")))
+            .join();
+
+        // Act
+        failing.set(true);
+        failed = eventStore.saveEvents(accountId, 1, deposits(accountId, 1, 2));
+        failing.set(false);
+        retried = eventStore.saveEvents(accountId, 1, deposits(accountId, 1, 2));
+        next = eventStore.saveEvents(accountId, 3, deposits(accountId, 3, 1));
+        events = eventStore.getEvents(accountId).join();
+      }
+    }
+
+    // Assert
+    for (CompletableFuture<Void> save : List.of(failed, retried, next)) {
+      CompletionException exception = assertThrows(CompletionException.class, save::join);
+      assertTrue(exception.getCause() instanceof TransactionFailedException);
+      assertFalse(exception.getCause() instanceof ConcurrencyException);
+    }
+    assertEquals(1, events.size());
+  }
+
+  private SegmentLogEventStore open(int segmentSize) throws Exception {
+    return new SegmentLogEventStore(
+        directory,
+        segmentSize,
+        new BinaryEventSerializer(),
+        EventTypeRegistry.getDefault(),
+        Duration.ofMillis(1));
+  }
+
+  private static List<Event> deposits(UUID accountId, int fromBalance, int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      events.add(new Deposited(accountId, BigDecimal.ONE, new BigDecimal(fromBalance + i)));
+    }
+    return events;
+  }
+}
@@ -0,0 +1,98 @@
+package com.aws.cqrs.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.infrastructure.exceptions.ThrottledException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+class UnprocessedRetriesTest {
+
+  @Test
+  void when_part_unprocessed_expect_only_that_part_resent() {
+    // Arrange
+    List<List<Integer>> sent = new ArrayList<>();
+
+    // Act
+    UnprocessedRetries.send(
+            List.of(1, 2, 3),
+            batch -> {
+              sent.add(batch);
+              return CompletableFuture.completedFuture(batch.subList(1, batch.size()));
+            },
+            "items")
+        .join();
+
+    // Assert
+    assertEquals(List.of(List.of(1, 2, 3), List.of(2, 3), List.of(3)), sent);
+  }
+
+  @Test
+  void when_send_fails_expect_failure_not_retried() {
+    // Arrange
+    List<List<Integer>> sent = new ArrayList<>();
+
+    // Act
+    CompletableFuture<Void> result =
+        UnprocessedRetries.send(
+            List.of(1),
+            batch -> {
+              sent.add(batch);
+              return CompletableFuture.failedFuture(new IllegalArgumentException("Mocked"));
+            },
+            "items");
+
+    // Assert
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof IllegalArgumentException);
+    assertEquals(1, sent.size());
+  }
+
+  @Test
+  void when_request_throttled_expect_whole_batch_resent() {
+    // Arrange
+    List<List<Integer>> sent = new ArrayList<>();
+
+    // Act
+    UnprocessedRetries.send(
+            List.of(1, 2),
+            batch -> {
+              sent.add(batch);
+              return sent.size() == 1
+                  ? CompletableFuture.failedFuture(
+                      ProvisionedThroughputExceededException.builder().message("Mocked").build())
+                  : CompletableFuture.completedFuture(List.of());
+            },
+            "items")
+        .join();
+
+    // Assert
+    assertEquals(List.of(List.of(1, 2), List.of(1, 2)), sent);
+  }
+
+  @Test
+  void when_request_shed_by_limiter_expect_whole_batch_resent() {
+    // Arrange
+    List<List<Integer>> sent = new ArrayList<>();
+
+    // Act
+    UnprocessedRetries.send(
+            List.of(1, 2),
+            batch -> {
+              sent.add(batch);
+              return sent.size() == 1
+                  ? CompletableFuture.failedFuture(
+                      new CompletionException(new ThrottledException("table")))
+                  : CompletableFuture.completedFuture(List.of());
+            },
+            "items")
+        .join();
+
+    // Assert
+    assertEquals(List.of(List.of(1, 2), List.of(1, 2)), sent);
+  }
+}
@@ -0,0 +1,113 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.domain.Overdrawn;
+import com.aws.cqrs.domain.Withdrew;
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class BinaryEventSerializerTest {
+  private final BinaryEventSerializer serializer = new BinaryEventSerializer();
+
+  private final StreamingJsonEventSerializer jsonSerializer = new StreamingJsonEventSerializer();
+
+  @Test
+  void when_serialize_and_deserialize_expect_event_restored() {
+    // Arrange
+    Deposited deposited =
+        new Deposited(UUID.randomUUID(), new BigDecimal("125.50"), new BigDecimal("-3.25"));
+
+    // Act
+    Deposited restored = serializer.deserialize(serializer.serialize(deposited), Deposited.class);
+
+    // Assert
+    assertEquals(deposited.getAccountId(), restored.getAccountId());
+    assertEquals(deposited.getTransactionId(), restored.getTransactionId());
+    assertEquals(deposited.getAmount(), restored.getAmount());
+    assertEquals(deposited.getDate(), restored.getDate());
+    assertEquals(deposited.getNewBalance(), restored.getNewBalance());
+  }
+
+  @Test
+  void when_serialize_null_properties_expect_them_restored_as_null() {
+    // Arrange
+    AccountCreated accountCreated = new AccountCreated(UUID.randomUUID(), null, "Smith");
+    Overdrawn overdrawn = new Overdrawn(UUID.randomUUID(), null, BigDecimal.TEN, null);
+
+    // Act
+    AccountCreated restoredAccountCreated =
+        serializer.deserialize(serializer.serialize(accountCreated), AccountCreated.class);
+    Overdrawn restoredOverdrawn =
+        serializer.deserialize(serializer.serialize(overdrawn), Overdrawn.class);
+
+    // Assert
+    assertEquals(accountCreated.getAccountId(), restoredAccountCreated.getAccountId());
+    assertNull(restoredAccountCreated.getFirstName());
+    assertEquals("Smith", restoredAccountCreated.getLastName());
+    assertEquals(overdrawn.getAccountId(), restoredOverdrawn.getAccountId());
+    assertNull(restoredOverdrawn.getTransactionId());
+    assertEquals(BigDecimal.TEN, restoredOverdrawn.getServiceCharge());
+    assertNull(restoredOverdrawn.getNewBalance());
+  }
+
+  @Test
+  void when_serialize_transactions_expect_less_than_half_the_json_size() {
+    // Arrange
+    Deposited deposited =
+        new Deposited(UUID.randomUUID(), new BigDecimal("100.00"), new BigDecimal("1250.75"));
+    Withdrew withdrew =
+        new Withdrew(UUID.randomUUID(), new BigDecimal("100.00"), new BigDecimal("-50.00"));
+
+    // Act
+    int depositedSize = serializer.serialize(deposited).length;
+    int withdrewSize = serializer.serialize(withdrew).length;
+
+    // Assert
+    assertTrue(
+        depositedSize * 2
+            < jsonSerializer.serializeToString(deposited).getBytes(StandardCharsets.UTF_8).length);
+    assertTrue(
+        withdrewSize * 2
+            < jsonSerializer.serializeToString(withdrew).getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  @Test
+  void when_deserialize_unknown_version_expect_SerializationException() {
+    // Arrange
+    byte[] payload = serializer.serialize(new AccountCreated(UUID.randomUUID(), "John", "Smith"));
+    payload[0] = (byte) (BinaryEventSerializer.FORMAT_VERSION + 1);
+
+    // Act & Assert
+    assertThrows(
+        SerializationException.class, () -> serializer.deserialize(payload, AccountCreated.class));
+  }
+
+  @Test
+  void when_deserialize_truncated_payload_expect_SerializationException() {
+    // Arrange
+    byte[] payload =
+        serializer.serialize(new Deposited(UUID.randomUUID(), BigDecimal.TEN, BigDecimal.TEN));
+    byte[] truncated = Arrays.copyOf(payload, payload.length / 2);
+
+    // Act & Assert
+    assertThrows(
+        SerializationException.class, () -> serializer.deserialize(truncated, Deposited.class));
+  }
+
+  @Test
+  void when_serializeToString_expect_UnsupportedOperationException() {
+    // Arrange
+    AccountCreated accountCreated = new AccountCreated(UUID.randomUUID(), "John", "Smith");
+
+    // Act & Assert
+    assertThrows(
+        UnsupportedOperationException.class, () -> serializer.serializeToString(accountCreated));
+  }
+}
@@ -0,0 +1,76 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class BinaryWriterTest {
+
+  @Test
+  void when_values_written_expect_same_values_read() {
+    // Arrange
+    UUID uuid = UUID.randomUUID();
+    BigDecimal largeDecimal = new BigDecimal("-123456789012345678901234567890.123456789");
+    OffsetDateTime beforeEpoch = OffsetDateTime.parse("1969-07-20T20:17:40.123456789-05:00");
+    OffsetDateTime afterEpoch = OffsetDateTime.parse("2024-10-18T19:28:47.396553+05:30");
+    BinaryWriter writer = new BinaryWriter(1);
+
+    // Act
+    writer.writeLong(Long.MIN_VALUE);
+    writer.writeLong(Long.MAX_VALUE);
+    writer.writeInt(-1);
+    writer.writeBoolean(true);
+    writer.writeDouble(-0.5);
+    writer.writeString("Zoë");
+    writer.writeUuid(uuid);
+    writer.writeBigDecimal(largeDecimal);
+    writer.writeBigDecimal(new BigDecimal("1E+3"));
+    writer.writeOffsetDateTime(beforeEpoch);
+    writer.writeOffsetDateTime(afterEpoch);
+    BinaryReader reader = new BinaryReader(writer.toByteArray());
+
+    // Assert
+    assertEquals(Long.MIN_VALUE, reader.readLong());
+    assertEquals(Long.MAX_VALUE, reader.readLong());
+    assertEquals(-1, reader.readInt());
+    assertTrue(reader.readBoolean());
+    assertEquals(-0.5, reader.readDouble());
+    assertEquals("Zoë", reader.readString());
+    assertEquals(uuid, reader.readUuid());
+    assertEquals(largeDecimal, reader.readBigDecimal());
+    assertEquals(new BigDecimal("1E+3"), reader.readBigDecimal());
+    assertEquals(beforeEpoch, reader.readOffsetDateTime());
+    assertEquals(afterEpoch, reader.readOffsetDateTime());
+    assertFalse(reader.hasRemaining());
+  }
+
+  @Test
+  void when_small_values_written_expect_single_bytes() {
+    // Arrange
+    BinaryWriter writer = new BinaryWriter(16);
+
+    // Act
+    writer.writeInt(-64);
+    writer.writeInt(63);
+    writer.writeVarLong(127);
+
+    // Assert
+    assertEquals(3, writer.toByteArray().length);
+  }
+
+  @Test
+  void when_read_past_end_expect_IllegalStateException() {
+    // Arrange
+    BinaryWriter writer = new BinaryWriter(16);
+    writer.writeString("John");
+    byte[] bytes = writer.toByteArray();
+    BinaryReader reader = new BinaryReader(Arrays.copyOf(bytes, bytes.length - 1));
+
+    // Act & Assert
+    assertThrows(IllegalStateException.class, reader::readString);
+  }
+}
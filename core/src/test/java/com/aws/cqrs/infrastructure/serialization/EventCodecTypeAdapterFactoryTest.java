@@ -0,0 +1,107 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.application.OffsetDateTimeDeserializer;
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.AccountSnapshot;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.domain.Overdrawn;
+import com.aws.cqrs.domain.Withdrew;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class EventCodecTypeAdapterFactoryTest {
+  private final Gson gson =
+      new GsonBuilder().registerTypeAdapterFactory(new EventCodecTypeAdapterFactory()).create();
+
+  private final Gson reflectiveGson =
+      new GsonBuilder()
+          .registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeDeserializer())
+          .create();
+
+  @Test
+  void when_codecs_loaded_expect_codec_for_each_event() {
+    // Assert
+    assertEquals(AccountCreated.class, EventCodecs.get(AccountCreated.class).getEventType());
+    assertEquals(Deposited.class, EventCodecs.get(Deposited.class).getEventType());
+    assertEquals(Withdrew.class, EventCodecs.get(Withdrew.class).getEventType());
+    assertEquals(Overdrawn.class, EventCodecs.get(Overdrawn.class).getEventType());
+  }
+
+  @Test
+  void when_toJson_expect_same_json_as_reflection() {
+    // Arrange
+    Deposited deposited = new Deposited(UUID.randomUUID(), BigDecimal.TEN, new BigDecimal("10.50"));
+    AccountCreated accountCreated = new AccountCreated(UUID.randomUUID(), "John", "Doe");
+    Overdrawn overdrawn =
+        new Overdrawn(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN, BigDecimal.ONE);
+
+    // Act & Assert
+    assertEquals(reflectiveGson.toJson(deposited), gson.toJson(deposited));
+    assertEquals(reflectiveGson.toJson(accountCreated), gson.toJson(accountCreated));
+    assertEquals(reflectiveGson.toJson(overdrawn), gson.toJson(overdrawn));
+  }
+
+  @Test
+  void when_fromJson_expect_event_restored() {
+    // Arrange
+    Withdrew withdrew = new Withdrew(UUID.randomUUID(), BigDecimal.TEN, new BigDecimal("-10"));
+    String json = reflectiveGson.toJson(withdrew);
+
+    // Act
+    Withdrew restored = gson.fromJson(json, Withdrew.class);
+
+    // Assert
+    assertEquals(withdrew.getAccountId(), restored.getAccountId());
+    assertEquals(withdrew.getTransactionId(), restored.getTransactionId());
+    assertEquals(withdrew.getAmount(), restored.getAmount());
+    assertEquals(withdrew.getDate(), restored.getDate());
+    assertEquals(withdrew.getNewBalance(), restored.getNewBalance());
+  }
+
+  @Test
+  void when_fromJson_with_unknown_and_null_properties_expect_them_ignored() {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    String json =
+        "{\"accountId\":\""
+            + accountId
+            + "\",\"middleName\":{\"a\":[1,2]},\"firstName\":null,\"lastName\":\"Doe\"}";
+
+    // Act
+    AccountCreated accountCreated = gson.fromJson(json, AccountCreated.class);
+
+    // Assert
+    assertEquals(accountId, accountCreated.getAccountId());
+    assertNull(accountCreated.getFirstName());
+    assertEquals("Doe", accountCreated.getLastName());
+  }
+
+  @Test
+  void when_toJson_with_null_properties_expect_them_omitted() {
+    // Arrange
+    AccountCreated accountCreated = new AccountCreated(null, "John", null);
+
+    // Act
+    String json = gson.toJson(accountCreated);
+
+    // Assert
+    assertEquals("{\"firstName\":\"John\"}", json);
+  }
+
+  @Test
+  void when_type_without_codec_expect_no_adapter() {
+    // Act
+    Object adapter =
+        new EventCodecTypeAdapterFactory().create(gson, TypeToken.get(AccountSnapshot.class));
+
+    // Assert
+    assertNull(adapter);
+  }
+}
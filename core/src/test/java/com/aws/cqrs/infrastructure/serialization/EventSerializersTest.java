@@ -0,0 +1,33 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+class EventSerializersTest {
+  private final Gson gson = EventSerializers.createGson();
+
+  @Test
+  void when_create_without_name_expect_default() {
+    // Act & Assert
+    assertInstanceOf(StreamingJsonEventSerializer.class, EventSerializers.create(null, gson));
+    assertInstanceOf(StreamingJsonEventSerializer.class, EventSerializers.create("", gson));
+  }
+
+  @Test
+  void when_create_by_name_expect_serializer() {
+    // Act & Assert
+    assertInstanceOf(
+        GsonEventSerializer.class, EventSerializers.create(EventSerializers.GSON, gson));
+    assertInstanceOf(
+        StreamingJsonEventSerializer.class,
+        EventSerializers.create(EventSerializers.STREAMING_JSON, gson));
+  }
+
+  @Test
+  void when_create_unknown_name_expect_IllegalArgumentException() {
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> EventSerializers.create("xml", gson));
+  }
+}
@@ -0,0 +1,92 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.domain.Overdrawn;
+import com.aws.cqrs.domain.Withdrew;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import org.junit.jupiter.api.Test;
+
+class EventTypeRegistryTest {
+
+  /** An event without a generated codec */
+  public static class UnregisteredEvent implements Event {}
+
+  @Test
+  void when_getDefault_expect_short_kinds() {
+    // Arrange
+    EventTypeRegistry registry = EventTypeRegistry.getDefault();
+
+    // Act & Assert
+    assertEquals("acct.v1", registry.getKind(AccountCreated.class));
+    assertEquals("dep.v1", registry.getKind(Deposited.class));
+    assertEquals("wdr.v1", registry.getKind(Withdrew.class));
+    assertEquals("ovr.v1", registry.getKind(Overdrawn.class));
+  }
+
+  @Test
+  void when_getType_kind_or_class_name_expect_type() throws ClassNotFoundException {
+    // Arrange
+    EventTypeRegistry registry = EventTypeRegistry.getDefault();
+
+    // Act & Assert
+    assertEquals(Deposited.class, registry.getType("dep.v1"));
+    assertEquals(Deposited.class, registry.getType(Deposited.class.getName()));
+  }
+
+  @Test
+  void when_register_alias_expect_type() throws ClassNotFoundException {
+    // Arrange
+    EventTypeRegistry registry = new EventTypeRegistry();
+
+    // Act
+    registry.register("dep.v1", Deposited.class, "com.example.old.Deposited");
+
+    // Assert
+    assertEquals(Deposited.class, registry.getType("com.example.old.Deposited"));
+    assertEquals("dep.v1", registry.getKind(Deposited.class));
+  }
+
+  @Test
+  void when_register_kind_of_other_type_expect_IllegalStateException() {
+    // Arrange
+    EventTypeRegistry registry = new EventTypeRegistry();
+    registry.register("dep.v1", Deposited.class);
+
+    // Act & Assert
+    assertThrows(IllegalStateException.class, () -> registry.register("dep.v1", Withdrew.class));
+  }
+
+  @Test
+  void when_unregistered_type_expect_class_name() throws ClassNotFoundException {
+    // Arrange
+    EventTypeRegistry registry = new EventTypeRegistry();
+
+    // Act
+    String kind = registry.getKind(UnregisteredEvent.class);
+
+    // Assert
+    assertEquals(UnregisteredEvent.class.getName(), kind);
+    assertEquals(UnregisteredEvent.class, registry.getType(kind));
+  }
+
+  @Test
+  void when_getType_unknown_kind_expect_ClassNotFoundException() {
+    // Arrange
+    EventTypeRegistry registry = new EventTypeRegistry();
+
+    // Act & Assert
+    assertThrows(ClassNotFoundException.class, () -> registry.getType("unknown.v1"));
+  }
+
+  @Test
+  void when_getType_class_that_is_not_an_event_expect_ClassCastException() {
+    // Arrange
+    EventTypeRegistry registry = new EventTypeRegistry();
+
+    // Act & Assert
+    assertThrows(ClassCastException.class, () -> registry.getType(String.class.getName()));
+  }
+}
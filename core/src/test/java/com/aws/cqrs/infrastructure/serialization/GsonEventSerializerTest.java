@@ -0,0 +1,49 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class GsonEventSerializerTest {
+  private final GsonEventSerializer serializer =
+      new GsonEventSerializer(EventSerializers.createGson());
+
+  @Test
+  void when_serialize_and_deserialize_bytes_expect_event_restored() {
+    // Arrange
+    Deposited deposited = new Deposited(UUID.randomUUID(), BigDecimal.TEN, BigDecimal.TEN);
+
+    // Act
+    Deposited restored = serializer.deserialize(serializer.serialize(deposited), Deposited.class);
+
+    // Assert
+    assertEquals(deposited.getTransactionId(), restored.getTransactionId());
+    assertEquals(deposited.getDate(), restored.getDate());
+    assertEquals(deposited.getNewBalance(), restored.getNewBalance());
+  }
+
+  @Test
+  void when_serializeToString_expect_same_as_bytes() {
+    // Arrange
+    Deposited deposited = new Deposited(UUID.randomUUID(), BigDecimal.TEN, BigDecimal.TEN);
+
+    // Act
+    String json = serializer.serializeToString(deposited);
+
+    // Assert
+    assertEquals(json, new String(serializer.serialize(deposited), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void when_deserialize_invalid_json_expect_SerializationException() {
+    // Act & Assert
+    assertThrows(
+        SerializationException.class,
+        () -> serializer.deserialize("{\"amount\":", Deposited.class));
+  }
+}
@@ -0,0 +1,80 @@
+package com.aws.cqrs.infrastructure.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.Overdrawn;
+import com.aws.cqrs.domain.Withdrew;
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class StreamingJsonEventSerializerTest {
+  private final StreamingJsonEventSerializer serializer = new StreamingJsonEventSerializer();
+
+  private final GsonEventSerializer gsonSerializer =
+      new GsonEventSerializer(EventSerializers.createGson());
+
+  @Test
+  void when_serialize_and_deserialize_bytes_expect_event_restored() {
+    // Arrange
+    Withdrew withdrew = new Withdrew(UUID.randomUUID(), BigDecimal.ONE, new BigDecimal("-1.25"));
+
+    // Act
+    Withdrew restored = serializer.deserialize(serializer.serialize(withdrew), Withdrew.class);
+
+    // Assert
+    assertEquals(withdrew.getAccountId(), restored.getAccountId());
+    assertEquals(withdrew.getTransactionId(), restored.getTransactionId());
+    assertEquals(withdrew.getAmount(), restored.getAmount());
+    assertEquals(withdrew.getDate(), restored.getDate());
+    assertEquals(withdrew.getNewBalance(), restored.getNewBalance());
+  }
+
+  @Test
+  void when_serializeToString_expect_same_json_as_gson() {
+    // Arrange
+    Overdrawn overdrawn =
+        new Overdrawn(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN, BigDecimal.ONE);
+
+    // Act
+    String json = serializer.serializeToString(overdrawn);
+
+    // Assert
+    assertEquals(gsonSerializer.serializeToString(overdrawn), json);
+  }
+
+  @Test
+  void when_deserialize_gson_json_expect_event_restored() {
+    // Arrange
+    AccountCreated accountCreated = new AccountCreated(UUID.randomUUID(), "John", "Smith");
+    String json = gsonSerializer.serializeToString(accountCreated);
+
+    // Act
+    AccountCreated restored = serializer.deserialize(json, AccountCreated.class);
+
+    // Assert
+    assertEquals(accountCreated.getAccountId(), restored.getAccountId());
+    assertEquals(accountCreated.getFirstName(), restored.getFirstName());
+    assertEquals(accountCreated.getLastName(), restored.getLastName());
+  }
+
+  @Test
+  void when_event_without_codec_expect_SerializationException() {
+    // Arrange
+    Event event = new Event() {};
+
+    // Act & Assert
+    assertThrows(SerializationException.class, () -> serializer.serialize(event));
+  }
+
+  @Test
+  void when_deserialize_invalid_json_expect_SerializationException() {
+    // Act & Assert
+    assertThrows(
+        SerializationException.class,
+        () -> serializer.deserialize("{\"accountId\":\"not-a-uuid\"}", AccountCreated.class));
+  }
+}
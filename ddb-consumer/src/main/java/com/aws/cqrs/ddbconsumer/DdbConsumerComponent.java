@@ -1,6 +1,10 @@
 package com.aws.cqrs.ddbconsumer;
 
 import dagger.Component;
+import javax.inject.Singleton;
 
+@Singleton
 @Component(modules = DdbConsumerModule.class)
-public interface DdbConsumerComponent {}
+public interface DdbConsumerComponent {
+  ProjectionRebuilder projectionRebuilder();
+}
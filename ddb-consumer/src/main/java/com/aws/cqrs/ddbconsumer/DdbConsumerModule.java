@@ -1,37 +1,76 @@
 package com.aws.cqrs.ddbconsumer;
 
-import com.aws.cqrs.application.OffsetDateTimeDeserializer;
 import com.aws.cqrs.ddbconsumer.eventhandlers.AccountCreatedEventHandler;
+import com.aws.cqrs.ddbconsumer.eventhandlers.AccountShardedEventHandler;
 import com.aws.cqrs.ddbconsumer.eventhandlers.DepositedEventHandler;
 import com.aws.cqrs.ddbconsumer.eventhandlers.OverdrawnEventHandler;
+import com.aws.cqrs.ddbconsumer.eventhandlers.SubLedgerOpenedEventHandler;
+import com.aws.cqrs.ddbconsumer.eventhandlers.SubLedgerPostedEventHandler;
 import com.aws.cqrs.ddbconsumer.eventhandlers.WithdrewEventHandler;
 import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.AccountSharded;
 import com.aws.cqrs.domain.Deposited;
 import com.aws.cqrs.domain.Overdrawn;
+import com.aws.cqrs.domain.SubLedgerOpened;
+import com.aws.cqrs.domain.SubLedgerPosted;
 import com.aws.cqrs.domain.Withdrew;
+import com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore;
+import com.aws.cqrs.infrastructure.persistence.EmbeddedMetricsLimitListener;
+import com.aws.cqrs.infrastructure.persistence.EventStore;
+import com.aws.cqrs.infrastructure.persistence.LimitedDynamoDbAsyncClient;
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventSerializers;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import dagger.Module;
 import dagger.Provides;
-import java.time.OffsetDateTime;
 import javax.inject.Singleton;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 
 @Module
 public class DdbConsumerModule {
+  private static final int DEFAULT_REBUILD_TOTAL_SEGMENTS = 16;
+  private static final int DEFAULT_REBUILD_CONCURRENCY = 4;
 
   @Provides
   @Singleton
   public DynamoDbAsyncClient provideDynamoDbAsyncClient() {
-    return DynamoDbAsyncClient.create();
+    return new LimitedDynamoDbAsyncClient(
+        DynamoDbAsyncClient.create(), new EmbeddedMetricsLimitListener(System.out));
   }
 
   @Provides
   @Singleton
   public Gson provideGson() {
-    return new GsonBuilder()
-        .registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeDeserializer())
-        .create();
+    return EventSerializers.createGson();
+  }
+
+  @Provides
+  @Singleton
+  public EventSerializer provideEventSerializer(Gson gson) {
+    return EventSerializers.create(System.getenv("eventSerializer"), gson);
+  }
+
+  @Provides
+  @Singleton
+  public EventStore provideEventStore(
+      DynamoDbAsyncClient dynamoDbAsyncClient, EventSerializer eventSerializer) {
+    return new DynamoDbEventStore(
+        System.getenv("eventStoreTable"), dynamoDbAsyncClient, eventSerializer);
+  }
+
+  @Provides
+  @Singleton
+  public ProjectionRebuilder provideProjectionRebuilder(
+      DynamoDbAsyncClient dynamoDbAsyncClient, EventSerializer eventSerializer, EventBus eventBus) {
+    return new ProjectionRebuilder(
+        System.getenv("eventStoreTable"),
+        dynamoDbAsyncClient,
+        eventSerializer,
+        EventTypeRegistry.getDefault(),
+        eventBus,
+        getRebuildTotalSegments(),
+        getRebuildConcurrency());
   }
 
   @Provides
@@ -42,6 +81,23 @@ public class DdbConsumerModule {
     eventBus.register(Deposited.class, new DepositedEventHandler(dynamoDbAsyncClient));
     eventBus.register(Withdrew.class, new WithdrewEventHandler(dynamoDbAsyncClient));
     eventBus.register(Overdrawn.class, new OverdrawnEventHandler(dynamoDbAsyncClient));
+    eventBus.register(AccountSharded.class, new AccountShardedEventHandler(dynamoDbAsyncClient));
+    eventBus.register(SubLedgerOpened.class, new SubLedgerOpenedEventHandler(dynamoDbAsyncClient));
+    eventBus.register(SubLedgerPosted.class, new SubLedgerPostedEventHandler(dynamoDbAsyncClient));
     return eventBus;
   }
+
+  private static int getRebuildTotalSegments() {
+    String rebuildTotalSegments = System.getenv("rebuildTotalSegments");
+    return rebuildTotalSegments == null || rebuildTotalSegments.isBlank()
+        ? DEFAULT_REBUILD_TOTAL_SEGMENTS
+        : Integer.parseInt(rebuildTotalSegments);
+  }
+
+  private static int getRebuildConcurrency() {
+    String rebuildConcurrency = System.getenv("rebuildConcurrency");
+    return rebuildConcurrency == null || rebuildConcurrency.isBlank()
+        ? DEFAULT_REBUILD_CONCURRENCY
+        : Integer.parseInt(rebuildConcurrency);
+  }
 }
@@ -1,5 +1,6 @@
 package com.aws.cqrs.ddbconsumer;
 
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbCommitEventStore.EVENTS_ATTRIBUTE;
 import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.*;
 
 import com.amazonaws.services.lambda.runtime.Context;
@@ -7,22 +8,62 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
 import com.aws.cqrs.ddbconsumer.exceptions.DeserializationException;
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
 import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.persistence.EventStore;
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.aws.cqrs.infrastructure.serialization.GsonEventSerializer;
+import com.aws.cqrs.infrastructure.serialization.PayloadDeserializer;
 import com.google.gson.Gson;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 
 public class DdbEventHandler implements RequestHandler<DynamodbEvent, Void> {
-  private final Gson gson;
+  private final PayloadDeserializer deserializer;
+  private final EventTypeRegistry eventTypes;
   private final EventBus eventBus;
+  private final EventStore eventStore;
 
-  @Inject
   public DdbEventHandler(EventBus eventBus, Gson gson) {
+    this(eventBus, new GsonEventSerializer(gson));
+  }
+
+  public DdbEventHandler(EventBus eventBus, EventSerializer serializer) {
+    this(eventBus, serializer, (EventStore) null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param eventBus The event bus.
+   * @param serializer The event serializer.
+   * @param eventStore The event store used to read the events of chunked commits.
+   */
+  @Inject
+  public DdbEventHandler(EventBus eventBus, EventSerializer serializer, EventStore eventStore) {
+    this(eventBus, serializer, EventTypeRegistry.getDefault(), eventStore);
+  }
+
+  public DdbEventHandler(
+      EventBus eventBus, EventSerializer serializer, EventTypeRegistry eventTypes) {
+    this(eventBus, serializer, eventTypes, null);
+  }
+
+  public DdbEventHandler(
+      EventBus eventBus,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes,
+      EventStore eventStore) {
     this.eventBus = eventBus;
-    this.gson = gson;
+    this.deserializer = new PayloadDeserializer(serializer);
+    this.eventTypes = eventTypes;
+    this.eventStore = eventStore;
   }
 
   @Override
@@ -48,19 +89,93 @@ public class DdbEventHandler implements RequestHandler<DynamodbEvent, Void> {
           records.forEach(
               record -> {
                 Map<String, AttributeValue> attributes = record.getDynamodb().getNewImage();
-                String kind = attributes.get(KIND_ATTRIBUTE).getS();
-                String eventData = attributes.get(EVENT_ATTRIBUTE).getS();
 
-                try {
-                  Event event = (Event) gson.fromJson(eventData, Class.forName(kind));
+                // Removed events belong to a chunked commit that was rolled back, and every event
+                // of a chunked commit but the last is handled once the last one arrives.
+                if (attributes == null
+                    || (attributes.containsKey(COMMIT_ATTRIBUTE)
+                        && !attributes.containsKey(COMMIT_FROM_ATTRIBUTE))) {
+                  return;
+                }
+
+                if (attributes.containsKey(COMMIT_FROM_ATTRIBUTE)) {
                   // Purposely handling these events synchronously as order matters
-                  eventBus.handle(event).join();
-                } catch (ClassNotFoundException e) {
-                  throw new DeserializationException(e);
+                  getCommittedEvents(attributes).forEach(event -> eventBus.handle(event).join());
+                }
+
+                // A commit written as a single item carries all of its events in order.
+                if (attributes.containsKey(EVENTS_ATTRIBUTE)) {
+                  attributes
+                      .get(EVENTS_ATTRIBUTE)
+                      .getL()
+                      .forEach(packed -> eventBus.handle(toEvent(packed.getM())).join());
+                  return;
                 }
+
+                // Purposely handling these events synchronously as order matters
+                eventBus.handle(toEvent(attributes)).join();
               });
 
           return null;
         });
   }
+
+  /**
+   * Read the events of a chunked commit that came before its last event. They only become visible
+   * once the last event has been written, so they are read back from the event store rather than
+   * taken from the stream. The read includes the last event, because the event store holds back the
+   * events of a commit until it reads the item that completes it, and then leaves it out.
+   *
+   * @param attributes The attributes of the last event of the commit.
+   * @return The events that came before the last event.
+   */
+  private List<Event> getCommittedEvents(Map<String, AttributeValue> attributes) {
+    if (eventStore == null) {
+      throw new IllegalStateException(
+          "An event store is required to handle the events of a chunked commit.");
+    }
+
+    UUID aggregateId = UUID.fromString(attributes.get(ID_ATTRIBUTE).getS());
+    long fromVersion = Long.parseLong(attributes.get(COMMIT_FROM_ATTRIBUTE).getN());
+    long lastVersion = Long.parseLong(attributes.get(VERSION_ATTRIBUTE).getN());
+
+    List<Event> events =
+        eventStore.getEvents(aggregateId, fromVersion, lastVersion, Integer.MAX_VALUE).join();
+    return events.isEmpty() ? events : events.subList(0, events.size() - 1);
+  }
+
+  /**
+   * Deserialize an event from the attributes that hold its kind and payload.
+   *
+   * @param attributes The attributes of the event.
+   * @return The event.
+   */
+  private Event toEvent(Map<String, AttributeValue> attributes) {
+    String kind = attributes.get(KIND_ATTRIBUTE).getS();
+
+    try {
+      return deserializeEvent(attributes.get(EVENT_ATTRIBUTE), eventTypes.getType(kind));
+    } catch (ClassNotFoundException | ClassCastException | SerializationException e) {
+      throw new DeserializationException(e);
+    }
+  }
+
+  /**
+   * Deserialize the payload of an event by the type of attribute it was stored as.
+   *
+   * @param payload The attribute value holding the payload.
+   * @param eventType The type of the event.
+   * @return The event.
+   */
+  private Event deserializeEvent(AttributeValue payload, Class<? extends Event> eventType) {
+    ByteBuffer binary = payload.getB();
+
+    if (binary != null) {
+      byte[] bytes = new byte[binary.remaining()];
+      binary.duplicate().get(bytes);
+      return deserializer.deserialize(bytes, eventType);
+    }
+
+    return deserializer.deserialize(payload.getS(), eventType);
+  }
 }
@@ -0,0 +1,328 @@
+package com.aws.cqrs.ddbconsumer;
+
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbCommitEventStore.EVENTS_ATTRIBUTE;
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.*;
+
+import com.aws.cqrs.ddbconsumer.exceptions.DeserializationException;
+import com.aws.cqrs.infrastructure.exceptions.SerializationException;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.persistence.PendingCommitFilter;
+import com.aws.cqrs.infrastructure.serialization.EventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import com.aws.cqrs.infrastructure.serialization.PayloadDeserializer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+/**
+ * Rebuilds the read models by replaying every event in the event store table through the event bus,
+ * for when the events are older than the stream retains. The table is read with a parallel scan and
+ * a number of segments are scanned at the same time.
+ *
+ * <p>All the events of an aggregate are in the same segment. The events of a page are grouped by
+ * aggregate and sorted by version, and the aggregates of a page are handled in parallel while the
+ * events of each aggregate are handled in order. Commits stored as a single item are expanded into
+ * their events and events of chunked commits that never completed are skipped.
+ *
+ * <p>The position of each segment is checkpointed once a page has been handled so that a rebuild
+ * can be resumed. Pages after the last checkpoint are handled again when a rebuild is resumed, so
+ * the event handlers have to tolerate seeing an event more than once.
+ */
+public class ProjectionRebuilder {
+
+  private static final String DONE = "done";
+
+  private final String tableName;
+  private final DynamoDbAsyncClient ddbClient;
+  private final PayloadDeserializer deserializer;
+  private final EventTypeRegistry eventTypes;
+  private final EventBus eventBus;
+  private final int totalSegments;
+  private final int concurrency;
+
+  /**
+   * Constructor
+   *
+   * @param tableName The event store table.
+   * @param ddbClient The DynamoDB client.
+   * @param serializer The serializer the event store uses.
+   * @param eventTypes The registry of event kinds.
+   * @param eventBus The event bus the events are handled by.
+   * @param totalSegments The number of segments the table is scanned in.
+   * @param concurrency The number of segments to scan at the same time.
+   */
+  public ProjectionRebuilder(
+      String tableName,
+      DynamoDbAsyncClient ddbClient,
+      EventSerializer serializer,
+      EventTypeRegistry eventTypes,
+      EventBus eventBus,
+      int totalSegments,
+      int concurrency) {
+    if (totalSegments <= 0 || concurrency <= 0) {
+      throw new IllegalArgumentException(
+          "The number of segments and the concurrency must be greater than zero.");
+    }
+
+    this.tableName = tableName;
+    this.ddbClient = ddbClient;
+    this.deserializer = new PayloadDeserializer(serializer);
+    this.eventTypes = eventTypes;
+    this.eventBus = eventBus;
+    this.totalSegments = totalSegments;
+    this.concurrency = concurrency;
+  }
+
+  /**
+   * Replay every event that hasn't been replayed yet. Segments that were finished by an earlier
+   * rebuild are skipped and the others continue from their checkpoint.
+   *
+   * @param checkpointDirectory The directory that holds the checkpoint of each segment.
+   * @return The number of events handled by this call.
+   * @throws IOException When a checkpoint can't be read or written, or a segment could not be
+   *     replayed.
+   */
+  public long rebuild(Path checkpointDirectory) throws IOException {
+    Files.createDirectories(checkpointDirectory);
+
+    AtomicInteger nextSegment = new AtomicInteger();
+    AtomicLong count = new AtomicLong();
+    List<CompletableFuture<Void>> workers = new ArrayList<>(concurrency);
+
+    for (int i = 0; i < Math.min(concurrency, totalSegments); i++) {
+      workers.add(rebuildSegments(nextSegment, checkpointDirectory, count));
+    }
+
+    try {
+      CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      }
+      throw new IOException("Unable to replay the events.", e.getCause());
+    }
+
+    return count.get();
+  }
+
+  /**
+   * Keep taking the next segment that hasn't been started until none are left.
+   *
+   * @param nextSegment The next segment to start.
+   * @param checkpointDirectory The checkpoint directory.
+   * @param count The number of events handled.
+   * @return A future that completes once no segments are left.
+   */
+  private CompletableFuture<Void> rebuildSegments(
+      AtomicInteger nextSegment, Path checkpointDirectory, AtomicLong count) {
+    int segment = nextSegment.getAndIncrement();
+
+    if (segment >= totalSegments) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Path checkpoint = checkpointDirectory.resolve("segment-" + segment + ".checkpoint");
+    Map<String, AttributeValue> startKey;
+
+    try {
+      startKey = readCheckpoint(checkpoint);
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(new UncheckedIOException(e));
+    }
+
+    CompletableFuture<Void> replay =
+        startKey != null && startKey.isEmpty()
+            ? CompletableFuture.completedFuture(null)
+            : scanSegment(segment, startKey, new PendingCommitFilter(), checkpoint, count);
+
+    return replay.thenCompose(x -> rebuildSegments(nextSegment, checkpointDirectory, count));
+  }
+
+  /**
+   * Scan a segment page by page, handling each page before the next is read.
+   *
+   * @param segment The segment.
+   * @param startKey The key to continue after or null to start at the beginning.
+   * @param filter The filter that holds back the events of incomplete commits.
+   * @param checkpoint The checkpoint file of the segment.
+   * @param count The number of events handled.
+   * @return A future that completes once the whole segment has been handled.
+   */
+  private CompletableFuture<Void> scanSegment(
+      int segment,
+      Map<String, AttributeValue> startKey,
+      PendingCommitFilter filter,
+      Path checkpoint,
+      AtomicLong count) {
+    ScanRequest.Builder request =
+        ScanRequest.builder()
+            .tableName(tableName)
+            .segment(segment)
+            .totalSegments(totalSegments)
+            .consistentRead(true);
+
+    if (startKey != null) {
+      request.exclusiveStartKey(startKey);
+    }
+
+    return ddbClient
+        .scan(request.build())
+        .thenCompose(
+            response ->
+                handlePage(response.items(), filter, count)
+                    .thenCompose(
+                        x -> {
+                          Map<String, AttributeValue> lastKey = getLastEvaluatedKey(response);
+
+                          // An incomplete commit at the end of the page may still complete on the
+                          // next one, so the segment is only checkpointed past it once it has.
+                          if (lastKey.isEmpty() || !filter.isHolding()) {
+                            writeCheckpoint(checkpoint, lastKey);
+                          }
+
+                          return lastKey.isEmpty()
+                              ? CompletableFuture.completedFuture(null)
+                              : scanSegment(segment, lastKey, filter, checkpoint, count);
+                        }));
+  }
+
+  /**
+   * Handle the events of a page. Aggregates are handled in parallel and the events of each
+   * aggregate in version order.
+   *
+   * @param items The items of the page.
+   * @param filter The filter that holds back the events of incomplete commits.
+   * @param count The number of events handled.
+   * @return A future that completes once every event has been handled.
+   */
+  private CompletableFuture<Void> handlePage(
+      List<Map<String, AttributeValue>> items, PendingCommitFilter filter, AtomicLong count) {
+    Map<String, List<Map<String, AttributeValue>>> aggregates = new LinkedHashMap<>();
+
+    for (Map<String, AttributeValue> item : items) {
+      aggregates.computeIfAbsent(item.get(ID_ATTRIBUTE).s(), id -> new ArrayList<>()).add(item);
+    }
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>(aggregates.size());
+
+    for (List<Map<String, AttributeValue>> aggregateItems : aggregates.values()) {
+      aggregateItems.sort(
+          Comparator.comparingLong(item -> Long.parseLong(item.get(VERSION_ATTRIBUTE).n())));
+      List<Event> events = toEvents(filter.filter(aggregateItems));
+      count.addAndGet(events.size());
+      futures.add(handleInOrder(events, 0));
+    }
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+  }
+
+  private CompletableFuture<Void> handleInOrder(List<Event> events, int index) {
+    if (index == events.size()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return eventBus.handle(events.get(index)).thenCompose(x -> handleInOrder(events, index + 1));
+  }
+
+  private List<Event> toEvents(List<Map<String, AttributeValue>> items) {
+    List<Event> events = new ArrayList<>(items.size());
+
+    for (Map<String, AttributeValue> item : items) {
+      // A commit written as a single item carries all of its events in order.
+      if (item.containsKey(EVENTS_ATTRIBUTE)) {
+        item.get(EVENTS_ATTRIBUTE).l().forEach(packed -> events.add(toEvent(packed.m())));
+      } else {
+        events.add(toEvent(item));
+      }
+    }
+
+    return events;
+  }
+
+  private Event toEvent(Map<String, AttributeValue> attributes) {
+    AttributeValue payload = attributes.get(EVENT_ATTRIBUTE);
+
+    try {
+      Class<? extends Event> eventType = eventTypes.getType(attributes.get(KIND_ATTRIBUTE).s());
+      return payload.b() != null
+          ? deserializer.deserialize(payload.b().asByteArrayUnsafe(), eventType)
+          : deserializer.deserialize(payload.s(), eventType);
+    } catch (ClassNotFoundException | ClassCastException | SerializationException e) {
+      throw new DeserializationException(e);
+    }
+  }
+
+  private static Map<String, AttributeValue> getLastEvaluatedKey(ScanResponse response) {
+    return response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : Map.of();
+  }
+
+  /**
+   * Read the checkpoint of a segment.
+   *
+   * @param checkpoint The checkpoint file.
+   * @return Null when the segment hasn't been started, an empty key when it is done and otherwise
+   *     the key to continue after.
+   * @throws IOException
+   */
+  private static Map<String, AttributeValue> readCheckpoint(Path checkpoint) throws IOException {
+    if (!Files.exists(checkpoint)) {
+      return null;
+    }
+
+    String[] parts = Files.readString(checkpoint, StandardCharsets.UTF_8).trim().split(" ");
+
+    if (parts.length == 1 && parts[0].equals(DONE)) {
+      return Map.of();
+    }
+
+    if (parts.length != 2) {
+      throw new IOException("The checkpoint " + checkpoint + " is invalid.");
+    }
+
+    return Map.of(
+        ID_ATTRIBUTE, AttributeValue.builder().s(parts[0]).build(),
+        VERSION_ATTRIBUTE, AttributeValue.builder().n(parts[1]).build());
+  }
+
+  /**
+   * Replace the checkpoint of a segment in a single step so that a crash never leaves a partial
+   * checkpoint.
+   *
+   * @param checkpoint The checkpoint file.
+   * @param lastKey The key of the last handled item or an empty key when the segment is done.
+   */
+  private static void writeCheckpoint(Path checkpoint, Map<String, AttributeValue> lastKey) {
+    String content =
+        lastKey.isEmpty()
+            ? DONE
+            : lastKey.get(ID_ATTRIBUTE).s() + " " + lastKey.get(VERSION_ATTRIBUTE).n();
+    Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+
+    try {
+      Files.writeString(temporary, content, StandardCharsets.UTF_8);
+      Files.move(
+          temporary,
+          checkpoint,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -6,4 +6,8 @@ public class AccountAttributes {
   public static final String FIRST_NAME_ATTRIBUTE = "firstName";
   public static final String LAST_NAME_ATTRIBUTE = "lastName";
   public static final String BALANCE_ATTRIBUTE = "balance";
+  public static final String SHARDS_ATTRIBUTE = "shards";
+
+  /** The prefix of the attributes that hold the amount available in each sub-ledger */
+  public static final String SUB_LEDGER_ATTRIBUTE_PREFIX = "subLedger-";
 }
@@ -0,0 +1,49 @@
+package com.aws.cqrs.ddbconsumer.eventhandlers;
+
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SHARDS_ATTRIBUTE;
+
+import com.aws.cqrs.application.EventHandler;
+import com.aws.cqrs.domain.AccountSharded;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * Records that an account is sharded. From then on the events of the account no longer set its
+ * balance, it is derived from the sub-ledgers instead, see {@link ShardedBalance}.
+ */
+public class AccountShardedEventHandler implements EventHandler<AccountSharded> {
+  private final DynamoDbAsyncClient dynamoDbAsyncClient;
+
+  public AccountShardedEventHandler(DynamoDbAsyncClient dynamoDbAsyncClient) {
+    this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+  }
+
+  @Override
+  public CompletableFuture<Void> handle(AccountSharded event) {
+    UpdateItemRequest updateItemRequest =
+        UpdateItemRequest.builder()
+            .tableName("Account")
+            .key(
+                Collections.singletonMap(
+                    ID_ATTRIBUTE,
+                    AttributeValue.builder().s(event.getAccountId().toString()).build()))
+            .updateExpression("SET #shards = :shards")
+            .expressionAttributeNames(Collections.singletonMap("#shards", SHARDS_ATTRIBUTE))
+            .expressionAttributeValues(
+                Collections.singletonMap(
+                    ":shards",
+                    AttributeValue.builder().n(String.valueOf(event.getShards())).build()))
+            .returnValues(ReturnValue.ALL_NEW)
+            .build();
+
+    return dynamoDbAsyncClient
+        .updateItem(updateItemRequest)
+        .thenCompose(
+            response -> ShardedBalance.refresh(dynamoDbAsyncClient, response.attributes()));
+  }
+}
@@ -2,10 +2,12 @@ package com.aws.cqrs.ddbconsumer.eventhandlers;
 
 import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.BALANCE_ATTRIBUTE;
 import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SHARDS_ATTRIBUTE;
 
 import com.aws.cqrs.application.EventHandler;
 import com.aws.cqrs.domain.Overdrawn;
 import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
@@ -27,14 +29,17 @@ public class OverdrawnEventHandler implements EventHandler<Overdrawn> {
                 Collections.singletonMap(
                     ID_ATTRIBUTE,
                     AttributeValue.builder().s(event.getAccountId().toString()).build()))
-            .updateExpression("SET #balance :balance")
-            .expressionAttributeNames(Collections.singletonMap(BALANCE_ATTRIBUTE, "#balance"))
+            .updateExpression("SET #balance = :balance")
+            .conditionExpression("attribute_not_exists(#shards)")
+            .expressionAttributeNames(
+                Map.of("#balance", BALANCE_ATTRIBUTE, "#shards", SHARDS_ATTRIBUTE))
             .expressionAttributeValues(
                 Collections.singletonMap(
                     ":balance",
                     AttributeValue.builder().n(event.getNewBalance().toString()).build()))
             .build();
 
-    return dynamoDbAsyncClient.updateItem(updateItemRequest).thenAccept(x -> {});
+    // Once the account is sharded its balance is derived from the sub-ledgers.
+    return ShardedBalance.ignoreConditionFailed(dynamoDbAsyncClient.updateItem(updateItemRequest));
   }
 }
@@ -0,0 +1,106 @@
+package com.aws.cqrs.ddbconsumer.eventhandlers;
+
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.BALANCE_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SHARDS_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SUB_LEDGER_ATTRIBUTE_PREFIX;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * Derives the balance of a sharded account from the amounts available in its sub-ledgers, which the
+ * account item holds one attribute each. The sub-ledgers are projected from streams of their own
+ * that are handled in parallel, so the balance is only written while the amounts it was summed from
+ * are still the ones in the table. When another sub-ledger changed in the meantime, the handler of
+ * that change writes the balance instead.
+ */
+final class ShardedBalance {
+
+  private ShardedBalance() {}
+
+  /**
+   * Write the balance of a sharded account once the account is sharded and every sub-ledger has
+   * been opened.
+   *
+   * @param dynamoDbAsyncClient The DynamoDB client.
+   * @param item The account item after the latest change.
+   * @return A future that completes once the balance has been written or left to a newer change.
+   */
+  static CompletableFuture<Void> refresh(
+      DynamoDbAsyncClient dynamoDbAsyncClient, Map<String, AttributeValue> item) {
+    AttributeValue shards = item.get(SHARDS_ATTRIBUTE);
+    if (shards == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Map<String, String> attributeNames = new HashMap<>();
+    Map<String, AttributeValue> attributeValues = new HashMap<>();
+    List<String> conditions = new ArrayList<>();
+    BigDecimal balance = BigDecimal.ZERO;
+
+    for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+      if (attribute.getKey().startsWith(SUB_LEDGER_ATTRIBUTE_PREFIX)) {
+        int index = conditions.size();
+        attributeNames.put("#subLedger" + index, attribute.getKey());
+        attributeValues.put(":subLedger" + index, attribute.getValue());
+        conditions.add("#subLedger" + index + " = :subLedger" + index);
+        balance = balance.add(new BigDecimal(attribute.getValue().n()));
+      }
+    }
+
+    // The sub-ledgers that haven't been projected yet write the balance once they are.
+    if (conditions.size() < Integer.parseInt(shards.n())) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    attributeNames.put("#balance", BALANCE_ATTRIBUTE);
+    attributeValues.put(":balance", AttributeValue.builder().n(balance.toString()).build());
+
+    UpdateItemRequest updateItemRequest =
+        UpdateItemRequest.builder()
+            .tableName("Account")
+            .key(Collections.singletonMap(ID_ATTRIBUTE, item.get(ID_ATTRIBUTE)))
+            .updateExpression("SET #balance = :balance")
+            .conditionExpression(String.join(" AND ", conditions))
+            .expressionAttributeNames(attributeNames)
+            .expressionAttributeValues(attributeValues)
+            .build();
+
+    return ignoreConditionFailed(dynamoDbAsyncClient.updateItem(updateItemRequest));
+  }
+
+  /**
+   * Treat an update whose condition failed as done.
+   *
+   * @param update The update.
+   * @return A future that only fails when the update failed for another reason.
+   */
+  static CompletableFuture<Void> ignoreConditionFailed(CompletableFuture<?> update) {
+    return update.handle(
+        (response, exception) -> {
+          if (exception == null || isConditionFailed(exception)) {
+            return null;
+          }
+
+          throw exception instanceof CompletionException
+              ? (CompletionException) exception
+              : new CompletionException(exception);
+        });
+  }
+
+  private static boolean isConditionFailed(Throwable exception) {
+    Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+    return cause instanceof ConditionalCheckFailedException;
+  }
+}
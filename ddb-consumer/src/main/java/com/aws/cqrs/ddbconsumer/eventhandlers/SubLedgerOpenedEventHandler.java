@@ -0,0 +1,52 @@
+package com.aws.cqrs.ddbconsumer.eventhandlers;
+
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SUB_LEDGER_ATTRIBUTE_PREFIX;
+
+import com.aws.cqrs.application.EventHandler;
+import com.aws.cqrs.domain.SubLedgerOpened;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * Records the headroom a sub-ledger starts with on its account and derives the balance of the
+ * account from its sub-ledgers, see {@link ShardedBalance}. A redelivered event doesn't overwrite
+ * postings that were recorded since.
+ */
+public class SubLedgerOpenedEventHandler implements EventHandler<SubLedgerOpened> {
+  private final DynamoDbAsyncClient dynamoDbAsyncClient;
+
+  public SubLedgerOpenedEventHandler(DynamoDbAsyncClient dynamoDbAsyncClient) {
+    this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+  }
+
+  @Override
+  public CompletableFuture<Void> handle(SubLedgerOpened event) {
+    UpdateItemRequest updateItemRequest =
+        UpdateItemRequest.builder()
+            .tableName("Account")
+            .key(
+                Collections.singletonMap(
+                    ID_ATTRIBUTE,
+                    AttributeValue.builder().s(event.getAccountId().toString()).build()))
+            .updateExpression("SET #available = if_not_exists(#available, :headroom)")
+            .expressionAttributeNames(
+                Collections.singletonMap(
+                    "#available", SUB_LEDGER_ATTRIBUTE_PREFIX + event.getSubLedgerId()))
+            .expressionAttributeValues(
+                Collections.singletonMap(
+                    ":headroom",
+                    AttributeValue.builder().n(event.getHeadroom().toString()).build()))
+            .returnValues(ReturnValue.ALL_NEW)
+            .build();
+
+    return dynamoDbAsyncClient
+        .updateItem(updateItemRequest)
+        .thenCompose(
+            response -> ShardedBalance.refresh(dynamoDbAsyncClient, response.attributes()));
+  }
+}
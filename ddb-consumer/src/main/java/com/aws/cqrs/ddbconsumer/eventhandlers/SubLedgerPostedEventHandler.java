@@ -0,0 +1,53 @@
+package com.aws.cqrs.ddbconsumer.eventhandlers;
+
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SUB_LEDGER_ATTRIBUTE_PREFIX;
+
+import com.aws.cqrs.application.EventHandler;
+import com.aws.cqrs.domain.SubLedgerPosted;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * Records the amount available in a sub-ledger after a posting on its account and derives the
+ * balance of the account from its sub-ledgers, see {@link ShardedBalance}. The postings of a
+ * sub-ledger arrive in order and a redelivered posting is followed by the ones after it again, so
+ * the amount ends up at the latest posting.
+ */
+public class SubLedgerPostedEventHandler implements EventHandler<SubLedgerPosted> {
+  private final DynamoDbAsyncClient dynamoDbAsyncClient;
+
+  public SubLedgerPostedEventHandler(DynamoDbAsyncClient dynamoDbAsyncClient) {
+    this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+  }
+
+  @Override
+  public CompletableFuture<Void> handle(SubLedgerPosted event) {
+    UpdateItemRequest updateItemRequest =
+        UpdateItemRequest.builder()
+            .tableName("Account")
+            .key(
+                Collections.singletonMap(
+                    ID_ATTRIBUTE,
+                    AttributeValue.builder().s(event.getAccountId().toString()).build()))
+            .updateExpression("SET #available = :newAvailable")
+            .expressionAttributeNames(
+                Collections.singletonMap(
+                    "#available", SUB_LEDGER_ATTRIBUTE_PREFIX + event.getSubLedgerId()))
+            .expressionAttributeValues(
+                Collections.singletonMap(
+                    ":newAvailable",
+                    AttributeValue.builder().n(event.getNewAvailable().toString()).build()))
+            .returnValues(ReturnValue.ALL_NEW)
+            .build();
+
+    return dynamoDbAsyncClient
+        .updateItem(updateItemRequest)
+        .thenCompose(
+            response -> ShardedBalance.refresh(dynamoDbAsyncClient, response.attributes()));
+  }
+}
@@ -1,6 +1,8 @@
 package com.aws.cqrs.ddbconsumer;
 
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbCommitEventStore.EVENTS_ATTRIBUTE;
 import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -10,14 +12,31 @@ import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord
 import com.aws.cqrs.application.OffsetDateTimeDeserializer;
 import com.aws.cqrs.ddbconsumer.exceptions.DeserializationException;
 import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.AccountSharded;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.domain.SubLedger;
+import com.aws.cqrs.domain.SubLedgerOpened;
+import com.aws.cqrs.domain.SubLedgerPosted;
 import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore;
+import com.aws.cqrs.infrastructure.persistence.EventStore;
+import com.aws.cqrs.infrastructure.serialization.BinaryEventSerializer;
+import com.aws.cqrs.infrastructure.serialization.StreamingJsonEventSerializer;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
 class DdbEventHandlerTest {
 
@@ -72,6 +91,248 @@ class DdbEventHandlerTest {
     verify(eventBus, times(1)).handle(any(Event.class));
   }
 
+  @Test
+  void when_handleRequest_binary_payload_expect_event_handled() {
+    // Arrange
+    EventBus eventBus = mock(EventBus.class);
+    BinaryEventSerializer serializer = new BinaryEventSerializer();
+    DdbEventHandler ddbEventHandler = new DdbEventHandler(eventBus, serializer);
+    DynamodbEvent dynamodbEvent = new DynamodbEvent();
+
+    Map<String, AttributeValue> attributes = new HashMap<>();
+    AccountCreated accountCreated = new AccountCreated(UUID.randomUUID(), "John", "Smith");
+    attributes.put(KIND_ATTRIBUTE, new AttributeValue().withS(accountCreated.getClass().getName()));
+    attributes.put(
+        EVENT_ATTRIBUTE,
+        new AttributeValue().withB(ByteBuffer.wrap(serializer.serialize(accountCreated))));
+
+    List<DynamodbEvent.DynamodbStreamRecord> records = new ArrayList<>();
+    DynamodbEvent.DynamodbStreamRecord dynamodbStreamRecord =
+        new DynamodbEvent.DynamodbStreamRecord();
+    dynamodbStreamRecord.setDynamodb(new StreamRecord().withNewImage(attributes));
+    dynamodbStreamRecord
+        .getDynamodb()
+        .setKeys(Map.of(ID_ATTRIBUTE, new AttributeValue().withS(UUID.randomUUID().toString())));
+    records.add(dynamodbStreamRecord);
+    dynamodbEvent.setRecords(records);
+
+    ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+    doReturn(CompletableFuture.completedFuture(true)).when(eventBus).handle(eventCaptor.capture());
+
+    // Act
+    ddbEventHandler.handleRequest(dynamodbEvent, null);
+
+    // Assert
+    AccountCreated handled = (AccountCreated) eventCaptor.getValue();
+    assertEquals(accountCreated.getAccountId(), handled.getAccountId());
+    assertEquals("Smith", handled.getLastName());
+  }
+
+  @Test
+  void when_handleRequest_chunked_commit_expect_events_handled_once_committed() {
+    // Arrange
+    EventBus eventBus = mock(EventBus.class);
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    StreamingJsonEventSerializer serializer = new StreamingJsonEventSerializer();
+    EventStore eventStore = new DynamoDbEventStore("EventStore", dynamoDbAsyncClient, serializer);
+    DdbEventHandler ddbEventHandler = new DdbEventHandler(eventBus, serializer, eventStore);
+    DynamodbEvent dynamodbEvent = new DynamodbEvent();
+    UUID accountId = UUID.randomUUID();
+    Deposited first = new Deposited(accountId, BigDecimal.ONE, BigDecimal.ONE);
+    Deposited second = new Deposited(accountId, BigDecimal.ONE, new BigDecimal(2));
+
+    Map<String, AttributeValue> pending = new HashMap<>();
+    pending.put(ID_ATTRIBUTE, new AttributeValue().withS(accountId.toString()));
+    pending.put(VERSION_ATTRIBUTE, new AttributeValue().withN("2"));
+    pending.put(KIND_ATTRIBUTE, new AttributeValue().withS(Deposited.class.getName()));
+    pending.put(EVENT_ATTRIBUTE, new AttributeValue().withS(gson.toJson(first)));
+    pending.put(COMMIT_ATTRIBUTE, new AttributeValue().withS("commit"));
+
+    Map<String, AttributeValue> last = new HashMap<>(pending);
+    last.put(VERSION_ATTRIBUTE, new AttributeValue().withN("3"));
+    last.put(EVENT_ATTRIBUTE, new AttributeValue().withS(gson.toJson(second)));
+    last.put(COMMIT_FROM_ATTRIBUTE, new AttributeValue().withN("2"));
+
+    List<DynamodbEvent.DynamodbStreamRecord> records = new ArrayList<>();
+    for (Map<String, AttributeValue> attributes : List.of(pending, last)) {
+      DynamodbEvent.DynamodbStreamRecord dynamodbStreamRecord =
+          new DynamodbEvent.DynamodbStreamRecord();
+      dynamodbStreamRecord.setDynamodb(new StreamRecord().withNewImage(attributes));
+      dynamodbStreamRecord
+          .getDynamodb()
+          .setKeys(Map.of(ID_ATTRIBUTE, new AttributeValue().withS(accountId.toString())));
+      records.add(dynamodbStreamRecord);
+    }
+    dynamodbEvent.setRecords(records);
+
+    // The event store reads the items of the commit back from the table.
+    when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              QueryRequest queryRequest = invocation.getArgument(0);
+              long fromVersion =
+                  Long.parseLong(queryRequest.expressionAttributeValues().get(":fromVersion").n());
+              long toVersion =
+                  Long.parseLong(queryRequest.expressionAttributeValues().get(":toVersion").n());
+              List<Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue>>
+                  items = new ArrayList<>();
+              for (Map<String, AttributeValue> attributes : List.of(pending, last)) {
+                long version = Long.parseLong(attributes.get(VERSION_ATTRIBUTE).getN());
+                if (version >= fromVersion && version <= toVersion) {
+                  items.add(toItem(attributes));
+                }
+              }
+              return CompletableFuture.completedFuture(
+                  QueryResponse.builder().items(items).build());
+            });
+    ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+    doReturn(CompletableFuture.completedFuture(true)).when(eventBus).handle(eventCaptor.capture());
+
+    // Act
+    ddbEventHandler.handleRequest(dynamodbEvent, null);
+
+    // Assert
+    List<Event> handled = eventCaptor.getAllValues();
+    assertEquals(2, handled.size());
+    assertEquals(BigDecimal.ONE, ((Deposited) handled.get(0)).getNewBalance());
+    assertEquals(new BigDecimal(2), ((Deposited) handled.get(1)).getNewBalance());
+  }
+
+  /**
+   * Convert the attributes of a stream record into the item the table holds.
+   *
+   * @param attributes The attributes of the stream record.
+   * @return The item.
+   */
+  private static Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> toItem(
+      Map<String, AttributeValue> attributes) {
+    Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> item =
+        new HashMap<>();
+    attributes.forEach(
+        (name, value) ->
+            item.put(
+                name,
+                value.getN() != null
+                    ? software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder()
+                        .n(value.getN())
+                        .build()
+                    : software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder()
+                        .s(value.getS())
+                        .build()));
+    return item;
+  }
+
+  @Test
+  void when_handleRequest_commit_item_expect_packed_events_handled_in_order() {
+    // Arrange
+    EventBus eventBus = mock(EventBus.class);
+    BinaryEventSerializer serializer = new BinaryEventSerializer();
+    DdbEventHandler ddbEventHandler = new DdbEventHandler(eventBus, serializer);
+    DynamodbEvent dynamodbEvent = new DynamodbEvent();
+    UUID accountId = UUID.randomUUID();
+
+    List<AttributeValue> packed = new ArrayList<>();
+    for (int balance = 1; balance <= 2; balance++) {
+      Deposited deposited = new Deposited(accountId, BigDecimal.ONE, new BigDecimal(balance));
+      packed.add(
+          new AttributeValue()
+              .withM(
+                  Map.of(
+                      KIND_ATTRIBUTE,
+                      new AttributeValue().withS(Deposited.class.getName()),
+                      EVENT_ATTRIBUTE,
+                      new AttributeValue()
+                          .withB(ByteBuffer.wrap(serializer.serialize(deposited))))));
+    }
+
+    Map<String, AttributeValue> attributes = new HashMap<>();
+    attributes.put(ID_ATTRIBUTE, new AttributeValue().withS(accountId.toString()));
+    attributes.put(VERSION_ATTRIBUTE, new AttributeValue().withN("2"));
+    attributes.put(EVENTS_ATTRIBUTE, new AttributeValue().withL(packed));
+
+    DynamodbEvent.DynamodbStreamRecord dynamodbStreamRecord =
+        new DynamodbEvent.DynamodbStreamRecord();
+    dynamodbStreamRecord.setDynamodb(new StreamRecord().withNewImage(attributes));
+    dynamodbStreamRecord
+        .getDynamodb()
+        .setKeys(Map.of(ID_ATTRIBUTE, new AttributeValue().withS(accountId.toString())));
+    dynamodbEvent.setRecords(List.of(dynamodbStreamRecord));
+
+    ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+    doReturn(CompletableFuture.completedFuture(true)).when(eventBus).handle(eventCaptor.capture());
+
+    // Act
+    ddbEventHandler.handleRequest(dynamodbEvent, null);
+
+    // Assert
+    List<Event> handled = eventCaptor.getAllValues();
+    assertEquals(2, handled.size());
+    assertEquals(BigDecimal.ONE, ((Deposited) handled.get(0)).getNewBalance());
+    assertEquals(new BigDecimal(2), ((Deposited) handled.get(1)).getNewBalance());
+  }
+
+  @Test
+  void when_handleRequest_sharded_account_expect_sub_ledger_postings_projected() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    EventBus eventBus = new DdbConsumerModule().provideDomainEventHandler(dynamoDbAsyncClient);
+    DdbEventHandler ddbEventHandler = new DdbEventHandler(eventBus, gson);
+    DynamodbEvent dynamodbEvent = new DynamodbEvent();
+    UUID accountId = UUID.randomUUID();
+    UUID subLedgerId = SubLedger.subLedgerId(accountId, 0);
+
+    Map<String, Event> events = new LinkedHashMap<>();
+    events.put("shd.v1", new AccountSharded(accountId, 2, new BigDecimal(100)));
+    events.put("sub.v1", new SubLedgerOpened(subLedgerId, accountId, 0, new BigDecimal(50)));
+    events.put(
+        "pst.v1",
+        new SubLedgerPosted(
+            subLedgerId,
+            accountId,
+            UUID.randomUUID(),
+            SubLedgerPosted.DEPOSIT,
+            BigDecimal.TEN,
+            new BigDecimal(60),
+            false));
+
+    List<DynamodbEvent.DynamodbStreamRecord> records = new ArrayList<>();
+    for (Map.Entry<String, Event> event : events.entrySet()) {
+      Map<String, AttributeValue> attributes = new HashMap<>();
+      attributes.put(KIND_ATTRIBUTE, new AttributeValue().withS(event.getKey()));
+      attributes.put(EVENT_ATTRIBUTE, new AttributeValue().withS(gson.toJson(event.getValue())));
+
+      DynamodbEvent.DynamodbStreamRecord dynamodbStreamRecord =
+          new DynamodbEvent.DynamodbStreamRecord();
+      dynamodbStreamRecord.setDynamodb(new StreamRecord().withNewImage(attributes));
+      dynamodbStreamRecord
+          .getDynamodb()
+          .setKeys(Map.of(ID_ATTRIBUTE, new AttributeValue().withS(UUID.randomUUID().toString())));
+      records.add(dynamodbStreamRecord);
+    }
+    dynamodbEvent.setRecords(records);
+
+    ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor =
+        ArgumentCaptor.forClass(UpdateItemRequest.class);
+    when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(UpdateItemResponse.builder().build()));
+
+    // Act
+    ddbEventHandler.handleRequest(dynamodbEvent, null);
+
+    // Assert
+    verify(dynamoDbAsyncClient, times(3)).updateItem(updateItemRequestArgumentCaptor.capture());
+    Map<String, AttributeValue> values = new HashMap<>();
+    for (UpdateItemRequest updateItemRequest : updateItemRequestArgumentCaptor.getAllValues()) {
+      assertEquals(accountId.toString(), updateItemRequest.key().get(ID_ATTRIBUTE).s());
+      updateItemRequest
+          .expressionAttributeValues()
+          .forEach((name, value) -> values.put(name, new AttributeValue().withN(value.n())));
+    }
+    assertEquals("2", values.get(":shards").getN());
+    assertEquals(new BigDecimal(50), new BigDecimal(values.get(":headroom").getN()));
+    assertEquals(new BigDecimal(60), new BigDecimal(values.get(":newAvailable").getN()));
+  }
+
   @Test
   void when_handleRequest_expect_DeserializationException() {
     // Arrange
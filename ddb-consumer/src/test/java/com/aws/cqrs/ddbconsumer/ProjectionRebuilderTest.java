@@ -0,0 +1,184 @@
+package com.aws.cqrs.ddbconsumer;
+
+import static com.aws.cqrs.infrastructure.persistence.DynamoDbEventStore.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.domain.AccountCreated;
+import com.aws.cqrs.domain.Deposited;
+import com.aws.cqrs.infrastructure.messaging.Event;
+import com.aws.cqrs.infrastructure.serialization.BinaryEventSerializer;
+import com.aws.cqrs.infrastructure.serialization.EventTypeRegistry;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+class ProjectionRebuilderTest {
+
+  private static final String TABLE = "EventStore";
+
+  private final BinaryEventSerializer serializer = new BinaryEventSerializer();
+
+  @TempDir Path checkpoints;
+
+  @Test
+  void when_rebuild_expect_events_handled_in_version_order() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient client = mock(DynamoDbAsyncClient.class);
+    EventBus eventBus = mock(EventBus.class);
+    List<Event> handled = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              synchronized (handled) {
+                handled.add(invocation.getArgument(0));
+              }
+              return CompletableFuture.completedFuture(true);
+            })
+        .when(eventBus)
+        .handle(any(Event.class));
+
+    Map<String, AttributeValue> lastKey = key(accountId, 2);
+    when(client.scan(any(ScanRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              ScanRequest request = invocation.getArgument(0);
+              if (request.segment() == 1) {
+                return CompletableFuture.completedFuture(ScanResponse.builder().build());
+              }
+              if (!request.hasExclusiveStartKey()) {
+                return CompletableFuture.completedFuture(
+                    ScanResponse.builder()
+                        .items(
+                            List.of(
+                                item(accountId, 2, deposited(accountId, 2)),
+                                item(accountId, 1, new AccountCreated(accountId, "John", "Doe"))))
+                        .lastEvaluatedKey(lastKey)
+                        .build());
+              }
+              return CompletableFuture.completedFuture(
+                  ScanResponse.builder()
+                      .items(List.of(item(accountId, 3, deposited(accountId, 3))))
+                      .build());
+            });
+
+    ProjectionRebuilder rebuilder =
+        new ProjectionRebuilder(
+            TABLE, client, serializer, EventTypeRegistry.getDefault(), eventBus, 2, 2);
+
+    // Act
+    long count = rebuilder.rebuild(checkpoints);
+
+    // Assert
+    assertEquals(3, count);
+    assertTrue(handled.get(0) instanceof AccountCreated);
+    assertEquals(new BigDecimal(2), ((Deposited) handled.get(1)).getNewBalance());
+    assertEquals(new BigDecimal(3), ((Deposited) handled.get(2)).getNewBalance());
+    assertEquals("done", Files.readString(checkpoints.resolve("segment-0.checkpoint")));
+    assertEquals("done", Files.readString(checkpoints.resolve("segment-1.checkpoint")));
+  }
+
+  @Test
+  void when_rebuild_resumed_expect_scan_continues_from_checkpoint() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient client = mock(DynamoDbAsyncClient.class);
+    EventBus eventBus = mock(EventBus.class);
+    doReturn(CompletableFuture.completedFuture(true)).when(eventBus).handle(any(Event.class));
+    when(client.scan(any(ScanRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ScanResponse.builder()
+                    .items(List.of(item(accountId, 5, deposited(accountId, 5))))
+                    .build()));
+
+    Files.writeString(checkpoints.resolve("segment-0.checkpoint"), "done");
+    Files.writeString(
+        checkpoints.resolve("segment-1.checkpoint"), accountId + " 4", StandardCharsets.UTF_8);
+
+    ProjectionRebuilder rebuilder =
+        new ProjectionRebuilder(
+            TABLE, client, serializer, EventTypeRegistry.getDefault(), eventBus, 2, 1);
+
+    // Act
+    long count = rebuilder.rebuild(checkpoints);
+
+    // Assert
+    ArgumentCaptor<ScanRequest> captor = ArgumentCaptor.forClass(ScanRequest.class);
+    verify(client, times(1)).scan(captor.capture());
+    assertEquals(1, captor.getValue().segment());
+    assertEquals(key(accountId, 4), captor.getValue().exclusiveStartKey());
+    assertEquals(1, count);
+  }
+
+  @Test
+  void when_rebuild_incomplete_commit_expect_events_skipped() throws Exception {
+    // Arrange
+    UUID accountId = UUID.randomUUID();
+    DynamoDbAsyncClient client = mock(DynamoDbAsyncClient.class);
+    EventBus eventBus = mock(EventBus.class);
+    doReturn(CompletableFuture.completedFuture(true)).when(eventBus).handle(any(Event.class));
+
+    Map<String, AttributeValue> pending = item(accountId, 2, deposited(accountId, 2));
+    pending.put(COMMIT_ATTRIBUTE, AttributeValue.builder().s("commit").build());
+    when(client.scan(any(ScanRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ScanResponse.builder()
+                    .items(
+                        List.of(
+                            item(accountId, 1, new AccountCreated(accountId, "John", "Doe")),
+                            pending))
+                    .build()));
+
+    ProjectionRebuilder rebuilder =
+        new ProjectionRebuilder(
+            TABLE, client, serializer, EventTypeRegistry.getDefault(), eventBus, 1, 1);
+
+    // Act
+    long count = rebuilder.rebuild(checkpoints);
+
+    // Assert
+    assertEquals(1, count);
+    verify(eventBus, times(1)).handle(any(AccountCreated.class));
+    verify(eventBus, never()).handle(any(Deposited.class));
+  }
+
+  private Map<String, AttributeValue> item(UUID accountId, long version, Event event) {
+    Map<String, AttributeValue> item = new HashMap<>(key(accountId, version));
+    item.put(
+        EVENT_ATTRIBUTE,
+        AttributeValue.builder().b(SdkBytes.fromByteArray(serializer.serialize(event))).build());
+    item.put(
+        KIND_ATTRIBUTE,
+        AttributeValue.builder()
+            .s(EventTypeRegistry.getDefault().getKind(event.getClass()))
+            .build());
+    return item;
+  }
+
+  private static Map<String, AttributeValue> key(UUID accountId, long version) {
+    return Map.of(
+        ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build(),
+        VERSION_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(version)).build());
+  }
+
+  private static Deposited deposited(UUID accountId, int newBalance) {
+    return new Deposited(accountId, BigDecimal.ONE, new BigDecimal(newBalance));
+  }
+}
@@ -0,0 +1,44 @@
+package com.aws.cqrs.ddbconsumer.eventhandlers;
+
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SHARDS_ATTRIBUTE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.domain.AccountSharded;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+class AccountShardedEventHandlerTest {
+  @Test
+  void when_handle_expect_shards_set_and_balance_kept() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    AccountShardedEventHandler eventHandler = new AccountShardedEventHandler(dynamoDbAsyncClient);
+    AccountSharded event = new AccountSharded(UUID.randomUUID(), 4, new BigDecimal(100));
+
+    ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor =
+        ArgumentCaptor.forClass(UpdateItemRequest.class);
+    when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(UpdateItemResponse.builder().build()));
+
+    // Act
+    eventHandler.handle(event).join();
+
+    // Assert
+    verify(dynamoDbAsyncClient, times(1)).updateItem(updateItemRequestArgumentCaptor.capture());
+    UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
+    assertEquals("Account", updateItemRequest.tableName());
+    assertEquals(event.getAccountId().toString(), updateItemRequest.key().get(ID_ATTRIBUTE).s());
+    assertEquals("SET #shards = :shards", updateItemRequest.updateExpression());
+    assertEquals(SHARDS_ATTRIBUTE, updateItemRequest.expressionAttributeNames().get("#shards"));
+    assertEquals("4", updateItemRequest.expressionAttributeValues().get(":shards").n());
+  }
+}
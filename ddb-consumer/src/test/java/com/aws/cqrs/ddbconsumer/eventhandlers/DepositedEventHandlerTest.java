@@ -2,6 +2,7 @@ package com.aws.cqrs.ddbconsumer.eventhandlers;
 
 import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.BALANCE_ATTRIBUTE;
 import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SHARDS_ATTRIBUTE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
@@ -41,14 +43,29 @@ class DepositedEventHandlerTest {
     assertEquals("Account", updateItemRequest.tableName());
     assertEquals(1, updateItemRequest.key().size());
     assertEquals(event.getAccountId().toString(), updateItemRequest.key().get(ID_ATTRIBUTE).s());
-    assertEquals("SET #balance :balance", updateItemRequest.updateExpression());
+    assertEquals("SET #balance = :balance", updateItemRequest.updateExpression());
+    assertEquals("attribute_not_exists(#shards)", updateItemRequest.conditionExpression());
 
     Map<String, String> attributeNames = updateItemRequest.expressionAttributeNames();
-    assertTrue(attributeNames.containsKey(BALANCE_ATTRIBUTE));
-    assertEquals("#balance", attributeNames.get(BALANCE_ATTRIBUTE));
+    assertEquals(BALANCE_ATTRIBUTE, attributeNames.get("#balance"));
+    assertEquals(SHARDS_ATTRIBUTE, attributeNames.get("#shards"));
 
     Map<String, AttributeValue> attributeValues = updateItemRequest.expressionAttributeValues();
     assertTrue(attributeValues.containsKey(":balance"));
     assertEquals(event.getNewBalance(), new BigDecimal(attributeValues.get(":balance").n()));
   }
+
+  @Test
+  void when_handle_sharded_account_expect_balance_left_to_sub_ledgers() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    DepositedEventHandler eventHandler = new DepositedEventHandler(dynamoDbAsyncClient);
+    Deposited event = new Deposited(UUID.randomUUID(), new BigDecimal(100), new BigDecimal(100));
+    when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(ConditionalCheckFailedException.builder().build()));
+
+    // Act & Assert
+    assertDoesNotThrow(() -> eventHandler.handle(event).join());
+  }
 }
@@ -2,6 +2,7 @@ package com.aws.cqrs.ddbconsumer.eventhandlers;
 
 import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.BALANCE_ATTRIBUTE;
 import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SHARDS_ATTRIBUTE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -43,11 +44,12 @@ class OverdrawnEventHandlerTest {
     assertEquals("Account", updateItemRequest.tableName());
     assertEquals(1, updateItemRequest.key().size());
     assertEquals(event.getAccountId().toString(), updateItemRequest.key().get(ID_ATTRIBUTE).s());
-    assertEquals("SET #balance :balance", updateItemRequest.updateExpression());
+    assertEquals("SET #balance = :balance", updateItemRequest.updateExpression());
+    assertEquals("attribute_not_exists(#shards)", updateItemRequest.conditionExpression());
 
     Map<String, String> attributeNames = updateItemRequest.expressionAttributeNames();
-    assertTrue(attributeNames.containsKey(BALANCE_ATTRIBUTE));
-    assertEquals("#balance", attributeNames.get(BALANCE_ATTRIBUTE));
+    assertEquals(BALANCE_ATTRIBUTE, attributeNames.get("#balance"));
+    assertEquals(SHARDS_ATTRIBUTE, attributeNames.get("#shards"));
 
     Map<String, AttributeValue> attributeValues = updateItemRequest.expressionAttributeValues();
     assertTrue(attributeValues.containsKey(":balance"));
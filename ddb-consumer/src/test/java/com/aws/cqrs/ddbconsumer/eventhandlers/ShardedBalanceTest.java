@@ -0,0 +1,128 @@
+package com.aws.cqrs.ddbconsumer.eventhandlers;
+
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SHARDS_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SUB_LEDGER_ATTRIBUTE_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+class ShardedBalanceTest {
+  private final UUID accountId = UUID.randomUUID();
+
+  @Test
+  void when_refresh_every_sub_ledger_projected_expect_balance_guarded_by_sub_ledgers() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    Map<String, AttributeValue> item = item(2, "70", "50.50");
+    ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor =
+        ArgumentCaptor.forClass(UpdateItemRequest.class);
+    when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(UpdateItemResponse.builder().build()));
+
+    // Act
+    ShardedBalance.refresh(dynamoDbAsyncClient, item).join();
+
+    // Assert
+    verify(dynamoDbAsyncClient, times(1)).updateItem(updateItemRequestArgumentCaptor.capture());
+    UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
+    assertEquals(accountId.toString(), updateItemRequest.key().get(ID_ATTRIBUTE).s());
+    assertEquals(
+        new BigDecimal("120.50"),
+        new BigDecimal(updateItemRequest.expressionAttributeValues().get(":balance").n()));
+    assertEquals(
+        "#subLedger0 = :subLedger0 AND #subLedger1 = :subLedger1",
+        updateItemRequest.conditionExpression());
+    assertTrue(
+        updateItemRequest
+            .expressionAttributeNames()
+            .get("#subLedger0")
+            .startsWith(SUB_LEDGER_ATTRIBUTE_PREFIX));
+  }
+
+  @Test
+  void when_refresh_sub_ledger_missing_expect_no_balance() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+
+    // Act
+    ShardedBalance.refresh(dynamoDbAsyncClient, item(3, "70", "50")).join();
+
+    // Assert
+    verifyNoInteractions(dynamoDbAsyncClient);
+  }
+
+  @Test
+  void when_refresh_not_sharded_expect_no_balance() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    Map<String, AttributeValue> item = item(2, "70", "50");
+    item.remove(SHARDS_ATTRIBUTE);
+
+    // Act
+    ShardedBalance.refresh(dynamoDbAsyncClient, item).join();
+
+    // Assert
+    verifyNoInteractions(dynamoDbAsyncClient);
+  }
+
+  @Test
+  void when_refresh_sub_ledger_changed_expect_success() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(ConditionalCheckFailedException.builder().build()));
+
+    // Act & Assert
+    assertDoesNotThrow(() -> ShardedBalance.refresh(dynamoDbAsyncClient, item(2, "1", "2")).join());
+  }
+
+  @Test
+  void when_refresh_fails_expect_failure() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                ProvisionedThroughputExceededException.builder().build()));
+
+    // Act
+    CompletionException exception =
+        assertThrows(
+            CompletionException.class,
+            () -> ShardedBalance.refresh(dynamoDbAsyncClient, item(2, "1", "2")).join());
+
+    // Assert
+    assertInstanceOf(ProvisionedThroughputExceededException.class, exception.getCause());
+  }
+
+  private Map<String, AttributeValue> item(int shards, String... available) {
+    Map<String, AttributeValue> item = new HashMap<>();
+    item.put(ID_ATTRIBUTE, AttributeValue.builder().s(accountId.toString()).build());
+    item.put(SHARDS_ATTRIBUTE, AttributeValue.builder().n(String.valueOf(shards)).build());
+
+    for (int shard = 0; shard < available.length; shard++) {
+      item.put(
+          SUB_LEDGER_ATTRIBUTE_PREFIX + UUID.randomUUID(),
+          AttributeValue.builder().n(available[shard]).build());
+    }
+
+    return item;
+  }
+}
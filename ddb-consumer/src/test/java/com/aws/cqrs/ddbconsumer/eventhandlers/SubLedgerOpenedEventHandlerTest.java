@@ -0,0 +1,53 @@
+package com.aws.cqrs.ddbconsumer.eventhandlers;
+
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SUB_LEDGER_ATTRIBUTE_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.domain.SubLedger;
+import com.aws.cqrs.domain.SubLedgerOpened;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+class SubLedgerOpenedEventHandlerTest {
+  @Test
+  void when_handle_expect_headroom_recorded_on_account() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    SubLedgerOpenedEventHandler eventHandler = new SubLedgerOpenedEventHandler(dynamoDbAsyncClient);
+    UUID accountId = UUID.randomUUID();
+    SubLedgerOpened event =
+        new SubLedgerOpened(SubLedger.subLedgerId(accountId, 1), accountId, 1, new BigDecimal(25));
+
+    ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor =
+        ArgumentCaptor.forClass(UpdateItemRequest.class);
+    when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(UpdateItemResponse.builder().build()));
+
+    // Act
+    eventHandler.handle(event).join();
+
+    // Assert
+    verify(dynamoDbAsyncClient, times(1)).updateItem(updateItemRequestArgumentCaptor.capture());
+    UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
+    assertEquals("Account", updateItemRequest.tableName());
+    assertEquals(accountId.toString(), updateItemRequest.key().get(ID_ATTRIBUTE).s());
+    assertEquals(
+        "SET #available = if_not_exists(#available, :headroom)",
+        updateItemRequest.updateExpression());
+    assertEquals(
+        SUB_LEDGER_ATTRIBUTE_PREFIX + event.getSubLedgerId(),
+        updateItemRequest.expressionAttributeNames().get("#available"));
+    assertEquals(
+        new BigDecimal(25),
+        new BigDecimal(updateItemRequest.expressionAttributeValues().get(":headroom").n()));
+  }
+}
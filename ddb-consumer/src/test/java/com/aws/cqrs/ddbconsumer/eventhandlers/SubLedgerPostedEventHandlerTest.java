@@ -0,0 +1,89 @@
+package com.aws.cqrs.ddbconsumer.eventhandlers;
+
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.BALANCE_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.ID_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SHARDS_ATTRIBUTE;
+import static com.aws.cqrs.ddbconsumer.eventhandlers.AccountAttributes.SUB_LEDGER_ATTRIBUTE_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.aws.cqrs.domain.SubLedger;
+import com.aws.cqrs.domain.SubLedgerPosted;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+class SubLedgerPostedEventHandlerTest {
+  @Test
+  void when_handle_expect_available_recorded_and_balance_derived() {
+    // Arrange
+    DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    SubLedgerPostedEventHandler eventHandler = new SubLedgerPostedEventHandler(dynamoDbAsyncClient);
+    UUID accountId = UUID.randomUUID();
+    UUID subLedgerId = SubLedger.subLedgerId(accountId, 0);
+    SubLedgerPosted event =
+        new SubLedgerPosted(
+            subLedgerId,
+            accountId,
+            UUID.randomUUID(),
+            SubLedgerPosted.WITHDRAWAL,
+            new BigDecimal(-30),
+            new BigDecimal(70),
+            false);
+    Map<String, AttributeValue> item =
+        Map.of(
+            ID_ATTRIBUTE,
+            AttributeValue.builder().s(accountId.toString()).build(),
+            SHARDS_ATTRIBUTE,
+            AttributeValue.builder().n("2").build(),
+            SUB_LEDGER_ATTRIBUTE_PREFIX + subLedgerId,
+            AttributeValue.builder().n("70").build(),
+            SUB_LEDGER_ATTRIBUTE_PREFIX + SubLedger.subLedgerId(accountId, 1),
+            AttributeValue.builder().n("50").build());
+
+    ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor =
+        ArgumentCaptor.forClass(UpdateItemRequest.class);
+    when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                UpdateItemResponse.builder().attributes(item).build()))
+        .thenReturn(CompletableFuture.completedFuture(UpdateItemResponse.builder().build()));
+
+    // Act
+    eventHandler.handle(event).join();
+
+    // Assert
+    verify(dynamoDbAsyncClient, times(2)).updateItem(updateItemRequestArgumentCaptor.capture());
+    List<UpdateItemRequest> updateItemRequests = updateItemRequestArgumentCaptor.getAllValues();
+
+    UpdateItemRequest posting = updateItemRequests.get(0);
+    assertEquals("Account", posting.tableName());
+    assertEquals(accountId.toString(), posting.key().get(ID_ATTRIBUTE).s());
+    assertEquals("SET #available = :newAvailable", posting.updateExpression());
+    assertNull(posting.conditionExpression());
+    assertEquals(ReturnValue.ALL_NEW, posting.returnValues());
+    assertEquals(
+        SUB_LEDGER_ATTRIBUTE_PREFIX + subLedgerId,
+        posting.expressionAttributeNames().get("#available"));
+    assertEquals(
+        new BigDecimal(70),
+        new BigDecimal(posting.expressionAttributeValues().get(":newAvailable").n()));
+
+    UpdateItemRequest balance = updateItemRequests.get(1);
+    assertEquals("SET #balance = :balance", balance.updateExpression());
+    assertEquals(BALANCE_ATTRIBUTE, balance.expressionAttributeNames().get("#balance"));
+    assertEquals(
+        new BigDecimal(120),
+        new BigDecimal(balance.expressionAttributeValues().get(":balance").n()));
+  }
+}